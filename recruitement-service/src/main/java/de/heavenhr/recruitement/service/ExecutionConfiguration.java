@@ -0,0 +1,70 @@
+package de.heavenhr.recruitement.service;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.coyote.AbstractProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The class <code>ExecutionConfiguration</code> selects the {@link ExecutionMode} of the application from the
+ * <code>recruitement.execution.threads</code> property and, in {@link ExecutionMode#VIRTUAL} mode, has Tomcat
+ * serve each request on a new virtual thread instead of its bounded thread pool.
+ * <p>
+ * The blocking storage calls are made by the request threads, so they run on virtual threads too, and the
+ * event handlers running on their own thread are given a virtual thread by the event bus. The connections
+ * Tomcat accepts stay bounded by <code>server.tomcat.max-connections</code>, and the concurrent database
+ * calls by the connection pool.
+ *
+ * @author Hossam Yahya
+ */
+@Configuration
+public class ExecutionConfiguration {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * @return the execution settings bound from the <code>recruitement.execution.*</code> properties
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = ExecutionProperties.PREFIX)
+	public ExecutionProperties executionProperties() {
+		return new ExecutionProperties();
+	}
+
+	/**
+	 * @param properties the execution settings
+	 * @return the execution mode, {@link ExecutionMode#PLATFORM} when the one set is not available in this JVM
+	 */
+	@Bean
+	public ExecutionMode executionMode(ExecutionProperties properties) {
+		ExecutionMode mode = properties.getThreads();
+		if (!mode.isAvailable()) {
+			logger.warn("{} threads are not available on Java {}, using {} threads", mode, System.getProperty("java.version")
+					, ExecutionMode.PLATFORM);
+			return ExecutionMode.PLATFORM;
+		}
+		logger.info("Serving requests on {} threads", mode);
+		return mode;
+	}
+
+	/**
+	 * @param mode the execution mode
+	 * @return the customizer giving Tomcat an executor starting a virtual thread per request in
+	 * {@link ExecutionMode#VIRTUAL} mode
+	 */
+	@Bean
+	public EmbeddedServletContainerCustomizer executionModeCustomizer(ExecutionMode mode) {
+		return container -> {
+			if (mode == ExecutionMode.VIRTUAL && container instanceof TomcatEmbeddedServletContainerFactory) {
+				ThreadFactory threads = mode.threadFactory("http-virtual");
+				((TomcatEmbeddedServletContainerFactory) container).addConnectorCustomizers(connector ->
+						((AbstractProtocol<?>) connector.getProtocolHandler()).setExecutor(task -> threads.newThread(task).start()));
+			}
+		};
+	}
+}
@@ -0,0 +1,81 @@
+package de.heavenhr.recruitement.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The class <code>ExecutionMode</code> tells which kind of threads serve the requests and run the blocking
+ * work they hand off, such as the event handlers running on their own thread.
+ * <p>
+ * Virtual threads are only available from Java 21. The service is built for Java 8, so they are created
+ * through reflection and {@link #isAvailable()} tells whether the running JVM has them.
+ *
+ * @author Hossam Yahya
+ */
+public enum ExecutionMode {
+
+	/**
+	 * Requests are served by the bounded thread pool of Tomcat, blocking work runs on platform threads
+	 */
+	PLATFORM,
+
+	/**
+	 * Requests are served each on a new virtual thread, blocking work runs on virtual threads
+	 */
+	VIRTUAL;
+
+	/**
+	 * <code>Thread.ofVirtual()</code>, null when the JVM has no virtual threads
+	 */
+	private static final Method OF_VIRTUAL;
+	private static final Method BUILDER_NAME;
+	private static final Method BUILDER_FACTORY;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method factory = null;
+		try {
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builder.getMethod("name", String.class);
+			factory = builder.getMethod("factory");
+		} catch (ReflectiveOperationException e) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		BUILDER_NAME = name;
+		BUILDER_FACTORY = factory;
+	}
+
+	/**
+	 * @return whether the running JVM can create the threads of this mode
+	 */
+	public boolean isAvailable() {
+		return this == PLATFORM || OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Creates a factory of the threads of this mode, platform threads are daemon threads
+	 * @param name the name of the threads
+	 * @return the thread factory
+	 * @throws IllegalStateException when the mode is not available in the running JVM
+	 */
+	public ThreadFactory threadFactory(String name) {
+		if (this == PLATFORM) {
+			return runnable -> {
+				Thread thread = new Thread(runnable, name);
+				thread.setDaemon(true);
+				return thread;
+			};
+		}
+		if (OF_VIRTUAL == null) {
+			throw new IllegalStateException("Virtual threads need Java 21 or later, running " + System.getProperty("java.version"));
+		}
+		try {
+			return (ThreadFactory) BUILDER_FACTORY.invoke(BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name));
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create virtual threads", e);
+		}
+	}
+}
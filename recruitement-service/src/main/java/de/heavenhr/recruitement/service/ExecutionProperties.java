@@ -0,0 +1,29 @@
+package de.heavenhr.recruitement.service;
+
+/**
+ * The class <code>ExecutionProperties</code> holds the settings of the threads serving the requests, bound
+ * from the <code>recruitement.execution.*</code> properties of the application.
+ *
+ * @author Hossam Yahya
+ */
+public class ExecutionProperties {
+
+	/**
+	 * The prefix of all execution properties
+	 */
+	public static final String PREFIX = "recruitement.execution";
+
+	/**
+	 * The kind of threads serving the requests, platform threads are used instead of virtual threads when the
+	 * JVM has none
+	 */
+	private ExecutionMode threads = ExecutionMode.PLATFORM;
+
+	public ExecutionMode getThreads() {
+		return threads;
+	}
+
+	public void setThreads(ExecutionMode threads) {
+		this.threads = threads;
+	}
+}
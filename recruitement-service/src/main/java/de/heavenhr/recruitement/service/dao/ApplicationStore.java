@@ -0,0 +1,58 @@
+package de.heavenhr.recruitement.service.dao;
+
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The interface <code>ApplicationStore</code> stores {@link Application}s in append only rows addressed
+ * by dense int row ids, on behalf of the {@link DAO}.
+ * <p>
+ * Rows are appended and updated by the {@link DAO} while holding the lock of the application key in its
+ * {@link LongIntMap}, so implementations only need to make distinct rows independently writable.
+ *
+ * @author Hossam Yahya
+ */
+interface ApplicationStore {
+
+	/**
+	 * Appends an application to a new row, with its version
+	 * @param offerId the interned id of the application job title
+	 * @param candidateId the interned id of the application candidate email
+	 * @param application the application to store
+	 * @return the row id of the application
+	 */
+	int append(int offerId, int candidateId, Application application);
+
+	/**
+	 * Finds the application stored in a row
+	 * @param row the row id
+	 * @return the stored application, or a view materialized from the row
+	 */
+	Application get(int row);
+
+	/**
+	 * Finds the status of the application stored in a row
+	 * @param row the row id
+	 * @return the application status
+	 */
+	Application.Status getStatus(int row);
+
+	/**
+	 * Finds the version of the application stored in a row
+	 * @param row the row id
+	 * @return the application version
+	 */
+	long getVersion(int row);
+
+	/**
+	 * Updates the status of the application stored in a row and increments its version
+	 * @param row the row id
+	 * @param status the new status
+	 */
+	void setStatus(int row, Application.Status status);
+
+	/**
+	 * Counts all stored applications by status
+	 * @return the counts indexed by {@link Application.Status} ordinal
+	 */
+	long[] countByStatus();
+}
@@ -0,0 +1,73 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.io.ObjectStreamException;
+
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The class <code>ArenaApplication</code> is an {@link Application} whose resume text is kept encoded in a
+ * {@link Utf8Arena} and referenced by the application instead of being held as a String.
+ * <p>
+ * The resume is decoded lazily, each time {@link #getResumeText()} is called, which in practice only
+ * happens when a response actually includes it. The decoded String is not retained.
+ * <p>
+ * The arena is not serializable, so the application is serialized as a plain {@link Application} holding
+ * the decoded resume.
+ *
+ * @author Hossam Yahya
+ */
+public class ArenaApplication extends Application {
+
+	/**
+	 * Unique ID for Serialized object
+	 */
+	private static final long serialVersionUID = 2315089178063548254L;
+
+	private final transient Utf8Arena resumes;
+	private transient volatile long resumeRef;
+
+	/**
+	 * Creates an application referencing a resume already stored in the arena
+	 * @param jobTitle the job title of the offer
+	 * @param candidateEmail the candidate email
+	 * @param status the application status
+	 * @param resumes the arena keeping the resume
+	 * @param resumeRef the arena reference of the resume
+	 */
+	ArenaApplication(String jobTitle, String candidateEmail, Status status, Utf8Arena resumes, long resumeRef) {
+		super(jobTitle, candidateEmail, null, status);
+		this.resumes = resumes;
+		this.resumeRef = resumeRef;
+	}
+
+	/**
+	 * Creates a copy of an application, moving its resume into the arena
+	 * @param application the application to copy
+	 * @param resumes the arena to keep the resume in
+	 */
+	ArenaApplication(Application application, Utf8Arena resumes) {
+		this(application.getJobTitle(), application.getCandidateEmail(), application.getStatus(), resumes
+				, resumes.append(application.getResumeText()));
+		setVersion(application.getVersion());
+	}
+
+	@Override
+	public String getResumeText() {
+		return resumes.get(resumeRef);
+	}
+
+	@Override
+	public void setResumeText(String resumeText) {
+		resumeRef = resumes.append(resumeText);
+	}
+
+	/**
+	 * @return the plain application serialized instead of this one, with the resume decoded
+	 * @throws ObjectStreamException never, declared for serialization to call it
+	 */
+	private Object writeReplace() throws ObjectStreamException {
+		Application application = new Application(getJobTitle(), getCandidateEmail(), getResumeText(), getStatus());
+		application.setVersion(getVersion());
+		return application;
+	}
+}
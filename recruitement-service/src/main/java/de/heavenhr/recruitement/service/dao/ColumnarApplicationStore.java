@@ -0,0 +1,177 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The class <code>ColumnarApplicationStore</code> is the {@link ApplicationStore} keeping applications
+ * column-wise instead of as heap objects.
+ * <p>
+ * Each row is spread over a state {@link AtomicLongArray}, an offer id <code>int[]</code>, a candidate id
+ * <code>int[]</code> and a resume reference <code>long[]</code>. The state packs the status and the version
+ * in one word, so that they are read and written together: a reader never sees a new status with an old
+ * version, and the status changes made under the key lock are visible to readers that do not take it. The
+ * state is written last when a row is appended, so it also publishes the other columns of the row.
+ * <p>
+ * The job title and the candidate email are kept once, UTF-8 encoded, by the interning {@link Dictionary}s
+ * and the resumes are UTF-8 encoded in a {@link Utf8Arena}, which is usually off-heap. {@link Application} objects are only materialized as
+ * detached {@link ArenaApplication} views when a row is read, decoding the resume lazily, and aggregate
+ * scans only touch the columns they need.
+ * <p>
+ * Columns are split in fixed size chunks which are never copied once allocated, so writers on different
+ * rows never contend and a growing store never moves existing rows.
+ *
+ * @author Hossam Yahya
+ */
+class ColumnarApplicationStore implements ApplicationStore {
+
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/**
+	 * The status code of a row not written yet or of a null status, other codes are ordinal + 1
+	 */
+	private static final int NO_STATUS = 0;
+	/**
+	 * The low bits of the state holding the status code, the version is in the bits above
+	 */
+	private static final int STATUS_BITS = 8;
+	private static final int STATUS_MASK = (1 << STATUS_BITS) - 1;
+	/**
+	 * The largest version the state holds, the 56 bits above the status
+	 */
+	private static final long MAX_VERSION = -1L >>> STATUS_BITS;
+
+	private static final Application.Status[] STATUSES = Application.Status.values();
+
+	private final Dictionary offerIds;
+	private final Dictionary candidateIds;
+	private final Utf8Arena resumes;
+
+	private final AtomicInteger nextRow = new AtomicInteger();
+	private volatile Chunk[] chunks = new Chunk[] { new Chunk() };
+
+	/**
+	 * Creates a store
+	 * @param offerIds the dictionary of interned job titles
+	 * @param candidateIds the dictionary of interned candidate emails
+	 * @param resumes the arena keeping the resume texts
+	 */
+	ColumnarApplicationStore(Dictionary offerIds, Dictionary candidateIds, Utf8Arena resumes) {
+		this.offerIds = offerIds;
+		this.candidateIds = candidateIds;
+		this.resumes = resumes;
+	}
+
+	@Override
+	public int append(int offerId, int candidateId, Application application) {
+		int row = nextRow.getAndIncrement();
+		Chunk chunk = chunkFor(row);
+		int i = row & CHUNK_MASK;
+		chunk.offerIds[i] = offerId;
+		chunk.candidateIds[i] = candidateId;
+		chunk.resumeRefs[i] = resumes.append(application.getResumeText());
+		chunk.states.set(i, state(application.getStatus(), application.getVersion()));
+		return row;
+	}
+
+	@Override
+	public Application get(int row) {
+		Chunk chunk = chunks[row >>> CHUNK_BITS];
+		int i = row & CHUNK_MASK;
+		// The status and the version are read together, the state first to see the columns it publishes
+		long state = chunk.states.get(i);
+		Application application = new ArenaApplication(offerIds.get(chunk.offerIds[i]), candidateIds.get(chunk.candidateIds[i])
+				, decode(state), resumes, chunk.resumeRefs[i]);
+		application.setVersion(version(state));
+		return application;
+	}
+
+	@Override
+	public Application.Status getStatus(int row) {
+		return decode(chunks[row >>> CHUNK_BITS].states.get(row & CHUNK_MASK));
+	}
+
+	@Override
+	public long getVersion(int row) {
+		return version(chunks[row >>> CHUNK_BITS].states.get(row & CHUNK_MASK));
+	}
+
+	@Override
+	public void setStatus(int row, Application.Status status) {
+		chunks[row >>> CHUNK_BITS].states.updateAndGet(row & CHUNK_MASK, state -> state(status, version(state) + 1));
+	}
+
+	@Override
+	public long[] countByStatus() {
+		long[] counts = new long[STATUSES.length + 1];
+		int rows = nextRow.get();
+		Chunk[] currentChunks = chunks;
+		for (int c = 0; c < currentChunks.length && c << CHUNK_BITS < rows; c++) {
+			if (currentChunks[c] == null) {
+				continue;
+			}
+			// Only the state column is scanned
+			AtomicLongArray states = currentChunks[c].states;
+			int end = Math.min(CHUNK_SIZE, rows - (c << CHUNK_BITS));
+			for (int i = 0; i < end; i++) {
+				counts[(int) (states.get(i) & STATUS_MASK)]++;
+			}
+		}
+		return Arrays.copyOfRange(counts, 1, counts.length);
+	}
+
+	private static long state(Application.Status status, long version) {
+		if (version > MAX_VERSION) {
+			throw new IllegalStateException("Application version overflow: " + version);
+		}
+		return version << STATUS_BITS | (status == null ? NO_STATUS : status.ordinal() + 1);
+	}
+
+	private static Application.Status decode(long state) {
+		int status = (int) (state & STATUS_MASK);
+		return status == NO_STATUS ? null : STATUSES[status - 1];
+	}
+
+	private static long version(long state) {
+		return state >>> STATUS_BITS;
+	}
+
+	private Chunk chunkFor(int row) {
+		int chunk = row >>> CHUNK_BITS;
+		Chunk[] current = chunks;
+		if (chunk < current.length && current[chunk] != null) {
+			return current[chunk];
+		}
+
+		synchronized (this) {
+			current = chunks;
+			if (chunk >= current.length) {
+				current = Arrays.copyOf(current, Math.max(chunk + 1, current.length << 1));
+			}
+			if (current[chunk] == null) {
+				current[chunk] = new Chunk();
+			}
+			chunks = current;
+			return current[chunk];
+		}
+	}
+
+	/**
+	 * The columns of a fixed size range of rows
+	 */
+	private static class Chunk {
+		/**
+		 * The version takes the 56 high bits, so it never wraps around and stays increasing for the
+		 * compare-and-set of the status
+		 */
+		private final AtomicLongArray states = new AtomicLongArray(CHUNK_SIZE);
+		private final int[] offerIds = new int[CHUNK_SIZE];
+		private final int[] candidateIds = new int[CHUNK_SIZE];
+		private final long[] resumeRefs = new long[CHUNK_SIZE];
+	}
+}
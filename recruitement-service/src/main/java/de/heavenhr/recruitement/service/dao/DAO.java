@@ -1,8 +1,22 @@
 package de.heavenhr.recruitement.service.dao;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,44 +24,286 @@ import org.springframework.util.StringUtils;
 
 import de.heavenhr.recruitement.service.exception.DataException;
 import de.heavenhr.recruitement.service.exception.NoDataFoundException;
+import de.heavenhr.recruitement.service.exception.VersionMismatchException;
 import de.heavenhr.recruitement.service.model.Application;
 import de.heavenhr.recruitement.service.model.Offer;
 
 /**
- * The class <code>DAO</code> contains logic to manage model persistence functionality.
+ * The class <code>DAO</code> contains logic to manage model persistence functionality. It is the in-memory
+ * {@link StorageEngine}.
+ * <p>
+ * The class is safe for concurrent use by request threads: offers are kept in a {@link ConcurrentSkipListMap}
+ * ordered by job title, which also serves the keyset pagination of offers,
+ * applications in a segmented {@link LongIntMap}, creation is done with atomic create-if-absent operations
+ * and the per offer application counter is a contention free {@link java.util.concurrent.atomic.LongAdder},
+ * like its {@link StatusCounters} by status, which are updated under the lock of the application key.
+ * The resumes are indexed by an {@link InvertedIndex} as applications are created, and the job titles by a
+ * {@link TitleTrie} as offers are.
+ * <p>
+ * Job titles and candidate emails are interned into int ids by a {@link Dictionary} and an application is
+ * keyed by the pair of ids packed into a long, so looking an application up does not allocate. Depending
+ * on the {@link StorageProperties.Mode} applications are kept as heap objects or column-wise.
+ * <p>
+ * When a journal directory is configured every mutation is also appended to a {@link Journal}, under the
+ * same lock that orders the mutation in memory. {@link #snapshot()} writes the state to a {@link Snapshot}
+ * next to the journal without stopping writers, and a created DAO loads the latest snapshot then only
+ * replays the journal records after it.
  *
  * @author Hossam Yahya
  */
-public class DAO {
+public class DAO implements StorageEngine {
 	protected Logger logger = LoggerFactory.getLogger(getClass());
 
+	/**
+	 * The key of an application whose job title or candidate email was never interned
+	 */
+	private static final long NO_KEY = 0;
+	/**
+	 * The row of an application not inserted by a batch, rows are never negative
+	 */
+	private static final int NO_ROW = -1;
+	/**
+	 * The capacity of the resume arena chunks, large as direct buffers are costly to allocate
+	 */
+	private static final int RESUME_CHUNK_SIZE = 1 << 20;
+
 	/**
 	 * The collection of all offers in the system. TODO should be changed to a database table
 	 */
-	private static HashMap<String,Offer> allOffers  = new HashMap<String,Offer>();
+	private final ConcurrentNavigableMap<String,Offer> allOffers  = new ConcurrentSkipListMap<String,Offer>();
+	/**
+	 * The ids of all offer job titles, interned when the offer is created
+	 */
+	private final Dictionary offerIds = new Dictionary();
+	/**
+	 * The ids of all candidate emails, interned when the application is created
+	 */
+	private final Dictionary candidateIds = new Dictionary();
 	/**
 	 * The collection of all applications in the system. TODO should be changed to a database table
 	 */
-	private static HashMap<String,Application> allApplications  = new HashMap<String,Application>();
+	private final ApplicationStore allApplications;
+	/**
+	 * Maps the packed (offer id, candidate id) key of an application to its row in the applications table
+	 */
+	private final LongIntMap applicationRows = new LongIntMap();
+	/**
+	 * The secondary index from offer job title to the offer applications
+	 */
+	private final OfferApplicationsIndex offerApplications = new OfferApplicationsIndex();
+	/**
+	 * The full-text index of the application resumes, keyed by row and grouped by offer id
+	 */
+	private final InvertedIndex resumeIndex = new InvertedIndex();
+	/**
+	 * The prefix index of the offer job titles
+	 */
+	private final TitleTrie offerTitles = new TitleTrie();
+	/**
+	 * The count of the applications of each offer by status
+	 */
+	private final StatusCounters funnels = new StatusCounters();
+	/**
+	 * The storage settings
+	 */
+	private final StorageProperties properties;
+	/**
+	 * The write-ahead log of all mutations, null when journaling is disabled
+	 */
+	private final Journal journal;
+	/**
+	 * Orders the offer creations in the journal, a lock rather than a monitor as appending can wait, so that
+	 * a request on a virtual thread releases its carrier thread meanwhile
+	 */
+	private final ReentrantLock offerLock = new ReentrantLock();
+	/**
+	 * Allows one snapshot at a time
+	 */
+	private final ReentrantLock snapshotLock = new ReentrantLock();
+	/**
+	 * The number of applications of each offer when it was created, the counter is rebuilt from it when a
+	 * snapshot is loaded
+	 */
+	private final ConcurrentMap<String,Long> initialApplicationCounts = new ConcurrentHashMap<String,Long>();
+	/**
+	 * Closes the journal when the JVM exits, null when journaling is disabled
+	 */
+	private final Thread shutdownHook;
 	/**
-	 * The local instance used in the singleton
+	 * Writes the periodic snapshots, null when they are disabled
 	 */
-	private static DAO instance;
+	private final ScheduledExecutorService snapshots;
+	/**
+	 * The version of all offers and applications, incremented after each change is applied. It is not
+	 * journaled, like the versions of the offers and applications it restarts when the DAO is created.
+	 */
+	private final AtomicLong version = new AtomicLong();
+	/**
+	 * The version of the offers, incremented after an offer is created or its number of applications changes
+	 */
+	private final AtomicLong offersVersion = new AtomicLong();
 	
 	private DAO(){
+		this(StorageProperties.fromSystemProperties());
+	}
+	
+	/**
+	 * Creates a DAO with its own storage, replaying the journal first when a journal directory is configured
+	 * @param properties the storage properties
+	 */
+	public DAO(StorageProperties properties){
+		logger.info("DAO created: {}", properties);
+		this.properties = properties;
 		
+		Utf8Arena resumes = newResumeArena(properties);
+		if (properties.getMode() == StorageProperties.Mode.COLUMNAR) {
+			allApplications = new ColumnarApplicationStore(offerIds, candidateIds, resumes);
+		} else {
+			allApplications = new HeapApplicationStore(resumes);
+		}
+		
+		if (properties.getJournalDir() != null) {
+			JournalReplay replay = new JournalReplay();
+			long snapshotLsn = Snapshot.load(properties.getJournalDir(), replay);
+			journal = Journal.open(properties.getJournalDir(), properties.getJournalDurability()
+					, properties.getJournalIntervalMillis(), snapshotLsn, replay);
+			shutdownHook = new Thread(this::close, "journal-shutdown");
+			Runtime.getRuntime().addShutdownHook(shutdownHook);
+			
+			logger.info("DAO journal replayed after snapshot {}: {}, offers#: {}, applications#: {}"
+					, snapshotLsn, journal, allOffers.size(), applicationRows.size());
+		} else {
+			journal = null;
+			shutdownHook = null;
+		}
+		
+		if (journal != null && properties.getSnapshotIntervalMillis() > 0) {
+			snapshots = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "dao-snapshot");
+				thread.setDaemon(true);
+				return thread;
+			});
+			snapshots.scheduleWithFixedDelay(() -> {
+				try {
+					snapshot();
+				} catch (RuntimeException e) {
+					logger.error("snapshot() failed", e);
+				}
+			}, properties.getSnapshotIntervalMillis(), properties.getSnapshotIntervalMillis(), TimeUnit.MILLISECONDS);
+		} else {
+			snapshots = null;
+		}
 	}
 	
 	/**
-	 * Create the singleton object if not already created
+	 * Creates the arena keeping the resume texts, which are by far the largest part of applications and are
+	 * rarely read, so they are kept off-heap unless configured otherwise
+	 * @param properties the storage properties
+	 * @return the created arena
+	 */
+	private static Utf8Arena newResumeArena(StorageProperties properties) {
+		switch (properties.getResumeArena()) {
+		case HEAP:
+			return new Utf8Arena(RESUME_CHUNK_SIZE, ByteBuffer::allocate);
+		case MAPPED:
+			return new Utf8Arena(RESUME_CHUNK_SIZE, new MappedChunkAllocator(properties.getResumeArenaDir(), "resumes"));
+		default:
+			return new Utf8Arena(RESUME_CHUNK_SIZE, ByteBuffer::allocateDirect);
+		}
+	}
+	
+	/**
+	 * Holds the singleton instance, the JVM class initialization guarantees it is created exactly once
+	 * and safely published to all threads without any locking on the access path.
+	 */
+	private static class InstanceHolder {
+		private static final DAO INSTANCE = new DAO();
+	}
+	
+	/**
+	 * Returns the singleton object, creating it on first use. Within the application the {@link StorageEngine}
+	 * bean is injected instead.
 	 * @return the created object
 	 */
 	public static DAO newInstance(){
-		if(instance == null){
-			instance = new DAO();
-		}
+		return InstanceHolder.INSTANCE;
+	}
+	
+	/**
+	 * Writes a point-in-time snapshot of all offers and applications next to the journal, then deletes the
+	 * journal segments it covers. Writers are not stopped: the snapshot covers every mutation journaled
+	 * before it started and may contain later ones too, which is harmless as replaying them is idempotent.
+	 * @return the log sequence number of the last journal record covered by the snapshot
+	 * @throws DataException when journaling is disabled or the snapshot cannot be written
+	 */
+	public long snapshot() throws DataException {
+		snapshotLock.lock();
+		try {
+			logger.debug("snapshot() called");
+		
+			if (journal == null) {
+				throw new DataException("Snapshots need a journal directory");
+			}
 		
-		return instance;
+			// Every mutation is journaled under the lock that applies it, so once each of these locks has been
+			// released after reading the LSN, all mutations up to that LSN are applied
+			long lsn = journal.getLastLsn();
+			offerLock.lock();
+			try {
+				journal.roll();
+			} finally {
+				offerLock.unlock();
+			}
+			applicationRows.barrier();
+		
+			long start = System.nanoTime();
+			long[] applications = new long[1];
+			int[] offerPositions = new int[offerIds.size() + 1];
+			try (Snapshot.Output out = Snapshot.create(properties.getJournalDir(), lsn)) {
+				for (Offer offer : allOffers.values()) {
+					int offerId = offerIds.lookup(offer.getJobTitle());
+					Long initialApplications = initialApplicationCounts.get(offer.getJobTitle());
+					// Offers created after the ids were sized are after the LSN and replayed from the journal
+					if (offerId < offerPositions.length && initialApplications != null) {
+						offerPositions[offerId] = out.writeOffer(offer, initialApplications) + 1;
+					}
+				}
+				applicationRows.forEach((key, row) -> {
+					int offerId = (int) (key >>> 32);
+					if (offerId < offerPositions.length && offerPositions[offerId] != 0) {
+						out.writeApplication(offerPositions[offerId] - 1, allApplications.get(row));
+						applications[0]++;
+					}
+				});
+				out.commit();
+			}
+			journal.deleteSegmentsUpTo(lsn);
+		
+			logger.info("snapshot() written at {}, applications#: {} in {} ms"
+					, lsn, applications[0], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		
+			return lsn;
+		} finally {
+			snapshotLock.unlock();
+		}
+	}
+	
+	/**
+	 * Stops the periodic snapshots and closes the journal, forcing all the journaled mutations to disk
+	 */
+	@Override
+	public void close() {
+		if (snapshots != null) {
+			snapshots.shutdownNow();
+		}
+		if (journal != null) {
+			journal.close();
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				// Already closing from the shutdown hook
+			}
+		}
 	}
 	
 	/**
@@ -55,6 +311,7 @@ public class DAO {
 	 * @return list of all offers in the system
 	 * @throws NoDataFoundException
 	 */
+	@Override
 	public Collection<Offer> getAllOffers() throws NoDataFoundException {
 		logger.debug("getAllOffers() is called");
 		
@@ -67,23 +324,47 @@ public class DAO {
 		return allOffers.values();
 	}
 	
+	@Override
+	public Page<Offer> getOffers(String after, int limit) throws DataException, NoDataFoundException {
+		logger.debug("getOffers() is called: {}, {}", after, limit);
+		
+		Page.validateLimit(limit);
+		String afterJobTitle = Page.decodeCursor(after);
+		if (allOffers.isEmpty()) {
+			logger.error("getOffers() failed, no data found");
+
+			throw new NoDataFoundException("No offers found");
+		}
+		
+		// The page is read straight from the ordered map, starting after the cursor job title
+		Iterator<Offer> offers = (afterJobTitle == null ? allOffers : allOffers.tailMap(afterJobTitle, false)).values().iterator();
+		List<Offer> items = new ArrayList<Offer>(Math.min(limit, 64));
+		while (items.size() < limit && offers.hasNext()) {
+			items.add(offers.next());
+		}
+		String next = offers.hasNext() ? Page.encodeCursor(items.get(items.size() - 1).getJobTitle()) : null;
+		
+		return new Page<Offer>(items, next);
+	}
+	
 	/**
 	 * Finds an {@link Offer} by job title
 	 * @param jobTitle the unique key to identify the {@link Offer}
 	 * @return the found {@link Offer}
 	 * @throws NoDataFoundException
 	 */
+	@Override
 	public Offer findOfferByJobTitle(String jobTitle) throws NoDataFoundException {
-		logger.debug("findOfferByJobTitle() is called: " + jobTitle);
+		logger.debug("findOfferByJobTitle() is called: {}", jobTitle);
 
 		Offer offer = allOffers.get(jobTitle);
 		if(offer == null){
-			logger.error("findOfferByJobTitle() no offer found: " + jobTitle);
+			logger.error("findOfferByJobTitle() no offer found: {}", jobTitle);
 
 			throw new NoDataFoundException("No offer found for job title: " + jobTitle);
 		}
 		
-		logger.debug("findOfferByJobTitle() found offer: " + offer);
+		logger.debug("findOfferByJobTitle() found offer: {}", offer);
 
 		return offer;
 	}
@@ -93,22 +374,154 @@ public class DAO {
 	 * @param application the {@link Application} to be updated
 	 * @throws NoDataFoundException
 	 */
+	@Override
 	public void updateApplicationStatus(Application application) throws NoDataFoundException {
-		logger.debug("updateApplicationStatus() is called: " + application);
+		logger.debug("updateApplicationStatus() is called: {}", application);
 
-		Application applicationOld = allApplications.get(application.getJobTitle() + "_" + application.getCandidateEmail());
+		// Only the status is required to be changed, it is applied in place on the stored row, under the
+		// lock of the application key, so that concurrent updates never replace the stored application
+		// with a partially filled one. The offer applications index references the same row and so stays
+		// consistent.
+		if (!setApplicationStatus(application.getJobTitle(), application.getCandidateEmail(), application.getStatus(), false)) {
+			logger.error("updateApplicationStatus() no application found: {}", application);
+
+			throw new NoDataFoundException("Application doesnot exist!");
+		}
+		version.incrementAndGet();
+		
+		logger.debug("updateApplicationStatus() application status changed: {}", application);
+	}
+	
+	@Override
+	public StatusUpdate compareAndSetApplicationStatus(Application application, long expectedVersion)
+			throws NoDataFoundException, VersionMismatchException {
+		logger.debug("compareAndSetApplicationStatus() is called: {}, {}", application, expectedVersion);
 		
-		if (applicationOld == null) {
-			logger.error("updateApplicationStatus() no application found: " + application);
+		// The version is checked, and the status changed, under the lock of the application key only
+		long key = findApplicationKey(application.getJobTitle(), application.getCandidateEmail());
+		StatusUpdate[] update = new StatusUpdate[1];
+		long[] currentVersion = new long[1];
+		long[] lsn = new long[1];
+		if (key == NO_KEY || !applicationRows.update(key, row -> {
+			currentVersion[0] = allApplications.getVersion(row);
+			if (expectedVersion == ANY_VERSION || currentVersion[0] == expectedVersion) {
+				update[0] = setStatus(row, application.getJobTitle(), application.getCandidateEmail(), application.getStatus(), lsn);
+				currentVersion[0]++;
+			}
+		})) {
+			logger.error("compareAndSetApplicationStatus() no application found: {}", application);
 
 			throw new NoDataFoundException("Application doesnot exist!");
 		}
+		if (update[0] == null) {
+			logger.error("compareAndSetApplicationStatus() failed application at version {}: {}", currentVersion[0], application);
+			
+			throw new VersionMismatchException("Application was changed!", currentVersion[0]);
+		}
+		
+		if (journal != null) {
+			journal.sync(lsn[0]);
+		}
+		version.incrementAndGet();
+		application.setVersion(currentVersion[0]);
+		
+		logger.debug("compareAndSetApplicationStatus() application status changed: {}", update[0]);
+		
+		return update[0];
+	}
+	
+	@Override
+	public List<StatusUpdate> updateApplicationStatuses(List<Application> applications) {
+		logger.debug("updateApplicationStatuses() called: {}", applications.size());
+		
+		int size = applications.size();
+		int[] indexes = new int[size];
+		long[] keys = new long[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			Application application = applications.get(i);
+			long key = findApplicationKey(application.getJobTitle(), application.getCandidateEmail());
+			if (key != NO_KEY) {
+				indexes[count] = i;
+				keys[count++] = key;
+			}
+		}
+		
+		StatusUpdate[] updates = new StatusUpdate[size];
+		long[] lsn = new long[1];
+		applicationRows.updateAll(keys, count, (index, row) -> {
+			Application application = applications.get(indexes[index]);
+			updates[indexes[index]] = setStatus(row, application.getJobTitle(), application.getCandidateEmail(), application.getStatus(), lsn);
+		});
+		
+		if (journal != null && count > 0) {
+			journal.sync(lsn[0]);
+		}
+		if (count > 0) {
+			version.incrementAndGet();
+		}
+		return Arrays.asList(updates);
+	}
+	
+	@Override
+	public List<StatusUpdate> updateOfferApplicationStatuses(String jobTitle, Application.Status oldStatus, Application.Status newStatus)
+			throws NoDataFoundException {
+		logger.debug("updateOfferApplicationStatuses() called: {}, {}, {}", jobTitle, oldStatus, newStatus);
 		
-		// Only the status is required to be changed.
-		applicationOld.setStatus(application.getStatus());
-		allApplications.put(application.getJobTitle() + "_" + application.getCandidateEmail(), application);
+		if (jobTitle == null || !allOffers.containsKey(jobTitle)) {
+			logger.error("updateOfferApplicationStatuses() failed offer does not exist: {}", jobTitle);
+			
+			throw new NoDataFoundException("Offer not found!");
+		}
+		
+		// The index matches job titles ignoring case, only the applications of this very offer are updated
+		int offerId = offerIds.lookup(jobTitle);
+		int[] rows = offerApplications.getRows(jobTitle);
+		String[] candidateEmails = new String[rows.length];
+		long[] keys = new long[rows.length];
+		int count = 0;
+		for (int row : rows) {
+			Application application = allApplications.get(row);
+			if (jobTitle.equals(application.getJobTitle())) {
+				candidateEmails[count] = application.getCandidateEmail();
+				keys[count++] = LongIntMap.pack(offerId, candidateIds.lookup(application.getCandidateEmail()));
+			}
+		}
 		
-		logger.debug("updateApplicationStatus() application status changed: " + application);
+		// The old status is checked again under the lock, it may have changed since the rows were read
+		List<StatusUpdate> updates = new ArrayList<StatusUpdate>();
+		long[] lsn = new long[1];
+		applicationRows.updateAll(keys, count, (index, row) -> {
+			if (oldStatus == null || allApplications.getStatus(row) == oldStatus) {
+				updates.add(setStatus(row, jobTitle, candidateEmails[index], newStatus, lsn));
+			}
+		});
+		
+		if (journal != null && !updates.isEmpty()) {
+			journal.sync(lsn[0]);
+		}
+		if (!updates.isEmpty()) {
+			version.incrementAndGet();
+		}
+		
+		logger.debug("updateOfferApplicationStatuses() applications#: {}", updates.size());
+		
+		return updates;
+	}
+	
+	/**
+	 * Changes the status of an application row, the caller holding the lock of the application key
+	 * @param lsn receives the log sequence number of the journaled change, the largest of the caller so far
+	 * @return the applied change
+	 */
+	private StatusUpdate setStatus(int row, String jobTitle, String candidateEmail, Application.Status status, long[] lsn) {
+		Application.Status oldStatus = allApplications.getStatus(row);
+		if (journal != null) {
+			lsn[0] = journal.append(Journal.encodeStatusUpdated(jobTitle, candidateEmail, status));
+		}
+		allApplications.setStatus(row, status);
+		funnels.move(jobTitle, oldStatus, status);
+		return new StatusUpdate(jobTitle, candidateEmail, oldStatus, status);
 	}
 	
 	/**
@@ -117,46 +530,114 @@ public class DAO {
 	 * @throws DataException when invalid data provided or application already exist
 	 * @throws NoDataFoundException when the related offer does not exist
 	 */
+	@Override
 	public void createApplication(Application application) throws DataException, NoDataFoundException{
-		logger.debug("createApplication() called: " + application);
+		logger.debug("createApplication() called: {}", application);
 		
-		// Validate job title
-		if (StringUtils.isEmpty(application.getJobTitle())) {
-			logger.error("createApplication() failed, empty job title");
-
-			throw new DataException("Job Title is mandatory");
-		}
+		Offer offer = validateApplication(application);
 		
-		// Validate candidate email
-		if (StringUtils.isEmpty(application.getCandidateEmail())) {
-			logger.error("createApplication() failed empty candidate email");
+		if (!addApplication(offer, application, false)) {
+			logger.error("createApplication() failed application already exist: {}, {}"
+					, application.getJobTitle(), application.getCandidateEmail());
 
-			throw new DataException("Candidate Email is mandatory");
+			throw new DataException("Application already exist!");
 		}
+		offersVersion.incrementAndGet();
+		version.incrementAndGet();
 		
-		// Validate that offer exists
-		if (allOffers.get(application.getJobTitle()) == null) {
-			logger.error("createApplication() failed offer does not exist: " + application.getJobTitle());
-
-			throw new NoDataFoundException("Offer not found!");
-		}
+		logger.debug("createApplication() application created: {}", application);
+	}
+	
+	/**
+	 * Creates a batch of {@link Application}, each one independently of the others. The valid applications
+	 * are inserted in one critical section of the applications table and journaled with one sync, instead
+	 * of one of each per application. When one cannot be journaled, the applications inserted before it are
+	 * kept and the following ones are not created, getting the journal failure.
+	 * @param applications the applications to be created
+	 * @return for each application, in order, null when it was created or the exception telling why it was not
+	 */
+	@Override
+	public List<Exception> createApplications(List<Application> applications) {
+		logger.debug("createApplications() called: {}", applications.size());
 		
-		//Validate that application does not exists already
-		if (allApplications.containsKey(application.getJobTitle() + "_" + application.getCandidateEmail())) {
-			logger.error("createApplication() failed application already exist: " + application.getJobTitle() + "_" + application.getCandidateEmail());
-
-			throw new DataException("Application already exist!");
+		int size = applications.size();
+		Exception[] results = new Exception[size];
+		Offer[] offers = new Offer[size];
+		int[] indexes = new int[size];
+		long[] keys = new long[size];
+		byte[][] records = journal == null ? null : new byte[size][];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			Application application = applications.get(i);
+			try {
+				offers[i] = validateApplication(application);
+			} catch (DataException | NoDataFoundException e) {
+				results[i] = e;
+				continue;
+			}
+			indexes[count] = i;
+			keys[count] = LongIntMap.pack(offerIds.lookup(application.getJobTitle()), candidateIds.intern(application.getCandidateEmail()));
+			if (records != null) {
+				records[count] = Journal.encodeApplicationCreated(application);
+			}
+			count++;
 		}
 		
-		// Create the application (add it to the static map of applications)
-		allApplications.put(application.getJobTitle() + "_" + application.getCandidateEmail(), application);
+		// The row of each inserted application, kept as it is inserted, so that the rows inserted before a
+		// failure to journal one are indexed and counted like the others
+		int[] rows = new int[count];
+		Arrays.fill(rows, NO_ROW);
+		// The log sequence number of the last, and largest, record journaled by the batch
+		long[] lsn = new long[1];
+		RuntimeException failure = null;
+		try {
+			applicationRows.putAllIfAbsent(keys, count, index -> {
+				if (records != null) {
+					lsn[0] = journal.append(records[index]);
+				}
+				long key = keys[index];
+				Application application = applications.get(indexes[index]);
+				application.setVersion(1);
+				int row = offerApplications.add(application.getJobTitle(), () -> allApplications.append((int) (key >>> 32), (int) key, application));
+				funnels.add(application.getJobTitle(), application.getStatus(), 1);
+				rows[index] = row;
+				return row;
+			});
+		} catch (RuntimeException e) {
+			logger.error("createApplications() failed to journal the applications, the remaining ones are not created", e);
+			
+			failure = e;
+		}
 		
-		// Increment number of applications for the related offer
-		Offer offer = allOffers.get(application.getJobTitle());
-		offer.setNumberOfApplications(offer.getNumberOfApplications()+1);
-		allOffers.put(offer.getJobTitle(), offer);
+		int created = 0;
+		for (int i = 0; i < count; i++) {
+			Application application = applications.get(indexes[i]);
+			if (rows[i] == NO_ROW) {
+				if (failure != null) {
+					// Not inserted, whether it already existed or was not reached
+					results[indexes[i]] = failure;
+					continue;
+				}
+				logger.error("createApplications() failed application already exist: {}, {}"
+						, application.getJobTitle(), application.getCandidateEmail());
+				
+				results[indexes[i]] = new DataException("Application already exist!");
+				continue;
+			}
+			resumeIndex.add(rows[i], (int) (keys[i] >>> 32), application.getResumeText());
+			offers[indexes[i]].incrementNumberOfApplications();
+			offers[indexes[i]].incrementVersion();
+			created++;
+		}
 		
-		logger.debug("createApplication() application created: " + application);
+		if (records != null && count > 0) {
+			journal.sync(lsn[0]);
+		}
+		if (created > 0) {
+			offersVersion.incrementAndGet();
+			version.incrementAndGet();
+		}
+		return Arrays.asList(results);
 	}
 	
 	/**
@@ -164,8 +645,9 @@ public class DAO {
 	 * @param offer the {@link Offer} to be created
 	 * @throws DataException
 	 */
+	@Override
 	public void createOffer(Offer offer) throws DataException{
-		logger.debug("createOffer() called: " + offer);
+		logger.debug("createOffer() called: {}", offer);
 		
 		// Validate job title
 		if (StringUtils.isEmpty(offer.getJobTitle())) {
@@ -174,16 +656,15 @@ public class DAO {
 			throw new DataException("Job Title is mandatory");
 		}
 		
-		// Validate that offer does not exists already
-		if (allOffers.get(offer.getJobTitle()) != null) {
-			logger.error("createOffer() failed, offer already exist: " + offer.getJobTitle());
+		if (!addOffer(offer, false)) {
+			logger.error("createOffer() failed, offer already exist: {}", offer.getJobTitle());
 			
 			throw new DataException("Offer already exist!");
 		}
+		offersVersion.incrementAndGet();
+		version.incrementAndGet();
 		
-		allOffers.put(offer.getJobTitle(), offer);
-		
-		logger.debug("createOffer() offer created: " + offer);
+		logger.debug("createOffer() offer created: {}", offer);
 	}
 	
 	/**
@@ -192,51 +673,76 @@ public class DAO {
 	 * @return collection of all applications under a specific offer
 	 * @throws NoDataFoundException
 	 */
+	@Override
 	public ArrayList<Application> getOfferApplications(String jobTitle) throws NoDataFoundException{
-		logger.debug("getOfferApplications() called: " + jobTitle);
-		ArrayList<Application> applications = new ArrayList<Application>();
+		logger.debug("getOfferApplications() called: {}", jobTitle);
 		
 		// Find applications by jobTitle
-		for(Application application :allApplications.values()){
-			if(jobTitle.equalsIgnoreCase(application.getJobTitle()))
-					applications.add(application);
+		int[] rows = offerApplications.getRows(jobTitle);
+		ArrayList<Application> applications = new ArrayList<Application>(rows.length);
+		for (int row : rows) {
+			applications.add(allApplications.get(row));
 		}
 		
 		if (applications.size() == 0) {
-			logger.error("getOfferApplications() failed, no applications found for offer: " +jobTitle); 
+			logger.error("getOfferApplications() failed, no applications found for offer: {}", jobTitle); 
 			
 			throw new NoDataFoundException("No data found!");
 		}
 		
-		logger.debug("getOfferApplications() found applications: " + applications);
+		logger.debug("getOfferApplications() found applications: {}", applications);
 
 		return applications;
 	}
 	
+	@Override
+	public Page<Application> getOfferApplications(String jobTitle, String after, int limit) throws DataException, NoDataFoundException {
+		logger.debug("getOfferApplications() called: {}, {}, {}", jobTitle, after, limit);
+		
+		Page.validateLimit(limit);
+		long afterRow = Page.decodeCursor(after, -1);
+		if (afterRow < -1 || afterRow > Integer.MAX_VALUE) {
+			throw new DataException("Invalid cursor: " + after);
+		}
+		
+		// One more row than the limit is read to know whether there is a next page
+		int[] rows = offerApplications.getRows(jobTitle, (int) afterRow, limit + 1);
+		if (rows.length == 0 && afterRow == -1) {
+			logger.error("getOfferApplications() failed, no applications found for offer: {}", jobTitle); 
+			
+			throw new NoDataFoundException("No data found!");
+		}
+		
+		int size = Math.min(limit, rows.length);
+		List<Application> items = new ArrayList<Application>(size);
+		for (int i = 0; i < size; i++) {
+			items.add(allApplications.get(rows[i]));
+		}
+		String next = rows.length > limit ? Page.encodeCursor(String.valueOf(rows[limit - 1])) : null;
+		
+		return new Page<Application>(items, next);
+	}
+	
 	/**
 	 * Finds the count of all {@link Application} for a specific {@link Offer}
 	 * @param jobTitle the unique key to identify the {@link Offer}
 	 * @return the count of all applications under a specific offer
 	 * @throws NoDataFoundException
 	 */
+	@Override
 	public long getOfferApplicationsCount(String jobTitle) throws NoDataFoundException{
-		logger.debug("getOfferApplicationsCount() called: " + jobTitle);
+		logger.debug("getOfferApplicationsCount() called: {}", jobTitle);
 
-		long count = 0;
-		
-		// Find applications by jobTitle
-		for(Application application :allApplications.values()){
-			if(jobTitle.equalsIgnoreCase(application.getJobTitle()))
-					count++;
-		}
+		// Find applications count by jobTitle
+		long count = offerApplications.getCount(jobTitle);
 		
 		if (count == 0) {
-			logger.error("getOfferApplicationsCount() failed, no applications found for offer: " +jobTitle); 
+			logger.error("getOfferApplicationsCount() failed, no applications found for offer: {}", jobTitle); 
 
 			throw new NoDataFoundException("No data found!");
 		}
 		
-		logger.debug("getOfferApplications() found applications#: " + count);
+		logger.debug("getOfferApplications() found applications#: {}", count);
 
 		return count;
 	}
@@ -248,41 +754,323 @@ public class DAO {
 	 * @return the found {@link Application}
 	 * @throws NoDataFoundException
 	 */
+	@Override
 	public Application getOfferApplication(String jobTitle, String candidateEmail) throws NoDataFoundException{
-		logger.debug("getOfferApplication() called: " + jobTitle + ", " + candidateEmail);
+		logger.debug("getOfferApplication() called: {}, {}", jobTitle, candidateEmail);
 		
-		Application application = allApplications.get(jobTitle + "_" + candidateEmail);
+		long key = findApplicationKey(jobTitle, candidateEmail);
+		int row = key == NO_KEY ? LongIntMap.NO_VALUE : applicationRows.get(key);
 		
-		if (application == null) {
-			logger.error("getOfferApplication() failed, no application found for: " + jobTitle + "_" + candidateEmail); 
+		if (row == LongIntMap.NO_VALUE) {
+			logger.error("getOfferApplication() failed, no application found for: {}, {}", jobTitle, candidateEmail); 
 
 			throw new NoDataFoundException("Application doesnot exist!");
 		}
+		Application application = allApplications.get(row);
 		
-		logger.debug("getOfferApplication() found application: " + application);
+		logger.debug("getOfferApplication() found application: {}", application);
 
 		return application;
 	}
 
+	@Override
+	public List<String> suggestJobTitles(String prefix, int maxEdits, int limit) throws DataException {
+		logger.debug("suggestJobTitles() called: {}, {}, {}", prefix, maxEdits, limit);
+		
+		Page.validateLimit(limit);
+		if (prefix == null) {
+			throw new DataException("Prefix is missing");
+		}
+		if (maxEdits < 0 || maxEdits > TitleTrie.MAX_EDITS) {
+			throw new DataException("Edits must be between 0 and " + TitleTrie.MAX_EDITS);
+		}
+		return offerTitles.find(prefix, maxEdits, limit);
+	}
+
+	@Override
+	public List<SearchHit> searchApplications(String query, String jobTitle, int limit) throws DataException, NoDataFoundException {
+		logger.debug("searchApplications() called: {}, {}, {}", query, jobTitle, limit);
+		
+		Page.validateLimit(limit);
+		if (query == null || InvertedIndex.tokenize(query).isEmpty()) {
+			throw new DataException("Query has no keyword");
+		}
+		int offerId = InvertedIndex.ALL_GROUPS;
+		if (jobTitle != null) {
+			if (!allOffers.containsKey(jobTitle)) {
+				logger.error("searchApplications() failed offer does not exist: {}", jobTitle);
+				
+				throw new NoDataFoundException("Offer not found!");
+			}
+			offerId = offerIds.lookup(jobTitle);
+		}
+		
+		List<InvertedIndex.Hit> hits = resumeIndex.search(query, offerId, limit);
+		List<SearchHit> applications = new ArrayList<SearchHit>(hits.size());
+		for (InvertedIndex.Hit hit : hits) {
+			applications.add(new SearchHit(allApplications.get((int) hit.key), hit.score));
+		}
+		return applications;
+	}
+	
+	@Override
+	public Map<Application.Status, Long> getOfferApplicationCountByStatus(String jobTitle) throws NoDataFoundException {
+		logger.debug("getOfferApplicationCountByStatus() called: {}", jobTitle);
+		
+		Map<Application.Status, Long> countByStatus = jobTitle == null ? null : funnels.get(jobTitle);
+		if (countByStatus == null) {
+			logger.error("getOfferApplicationCountByStatus() failed offer does not exist: {}", jobTitle);
+			
+			throw new NoDataFoundException("Offer not found!");
+		}
+		return countByStatus;
+	}
+	
+	@Override
+	public Map<String, Map<Application.Status, Long>> getOfferApplicationCountsByStatus() {
+		logger.debug("getOfferApplicationCountsByStatus() called");
+		
+		return funnels.getAll();
+	}
+	
 	/**
 	 * Finds the count of all {@link Application} in the system
 	 * @return the count of all applications  in the system
 	 * @throws NoDataFoundException
 	 */
+	@Override
 	public long getApplicationCount() throws NoDataFoundException {
 		logger.debug("getApplicationCount() called");
 
 		// TODO Should be changed to return long as count of all applications from Application database table
 		// when migrating to database persistence.
-		if (allApplications.size() == 0) {
+		long count = applicationRows.size();
+		if (count == 0) {
 			logger.error("getOfferApplicationsCount() failed, no applications found"); 
 
 			throw new NoDataFoundException("No applications found!");
 		}
-		long count = allApplications.size();
 		
-		logger.debug("getApplicationCount() found applications#: " + count);
+		logger.debug("getApplicationCount() found applications#: {}", count);
 
 		return count;
 	}
+
+	/**
+	 * Finds the count of all {@link Application} in the system by status. Only the statuses are scanned,
+	 * which in the columnar storage mode means only the status column.
+	 * @return the count of all applications in the system for each status
+	 */
+	@Override
+	public Map<Application.Status, Long> getApplicationCountByStatus() {
+		logger.debug("getApplicationCountByStatus() called");
+
+		long[] counts = allApplications.countByStatus();
+		Map<Application.Status, Long> countByStatus = new EnumMap<Application.Status, Long>(Application.Status.class);
+		for (Application.Status status : Application.Status.values()) {
+			countByStatus.put(status, counts[status.ordinal()]);
+		}
+		
+		logger.debug("getApplicationCountByStatus() found applications#: {}", countByStatus);
+
+		return countByStatus;
+	}
+
+	@Override
+	public long getVersion() {
+		return version.get();
+	}
+
+	@Override
+	public long getOffersVersion() {
+		return offersVersion.get();
+	}
+
+	/**
+	 * Validates an {@link Application} to be created
+	 * @param application the {@link Application} to be created
+	 * @return the {@link Offer} of the application
+	 * @throws DataException when the job title or the candidate email is missing
+	 * @throws NoDataFoundException when the related offer does not exist
+	 */
+	private Offer validateApplication(Application application) throws DataException, NoDataFoundException {
+		// Validate job title
+		if (StringUtils.isEmpty(application.getJobTitle())) {
+			logger.error("createApplication() failed, empty job title");
+
+			throw new DataException("Job Title is mandatory");
+		}
+		
+		// Validate candidate email
+		if (StringUtils.isEmpty(application.getCandidateEmail())) {
+			logger.error("createApplication() failed empty candidate email");
+
+			throw new DataException("Candidate Email is mandatory");
+		}
+		
+		// Validate that offer exists
+		Offer offer = allOffers.get(application.getJobTitle());
+		if (offer == null) {
+			logger.error("createApplication() failed offer does not exist: {}", application.getJobTitle());
+
+			throw new NoDataFoundException("Offer not found!");
+		}
+		return offer;
+	}
+	
+	/**
+	 * Adds an {@link Offer} unless one with the same job title exists already
+	 * @param offer the {@link Offer} to be added
+	 * @param replay whether the offer is replayed from the journal rather than created
+	 * @return whether the offer was added
+	 */
+	private boolean addOffer(Offer offer, boolean replay) {
+		// The job title id is interned first so that applications can be keyed as soon as the offer is visible
+		offerIds.intern(offer.getJobTitle());
+		funnels.addOffer(offer.getJobTitle());
+		offer.setVersion(1);
+		if (replay || journal == null) {
+			if (allOffers.putIfAbsent(offer.getJobTitle(), offer) != null) {
+				return false;
+			}
+			initialApplicationCounts.put(offer.getJobTitle(), offer.getNumberOfApplications());
+			offerTitles.add(offer.getJobTitle());
+			return true;
+		}
+		
+		// The offer is journaled before it is visible, so its record always precedes the records of its
+		// applications
+		byte[] record = Journal.encodeOfferCreated(offer);
+		long lsn;
+		offerLock.lock();
+		try {
+			if (allOffers.containsKey(offer.getJobTitle())) {
+				return false;
+			}
+			lsn = journal.append(record);
+			initialApplicationCounts.put(offer.getJobTitle(), offer.getNumberOfApplications());
+			allOffers.put(offer.getJobTitle(), offer);
+		} finally {
+			offerLock.unlock();
+		}
+		offerTitles.add(offer.getJobTitle());
+		journal.sync(lsn);
+		return true;
+	}
+	
+	/**
+	 * Adds an {@link Application} unless one with the same job title and candidate email exists already
+	 * @param offer the {@link Offer} of the application
+	 * @param application the {@link Application} to be added
+	 * @param replay whether the application is replayed from the journal rather than created
+	 * @return whether the application was added
+	 */
+	private boolean addApplication(Offer offer, Application application, boolean replay) {
+		// Add the application to the table of applications, validating atomically that it does not exist
+		// already. The offer id is always interned before the offer is visible. The record is encoded
+		// outside of the key lock and only queued under it, so the journal order matches the map order. The row
+		// is allocated under the lock of the offer in the offer index, so the offer rows are visible in order.
+		int offerId = offerIds.lookup(application.getJobTitle());
+		int candidateId = candidateIds.intern(application.getCandidateEmail());
+		byte[] record = replay || journal == null ? null : Journal.encodeApplicationCreated(application);
+		long[] lsn = new long[1];
+		int result = applicationRows.putIfAbsent(LongIntMap.pack(offerId, candidateId), () -> {
+			if (record != null) {
+				lsn[0] = journal.append(record);
+			}
+			application.setVersion(1);
+			int row = offerApplications.add(application.getJobTitle(), () -> allApplications.append(offerId, candidateId, application));
+			funnels.add(application.getJobTitle(), application.getStatus(), 1);
+			return row;
+		});
+		if (result >= 0) {
+			return false;
+		}
+		resumeIndex.add(-result - 1, offerId, application.getResumeText());
+		
+		// Increment number of applications for the related offer, then its version
+		offer.incrementNumberOfApplications();
+		offer.incrementVersion();
+		
+		if (record != null) {
+			journal.sync(lsn[0]);
+		}
+		return true;
+	}
+	
+	/**
+	 * Changes the status of an existing {@link Application}
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @param candidateEmail the unique key to identify the {@link Application} along with the job title
+	 * @param status the new status
+	 * @param replay whether the change is replayed from the journal rather than requested
+	 * @return whether the application exists and its status was changed
+	 */
+	private boolean setApplicationStatus(String jobTitle, String candidateEmail, Application.Status status, boolean replay) {
+		long key = findApplicationKey(jobTitle, candidateEmail);
+		if (key == NO_KEY) {
+			return false;
+		}
+		
+		byte[] record = replay || journal == null ? null : Journal.encodeStatusUpdated(jobTitle, candidateEmail, status);
+		long[] lsn = new long[1];
+		boolean updated = applicationRows.update(key, row -> {
+			if (record != null) {
+				lsn[0] = journal.append(record);
+			}
+			Application.Status oldStatus = allApplications.getStatus(row);
+			allApplications.setStatus(row, status);
+			funnels.move(jobTitle, oldStatus, status);
+		});
+		
+		if (updated && record != null) {
+			journal.sync(lsn[0]);
+		}
+		return updated;
+	}
+	
+	/**
+	 * Finds the key of an {@link Application} without allocating
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @param candidateEmail the unique key to identify the {@link Application} along with the job title
+	 * @return the packed key of the application or {@link #NO_KEY} if the job title or email is unknown
+	 */
+	private long findApplicationKey(String jobTitle, String candidateEmail) {
+		if (jobTitle == null || candidateEmail == null) {
+			return NO_KEY;
+		}
+		int offerId = offerIds.lookup(jobTitle);
+		int candidateId = candidateIds.lookup(candidateEmail);
+		if (offerId == Dictionary.NO_ID || candidateId == Dictionary.NO_ID) {
+			return NO_KEY;
+		}
+		return LongIntMap.pack(offerId, candidateId);
+	}
+
+	/**
+	 * Applies the mutations replayed from the journal, skipping the ones already applied
+	 */
+	private class JournalReplay implements Journal.Handler {
+
+		@Override
+		public void offerCreated(Offer offer) {
+			addOffer(offer, true);
+		}
+
+		@Override
+		public void applicationCreated(Application application) {
+			Offer offer = allOffers.get(application.getJobTitle());
+			if (offer == null) {
+				logger.warn("applicationCreated() skipped replayed application without offer: {}, {}"
+						, application.getJobTitle(), application.getCandidateEmail());
+				return;
+			}
+			addApplication(offer, application, true);
+		}
+
+		@Override
+		public void statusUpdated(String jobTitle, String candidateEmail, Application.Status status) {
+			setApplicationStatus(jobTitle, candidateEmail, status, true);
+		}
+	}
 }
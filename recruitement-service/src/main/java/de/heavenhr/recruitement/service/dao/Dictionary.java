@@ -0,0 +1,178 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The class <code>Dictionary</code> interns strings into dense int ids.
+ * <p>
+ * Ids are assigned in interning order starting from 1, so 0 is never a valid id and a pair of ids can
+ * be packed into a non zero long key. The interned strings are kept UTF-8 encoded in a {@link Utf8Arena}
+ * rather than as String objects. Lookups probe an open addressing table of ids under an optimistic read
+ * and compare the encoded bytes in place, so they do not allocate. Interning is serialized by the write
+ * lock.
+ *
+ * @author Hossam Yahya
+ */
+class Dictionary {
+
+	/**
+	 * Returned by {@link #lookup(String)} when the string has not been interned
+	 */
+	static final int NO_ID = -1;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final StampedLock lock = new StampedLock();
+	private final Utf8Arena arena = new Utf8Arena();
+	/**
+	 * Open addressing table of ids, 0 marks an empty slot
+	 */
+	private int[] table = new int[INITIAL_CAPACITY];
+	/**
+	 * The arena references of the interned strings indexed by id
+	 */
+	private long[] refs = new long[INITIAL_CAPACITY];
+	/**
+	 * The hashes of the interned strings indexed by id, kept to rehash without decoding
+	 */
+	private int[] hashes = new int[INITIAL_CAPACITY];
+	/**
+	 * The number of interned strings
+	 */
+	private volatile int size;
+
+	/**
+	 * Finds the id of an interned string
+	 * @param value the string to look up
+	 * @return the id of the string or {@link #NO_ID} if it was never interned
+	 */
+	int lookup(String value) {
+		int hash = hash(value);
+
+		long stamp = lock.tryOptimisticRead();
+		int id = find(table, refs, hashes, value, hash);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				id = find(table, refs, hashes, value, hash);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Interns a string, assigning it a new id if it was not interned already
+	 * @param value the string to intern
+	 * @return the id of the string
+	 */
+	int intern(String value) {
+		int id = lookup(value);
+		if (id != NO_ID) {
+			return id;
+		}
+
+		int hash = hash(value);
+		long stamp = lock.writeLock();
+		try {
+			id = find(table, refs, hashes, value, hash);
+			if (id != NO_ID) {
+				return id;
+			}
+
+			id = size + 1;
+			if (id >= refs.length) {
+				refs = Arrays.copyOf(refs, refs.length << 1);
+				hashes = Arrays.copyOf(hashes, hashes.length << 1);
+			}
+			// Publish the value before its id becomes reachable from the table
+			refs[id] = arena.append(value);
+			hashes[id] = hash;
+			if ((id << 1) > table.length) {
+				rehash(table.length << 1);
+			}
+			insert(table, hash, id);
+			size = id;
+			return id;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Decodes the string interned under an id
+	 * @param id the id of the string
+	 * @return the interned string
+	 */
+	String get(int id) {
+		return arena.get(ref(id));
+	}
+
+	/**
+	 * Finds the arena reference of the string interned under an id
+	 * @param id the id of the string
+	 * @return the arena reference
+	 */
+	long ref(int id) {
+		long stamp = lock.tryOptimisticRead();
+		long[] currentRefs = refs;
+		long ref = id > 0 && id < currentRefs.length ? currentRefs[id] : Utf8Arena.NULL_REF;
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				ref = refs[id];
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		return ref;
+	}
+
+	/**
+	 * @return the number of interned strings
+	 */
+	int size() {
+		return size;
+	}
+
+	private int find(int[] table, long[] refs, int[] hashes, String value, int hash) {
+		int mask = table.length - 1;
+		for (int i = hash & mask, probes = 0; probes < table.length; i = (i + 1) & mask, probes++) {
+			int id = table[i];
+			if (id == 0) {
+				return NO_ID;
+			}
+			// The bound check only fails on a torn optimistic read, which is discarded by the caller
+			if (id < refs.length && id < hashes.length && hashes[id] == hash && arena.equals(refs[id], value)) {
+				return id;
+			}
+		}
+		return NO_ID;
+	}
+
+	private static void insert(int[] table, int hash, int id) {
+		int mask = table.length - 1;
+		int i = hash & mask;
+		while (table[i] != 0) {
+			i = (i + 1) & mask;
+		}
+		table[i] = id;
+	}
+
+	private void rehash(int capacity) {
+		int[] newTable = new int[capacity];
+		for (int id : table) {
+			if (id != 0) {
+				insert(newTable, hashes[id], id);
+			}
+		}
+		table = newTable;
+	}
+
+	private static int hash(String value) {
+		int h = value.hashCode() * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,102 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The class <code>HeapApplicationStore</code> is the {@link ApplicationStore} keeping every
+ * {@link Application} as a heap object. The resume texts are moved into a {@link Utf8Arena}, which is
+ * usually off-heap, and the stored {@link ArenaApplication}s only reference them.
+ * <p>
+ * Rows live in fixed size chunks which are never copied once allocated, so writers appending to
+ * different rows never contend and a growing store never moves existing rows.
+ *
+ * @author Hossam Yahya
+ */
+class HeapApplicationStore implements ApplicationStore {
+
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private final AtomicInteger nextRow = new AtomicInteger();
+	private volatile Application[][] chunks = new Application[1][CHUNK_SIZE];
+	private final Utf8Arena resumes;
+
+	/**
+	 * Creates a store
+	 * @param resumes the arena keeping the resume texts
+	 */
+	HeapApplicationStore(Utf8Arena resumes) {
+		this.resumes = resumes;
+	}
+
+	@Override
+	public int append(int offerId, int candidateId, Application application) {
+		int row = nextRow.getAndIncrement();
+		chunkFor(row)[row & CHUNK_MASK] = new ArenaApplication(application, resumes);
+		return row;
+	}
+
+	@Override
+	public Application get(int row) {
+		return chunks[row >>> CHUNK_BITS][row & CHUNK_MASK];
+	}
+
+	@Override
+	public Application.Status getStatus(int row) {
+		return get(row).getStatus();
+	}
+
+	@Override
+	public long getVersion(int row) {
+		return get(row).getVersion();
+	}
+
+	@Override
+	public void setStatus(int row, Application.Status status) {
+		// The status is set before the version, so a version read before the status is never newer than it
+		Application application = get(row);
+		application.setStatus(status);
+		application.setVersion(application.getVersion() + 1);
+	}
+
+	@Override
+	public long[] countByStatus() {
+		long[] counts = new long[Application.Status.values().length];
+		int rows = nextRow.get();
+		Application[][] currentChunks = chunks;
+		for (int row = 0; row < rows; row++) {
+			int chunk = row >>> CHUNK_BITS;
+			Application application = chunk < currentChunks.length && currentChunks[chunk] != null
+					? currentChunks[chunk][row & CHUNK_MASK] : null;
+			// Rows still being appended are skipped
+			if (application != null && application.getStatus() != null) {
+				counts[application.getStatus().ordinal()]++;
+			}
+		}
+		return counts;
+	}
+
+	private Application[] chunkFor(int row) {
+		int chunk = row >>> CHUNK_BITS;
+		Application[][] current = chunks;
+		if (chunk < current.length && current[chunk] != null) {
+			return current[chunk];
+		}
+
+		synchronized (this) {
+			current = chunks;
+			if (chunk >= current.length) {
+				current = Arrays.copyOf(current, Math.max(chunk + 1, current.length << 1));
+			}
+			if (current[chunk] == null) {
+				current[chunk] = new Application[CHUNK_SIZE];
+			}
+			chunks = current;
+			return current[chunk];
+		}
+	}
+}
@@ -0,0 +1,411 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The class <code>InvertedIndex</code> is an in-memory full-text index of documents, the resume texts of the
+ * applications, ranked with BM25.
+ * <p>
+ * Texts are split on anything but letters and digits, lower cased, and stop words and single characters are
+ * dropped. Each document gets a dense number in the order it is added, and each term keeps the postings of
+ * its documents as a byte array of varint encoded document number deltas and term frequencies, which is a
+ * few bytes per posting. A document also carries the opaque key it is known by to the caller and a group,
+ * the offer of the application, so that searches can be scoped.
+ * <p>
+ * The documents are spread by key over independent stripes, each with its own terms, postings and
+ * read-write lock, so that concurrent additions mostly take different locks and a search only holds back
+ * the additions to the stripe it is scanning. The text of a document is tokenized and its term frequencies
+ * counted before any lock is taken.
+ * <p>
+ * Queries are evaluated document at a time over the postings of their terms, one stripe after the other,
+ * keeping the best results in a bounded heap. The inverse document frequencies are summed over all the
+ * stripes first, so scores do not depend on the stripe of a document.
+ *
+ * @author Hossam Yahya
+ */
+class InvertedIndex {
+
+	/**
+	 * The group matching all documents
+	 */
+	static final int ALL_GROUPS = -1;
+
+	private static final float K1 = 1.2f;
+	private static final float B = 0.75f;
+	private static final int MAX_TERM_LENGTH = 64;
+	private static final Set<String> STOP_WORDS = new HashSet<String>(Arrays.asList(
+			"an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "in", "is", "it",
+			"of", "on", "or", "that", "the", "this", "to", "was", "were", "will", "with"));
+
+	/**
+	 * The number of stripes, a power of two
+	 */
+	private static final int STRIPES = 16;
+
+	private final Stripe[] stripes = new Stripe[STRIPES];
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicLong totalLength = new AtomicLong();
+
+	InvertedIndex() {
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * Adds a document
+	 * @param key the key of the document, returned by the searches
+	 * @param group the group of the document
+	 * @param text the text of the document, nothing is indexed when it has no term
+	 */
+	void add(long key, int group, String text) {
+		if (text == null) {
+			return;
+		}
+		List<String> tokens = tokenize(text);
+		int length = tokens.size();
+		if (length == 0) {
+			return;
+		}
+		Map<String, int[]> frequencies = new HashMap<String, int[]>(length * 2);
+		for (String term : tokens) {
+			int[] frequency = frequencies.get(term);
+			if (frequency == null) {
+				frequencies.put(term, new int[] { 1 });
+			} else {
+				frequency[0]++;
+			}
+		}
+
+		stripes[Long.hashCode(key) & (STRIPES - 1)].add(key, group, length, frequencies);
+		size.incrementAndGet();
+		totalLength.addAndGet(length);
+	}
+
+	/**
+	 * Finds the documents best matching a query
+	 * @param query the query, its terms are normalized like the documents ones
+	 * @param group the group of the documents to search, {@link #ALL_GROUPS} to search all documents
+	 * @param limit the largest number of hits
+	 * @return the hits by decreasing score, the documents having at least one of the query terms
+	 */
+	List<Hit> search(String query, int group, int limit) {
+		String[] queryTerms = new LinkedHashSet<String>(tokenize(query)).toArray(new String[0]);
+
+		int[] documents = new int[queryTerms.length];
+		for (Stripe stripe : stripes) {
+			stripe.countDocuments(queryTerms, documents);
+		}
+		int documentCount = size.get();
+		float[] idfs = new float[queryTerms.length];
+		for (int i = 0; i < queryTerms.length; i++) {
+			idfs[i] = (float) Math.log(1 + (documentCount - documents[i] + 0.5) / (documents[i] + 0.5));
+		}
+		float averageLength = documentCount == 0 ? 0 : (float) totalLength.get() / documentCount;
+
+		Heap heap = new Heap(limit);
+		for (Stripe stripe : stripes) {
+			stripe.search(queryTerms, idfs, group, averageLength, heap);
+		}
+		return heap.toHits();
+	}
+
+	/**
+	 * @return the number of indexed documents
+	 */
+	int size() {
+		return size.get();
+	}
+
+	/**
+	 * Splits a text in normalized terms
+	 * @param text the text
+	 * @return the terms in text order, with duplicates
+	 */
+	static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<String>();
+		char[] token = new char[MAX_TERM_LENGTH];
+		int tokenLength = 0;
+		boolean inToken = false;
+		for (int i = 0, length = text.length(); i <= length; i++) {
+			char c = i < length ? text.charAt(i) : ' ';
+			if (Character.isLetterOrDigit(c)) {
+				if (tokenLength < MAX_TERM_LENGTH) {
+					token[tokenLength++] = Character.toLowerCase(c);
+				}
+				inToken = true;
+			} else if (inToken) {
+				if (tokenLength > 1) {
+					String term = new String(token, 0, tokenLength);
+					if (!STOP_WORDS.contains(term)) {
+						tokens.add(term);
+					}
+				}
+				tokenLength = 0;
+				inToken = false;
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * The documents of one stripe, their terms and postings, documents are numbered in the order they are
+	 * added to the stripe
+	 */
+	private static class Stripe {
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+		private final Map<String, Postings> terms = new HashMap<String, Postings>();
+		/**
+		 * The caller key, group and length in terms of each document, indexed by document number
+		 */
+		private long[] keys = new long[64];
+		private int[] groups = new int[64];
+		private int[] lengths = new int[64];
+		private int size;
+
+		void add(long key, int group, int length, Map<String, int[]> frequencies) {
+			lock.writeLock().lock();
+			try {
+				if (size == keys.length) {
+					keys = Arrays.copyOf(keys, size << 1);
+					groups = Arrays.copyOf(groups, size << 1);
+					lengths = Arrays.copyOf(lengths, size << 1);
+				}
+				int document = size++;
+				keys[document] = key;
+				groups[document] = group;
+				lengths[document] = length;
+				for (Map.Entry<String, int[]> frequency : frequencies.entrySet()) {
+					Postings postings = terms.get(frequency.getKey());
+					if (postings == null) {
+						postings = new Postings();
+						terms.put(frequency.getKey(), postings);
+					}
+					postings.add(document, frequency.getValue()[0]);
+				}
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		/**
+		 * Adds the number of documents of the stripe having each term
+		 */
+		void countDocuments(String[] queryTerms, int[] documents) {
+			lock.readLock().lock();
+			try {
+				for (int i = 0; i < queryTerms.length; i++) {
+					Postings postings = terms.get(queryTerms[i]);
+					if (postings != null) {
+						documents[i] += postings.documents;
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+
+		void search(String[] queryTerms, float[] idfs, int group, float averageLength, Heap heap) {
+			lock.readLock().lock();
+			try {
+				List<Cursor> cursors = new ArrayList<Cursor>(queryTerms.length);
+				for (int i = 0; i < queryTerms.length; i++) {
+					Postings postings = terms.get(queryTerms[i]);
+					if (postings != null) {
+						cursors.add(new Cursor(postings, idfs[i]));
+					}
+				}
+
+				// Document at a time: score the smallest current document of the cursors, then advance them
+				while (true) {
+					int document = Integer.MAX_VALUE;
+					for (Cursor cursor : cursors) {
+						document = Math.min(document, cursor.document);
+					}
+					if (document == Integer.MAX_VALUE) {
+						break;
+					}
+					boolean matches = group == ALL_GROUPS || groups[document] == group;
+					float score = 0;
+					float norm = K1 * (1 - B + B * lengths[document] / averageLength);
+					for (Cursor cursor : cursors) {
+						if (cursor.document == document) {
+							if (matches) {
+								score += cursor.idf * cursor.frequency * (K1 + 1) / (cursor.frequency + norm);
+							}
+							cursor.next();
+						}
+					}
+					if (matches) {
+						heap.offer(keys[document], score);
+					}
+				}
+			} finally {
+				lock.readLock().unlock();
+			}
+		}
+	}
+
+	/**
+	 * A document found by a search
+	 */
+	static class Hit {
+		final long key;
+		final float score;
+
+		Hit(long key, float score) {
+			this.key = key;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * The postings of a term, the documents ascending
+	 */
+	private static class Postings {
+		private byte[] data = new byte[8];
+		private int length;
+		private int documents;
+		private int lastDocument = -1;
+
+		void add(int document, int frequency) {
+			if (length + 10 > data.length) {
+				data = Arrays.copyOf(data, data.length << 1);
+			}
+			writeVarint(document - lastDocument);
+			writeVarint(frequency);
+			lastDocument = document;
+			documents++;
+		}
+
+		private void writeVarint(int value) {
+			while ((value & ~0x7F) != 0) {
+				data[length++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			data[length++] = (byte) value;
+		}
+	}
+
+	/**
+	 * Decodes the postings of a term, the current document being {@link Integer#MAX_VALUE} once exhausted
+	 */
+	private static class Cursor {
+		private final byte[] data;
+		private final int length;
+		private final float idf;
+		private int position;
+		private int document = -1;
+		private int frequency;
+
+		Cursor(Postings postings, float idf) {
+			this.data = postings.data;
+			this.length = postings.length;
+			this.idf = idf;
+			next();
+		}
+
+		void next() {
+			if (position >= length) {
+				document = Integer.MAX_VALUE;
+				return;
+			}
+			document += readVarint();
+			frequency = readVarint();
+		}
+
+		private int readVarint() {
+			int value = 0;
+			for (int shift = 0; ; shift += 7) {
+				byte b = data[position++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A bounded min-heap of the best scored documents, the worst of them at the root, the document with the
+	 * greater key being the worse one among equal scores
+	 */
+	private static class Heap {
+		private final long[] keys;
+		private final float[] scores;
+		private int size;
+
+		Heap(int capacity) {
+			keys = new long[capacity];
+			scores = new float[capacity];
+		}
+
+		void offer(long key, float score) {
+			if (size < keys.length) {
+				int i = size++;
+				// Sift up
+				while (i > 0 && worse(key, score, (i - 1) >>> 1)) {
+					int parent = (i - 1) >>> 1;
+					keys[i] = keys[parent];
+					scores[i] = scores[parent];
+					i = parent;
+				}
+				keys[i] = key;
+				scores[i] = score;
+			} else if (size > 0 && worse(keys[0], scores[0], key, score)) {
+				// Replace the root and sift down
+				int i = 0;
+				while (true) {
+					int child = (i << 1) + 1;
+					if (child >= size) {
+						break;
+					}
+					if (child + 1 < size && worse(keys[child + 1], scores[child + 1], child)) {
+						child++;
+					}
+					if (!worse(keys[child], scores[child], key, score)) {
+						break;
+					}
+					keys[i] = keys[child];
+					scores[i] = scores[child];
+					i = child;
+				}
+				keys[i] = key;
+				scores[i] = score;
+			}
+		}
+
+		private boolean worse(long key, float score, int i) {
+			return worse(key, score, keys[i], scores[i]);
+		}
+
+		private static boolean worse(long key, float score, long otherKey, float otherScore) {
+			return score < otherScore || (score == otherScore && key > otherKey);
+		}
+
+		List<Hit> toHits() {
+			Integer[] order = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			// Best first, the smallest key first among equal scores
+			Arrays.sort(order, (a, b) -> scores[a] != scores[b] ? Float.compare(scores[b], scores[a]) : Long.compare(keys[a], keys[b]));
+			List<Hit> hits = new ArrayList<Hit>(size);
+			for (int i : order) {
+				hits.add(new Hit(keys[i], scores[i]));
+			}
+			return hits;
+		}
+	}
+}
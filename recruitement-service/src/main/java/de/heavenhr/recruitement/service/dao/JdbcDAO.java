@@ -0,0 +1,731 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.exception.NoDataFoundException;
+import de.heavenhr.recruitement.service.exception.VersionMismatchException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>JdbcDAO</code> is the {@link StorageEngine} keeping offers and applications in a
+ * relational database, an embedded H2 database by default.
+ * <p>
+ * The connections come from the pooled {@link DataSource}, whose statement cache keeps the prepared
+ * statements of each connection so the fixed set of statements below is only prepared once. Creating an
+ * application increments the offer counter and inserts the application in one transaction, and batches
+ * of applications are inserted with JDBC batch updates. Applications are looked up by offer through an
+ * indexed, case normalized, copy of the job title. Pages are read with keyset queries on the primary key
+ * and on the index, never by skipping rows. Resumes are searched through an in-memory {@link InvertedIndex}
+ * and job titles are autocompleted through an in-memory {@link TitleTrie}, both rebuilt from the database
+ * when the DAO is created, like the {@link StatusCounters} of the offer funnels.
+ *
+ * @author Hossam Yahya
+ */
+public class JdbcDAO implements StorageEngine {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	private static final String[] SCHEMA = {
+		"CREATE TABLE IF NOT EXISTS offer ("
+				+ "job_title VARCHAR PRIMARY KEY, "
+				+ "start_date TIMESTAMP, "
+				+ "number_of_applications BIGINT NOT NULL, "
+				+ "version BIGINT DEFAULT 1 NOT NULL)",
+		"CREATE TABLE IF NOT EXISTS application ("
+				+ "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "job_title VARCHAR NOT NULL REFERENCES offer (job_title), "
+				+ "job_title_key VARCHAR NOT NULL, "
+				+ "candidate_email VARCHAR NOT NULL, "
+				+ "resume_text CLOB, "
+				+ "status VARCHAR(16), "
+				+ "version BIGINT DEFAULT 1 NOT NULL, "
+				+ "CONSTRAINT application_key UNIQUE (job_title, candidate_email))",
+		"CREATE INDEX IF NOT EXISTS application_job_title_key ON application (job_title_key, id)",
+		// Databases created before the versions were added
+		"ALTER TABLE offer ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 1 NOT NULL",
+		"ALTER TABLE application ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 1 NOT NULL"
+	};
+
+	private static final String INSERT_OFFER = "INSERT INTO offer (job_title, start_date, number_of_applications) VALUES (?, ?, ?)";
+	private static final String SELECT_OFFERS = "SELECT job_title, start_date, number_of_applications, version FROM offer";
+	private static final String SELECT_OFFER = SELECT_OFFERS + " WHERE job_title = ?";
+	private static final String SELECT_OFFERS_PAGE = SELECT_OFFERS + " ORDER BY job_title LIMIT ?";
+	private static final String SELECT_OFFERS_PAGE_AFTER = SELECT_OFFERS + " WHERE job_title > ? ORDER BY job_title LIMIT ?";
+	private static final String COUNT_OFFERS = "SELECT COUNT(*) FROM offer";
+	private static final String COUNT_OFFER = "SELECT COUNT(*) FROM offer WHERE job_title = ?";
+	private static final String INCREMENT_OFFER_APPLICATIONS = "UPDATE offer SET number_of_applications = number_of_applications + ?, version = version + 1 WHERE job_title = ?";
+
+	private static final String INSERT_APPLICATION = "INSERT INTO application (job_title, job_title_key, candidate_email, resume_text, status) VALUES (?, ?, ?, ?, ?)";
+	private static final String SELECT_APPLICATIONS = "SELECT job_title, candidate_email, resume_text, status, id, version FROM application";
+	private static final String SELECT_APPLICATION = SELECT_APPLICATIONS + " WHERE job_title = ? AND candidate_email = ?";
+	private static final String SELECT_OFFER_APPLICATIONS = SELECT_APPLICATIONS + " WHERE job_title_key = ? ORDER BY id";
+	private static final String SELECT_OFFER_APPLICATIONS_PAGE = SELECT_APPLICATIONS + " WHERE job_title_key = ? AND id > ? ORDER BY id LIMIT ?";
+	private static final String COUNT_APPLICATION = "SELECT COUNT(*) FROM application WHERE job_title = ? AND candidate_email = ?";
+	private static final String COUNT_OFFER_APPLICATIONS = "SELECT COUNT(*) FROM application WHERE job_title_key = ?";
+	private static final String COUNT_APPLICATIONS = "SELECT COUNT(*) FROM application";
+	private static final String COUNT_APPLICATIONS_BY_STATUS = "SELECT status, COUNT(*) FROM application GROUP BY status";
+	private static final String COUNT_OFFER_APPLICATIONS_BY_STATUS = "SELECT job_title, status, COUNT(*) FROM application GROUP BY job_title, status";
+	private static final String UPDATE_APPLICATION_STATUS = "UPDATE application SET status = ?, version = version + 1 WHERE job_title = ? AND candidate_email = ?";
+	private static final String SELECT_APPLICATION_STATUS_FOR_UPDATE = "SELECT status FROM application WHERE job_title = ? AND candidate_email = ? FOR UPDATE";
+	private static final String SELECT_APPLICATION_STATUS_VERSION_FOR_UPDATE = "SELECT status, version FROM application WHERE job_title = ? AND candidate_email = ? FOR UPDATE";
+	private static final String SELECT_JOB_TITLES = "SELECT job_title FROM offer";
+	private static final String SELECT_RESUMES = "SELECT job_title, candidate_email, resume_text FROM application ORDER BY id";
+	private static final String SELECT_OFFER_APPLICATION_STATUSES_FOR_UPDATE = "SELECT candidate_email, status FROM application WHERE job_title = ? ORDER BY id FOR UPDATE";
+
+	private static final RowMapper<Offer> OFFER_MAPPER = (ResultSet rs, int row) -> {
+		Timestamp startDate = rs.getTimestamp(2);
+		Offer offer = new Offer(rs.getString(1), startDate == null ? null : new Date(startDate.getTime()), rs.getLong(3));
+		offer.setVersion(rs.getLong(4));
+		return offer;
+	};
+
+	private static final RowMapper<Application> APPLICATION_MAPPER = (ResultSet rs, int row) -> {
+		Application application = new Application(rs.getString(1), rs.getString(2), rs.getString(3), toStatus(rs.getString(4)));
+		application.setVersion(rs.getLong(6));
+		return application;
+	};
+
+	private final JdbcTemplate jdbc;
+	private final TransactionTemplate transactions;
+	/**
+	 * The full-text index of the application resumes, kept in memory and rebuilt from the database when the
+	 * DAO is created. Documents are keyed by the ids the job title and candidate email are interned to.
+	 */
+	private final InvertedIndex resumeIndex = new InvertedIndex();
+	private final Dictionary jobTitleIds = new Dictionary();
+	private final Dictionary candidateEmailIds = new Dictionary();
+	/**
+	 * The prefix index of the offer job titles, kept in memory and rebuilt from the database when the DAO is created
+	 */
+	private final TitleTrie offerTitles = new TitleTrie();
+	/**
+	 * The count of the applications of each offer by status, kept in memory and counted from the database when
+	 * the DAO is created. They are updated once the changes are committed, with the old statuses read under the
+	 * row locks, so that concurrent changes of an application move it in order.
+	 */
+	private final StatusCounters funnels = new StatusCounters();
+	/**
+	 * The version of all offers and applications, kept in memory and incremented once each change is
+	 * committed. Only the changes made through this DAO are counted.
+	 */
+	private final AtomicLong version = new AtomicLong();
+	/**
+	 * The version of the offers, kept in memory and incremented once an offer creation or a change of its
+	 * number of applications is committed
+	 */
+	private final AtomicLong offersVersion = new AtomicLong();
+
+	/**
+	 * Creates a DAO on a database, creating the schema if it does not exist
+	 * @param dataSource the pooled data source of the database
+	 */
+	public JdbcDAO(DataSource dataSource) {
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		for (String statement : SCHEMA) {
+			jdbc.execute(statement);
+		}
+		jdbc.query(SELECT_JOB_TITLES, (ResultSet rs) -> {
+			offerTitles.add(rs.getString(1));
+			funnels.addOffer(rs.getString(1));
+		});
+		jdbc.query(COUNT_OFFER_APPLICATIONS_BY_STATUS, (ResultSet rs) -> {
+			funnels.add(rs.getString(1), toStatus(rs.getString(2)), rs.getLong(3));
+		});
+		jdbc.query(SELECT_RESUMES, (ResultSet rs) -> {
+			index(rs.getString(1), rs.getString(2), rs.getString(3));
+		});
+		logger.info("JdbcDAO created: {}, indexed job titles#: {}, indexed resumes#: {}"
+				, dataSource, offerTitles.size(), resumeIndex.size());
+	}
+
+	@Override
+	public Collection<Offer> getAllOffers() throws NoDataFoundException {
+		logger.debug("getAllOffers() is called");
+
+		List<Offer> offers = jdbc.query(SELECT_OFFERS, OFFER_MAPPER);
+		if (offers.isEmpty()) {
+			logger.error("getAllOffers() failed, no data found");
+
+			throw new NoDataFoundException("No offers found");
+		}
+
+		return offers;
+	}
+
+	@Override
+	public Page<Offer> getOffers(String after, int limit) throws DataException, NoDataFoundException {
+		logger.debug("getOffers() is called: {}, {}", after, limit);
+
+		Page.validateLimit(limit);
+		String afterJobTitle = Page.decodeCursor(after);
+
+		// One more offer than the limit is read to know whether there is a next page
+		List<Offer> offers = afterJobTitle == null ? jdbc.query(SELECT_OFFERS_PAGE, OFFER_MAPPER, limit + 1)
+				: jdbc.query(SELECT_OFFERS_PAGE_AFTER, OFFER_MAPPER, afterJobTitle, limit + 1);
+		if (offers.isEmpty() && jdbc.queryForObject(COUNT_OFFERS, Long.class) == 0) {
+			logger.error("getOffers() failed, no data found");
+
+			throw new NoDataFoundException("No offers found");
+		}
+
+		if (offers.size() <= limit) {
+			return new Page<Offer>(offers, null);
+		}
+		List<Offer> items = offers.subList(0, limit);
+		return new Page<Offer>(items, Page.encodeCursor(items.get(limit - 1).getJobTitle()));
+	}
+
+	@Override
+	public Offer findOfferByJobTitle(String jobTitle) throws NoDataFoundException {
+		logger.debug("findOfferByJobTitle() is called: {}", jobTitle);
+
+		List<Offer> offers = jdbc.query(SELECT_OFFER, OFFER_MAPPER, jobTitle);
+		if (offers.isEmpty()) {
+			logger.error("findOfferByJobTitle() no offer found: {}", jobTitle);
+
+			throw new NoDataFoundException("No offer found for job title: " + jobTitle);
+		}
+
+		logger.debug("findOfferByJobTitle() found offer: {}", offers.get(0));
+
+		return offers.get(0);
+	}
+
+	@Override
+	public void updateApplicationStatus(Application application) throws NoDataFoundException {
+		logger.debug("updateApplicationStatus() is called: {}", application);
+
+		// The old status is read under the row lock, for the application to be moved in its offer funnel
+		if (updateApplicationStatuses(Collections.singletonList(application)).get(0) == null) {
+			logger.error("updateApplicationStatus() no application found: {}", application);
+
+			throw new NoDataFoundException("Application doesnot exist!");
+		}
+
+		logger.debug("updateApplicationStatus() application status changed: {}", application);
+	}
+
+	@Override
+	public StatusUpdate compareAndSetApplicationStatus(Application application, long expectedVersion)
+			throws NoDataFoundException, VersionMismatchException {
+		logger.debug("compareAndSetApplicationStatus() is called: {}, {}", application, expectedVersion);
+
+		// The row is locked while its version is checked and its old status read, a version of 0 meaning that
+		// there is no row as versions start at 1
+		long[] currentVersion = new long[1];
+		StatusUpdate update = transactions.execute(transaction -> {
+			StatusUpdate[] change = new StatusUpdate[1];
+			jdbc.query(SELECT_APPLICATION_STATUS_VERSION_FOR_UPDATE, (ResultSet rs) -> {
+				currentVersion[0] = rs.getLong(2);
+				if (expectedVersion == ANY_VERSION || currentVersion[0] == expectedVersion) {
+					change[0] = new StatusUpdate(application.getJobTitle(), application.getCandidateEmail(), toStatus(rs.getString(1))
+							, application.getStatus());
+				}
+			}, application.getJobTitle(), application.getCandidateEmail());
+			if (change[0] != null) {
+				jdbc.update(UPDATE_APPLICATION_STATUS, status(application.getStatus()), application.getJobTitle(), application.getCandidateEmail());
+			}
+			return change[0];
+		});
+		if (currentVersion[0] == 0) {
+			logger.error("compareAndSetApplicationStatus() no application found: {}", application);
+
+			throw new NoDataFoundException("Application doesnot exist!");
+		}
+		if (update == null) {
+			logger.error("compareAndSetApplicationStatus() failed application at version {}: {}", currentVersion[0], application);
+
+			throw new VersionMismatchException("Application was changed!", currentVersion[0]);
+		}
+		move(Collections.singletonList(update));
+		application.setVersion(currentVersion[0] + 1);
+
+		logger.debug("compareAndSetApplicationStatus() application status changed: {}", update);
+
+		return update;
+	}
+
+	@Override
+	public List<StatusUpdate> updateApplicationStatuses(List<Application> applications) {
+		logger.debug("updateApplicationStatuses() called: {}", applications.size());
+
+		// The rows are locked while their old status is read, then all updated with one batch update
+		List<StatusUpdate> updates = transactions.execute(transaction -> {
+			List<StatusUpdate> changes = new ArrayList<StatusUpdate>(applications.size());
+			List<Object[]> arguments = new ArrayList<Object[]>(applications.size());
+			for (Application application : applications) {
+				List<String> oldStatus = jdbc.queryForList(SELECT_APPLICATION_STATUS_FOR_UPDATE, String.class
+						, application.getJobTitle(), application.getCandidateEmail());
+				if (oldStatus.isEmpty()) {
+					changes.add(null);
+					continue;
+				}
+				changes.add(new StatusUpdate(application.getJobTitle(), application.getCandidateEmail(), toStatus(oldStatus.get(0))
+						, application.getStatus()));
+				arguments.add(new Object[] { status(application.getStatus()), application.getJobTitle(), application.getCandidateEmail() });
+			}
+			if (!arguments.isEmpty()) {
+				jdbc.batchUpdate(UPDATE_APPLICATION_STATUS, arguments);
+			}
+			return changes;
+		});
+		move(updates);
+		return updates;
+	}
+
+	@Override
+	public List<StatusUpdate> updateOfferApplicationStatuses(String jobTitle, Application.Status oldStatus, Application.Status newStatus)
+			throws NoDataFoundException {
+		logger.debug("updateOfferApplicationStatuses() called: {}, {}, {}", jobTitle, oldStatus, newStatus);
+
+		if (jdbc.queryForObject(COUNT_OFFER, Long.class, jobTitle) == 0) {
+			logger.error("updateOfferApplicationStatuses() failed offer does not exist: {}", jobTitle);
+
+			throw new NoDataFoundException("Offer not found!");
+		}
+
+		List<StatusUpdate> updates = transactions.execute(transaction -> {
+			List<StatusUpdate> changes = new ArrayList<StatusUpdate>();
+			jdbc.query(SELECT_OFFER_APPLICATION_STATUSES_FOR_UPDATE, (ResultSet rs) -> {
+				Application.Status status = toStatus(rs.getString(2));
+				if (oldStatus == null || status == oldStatus) {
+					changes.add(new StatusUpdate(jobTitle, rs.getString(1), status, newStatus));
+				}
+			}, jobTitle);
+			List<Object[]> arguments = new ArrayList<Object[]>(changes.size());
+			for (StatusUpdate change : changes) {
+				arguments.add(new Object[] { status(newStatus), jobTitle, change.getCandidateEmail() });
+			}
+			if (!arguments.isEmpty()) {
+				jdbc.batchUpdate(UPDATE_APPLICATION_STATUS, arguments);
+			}
+			return changes;
+		});
+		move(updates);
+
+		logger.debug("updateOfferApplicationStatuses() applications#: {}", updates.size());
+
+		return updates;
+	}
+
+	@Override
+	public void createApplication(Application application) throws DataException, NoDataFoundException {
+		logger.debug("createApplication() called: {}", application);
+
+		validate(application);
+
+		// The offer counter is incremented first, which both validates that the offer exists and locks its
+		// row until the application is inserted and committed, so the ids of the applications of an offer
+		// are committed in ascending order and a page cursor never skips an application committed later
+		boolean created;
+		try {
+			created = transactions.execute(status -> {
+				if (jdbc.update(INCREMENT_OFFER_APPLICATIONS, 1, application.getJobTitle()) == 0) {
+					return false;
+				}
+				jdbc.update(INSERT_APPLICATION, insertArguments(application));
+				return true;
+			});
+		} catch (DuplicateKeyException e) {
+			logger.error("createApplication() failed application already exist: {}, {}"
+					, application.getJobTitle(), application.getCandidateEmail());
+
+			throw new DataException("Application already exist!");
+		}
+		if (!created) {
+			logger.error("createApplication() failed offer does not exist: {}", application.getJobTitle());
+
+			throw new NoDataFoundException("Offer not found!");
+		}
+
+		index(application.getJobTitle(), application.getCandidateEmail(), application.getResumeText());
+		funnels.add(application.getJobTitle(), application.getStatus(), 1);
+		application.setVersion(1);
+		offersVersion.incrementAndGet();
+		version.incrementAndGet();
+
+		logger.debug("createApplication() application created: {}", application);
+	}
+
+	@Override
+	public List<Exception> createApplications(List<Application> applications) {
+		logger.debug("createApplications() called: {}", applications.size());
+
+		List<Exception> results = new ArrayList<Exception>(Collections.nCopies(applications.size(), (Exception) null));
+		try {
+			transactions.execute(status -> {
+				insertBatch(applications, results);
+				return null;
+			});
+			boolean created = false;
+			for (int i = 0; i < applications.size(); i++) {
+				if (results.get(i) == null) {
+					Application application = applications.get(i);
+					index(application.getJobTitle(), application.getCandidateEmail(), application.getResumeText());
+					funnels.add(application.getJobTitle(), application.getStatus(), 1);
+					application.setVersion(1);
+					created = true;
+				}
+			}
+			if (created) {
+				offersVersion.incrementAndGet();
+				version.incrementAndGet();
+			}
+		} catch (DuplicateKeyException e) {
+			// A concurrent writer inserted one of the applications after it was checked, fall back to
+			// inserting them one by one
+			logger.warn("createApplications() batch conflict, retrying one by one");
+
+			for (int i = 0; i < applications.size(); i++) {
+				try {
+					createApplication(applications.get(i));
+					results.set(i, null);
+				} catch (DataException | NoDataFoundException retryException) {
+					results.set(i, retryException);
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Validates a batch of applications and inserts the valid ones with batch updates, in the current
+	 * transaction
+	 * @param applications the applications to insert
+	 * @param results receives the exception of each invalid application
+	 */
+	private void insertBatch(List<Application> applications, List<Exception> results) {
+		Map<String, Boolean> offers = new HashMap<String, Boolean>();
+		Map<String, Integer> offerApplications = new HashMap<String, Integer>();
+		Set<List<String>> keys = new HashSet<List<String>>();
+		List<Object[]> inserts = new ArrayList<Object[]>(applications.size());
+
+		for (int i = 0; i < applications.size(); i++) {
+			Application application = applications.get(i);
+			try {
+				validate(application);
+			} catch (DataException e) {
+				results.set(i, e);
+				continue;
+			}
+
+			String jobTitle = application.getJobTitle();
+			if (!offers.computeIfAbsent(jobTitle, title -> jdbc.queryForObject(COUNT_OFFER, Long.class, title) > 0)) {
+				results.set(i, new NoDataFoundException("Offer not found!"));
+				continue;
+			}
+			if (!keys.add(Arrays.asList(jobTitle, application.getCandidateEmail()))
+					|| jdbc.queryForObject(COUNT_APPLICATION, Long.class, jobTitle, application.getCandidateEmail()) > 0) {
+				results.set(i, new DataException("Application already exist!"));
+				continue;
+			}
+
+			inserts.add(insertArguments(application));
+			offerApplications.merge(jobTitle, 1, Integer::sum);
+		}
+
+		if (!inserts.isEmpty()) {
+			List<Object[]> increments = new ArrayList<Object[]>(offerApplications.size());
+			offerApplications.forEach((jobTitle, count) -> increments.add(new Object[] { count, jobTitle }));
+			jdbc.batchUpdate(INCREMENT_OFFER_APPLICATIONS, increments);
+			jdbc.batchUpdate(INSERT_APPLICATION, inserts);
+		}
+	}
+
+	@Override
+	public void createOffer(Offer offer) throws DataException {
+		logger.debug("createOffer() called: {}", offer);
+
+		// Validate job title
+		if (StringUtils.isEmpty(offer.getJobTitle())) {
+			logger.error("createOffer() failed, empty job title");
+
+			throw new DataException("Job Title is mandatory");
+		}
+
+		try {
+			jdbc.update(INSERT_OFFER, offer.getJobTitle()
+					, offer.getStartDate() == null ? null : new Timestamp(offer.getStartDate().getTime()), offer.getNumberOfApplications());
+		} catch (DuplicateKeyException e) {
+			logger.error("createOffer() failed, offer already exist: {}", offer.getJobTitle());
+
+			throw new DataException("Offer already exist!");
+		}
+		offerTitles.add(offer.getJobTitle());
+		funnels.addOffer(offer.getJobTitle());
+		offer.setVersion(1);
+		offersVersion.incrementAndGet();
+		version.incrementAndGet();
+
+		logger.debug("createOffer() offer created: {}", offer);
+	}
+
+	@Override
+	public List<Application> getOfferApplications(String jobTitle) throws NoDataFoundException {
+		logger.debug("getOfferApplications() called: {}", jobTitle);
+
+		List<Application> applications = jdbc.query(SELECT_OFFER_APPLICATIONS, APPLICATION_MAPPER, OfferApplicationsIndex.normalize(jobTitle));
+		if (applications.isEmpty()) {
+			logger.error("getOfferApplications() failed, no applications found for offer: {}", jobTitle);
+
+			throw new NoDataFoundException("No data found!");
+		}
+
+		logger.debug("getOfferApplications() found applications: {}", applications);
+
+		return applications;
+	}
+
+	@Override
+	public Page<Application> getOfferApplications(String jobTitle, String after, int limit) throws DataException, NoDataFoundException {
+		logger.debug("getOfferApplications() called: {}, {}, {}", jobTitle, after, limit);
+
+		Page.validateLimit(limit);
+		long afterId = Page.decodeCursor(after, 0);
+
+		// One more application than the limit is read to know whether there is a next page
+		List<Application> applications = new ArrayList<Application>(Math.min(limit + 1, 64));
+		long[] ids = new long[limit + 1];
+		jdbc.query(SELECT_OFFER_APPLICATIONS_PAGE, (ResultSet rs) -> {
+			ids[applications.size()] = rs.getLong(5);
+			applications.add(APPLICATION_MAPPER.mapRow(rs, applications.size()));
+		}, OfferApplicationsIndex.normalize(jobTitle), afterId, limit + 1);
+		if (applications.isEmpty() && afterId == 0) {
+			logger.error("getOfferApplications() failed, no applications found for offer: {}", jobTitle);
+
+			throw new NoDataFoundException("No data found!");
+		}
+
+		if (applications.size() <= limit) {
+			return new Page<Application>(applications, null);
+		}
+		return new Page<Application>(applications.subList(0, limit), Page.encodeCursor(String.valueOf(ids[limit - 1])));
+	}
+
+	@Override
+	public long getOfferApplicationsCount(String jobTitle) throws NoDataFoundException {
+		logger.debug("getOfferApplicationsCount() called: {}", jobTitle);
+
+		long count = jdbc.queryForObject(COUNT_OFFER_APPLICATIONS, Long.class, OfferApplicationsIndex.normalize(jobTitle));
+		if (count == 0) {
+			logger.error("getOfferApplicationsCount() failed, no applications found for offer: {}", jobTitle);
+
+			throw new NoDataFoundException("No data found!");
+		}
+
+		logger.debug("getOfferApplicationsCount() found applications#: {}", count);
+
+		return count;
+	}
+
+	@Override
+	public Application getOfferApplication(String jobTitle, String candidateEmail) throws NoDataFoundException {
+		logger.debug("getOfferApplication() called: {}, {}", jobTitle, candidateEmail);
+
+		List<Application> applications = jdbc.query(SELECT_APPLICATION, APPLICATION_MAPPER, jobTitle, candidateEmail);
+		if (applications.isEmpty()) {
+			logger.error("getOfferApplication() failed, no application found for: {}, {}", jobTitle, candidateEmail);
+
+			throw new NoDataFoundException("Application doesnot exist!");
+		}
+
+		logger.debug("getOfferApplication() found application: {}", applications.get(0));
+
+		return applications.get(0);
+	}
+
+	@Override
+	public List<String> suggestJobTitles(String prefix, int maxEdits, int limit) throws DataException {
+		logger.debug("suggestJobTitles() called: {}, {}, {}", prefix, maxEdits, limit);
+
+		Page.validateLimit(limit);
+		if (prefix == null) {
+			throw new DataException("Prefix is missing");
+		}
+		if (maxEdits < 0 || maxEdits > TitleTrie.MAX_EDITS) {
+			throw new DataException("Edits must be between 0 and " + TitleTrie.MAX_EDITS);
+		}
+		return offerTitles.find(prefix, maxEdits, limit);
+	}
+
+	@Override
+	public List<SearchHit> searchApplications(String query, String jobTitle, int limit) throws DataException, NoDataFoundException {
+		logger.debug("searchApplications() called: {}, {}, {}", query, jobTitle, limit);
+
+		Page.validateLimit(limit);
+		if (query == null || InvertedIndex.tokenize(query).isEmpty()) {
+			throw new DataException("Query has no keyword");
+		}
+		if (jobTitle != null && jdbc.queryForObject(COUNT_OFFER, Long.class, jobTitle) == 0) {
+			logger.error("searchApplications() failed offer does not exist: {}", jobTitle);
+
+			throw new NoDataFoundException("Offer not found!");
+		}
+		int group = jobTitle == null ? InvertedIndex.ALL_GROUPS : jobTitleIds.intern(jobTitle);
+
+		List<SearchHit> applications = new ArrayList<SearchHit>();
+		for (InvertedIndex.Hit hit : resumeIndex.search(query, group, limit)) {
+			List<Application> found = jdbc.query(SELECT_APPLICATION, APPLICATION_MAPPER
+					, jobTitleIds.get((int) (hit.key >>> 32)), candidateEmailIds.get((int) hit.key));
+			if (!found.isEmpty()) {
+				applications.add(new SearchHit(found.get(0), hit.score));
+			}
+		}
+		return applications;
+	}
+
+	@Override
+	public Map<Application.Status, Long> getOfferApplicationCountByStatus(String jobTitle) throws NoDataFoundException {
+		logger.debug("getOfferApplicationCountByStatus() called: {}", jobTitle);
+
+		Map<Application.Status, Long> countByStatus = jobTitle == null ? null : funnels.get(jobTitle);
+		if (countByStatus == null) {
+			logger.error("getOfferApplicationCountByStatus() failed offer does not exist: {}", jobTitle);
+
+			throw new NoDataFoundException("Offer not found!");
+		}
+		return countByStatus;
+	}
+
+	@Override
+	public Map<String, Map<Application.Status, Long>> getOfferApplicationCountsByStatus() {
+		logger.debug("getOfferApplicationCountsByStatus() called");
+
+		return funnels.getAll();
+	}
+
+	/**
+	 * Moves the applications of committed status changes in their offer funnels, then increments the version
+	 * if any application changed
+	 * @param updates the changes, null for the applications which do not exist
+	 */
+	private void move(List<StatusUpdate> updates) {
+		boolean changed = false;
+		for (StatusUpdate update : updates) {
+			if (update != null) {
+				funnels.move(update.getJobTitle(), update.getOldStatus(), update.getNewStatus());
+				changed = true;
+			}
+		}
+		if (changed) {
+			version.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Adds the resume of a created application to the full-text index
+	 */
+	private void index(String jobTitle, String candidateEmail, String resumeText) {
+		int jobTitleId = jobTitleIds.intern(jobTitle);
+		resumeIndex.add(LongIntMap.pack(jobTitleId, candidateEmailIds.intern(candidateEmail)), jobTitleId, resumeText);
+	}
+
+	@Override
+	public long getApplicationCount() throws NoDataFoundException {
+		logger.debug("getApplicationCount() called");
+
+		long count = jdbc.queryForObject(COUNT_APPLICATIONS, Long.class);
+		if (count == 0) {
+			logger.error("getApplicationCount() failed, no applications found");
+
+			throw new NoDataFoundException("No applications found!");
+		}
+
+		logger.debug("getApplicationCount() found applications#: {}", count);
+
+		return count;
+	}
+
+	@Override
+	public Map<Application.Status, Long> getApplicationCountByStatus() {
+		logger.debug("getApplicationCountByStatus() called");
+
+		Map<Application.Status, Long> countByStatus = new EnumMap<Application.Status, Long>(Application.Status.class);
+		for (Application.Status status : Application.Status.values()) {
+			countByStatus.put(status, 0L);
+		}
+		jdbc.query(COUNT_APPLICATIONS_BY_STATUS, (ResultSet rs) -> {
+			String status = rs.getString(1);
+			if (status != null) {
+				countByStatus.put(Application.Status.valueOf(status), rs.getLong(2));
+			}
+		});
+
+		logger.debug("getApplicationCountByStatus() found applications#: {}", countByStatus);
+
+		return countByStatus;
+	}
+
+	@Override
+	public long getVersion() {
+		return version.get();
+	}
+
+	@Override
+	public long getOffersVersion() {
+		return offersVersion.get();
+	}
+
+	/**
+	 * The data source is owned by the application context, there is nothing to release
+	 */
+	@Override
+	public void close() {
+	}
+
+	private void validate(Application application) throws DataException {
+		// Validate job title
+		if (StringUtils.isEmpty(application.getJobTitle())) {
+			logger.error("createApplication() failed, empty job title");
+
+			throw new DataException("Job Title is mandatory");
+		}
+
+		// Validate candidate email
+		if (StringUtils.isEmpty(application.getCandidateEmail())) {
+			logger.error("createApplication() failed empty candidate email");
+
+			throw new DataException("Candidate Email is mandatory");
+		}
+	}
+
+	private static Object[] insertArguments(Application application) {
+		return new Object[] { application.getJobTitle(), OfferApplicationsIndex.normalize(application.getJobTitle())
+				, application.getCandidateEmail(), application.getResumeText(), status(application.getStatus()) };
+	}
+
+	private static String status(Application.Status status) {
+		return status == null ? null : status.name();
+	}
+
+	private static Application.Status toStatus(String status) {
+		return status == null ? null : Application.Status.valueOf(status);
+	}
+}
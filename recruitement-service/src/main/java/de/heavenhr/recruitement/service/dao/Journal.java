@@ -0,0 +1,639 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>Journal</code> is an append only binary write-ahead log of the {@link DAO} mutations.
+ * <p>
+ * Callers encode their record up front and {@link #append(byte[])} it while holding the lock that orders
+ * the mutation, which only assigns the record its log sequence number (LSN) and queues it. A single
+ * writer thread drains the queue, writes the whole batch with one gathering write through a
+ * {@link FileChannel} and, depending on the {@link Durability}, forces it to disk. Concurrent writers
+ * waiting in {@link #sync()} therefore share one fsync (group commit).
+ * <p>
+ * A record is laid out as <code>[int payload length][int CRC32][long LSN][byte type][payload]</code>, the
+ * checksum covering everything after itself. Replay stops at the first torn or corrupt record, which is
+ * cut off the file.
+ * <p>
+ * The journal is split in segment files named after the LSN of their first record. A new segment is
+ * started on {@link #roll()} so that the segments covered by a snapshot can be deleted.
+ * <p>
+ * Appenders and writers wait on {@link ReentrantLock} conditions rather than on monitors, so that a request
+ * served on a virtual thread releases its carrier thread while it waits for the fsync.
+ *
+ * @author Hossam Yahya
+ */
+public class Journal implements Closeable {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	private static final String FILE_PREFIX = "journal-";
+	private static final String FILE_SUFFIX = ".log";
+	private static final int HEADER_SIZE = 4 + 4;
+	private static final int LSN_OFFSET = HEADER_SIZE;
+	private static final int PAYLOAD_OFFSET = HEADER_SIZE + 8 + 1;
+	/**
+	 * Appenders block while this many bytes are queued and not written yet
+	 */
+	private static final long MAX_PENDING_BYTES = 64L << 20;
+
+	private final File directory;
+	private final Durability durability;
+	private final long intervalNanos;
+	private final Thread writer;
+
+	/**
+	 * The current segment, only used by the writer thread
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Guards {@link #pending}, {@link #pendingBytes}, {@link #lastLsn}, {@link #rollRequested} and
+	 * {@link #closed}
+	 */
+	private final ReentrantLock appendLock = new ReentrantLock();
+	/**
+	 * Signaled when there is something for the writer thread to do
+	 */
+	private final Condition queued = appendLock.newCondition();
+	/**
+	 * Signaled when the writer thread took the queued records
+	 */
+	private final Condition drained = appendLock.newCondition();
+	private List<byte[]> pending = new ArrayList<byte[]>();
+	private long pendingBytes;
+	private long lastLsn;
+	private boolean rollRequested;
+	private boolean closed;
+
+	/**
+	 * Guards the waits on {@link #writtenLsn} and {@link #durableLsn}
+	 */
+	private final ReentrantLock writtenLock = new ReentrantLock();
+	private final Condition written = writtenLock.newCondition();
+	private volatile long writtenLsn;
+	private volatile long durableLsn;
+	private volatile IOException failure;
+
+	private Journal(File directory, FileChannel channel, Durability durability, long intervalMillis, long lastLsn) {
+		this.directory = directory;
+		this.channel = channel;
+		this.durability = durability;
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+		this.lastLsn = lastLsn;
+		this.writtenLsn = lastLsn;
+		this.durableLsn = lastLsn;
+		this.writer = new Thread(this::writeLoop, "journal-writer");
+		this.writer.setDaemon(true);
+	}
+
+	/**
+	 * Opens the journal of a directory, first replaying its records
+	 * @param directory the journal directory, created if missing
+	 * @param durability the durability mode of appended records
+	 * @param intervalMillis the interval between forces in {@link Durability#BATCH} mode
+	 * @param afterLsn only the records after this log sequence number are replayed, 0 to replay all
+	 * @param handler receives the replayed mutations in log order
+	 * @return the opened journal, ready for appends
+	 */
+	public static Journal open(File directory, Durability durability, long intervalMillis, long afterLsn, Handler handler) {
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Cannot create directory " + directory);
+			}
+
+			long[] segments = listSegments(directory);
+			long[] lastLsn = new long[] { afterLsn };
+			long validLength = 0;
+			for (int i = 0; i < segments.length; i++) {
+				// A segment is skipped when the next one starts at or before the first record to replay
+				if (i + 1 < segments.length && segments[i + 1] <= afterLsn + 1) {
+					continue;
+				}
+				File file = segmentFile(directory, segments[i]);
+				validLength = replay(file, afterLsn, handler, lastLsn);
+				if (i + 1 < segments.length && validLength < file.length()) {
+					LoggerFactory.getLogger(Journal.class).warn("Journal segment has a corrupt record: {} at {}", file, validLength);
+				}
+			}
+
+			FileChannel channel;
+			if (segments.length == 0) {
+				channel = openSegment(directory, lastLsn[0] + 1);
+			} else {
+				File file = segmentFile(directory, segments[segments.length - 1]);
+				channel = new RandomAccessFile(file, "rw").getChannel();
+				if (channel.size() > validLength) {
+					LoggerFactory.getLogger(Journal.class).warn("Journal truncated after a torn record: {} at {}", file, validLength);
+					channel.truncate(validLength);
+				}
+				channel.position(validLength);
+			}
+
+			Journal journal = new Journal(directory, channel, durability, intervalMillis, lastLsn[0]);
+			journal.writer.start();
+			return journal;
+		} catch (IOException e) {
+			throw new DataException("Cannot open journal in " + directory, e);
+		}
+	}
+
+	/**
+	 * Requests the writer thread to start a new segment after the records queued so far
+	 */
+	public void roll() {
+		appendLock.lock();
+		try {
+			rollRequested = true;
+			queued.signal();
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Deletes the segments whose records are all covered by a snapshot, the current segment is never deleted
+	 * @param lsn the log sequence number of the last record covered by the snapshot
+	 */
+	public void deleteSegmentsUpTo(long lsn) {
+		long[] segments = listSegments(directory);
+		for (int i = 0; i + 1 < segments.length && segments[i + 1] - 1 <= lsn; i++) {
+			File file = segmentFile(directory, segments[i]);
+			if (!file.delete()) {
+				logger.warn("deleteSegmentsUpTo() cannot delete journal segment: {}", file);
+			}
+		}
+	}
+
+	/**
+	 * Queues a record, assigning it the next log sequence number. Must be called while holding the lock
+	 * ordering the journaled mutation, so that the log order matches the order mutations were applied.
+	 * @param record the record encoded by one of the <code>encode</code> methods
+	 * @return the log sequence number of the record
+	 */
+	public long append(byte[] record) {
+		appendLock.lock();
+		try {
+			while (pendingBytes >= MAX_PENDING_BYTES && !closed && failure == null) {
+				try {
+					drained.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new DataException("Interrupted while appending to the journal", e);
+				}
+			}
+			if (failure != null) {
+				throw new DataException("Journal write failed", failure);
+			}
+			if (closed) {
+				throw new DataException("Journal is closed");
+			}
+
+			long lsn = ++lastLsn;
+			ByteBuffer.wrap(record).putLong(LSN_OFFSET, lsn);
+			pending.add(record);
+			pendingBytes += record.length;
+			if (pending.size() == 1) {
+				queued.signal();
+			}
+			return lsn;
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until all records appended so far are as durable as the {@link Durability} mode promises:
+	 * forced to disk in {@link Durability#SYNC} mode, not waited for in the other modes.
+	 */
+	public void sync() {
+		sync(getLastLsn());
+	}
+
+	/**
+	 * Waits until a record is as durable as the {@link Durability} mode promises, like {@link #sync()} but
+	 * without waiting for the records appended after it by other threads
+	 * @param lsn the log sequence number of the record, returned by {@link #append(byte[])}, 0 for none
+	 */
+	public void sync(long lsn) {
+		if (durability != Durability.SYNC) {
+			return;
+		}
+
+		awaitDurable(lsn);
+	}
+
+	/**
+	 * Waits until a record is forced to disk
+	 * @param lsn the log sequence number of the record
+	 */
+	public void awaitDurable(long lsn) {
+		if (durableLsn >= lsn) {
+			return;
+		}
+		writtenLock.lock();
+		try {
+			while (durableLsn < lsn) {
+				if (failure != null) {
+					throw new DataException("Journal write failed", failure);
+				}
+				try {
+					written.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new DataException("Interrupted while waiting for the journal", e);
+				}
+			}
+		} finally {
+			writtenLock.unlock();
+		}
+	}
+
+	/**
+	 * @return the log sequence number of the last appended record
+	 */
+	public long getLastLsn() {
+		appendLock.lock();
+		try {
+			return lastLsn;
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes and forces all queued records, then stops the writer thread
+	 */
+	@Override
+	public void close() {
+		appendLock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			queued.signal();
+			drained.signalAll();
+		} finally {
+			appendLock.unlock();
+		}
+		try {
+			writer.join();
+			channel.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			logger.error("close() failed to close the journal", e);
+		}
+	}
+
+	private void writeLoop() {
+		long lastForce = System.nanoTime();
+		while (true) {
+			List<byte[]> batch;
+			boolean roll;
+			boolean stopping;
+			appendLock.lock();
+			try {
+				while (pending.isEmpty() && !rollRequested && !closed) {
+					try {
+						if (durability == Durability.BATCH && durableLsn < writtenLsn) {
+							queued.awaitNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(1), intervalNanos - (System.nanoTime() - lastForce)));
+							break;
+						}
+						queued.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+				batch = pending;
+				pending = new ArrayList<byte[]>(Math.max(16, batch.size()));
+				pendingBytes = 0;
+				roll = rollRequested;
+				rollRequested = false;
+				stopping = closed;
+				drained.signalAll();
+			} finally {
+				appendLock.unlock();
+			}
+
+			try {
+				long lsn = write(batch);
+				boolean force = durability == Durability.SYNC
+						|| (durability == Durability.BATCH && System.nanoTime() - lastForce >= intervalNanos)
+						|| roll || stopping;
+				if (force && durableLsn < lsn) {
+					channel.force(false);
+					lastForce = System.nanoTime();
+				}
+				writtenLock.lock();
+				try {
+					writtenLsn = lsn;
+					if (force) {
+						durableLsn = lsn;
+					}
+					written.signalAll();
+				} finally {
+					writtenLock.unlock();
+				}
+				if (roll && !stopping) {
+					channel.close();
+					channel = openSegment(directory, lsn + 1);
+				}
+			} catch (IOException e) {
+				logger.error("writeLoop() journal write failed", e);
+				writtenLock.lock();
+				try {
+					failure = e;
+					written.signalAll();
+				} finally {
+					writtenLock.unlock();
+				}
+				// Wakes the appenders waiting for room, the records they would queue can no longer be written
+				appendLock.lock();
+				try {
+					drained.signalAll();
+				} finally {
+					appendLock.unlock();
+				}
+				return;
+			}
+
+			if (stopping) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Writes a batch of records with one gathering write
+	 * @param batch the records to write
+	 * @return the log sequence number of the last written record
+	 */
+	private long write(List<byte[]> batch) throws IOException {
+		if (batch.isEmpty()) {
+			return writtenLsn;
+		}
+
+		CRC32 crc = new CRC32();
+		ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+		for (int i = 0; i < buffers.length; i++) {
+			byte[] record = batch.get(i);
+			crc.reset();
+			crc.update(record, LSN_OFFSET, record.length - LSN_OFFSET);
+			ByteBuffer buffer = ByteBuffer.wrap(record);
+			buffer.putInt(4, (int) crc.getValue());
+			buffers[i] = buffer;
+		}
+		for (int offset = 0; offset < buffers.length; ) {
+			channel.write(buffers, offset, buffers.length - offset);
+			while (offset < buffers.length && !buffers[offset].hasRemaining()) {
+				offset++;
+			}
+		}
+		return ByteBuffer.wrap(batch.get(batch.size() - 1)).getLong(LSN_OFFSET);
+	}
+
+	/**
+	 * Lists the segments of a journal directory
+	 * @param directory the journal directory
+	 * @return the sorted log sequence numbers of the first record of each segment
+	 */
+	private static long[] listSegments(File directory) {
+		String[] names = directory.list((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+		long[] segments = new long[names == null ? 0 : names.length];
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = Long.parseLong(names[i].substring(FILE_PREFIX.length(), names[i].length() - FILE_SUFFIX.length()));
+		}
+		Arrays.sort(segments);
+		return segments;
+	}
+
+	private static File segmentFile(File directory, long firstLsn) {
+		return new File(directory, String.format("%s%020d%s", FILE_PREFIX, firstLsn, FILE_SUFFIX));
+	}
+
+	private static FileChannel openSegment(File directory, long firstLsn) throws IOException {
+		return new RandomAccessFile(segmentFile(directory, firstLsn), "rw").getChannel();
+	}
+
+	/**
+	 * Replays the records of a journal file
+	 * @param file the journal file
+	 * @param afterLsn only records with a greater log sequence number are replayed
+	 * @param handler receives the replayed mutations
+	 * @param lastLsn receives the log sequence number of the last valid record, if greater
+	 * @return the length of the valid part of the file
+	 */
+	private static long replay(File file, long afterLsn, Handler handler, long[] lastLsn) throws IOException {
+		long position = 0;
+		long length = file.length();
+		CRC32 crc = new CRC32();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+			while (true) {
+				byte[] record;
+				try {
+					int payloadLength = in.readInt();
+					int checksum = in.readInt();
+					// A length running past the end of the segment can only come from a torn or corrupt header
+					if (payloadLength < 0 || payloadLength > length - position - PAYLOAD_OFFSET) {
+						break;
+					}
+					record = new byte[PAYLOAD_OFFSET + payloadLength];
+					in.readFully(record, LSN_OFFSET, record.length - LSN_OFFSET);
+					crc.reset();
+					crc.update(record, LSN_OFFSET, record.length - LSN_OFFSET);
+					if ((int) crc.getValue() != checksum) {
+						break;
+					}
+				} catch (EOFException e) {
+					break;
+				}
+
+				ByteBuffer buffer = ByteBuffer.wrap(record);
+				long lsn = buffer.getLong(LSN_OFFSET);
+				if (lsn > afterLsn) {
+					decode(buffer, handler);
+				}
+				lastLsn[0] = Math.max(lastLsn[0], lsn);
+				position += record.length;
+			}
+		}
+		return position;
+	}
+
+	private static void decode(ByteBuffer buffer, Handler handler) {
+		buffer.position(PAYLOAD_OFFSET - 1);
+		RecordType type = RecordType.values()[buffer.get()];
+		switch (type) {
+		case OFFER_CREATED:
+			String offerJobTitle = readString(buffer);
+			long startDate = buffer.getLong();
+			handler.offerCreated(new Offer(offerJobTitle, startDate == Long.MIN_VALUE ? null : new Date(startDate), buffer.getLong()));
+			break;
+		case APPLICATION_CREATED:
+			handler.applicationCreated(new Application(readString(buffer), readString(buffer), readString(buffer), readStatus(buffer)));
+			break;
+		case STATUS_UPDATED:
+			handler.statusUpdated(readString(buffer), readString(buffer), readStatus(buffer));
+			break;
+		}
+	}
+
+	/**
+	 * Encodes the creation of an {@link Offer}
+	 * @param offer the created offer, with its number of applications at creation time
+	 * @return the encoded record
+	 */
+	public static byte[] encodeOfferCreated(Offer offer) {
+		byte[] jobTitle = bytes(offer.getJobTitle());
+		ByteBuffer buffer = newRecord(RecordType.OFFER_CREATED, size(jobTitle) + 8 + 8);
+		writeString(buffer, jobTitle);
+		buffer.putLong(offer.getStartDate() == null ? Long.MIN_VALUE : offer.getStartDate().getTime());
+		buffer.putLong(offer.getNumberOfApplications());
+		return buffer.array();
+	}
+
+	/**
+	 * Encodes the creation of an {@link Application}
+	 * @param application the created application
+	 * @return the encoded record
+	 */
+	public static byte[] encodeApplicationCreated(Application application) {
+		byte[] jobTitle = bytes(application.getJobTitle());
+		byte[] candidateEmail = bytes(application.getCandidateEmail());
+		byte[] resumeText = bytes(application.getResumeText());
+		ByteBuffer buffer = newRecord(RecordType.APPLICATION_CREATED, size(jobTitle) + size(candidateEmail) + size(resumeText) + 1);
+		writeString(buffer, jobTitle);
+		writeString(buffer, candidateEmail);
+		writeString(buffer, resumeText);
+		writeStatus(buffer, application.getStatus());
+		return buffer.array();
+	}
+
+	/**
+	 * Encodes the status update of an {@link Application}
+	 * @param jobTitle the job title of the application
+	 * @param candidateEmail the candidate email of the application
+	 * @param status the new status
+	 * @return the encoded record
+	 */
+	public static byte[] encodeStatusUpdated(String jobTitle, String candidateEmail, Application.Status status) {
+		byte[] jobTitleBytes = bytes(jobTitle);
+		byte[] candidateEmailBytes = bytes(candidateEmail);
+		ByteBuffer buffer = newRecord(RecordType.STATUS_UPDATED, size(jobTitleBytes) + size(candidateEmailBytes) + 1);
+		writeString(buffer, jobTitleBytes);
+		writeString(buffer, candidateEmailBytes);
+		writeStatus(buffer, status);
+		return buffer.array();
+	}
+
+	private static ByteBuffer newRecord(RecordType type, int payloadLength) {
+		ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_OFFSET + payloadLength);
+		buffer.putInt(payloadLength);
+		buffer.position(PAYLOAD_OFFSET - 1);
+		buffer.put((byte) type.ordinal());
+		return buffer;
+	}
+
+	private static byte[] bytes(String value) {
+		return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int size(byte[] value) {
+		return 4 + (value == null ? 0 : value.length);
+	}
+
+	private static void writeString(ByteBuffer buffer, byte[] value) {
+		if (value == null) {
+			buffer.putInt(-1);
+		} else {
+			buffer.putInt(value.length);
+			buffer.put(value);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+
+	private static void writeStatus(ByteBuffer buffer, Application.Status status) {
+		buffer.put(status == null ? -1 : (byte) status.ordinal());
+	}
+
+	private static Application.Status readStatus(ByteBuffer buffer) {
+		byte status = buffer.get();
+		return status < 0 ? null : Application.Status.values()[status];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Journal [durability=").append(durability).append(", writtenLsn=").append(writtenLsn)
+				.append(", durableLsn=").append(durableLsn).append("]");
+		return builder.toString();
+	}
+
+	/**
+	 * Receives the mutations replayed from the journal
+	 */
+	public interface Handler {
+		void offerCreated(Offer offer);
+
+		void applicationCreated(Application application);
+
+		void statusUpdated(String jobTitle, String candidateEmail, Application.Status status);
+	}
+
+	private enum RecordType {
+		OFFER_CREATED,
+		APPLICATION_CREATED,
+		STATUS_UPDATED
+	}
+
+	public enum Durability {
+		/**
+		 * Writers wait until their record is forced to disk, concurrent writers share one force
+		 */
+		SYNC,
+		/**
+		 * Writers do not wait, the writer thread forces written records on an interval
+		 */
+		BATCH,
+		/**
+		 * Writers do not wait and records are never forced, the operating system flushes them
+		 */
+		ASYNC
+	}
+}
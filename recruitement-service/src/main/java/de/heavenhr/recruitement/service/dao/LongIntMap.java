@@ -0,0 +1,355 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The class <code>LongIntMap</code> is a concurrent open addressing hash map from primitive long keys
+ * to primitive int values.
+ * <p>
+ * The map is split in independently locked segments so that writers on different segments do not
+ * contend. Each segment is a linear probing table of parallel key and value arrays, read under an
+ * optimistic {@link StampedLock} stamp so the lookup path neither blocks nor allocates. The key 0 is
+ * reserved to mark empty slots and values must not be negative.
+ *
+ * @author Hossam Yahya
+ */
+class LongIntMap {
+
+	/**
+	 * Returned by {@link #get(long)} when the key is not mapped
+	 */
+	static final int NO_VALUE = -1;
+
+	private static final int SEGMENT_BITS = 6;
+	private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+	private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+	LongIntMap() {
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * Finds the value mapped to a key
+	 * @param key the key, must not be 0
+	 * @return the mapped value or {@link #NO_VALUE} if the key is not mapped
+	 */
+	int get(long key) {
+		long hash = mix(key);
+		return segmentFor(hash).get(key, (int) hash);
+	}
+
+	/**
+	 * Maps a key to the value returned by the supplier if the key is not mapped already. The supplier
+	 * is called under the segment lock, at most once, and only when the key is absent.
+	 * <p>
+	 * Like {@link java.util.Arrays#binarySearch(int[], int)} the result encodes two outcomes in one int:
+	 * the existing value when the key was mapped already, or <code>(-(inserted value) - 1)</code> when
+	 * the supplied value was inserted, so the result is negative if and only if the key was inserted.
+	 * @param key the key, must not be 0
+	 * @param valueSupplier supplies the value to insert, must not return a negative value
+	 * @return the existing value, or <code>(-(inserted value) - 1)</code>
+	 */
+	int putIfAbsent(long key, IntSupplier valueSupplier) {
+		long hash = mix(key);
+		return segmentFor(hash).putIfAbsent(key, (int) hash, valueSupplier);
+	}
+
+	/**
+	 * Maps each key of a batch like {@link #putIfAbsent(long, IntSupplier)}, in one critical section: the
+	 * locks of all the segments the keys fall in are acquired once, in segment order so that concurrent
+	 * batches cannot deadlock, and the keys are then inserted in batch order.
+	 * @param keys the keys, must not be 0
+	 * @param count the number of keys of the batch
+	 * @param valueSupplier supplies the value to insert for the key at an index of the batch, called only
+	 * when the key is absent and in batch order
+	 * @return for each key, the existing value or <code>(-(inserted value) - 1)</code>
+	 */
+	int[] putAllIfAbsent(long[] keys, int count, IntUnaryOperator valueSupplier) {
+		long[] hashes = new long[count];
+		long[] stamps = new long[segments.length];
+		long locked = lockAll(keys, count, hashes, stamps);
+		try {
+			int[] results = new int[count];
+			for (int i = 0; i < count; i++) {
+				int index = i;
+				results[i] = segmentFor(hashes[i]).putIfAbsentLocked(keys[i], (int) hashes[i], () -> valueSupplier.applyAsInt(index));
+			}
+			return results;
+		} finally {
+			unlockAll(locked, stamps);
+		}
+	}
+
+	/**
+	 * Runs an action on the value mapped to each key of a batch like {@link #update(long, IntConsumer)}, in
+	 * one critical section acquired like in {@link #putAllIfAbsent(long[], int, IntUnaryOperator)}
+	 * @param keys the keys, must not be 0
+	 * @param count the number of keys of the batch
+	 * @param action the action to run, in batch order, with the index in the batch of each mapped key and
+	 * its value, the keys which are not mapped are skipped
+	 */
+	void updateAll(long[] keys, int count, IndexedValueConsumer action) {
+		long[] hashes = new long[count];
+		long[] stamps = new long[segments.length];
+		long locked = lockAll(keys, count, hashes, stamps);
+		try {
+			for (int i = 0; i < count; i++) {
+				Segment segment = segmentFor(hashes[i]);
+				int value = Segment.find(segment.keys, segment.values, keys[i], (int) hashes[i]);
+				if (value != NO_VALUE) {
+					action.accept(i, value);
+				}
+			}
+		} finally {
+			unlockAll(locked, stamps);
+		}
+	}
+
+	/**
+	 * Acquires the write locks of all the segments of a batch of keys, in segment order
+	 * @return the bit set of the locked segments, a long holding one bit for each of the 64 segments
+	 */
+	private long lockAll(long[] keys, int count, long[] hashes, long[] stamps) {
+		long locked = 0;
+		for (int i = 0; i < count; i++) {
+			hashes[i] = mix(keys[i]);
+			locked |= 1L << segmentIndex(hashes[i]);
+		}
+		for (int segment = 0; segment < segments.length; segment++) {
+			if ((locked & (1L << segment)) != 0) {
+				stamps[segment] = segments[segment].lock.writeLock();
+			}
+		}
+		return locked;
+	}
+
+	private void unlockAll(long locked, long[] stamps) {
+		for (int segment = segments.length - 1; segment >= 0; segment--) {
+			if ((locked & (1L << segment)) != 0) {
+				segments[segment].lock.unlockWrite(stamps[segment]);
+			}
+		}
+	}
+
+	/**
+	 * Runs an action on the value mapped to a key while holding the key segment lock, so that actions on
+	 * the same key are serialized
+	 * @param key the key, must not be 0
+	 * @param action the action to run on the mapped value
+	 * @return whether the key is mapped and the action was run
+	 */
+	boolean update(long key, IntConsumer action) {
+		long hash = mix(key);
+		return segmentFor(hash).update(key, (int) hash, action);
+	}
+
+	/**
+	 * Runs an action on every mapping. Each segment is copied under an optimistic read, or briefly under
+	 * its read lock, and the action runs on the copy, so the iteration never holds a lock while calling
+	 * the action. The iteration is weakly consistent: mappings added while it runs may or may not be seen.
+	 * @param action the action to run on each mapping
+	 */
+	void forEach(EntryConsumer action) {
+		for (Segment segment : segments) {
+			segment.forEach(action);
+		}
+	}
+
+	/**
+	 * Waits until all the writes started before this call are done, by acquiring and releasing the write
+	 * lock of each segment in turn
+	 */
+	void barrier() {
+		for (Segment segment : segments) {
+			segment.lock.unlockWrite(segment.lock.writeLock());
+		}
+	}
+
+	/**
+	 * @return the number of mapped keys
+	 */
+	long size() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.size;
+		}
+		return size;
+	}
+
+	/**
+	 * Packs two positive int ids into a non zero long key
+	 * @param high the id stored in the high 32 bits
+	 * @param low the id stored in the low 32 bits
+	 * @return the packed key
+	 */
+	static long pack(int high, int low) {
+		return ((long) high << 32) | (low & 0xFFFFFFFFL);
+	}
+
+	private Segment segmentFor(long hash) {
+		return segments[segmentIndex(hash)];
+	}
+
+	private static int segmentIndex(long hash) {
+		return (int) (hash >>> (64 - SEGMENT_BITS));
+	}
+
+	/**
+	 * The finalization step of MurmurHash3, spreads all key bits over the hash
+	 */
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51AFD7ED558CCDL;
+		key ^= key >>> 33;
+		key *= 0xC4CEB9FE1A85EC53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	/**
+	 * Receives the mappings iterated by {@link LongIntMap#forEach(EntryConsumer)}
+	 */
+	interface EntryConsumer {
+		void accept(long key, int value);
+	}
+
+	/**
+	 * Receives the mappings of a batch updated by {@link LongIntMap#updateAll(long[], int, IndexedValueConsumer)}
+	 */
+	interface IndexedValueConsumer {
+		void accept(int index, int value);
+	}
+
+	/**
+	 * One independently locked linear probing table
+	 */
+	private static class Segment {
+		private final StampedLock lock = new StampedLock();
+		private long[] keys = new long[INITIAL_SEGMENT_CAPACITY];
+		private int[] values = new int[INITIAL_SEGMENT_CAPACITY];
+		private volatile int size;
+
+		int get(long key, int hash) {
+			long stamp = lock.tryOptimisticRead();
+			int value = find(keys, values, key, hash);
+			if (!lock.validate(stamp)) {
+				stamp = lock.readLock();
+				try {
+					value = find(keys, values, key, hash);
+				} finally {
+					lock.unlockRead(stamp);
+				}
+			}
+			return value;
+		}
+
+		int putIfAbsent(long key, int hash, IntSupplier valueSupplier) {
+			long stamp = lock.writeLock();
+			try {
+				return putIfAbsentLocked(key, hash, valueSupplier);
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		/**
+		 * Maps a key if absent, the caller holding the write lock
+		 */
+		int putIfAbsentLocked(long key, int hash, IntSupplier valueSupplier) {
+			int existing = find(keys, values, key, hash);
+			if (existing != NO_VALUE) {
+				return existing;
+			}
+
+			if (((size + 1) << 2) > keys.length * 3) {
+				resize(keys.length << 1);
+			}
+			int value = valueSupplier.getAsInt();
+			insert(keys, values, key, hash, value);
+			size++;
+			return -value - 1;
+		}
+
+		boolean update(long key, int hash, IntConsumer action) {
+			long stamp = lock.writeLock();
+			try {
+				int value = find(keys, values, key, hash);
+				if (value == NO_VALUE) {
+					return false;
+				}
+				action.accept(value);
+				return true;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		void forEach(EntryConsumer action) {
+			long[] copiedKeys;
+			int[] copiedValues;
+			long stamp = lock.tryOptimisticRead();
+			copiedKeys = keys.clone();
+			copiedValues = values.clone();
+			if (!lock.validate(stamp)) {
+				stamp = lock.readLock();
+				try {
+					copiedKeys = keys.clone();
+					copiedValues = values.clone();
+				} finally {
+					lock.unlockRead(stamp);
+				}
+			}
+			for (int i = 0; i < copiedKeys.length; i++) {
+				if (copiedKeys[i] != 0) {
+					action.accept(copiedKeys[i], copiedValues[i]);
+				}
+			}
+		}
+
+		private static int find(long[] keys, int[] values, long key, int hash) {
+			// Differing lengths only happen on a torn optimistic read, which is discarded by the caller
+			if (keys.length != values.length) {
+				return NO_VALUE;
+			}
+			int mask = keys.length - 1;
+			for (int i = hash & mask, probes = 0; probes < keys.length; i = (i + 1) & mask, probes++) {
+				long candidate = keys[i];
+				if (candidate == key) {
+					return values[i];
+				}
+				if (candidate == 0) {
+					return NO_VALUE;
+				}
+			}
+			return NO_VALUE;
+		}
+
+		private static void insert(long[] keys, int[] values, long key, int hash, int value) {
+			int mask = keys.length - 1;
+			int i = hash & mask;
+			while (keys[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			values[i] = value;
+			keys[i] = key;
+		}
+
+		private void resize(int capacity) {
+			long[] newKeys = new long[capacity];
+			int[] newValues = new int[capacity];
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] != 0) {
+					insert(newKeys, newValues, keys[i], (int) mix(keys[i]), values[i]);
+				}
+			}
+			keys = newKeys;
+			values = newValues;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.IntFunction;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+
+/**
+ * The class <code>MappedChunkAllocator</code> allocates {@link Utf8Arena} chunks as consecutive memory
+ * mapped regions of one backing file, so the arena content is paged by the operating system instead of
+ * living on the Java heap.
+ * <p>
+ * The backing file is a scratch file: it is deleted when the JVM exits and is not read back on startup.
+ *
+ * @author Hossam Yahya
+ */
+class MappedChunkAllocator implements IntFunction<ByteBuffer> {
+
+	private final FileChannel channel;
+	private long position;
+
+	/**
+	 * Creates an allocator backed by a new file
+	 * @param directory the directory of the backing file
+	 * @param prefix the name prefix of the backing file
+	 */
+	MappedChunkAllocator(File directory, String prefix) {
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Cannot create directory " + directory);
+			}
+			File file = File.createTempFile(prefix, ".arena", directory);
+			file.deleteOnExit();
+			channel = new RandomAccessFile(file, "rw").getChannel();
+		} catch (IOException e) {
+			throw new DataException("Cannot create arena file in " + directory, e);
+		}
+	}
+
+	@Override
+	public synchronized ByteBuffer apply(int capacity) {
+		try {
+			// Mapping past the end of the file grows it
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, capacity);
+			position += capacity;
+			return buffer;
+		} catch (IOException e) {
+			throw new DataException("Cannot map arena chunk", e);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>OfferApplicationsIndex</code> is a secondary index from an {@link Offer} to its
+ * {@link Application}s, maintained incrementally by the {@link DAO}.
+ * <p>
+ * Applications are grouped by the normalized job title of their offer so that the per offer queries,
+ * which match job titles ignoring case, run in O(k) for the k applications of the offer and the count
+ * in O(1) instead of scanning all applications in the system. Each group keeps the row ids of its
+ * applications in ascending order.
+ * <p>
+ * The row of an application is allocated while holding the lock of its group and added to the group in the
+ * same critical section, so the rows of a group become visible in allocation order: a row lower than a page
+ * cursor already handed out never shows up later, and the pages stay stable under concurrent inserts.
+ *
+ * @author Hossam Yahya
+ */
+class OfferApplicationsIndex {
+
+	/**
+	 * The index buckets keyed by normalized job title
+	 */
+	private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+
+	/**
+	 * Allocates the row of a newly created {@link Application} and adds it to the index
+	 * @param jobTitle the job title of the application offer
+	 * @param allocate stores the application and returns its row id, called while holding the group lock
+	 * @return the row id of the application
+	 */
+	int add(String jobTitle, IntSupplier allocate) {
+		String normalizedJobTitle = normalize(jobTitle);
+		Bucket bucket = buckets.get(normalizedJobTitle);
+		if (bucket == null) {
+			bucket = buckets.computeIfAbsent(normalizedJobTitle, k -> new Bucket());
+		}
+		return bucket.add(allocate);
+	}
+
+	/**
+	 * Finds the row ids of all applications indexed under a job title
+	 * @param jobTitle the job title, matched ignoring case
+	 * @return the ascending row ids of the offer applications, empty if none
+	 */
+	int[] getRows(String jobTitle) {
+		Bucket bucket = buckets.get(normalize(jobTitle));
+		return bucket == null ? new int[0] : bucket.toArray();
+	}
+
+	/**
+	 * Finds the row ids of a range of the applications indexed under a job title
+	 * @param jobTitle the job title, matched ignoring case
+	 * @param afterRow only the rows greater than this row id are returned, -1 to start from the first row
+	 * @param limit the largest number of rows to return
+	 * @return the ascending row ids, empty if none
+	 */
+	int[] getRows(String jobTitle, int afterRow, int limit) {
+		Bucket bucket = buckets.get(normalize(jobTitle));
+		return bucket == null ? new int[0] : bucket.toArray(afterRow, limit);
+	}
+
+	/**
+	 * Finds the count of applications indexed under a job title
+	 * @param jobTitle the job title, matched ignoring case
+	 * @return the exact count of applications of the offer
+	 */
+	long getCount(String jobTitle) {
+		Bucket bucket = buckets.get(normalize(jobTitle));
+		return bucket == null ? 0 : bucket.size;
+	}
+
+	/**
+	 * Normalizes a job title so that two titles equal ignoring case map to the same key. The mapping
+	 * applies the same per character folding as {@link String#equalsIgnoreCase(String)}.
+	 * @param jobTitle the job title to normalize
+	 * @return the normalized job title
+	 */
+	static String normalize(String jobTitle) {
+		int length = jobTitle.length();
+		int i = 0;
+		// Fast path: most titles are already folded and need no copy
+		while (i < length && fold(jobTitle.charAt(i)) == jobTitle.charAt(i)) {
+			i++;
+		}
+		if (i == length) {
+			return jobTitle;
+		}
+
+		char[] chars = jobTitle.toCharArray();
+		for (; i < length; i++) {
+			chars[i] = fold(chars[i]);
+		}
+		return new String(chars);
+	}
+
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	/**
+	 * The ascending row ids of the applications of one normalized job title, guarded by a lock rather than a
+	 * monitor as storing an application can map a new arena chunk, so that a request on a virtual thread
+	 * releases its carrier thread while it waits
+	 */
+	private static class Bucket {
+		private final ReentrantLock lock = new ReentrantLock();
+		private int[] rows = new int[4];
+		private volatile int size;
+
+		int add(IntSupplier allocate) {
+			lock.lock();
+			try {
+				int row = allocate.getAsInt();
+				if (size == rows.length) {
+					rows = Arrays.copyOf(rows, size << 1);
+				}
+				// Rows are allocated in ascending order under this lock, so they are always appended
+				rows[size] = row;
+				size++;
+				return row;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int[] toArray() {
+			lock.lock();
+			try {
+				return Arrays.copyOf(rows, size);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		int[] toArray(int afterRow, int limit) {
+			lock.lock();
+			try {
+				// The rows being sorted, the range starts right after the cursor row found by binary search
+				int from = Arrays.binarySearch(rows, 0, size, afterRow);
+				from = from >= 0 ? from + 1 : -from - 1;
+				return Arrays.copyOfRange(rows, from, from + Math.min(limit, size - from));
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
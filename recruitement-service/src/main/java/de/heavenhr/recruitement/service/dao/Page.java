@@ -0,0 +1,115 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+
+/**
+ * The class <code>Page</code> is one page of a keyset paginated query of a {@link StorageEngine}.
+ * <p>
+ * The next page starts strictly after the sort key of the last item of this page, so pages stay stable
+ * while items are created. The key is handed to clients as an opaque, URL safe, cursor.
+ *
+ * @author Hossam Yahya
+ *
+ * @param <T> the type of the items
+ */
+public class Page<T> {
+
+	/**
+	 * The largest number of items of a page
+	 */
+	public static final int MAX_LIMIT = 1000;
+
+	private final List<T> items;
+	private final String next;
+
+	/**
+	 * Creates a page
+	 * @param items the items of the page
+	 * @param next the cursor of the next page, null if this is the last page
+	 */
+	public Page(List<T> items, String next) {
+		this.items = items;
+		this.next = next;
+	}
+
+	/**
+	 * @return the items of the page
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return the cursor of the next page, null if this is the last page
+	 */
+	public String getNext() {
+		return next;
+	}
+
+	/**
+	 * Validates the requested number of items of a page
+	 * @param limit the requested number of items
+	 * @throws DataException when the limit is not between 1 and {@link #MAX_LIMIT}
+	 */
+	static void validateLimit(int limit) throws DataException {
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new DataException("Limit must be between 1 and " + MAX_LIMIT);
+		}
+	}
+
+	/**
+	 * Encodes the sort key of the last item of a page into a cursor
+	 * @param key the sort key
+	 * @return the opaque cursor
+	 */
+	static String encodeCursor(String key) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Decodes the sort key of a cursor
+	 * @param cursor the cursor, may be null for the first page
+	 * @return the sort key, null for the first page
+	 * @throws DataException when the cursor is malformed
+	 */
+	static String decodeCursor(String cursor) throws DataException {
+		if (cursor == null || cursor.isEmpty()) {
+			return null;
+		}
+		try {
+			return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new DataException("Invalid cursor: " + cursor, e);
+		}
+	}
+
+	/**
+	 * Decodes the numeric sort key of a cursor
+	 * @param cursor the cursor, may be null for the first page
+	 * @param first the key to return for the first page
+	 * @return the sort key
+	 * @throws DataException when the cursor is malformed
+	 */
+	static long decodeCursor(String cursor, long first) throws DataException {
+		String key = decodeCursor(cursor);
+		if (key == null) {
+			return first;
+		}
+		try {
+			return Long.parseLong(key);
+		} catch (NumberFormatException e) {
+			throw new DataException("Invalid cursor: " + cursor, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Page [items#=").append(items.size()).append(", next=").append(next).append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,37 @@
+package de.heavenhr.recruitement.service.dao;
+
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The class <code>SearchHit</code> is an {@link Application} found by a resume search, with its relevance score.
+ *
+ * @author Hossam Yahya
+ */
+public class SearchHit {
+
+	private final Application application;
+	private final float score;
+
+	public SearchHit(Application application, float score) {
+		this.application = application;
+		this.score = score;
+	}
+
+	public Application getApplication() {
+		return application;
+	}
+
+	/**
+	 * @return the BM25 score of the application resume for the query, higher is more relevant
+	 */
+	public float getScore() {
+		return score;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("SearchHit [application=").append(application).append(", score=").append(score).append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,358 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>Snapshot</code> writes and loads the compact binary snapshots of the {@link DAO} state.
+ * <p>
+ * A snapshot file starts with a magic number, a version and the log sequence number (LSN) of the last
+ * {@link Journal} record it covers, followed by tagged offer and application records and a CRC32 of the
+ * whole file. Strings are UTF-8 encoded behind a varint of their length plus one, 0 marking null, and an
+ * application references its offer by the position of the offer in the file.
+ * <p>
+ * A snapshot is written to a temporary file, forced and atomically renamed, so a crash never leaves a
+ * partial snapshot behind. It is loaded through {@link MappedByteBuffer} windows and its checksum is
+ * verified before any record is applied.
+ *
+ * @author Hossam Yahya
+ */
+class Snapshot {
+	private static final Logger logger = LoggerFactory.getLogger(Snapshot.class);
+
+	private static final String FILE_PREFIX = "snapshot-";
+	private static final String FILE_SUFFIX = ".snap";
+	private static final int MAGIC = 0x48485253;
+	private static final byte VERSION = 1;
+	private static final int HEADER_SIZE = 4 + 1 + 8;
+	/**
+	 * The size of the mapped windows, a snapshot can be larger than a single mapping
+	 */
+	private static final int WINDOW_SIZE = 256 << 20;
+
+	private static final byte END = 0;
+	private static final byte OFFER = 1;
+	private static final byte APPLICATION = 2;
+
+	private Snapshot() {
+	}
+
+	/**
+	 * Starts writing a snapshot
+	 * @param directory the snapshot directory
+	 * @param lsn the log sequence number of the last journal record covered by the snapshot
+	 * @return the output receiving the snapshot records
+	 */
+	static Output create(File directory, long lsn) {
+		try {
+			return new Output(directory, lsn);
+		} catch (IOException e) {
+			throw new DataException("Cannot create snapshot in " + directory, e);
+		}
+	}
+
+	/**
+	 * Loads the latest valid snapshot of a directory
+	 * @param directory the snapshot directory
+	 * @param handler receives the offers, with their number of applications at creation time, and then the
+	 * applications of the snapshot
+	 * @return the log sequence number of the last journal record covered by the loaded snapshot, or 0 when
+	 * there is no valid snapshot
+	 */
+	static long load(File directory, Journal.Handler handler) {
+		long[] snapshots = listSnapshots(directory);
+		for (int i = snapshots.length - 1; i >= 0; i--) {
+			File file = snapshotFile(directory, snapshots[i]);
+			try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+				if (!verify(channel)) {
+					logger.warn("load() skipped snapshot with a wrong checksum: {}", file);
+					continue;
+				}
+				read(channel, handler);
+				return snapshots[i];
+			} catch (IOException e) {
+				logger.warn("load() skipped unreadable snapshot: {}", file, e);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Verifies the checksum of a snapshot
+	 */
+	private static boolean verify(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + 1 + 4) {
+			return false;
+		}
+
+		CRC32 crc = new CRC32();
+		long checked = size - 4;
+		for (long position = 0; position < checked; position += WINDOW_SIZE) {
+			crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, checked - position)));
+		}
+		MappedByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, checked, 4);
+		return trailer.getInt() == (int) crc.getValue();
+	}
+
+	private static void read(FileChannel channel, Journal.Handler handler) throws IOException {
+		Input in = new Input(channel);
+		if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+			throw new IOException("Not a snapshot file");
+		}
+		in.readLong();
+
+		List<String> offers = new ArrayList<String>();
+		while (true) {
+			byte tag = in.readByte();
+			if (tag == END) {
+				return;
+			} else if (tag == OFFER) {
+				String jobTitle = in.readString();
+				long startDate = in.readLong();
+				handler.offerCreated(new Offer(jobTitle, startDate == Long.MIN_VALUE ? null : new Date(startDate), in.readLong()));
+				offers.add(jobTitle);
+			} else if (tag == APPLICATION) {
+				String jobTitle = offers.get(in.readVarint());
+				String candidateEmail = in.readString();
+				String resumeText = in.readString();
+				byte status = in.readByte();
+				handler.applicationCreated(new Application(jobTitle, candidateEmail, resumeText
+						, status < 0 ? null : Application.Status.values()[status]));
+			} else {
+				throw new IOException("Unknown snapshot record: " + tag);
+			}
+		}
+	}
+
+	private static long[] listSnapshots(File directory) {
+		String[] names = directory.list((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+		long[] snapshots = new long[names == null ? 0 : names.length];
+		for (int i = 0; i < snapshots.length; i++) {
+			snapshots[i] = Long.parseLong(names[i].substring(FILE_PREFIX.length(), names[i].length() - FILE_SUFFIX.length()));
+		}
+		Arrays.sort(snapshots);
+		return snapshots;
+	}
+
+	private static File snapshotFile(File directory, long lsn) {
+		return new File(directory, String.format("%s%020d%s", FILE_PREFIX, lsn, FILE_SUFFIX));
+	}
+
+	/**
+	 * Receives the records of a snapshot being written
+	 */
+	static class Output implements Closeable {
+		private final File directory;
+		private final long lsn;
+		private final File temporary;
+		private final FileOutputStream file;
+		private final BufferedOutputStream buffered;
+		private final CRC32 crc = new CRC32();
+		private final DataOutputStream out;
+		private int offers;
+		private boolean committed;
+
+		private Output(File directory, long lsn) throws IOException {
+			this.directory = directory;
+			this.lsn = lsn;
+			this.temporary = new File(directory, snapshotFile(directory, lsn).getName() + ".tmp");
+			this.file = new FileOutputStream(temporary);
+			this.buffered = new BufferedOutputStream(file, 1 << 16);
+			this.out = new DataOutputStream(new CheckedOutputStream(buffered, crc));
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(lsn);
+		}
+
+		/**
+		 * Writes an offer
+		 * @param offer the offer
+		 * @param initialApplications the number of applications of the offer when it was created
+		 * @return the position of the offer in the snapshot, referenced by its applications
+		 */
+		int writeOffer(Offer offer, long initialApplications) {
+			try {
+				out.writeByte(OFFER);
+				writeString(offer.getJobTitle());
+				out.writeLong(offer.getStartDate() == null ? Long.MIN_VALUE : offer.getStartDate().getTime());
+				out.writeLong(initialApplications);
+				return offers++;
+			} catch (IOException e) {
+				throw new DataException("Cannot write snapshot " + temporary, e);
+			}
+		}
+
+		/**
+		 * Writes an application
+		 * @param offer the position of the application offer in the snapshot
+		 * @param application the application
+		 */
+		void writeApplication(int offer, Application application) {
+			try {
+				out.writeByte(APPLICATION);
+				writeVarint(offer);
+				writeString(application.getCandidateEmail());
+				writeString(application.getResumeText());
+				out.writeByte(application.getStatus() == null ? -1 : application.getStatus().ordinal());
+			} catch (IOException e) {
+				throw new DataException("Cannot write snapshot " + temporary, e);
+			}
+		}
+
+		/**
+		 * Completes the snapshot, forcing it to disk and making it the latest one, then deletes the older
+		 * snapshots
+		 */
+		void commit() {
+			try {
+				out.writeByte(END);
+				out.flush();
+				new DataOutputStream(buffered).writeInt((int) crc.getValue());
+				buffered.flush();
+				file.getChannel().force(true);
+				file.close();
+				Files.move(temporary.toPath(), snapshotFile(directory, lsn).toPath(), StandardCopyOption.ATOMIC_MOVE);
+				committed = true;
+			} catch (IOException e) {
+				throw new DataException("Cannot write snapshot " + temporary, e);
+			}
+
+			for (long snapshot : listSnapshots(directory)) {
+				if (snapshot < lsn && !snapshotFile(directory, snapshot).delete()) {
+					logger.warn("commit() cannot delete snapshot: {}", snapshotFile(directory, snapshot));
+				}
+			}
+		}
+
+		/**
+		 * Discards the snapshot unless it was committed
+		 */
+		@Override
+		public void close() {
+			if (committed) {
+				return;
+			}
+			try {
+				file.close();
+			} catch (IOException e) {
+				logger.warn("close() cannot close snapshot: {}", temporary, e);
+			}
+			if (!temporary.delete()) {
+				logger.warn("close() cannot delete snapshot: {}", temporary);
+			}
+		}
+
+		private void writeString(String value) throws IOException {
+			if (value == null) {
+				writeVarint(0);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarint(bytes.length + 1);
+			out.write(bytes);
+		}
+
+		private void writeVarint(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		}
+	}
+
+	/**
+	 * Reads a snapshot through consecutive mapped windows
+	 */
+	private static class Input {
+		private final FileChannel channel;
+		private final long size;
+		private long base;
+		private MappedByteBuffer buffer;
+		private byte[] scratch = new byte[256];
+
+		Input(FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW_SIZE, size));
+		}
+
+		/**
+		 * Makes sure the current window holds the next bytes, mapping the next window if needed
+		 */
+		private void ensure(int length) throws IOException {
+			if (buffer.remaining() >= length) {
+				return;
+			}
+			base += buffer.position();
+			if (base + length > size) {
+				throw new EOFException("Snapshot truncated at " + base);
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(Math.max(WINDOW_SIZE, length), size - base));
+		}
+
+		byte readByte() throws IOException {
+			ensure(1);
+			return buffer.get();
+		}
+
+		int readInt() throws IOException {
+			ensure(4);
+			return buffer.getInt();
+		}
+
+		long readLong() throws IOException {
+			ensure(8);
+			return buffer.getLong();
+		}
+
+		int readVarint() throws IOException {
+			int value = 0;
+			for (int shift = 0; ; shift += 7) {
+				byte b = readByte();
+				value |= (b & 0x7F) << shift;
+				if (b >= 0) {
+					return value;
+				}
+			}
+		}
+
+		String readString() throws IOException {
+			int length = readVarint() - 1;
+			if (length < 0) {
+				return null;
+			}
+			ensure(length);
+			if (scratch.length < length) {
+				scratch = new byte[Math.max(length, scratch.length << 1)];
+			}
+			buffer.get(scratch, 0, length);
+			return new String(scratch, 0, length, StandardCharsets.UTF_8);
+		}
+	}
+}
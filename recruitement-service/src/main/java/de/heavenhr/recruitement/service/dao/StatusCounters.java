@@ -0,0 +1,103 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The class <code>StatusCounters</code> counts the applications of each offer by status, the funnel of the
+ * offer, so that it is read without scanning the applications.
+ * <p>
+ * Each offer has one {@link LongAdder} per status, indexed by the status ordinal, and the engines update them
+ * as applications are created and their status changes, in the same step the change is applied. Each count is
+ * exact once the changes are applied, but a funnel read concurrently with a status change may count the
+ * application under neither or both of its statuses.
+ *
+ * @author Hossam Yahya
+ */
+class StatusCounters {
+
+	private static final Application.Status[] STATUSES = Application.Status.values();
+
+	private final ConcurrentMap<String, LongAdder[]> offers = new ConcurrentHashMap<String, LongAdder[]>();
+
+	/**
+	 * Adds an offer without applications, nothing is done when it was added already
+	 * @param jobTitle the job title of the offer
+	 */
+	void addOffer(String jobTitle) {
+		counters(jobTitle);
+	}
+
+	/**
+	 * Counts a created application
+	 * @param jobTitle the job title of the offer, which is added if it was not
+	 * @param status the status of the application, nothing is counted when null
+	 * @param count the number of applications
+	 */
+	void add(String jobTitle, Application.Status status, long count) {
+		if (status != null) {
+			counters(jobTitle)[status.ordinal()].add(count);
+		}
+	}
+
+	private LongAdder[] counters(String jobTitle) {
+		LongAdder[] counters = offers.get(jobTitle);
+		if (counters != null) {
+			return counters;
+		}
+		return offers.computeIfAbsent(jobTitle, title -> {
+			LongAdder[] created = new LongAdder[STATUSES.length];
+			for (int i = 0; i < created.length; i++) {
+				created[i] = new LongAdder();
+			}
+			return created;
+		});
+	}
+
+	/**
+	 * Moves an application from a status to another
+	 * @param jobTitle the job title of the offer
+	 * @param oldStatus the status the application had
+	 * @param newStatus the status the application has
+	 */
+	void move(String jobTitle, Application.Status oldStatus, Application.Status newStatus) {
+		if (oldStatus != newStatus) {
+			add(jobTitle, oldStatus, -1);
+			add(jobTitle, newStatus, 1);
+		}
+	}
+
+	/**
+	 * @param jobTitle the job title of the offer
+	 * @return the count of the applications of the offer for each status, null when the offer was not added
+	 */
+	Map<Application.Status, Long> get(String jobTitle) {
+		LongAdder[] counters = offers.get(jobTitle);
+		return counters == null ? null : toMap(counters);
+	}
+
+	/**
+	 * @return for each offer job title, in alphabetical order, the count of its applications for each status
+	 */
+	Map<String, Map<Application.Status, Long>> getAll() {
+		Map<String, Map<Application.Status, Long>> funnels = new TreeMap<String, Map<Application.Status, Long>>();
+		for (Map.Entry<String, LongAdder[]> offer : offers.entrySet()) {
+			funnels.put(offer.getKey(), toMap(offer.getValue()));
+		}
+		return funnels;
+	}
+
+	private static Map<Application.Status, Long> toMap(LongAdder[] counters) {
+		Map<Application.Status, Long> countByStatus = new EnumMap<Application.Status, Long>(Application.Status.class);
+		for (Application.Status status : STATUSES) {
+			countByStatus.put(status, counters[status.ordinal()].sum());
+		}
+		return countByStatus;
+	}
+}
@@ -0,0 +1,50 @@
+package de.heavenhr.recruitement.service.dao;
+
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The class <code>StatusUpdate</code> is the outcome of one {@link Application} status change of a bulk
+ * status update, the old status being read in the same step the new one is written.
+ *
+ * @author Hossam Yahya
+ */
+public class StatusUpdate {
+
+	private final String jobTitle;
+	private final String candidateEmail;
+	private final Application.Status oldStatus;
+	private final Application.Status newStatus;
+
+	public StatusUpdate(String jobTitle, String candidateEmail, Application.Status oldStatus, Application.Status newStatus) {
+		this.jobTitle = jobTitle;
+		this.candidateEmail = candidateEmail;
+		this.oldStatus = oldStatus;
+		this.newStatus = newStatus;
+	}
+
+	public String getJobTitle() {
+		return jobTitle;
+	}
+
+	public String getCandidateEmail() {
+		return candidateEmail;
+	}
+
+	public Application.Status getOldStatus() {
+		return oldStatus;
+	}
+
+	public Application.Status getNewStatus() {
+		return newStatus;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("StatusUpdate [jobTitle=").append(jobTitle)
+				.append(", candidateEmail=").append(candidateEmail)
+				.append(", oldStatus=").append(oldStatus)
+				.append(", newStatus=").append(newStatus).append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,47 @@
+package de.heavenhr.recruitement.service.dao;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The class <code>StorageConfiguration</code> creates the {@link StorageEngine} selected by the
+ * <code>recruitement.storage.engine</code> property, <code>memory</code> by default.
+ *
+ * @author Hossam Yahya
+ */
+@Configuration
+public class StorageConfiguration {
+
+	/**
+	 * @return the storage settings bound from the <code>recruitement.storage.*</code> properties
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = StorageProperties.PREFIX)
+	public StorageProperties storageProperties() {
+		return new StorageProperties();
+	}
+
+	/**
+	 * @param properties the storage settings
+	 * @return the in-memory storage engine
+	 */
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = StorageProperties.PREFIX, name = "engine", havingValue = "memory", matchIfMissing = true)
+	public StorageEngine memoryStorageEngine(StorageProperties properties) {
+		return new DAO(properties);
+	}
+
+	/**
+	 * @param dataSource the pooled data source configured by the <code>spring.datasource.*</code> properties
+	 * @return the relational database storage engine
+	 */
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = StorageProperties.PREFIX, name = "engine", havingValue = "jdbc")
+	public StorageEngine jdbcStorageEngine(DataSource dataSource) {
+		return new JdbcDAO(dataSource);
+	}
+}
@@ -0,0 +1,231 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.exception.NoDataFoundException;
+import de.heavenhr.recruitement.service.exception.VersionMismatchException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The interface <code>StorageEngine</code> defines the persistence of offers and applications.
+ * <p>
+ * The engine is selected with the <code>recruitement.storage.engine</code> property: {@link DAO} keeps
+ * everything in memory, optionally journaled, and {@link JdbcDAO} keeps it in a relational database.
+ * Implementations must be safe for concurrent use and pass the storage conformance tests.
+ * <p>
+ * Each {@link Offer} and {@link Application} has a version, set to 1 when it is created and incremented
+ * each time it changes: an offer when its number of applications does and an application when its status
+ * does. {@link #getVersion()} is the version of all of them together, and {@link #getOffersVersion()} the
+ * version of the offers only, so that an unchanged version tells that no collection changed without reading any.
+ *
+ * @author Hossam Yahya
+ */
+public interface StorageEngine extends Closeable {
+
+	/**
+	 * The expected version of a conditional update matching any version
+	 */
+	long ANY_VERSION = -1;
+
+	/**
+	 * Finds the list of all offers in the system
+	 * @return list of all offers in the system
+	 * @throws NoDataFoundException
+	 */
+	Collection<Offer> getAllOffers() throws NoDataFoundException;
+
+	/**
+	 * Finds a page of the offers in the system, ordered by job title
+	 * @param after the cursor of the page, null for the first page
+	 * @param limit the largest number of offers of the page
+	 * @return the page of offers
+	 * @throws DataException when the cursor or the limit is invalid
+	 * @throws NoDataFoundException when there is no offer in the system
+	 */
+	Page<Offer> getOffers(String after, int limit) throws DataException, NoDataFoundException;
+
+	/**
+	 * Finds the job titles of the {@link Offer} starting with a prefix, for their autocompletion
+	 * @param prefix the prefix, matched ignoring case
+	 * @param maxEdits the largest number of characters to insert, delete or substitute in the prefix for a job title
+	 * to start with it, from 0 to 2, so that typos are tolerated
+	 * @param limit the largest number of job titles to find
+	 * @return the job titles, the ones closest to the prefix first, then in alphabetical order ignoring case
+	 * @throws DataException when the prefix is missing, or the number of edits or the limit is invalid
+	 */
+	List<String> suggestJobTitles(String prefix, int maxEdits, int limit) throws DataException;
+
+	/**
+	 * Finds an {@link Offer} by job title
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @return the found {@link Offer}
+	 * @throws NoDataFoundException
+	 */
+	Offer findOfferByJobTitle(String jobTitle) throws NoDataFoundException;
+
+	/**
+	 * Updates the {@link Application} status
+	 * @param application the {@link Application} to be updated
+	 * @throws NoDataFoundException
+	 */
+	void updateApplicationStatus(Application application) throws NoDataFoundException;
+
+	/**
+	 * Updates the {@link Application} status on the condition that it is at an expected version. The version is
+	 * checked, the old status read and the new one written in a single lookup of the application, atomically
+	 * with respect to the other changes of the same application only.
+	 * @param application the job title, candidate email and new status of the {@link Application} to be updated,
+	 * which receives the version it is updated to
+	 * @param expectedVersion the version the application must be at, {@link #ANY_VERSION} to update it whatever
+	 * its version
+	 * @return the {@link StatusUpdate} applied
+	 * @throws NoDataFoundException when the application does not exist
+	 * @throws VersionMismatchException when the application is at another version, it is left unchanged
+	 */
+	StatusUpdate compareAndSetApplicationStatus(Application application, long expectedVersion)
+			throws NoDataFoundException, VersionMismatchException;
+
+	/**
+	 * Updates the status of a batch of {@link Application} in one pass
+	 * @param applications the job title, candidate email and new status of each application to be updated
+	 * @return for each application, in order, the {@link StatusUpdate} applied to it, or null when it does not exist
+	 */
+	List<StatusUpdate> updateApplicationStatuses(List<Application> applications);
+
+	/**
+	 * Updates the status of all the {@link Application} of an {@link Offer} having a status, in one pass
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @param oldStatus only the applications having this status are updated, null to update all of them
+	 * @param newStatus the new status
+	 * @return the {@link StatusUpdate} applied to each updated application, in creation order
+	 * @throws NoDataFoundException when the offer does not exist
+	 */
+	List<StatusUpdate> updateOfferApplicationStatuses(String jobTitle, Application.Status oldStatus, Application.Status newStatus)
+			throws NoDataFoundException;
+
+	/**
+	 * Creates an {@link Application}
+	 * @param application the {@link Application} to be created
+	 * @throws DataException when invalid data provided or application already exist
+	 * @throws NoDataFoundException when the related offer does not exist
+	 */
+	void createApplication(Application application) throws DataException, NoDataFoundException;
+
+	/**
+	 * Creates a batch of {@link Application}, each one independently of the others
+	 * @param applications the applications to be created
+	 * @return for each application, in order, null when it was created or the {@link DataException} or
+	 * {@link NoDataFoundException} telling why it was not
+	 */
+	List<Exception> createApplications(List<Application> applications);
+
+	/**
+	 * Creates an {@link Offer}
+	 * @param offer the {@link Offer} to be created
+	 * @throws DataException
+	 */
+	void createOffer(Offer offer) throws DataException;
+
+	/**
+	 * Finds all {@link Application} for a specific {@link Offer}, matching the job title case insensitively
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @return collection of all applications under a specific offer
+	 * @throws NoDataFoundException
+	 */
+	List<Application> getOfferApplications(String jobTitle) throws NoDataFoundException;
+
+	/**
+	 * Finds a page of the {@link Application} for a specific {@link Offer}, matching the job title case
+	 * insensitively, in creation order
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @param after the cursor of the page, null for the first page
+	 * @param limit the largest number of applications of the page
+	 * @return the page of applications
+	 * @throws DataException when the cursor or the limit is invalid
+	 * @throws NoDataFoundException when the offer has no applications
+	 */
+	Page<Application> getOfferApplications(String jobTitle, String after, int limit) throws DataException, NoDataFoundException;
+
+	/**
+	 * Finds the count of all {@link Application} for a specific {@link Offer}, matching the job title case
+	 * insensitively
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @return the count of all applications under a specific offer
+	 * @throws NoDataFoundException
+	 */
+	long getOfferApplicationsCount(String jobTitle) throws NoDataFoundException;
+
+	/**
+	 * Finds a specific {@link Application}
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @param candidateEmail the unique key to identify the {@link Application} along with the job title
+	 * @return the found {@link Application}
+	 * @throws NoDataFoundException
+	 */
+	Application getOfferApplication(String jobTitle, String candidateEmail) throws NoDataFoundException;
+
+	/**
+	 * Searches the {@link Application} resumes by keywords
+	 * @param query the keywords, matched ignoring case
+	 * @param jobTitle the unique key to identify the {@link Offer} to search the applications of, null to search all
+	 * applications
+	 * @param limit the largest number of applications to find
+	 * @return the applications whose resume has any of the keywords, the most relevant first
+	 * @throws DataException when the query has no keyword or the limit is invalid
+	 * @throws NoDataFoundException when the offer does not exist
+	 */
+	List<SearchHit> searchApplications(String query, String jobTitle, int limit) throws DataException, NoDataFoundException;
+
+	/**
+	 * Finds the count of the {@link Application} of an {@link Offer} by status, kept up to date as applications
+	 * are created and their status changes rather than counted
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @return the count of the applications of the offer for each status
+	 * @throws NoDataFoundException when the offer does not exist
+	 */
+	Map<Application.Status, Long> getOfferApplicationCountByStatus(String jobTitle) throws NoDataFoundException;
+
+	/**
+	 * Finds the count of the {@link Application} of every {@link Offer} by status
+	 * @return for each offer job title, in alphabetical order, the count of its applications for each status
+	 */
+	Map<String, Map<Application.Status, Long>> getOfferApplicationCountsByStatus();
+
+	/**
+	 * Finds the count of all {@link Application} in the system
+	 * @return the count of all applications  in the system
+	 * @throws NoDataFoundException
+	 */
+	long getApplicationCount() throws NoDataFoundException;
+
+	/**
+	 * Finds the count of all {@link Application} in the system by status
+	 * @return the count of all applications in the system for each status
+	 */
+	Map<Application.Status, Long> getApplicationCountByStatus();
+
+	/**
+	 * Finds the version of all offers and applications in the system, incremented once each change is
+	 * applied, so that any change made before it is read is visible to the reads following it
+	 * @return the version of the system
+	 */
+	long getVersion();
+
+	/**
+	 * Finds the version of all offers in the system, incremented once an offer is created or its number of
+	 * applications changes, so that any such change made before it is read is visible to the reads following it
+	 * @return the version of the offers
+	 */
+	long getOffersVersion();
+
+	/**
+	 * Releases the resources of the engine
+	 */
+	@Override
+	void close();
+}
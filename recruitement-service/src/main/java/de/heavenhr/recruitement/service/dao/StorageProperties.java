@@ -0,0 +1,199 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.io.File;
+
+/**
+ * The class <code>StorageProperties</code> holds the settings of the storage, bound from the
+ * <code>recruitement.storage.*</code> properties of the application, or read from the system properties
+ * when the {@link DAO} singleton is used outside of the application context.
+ *
+ * @author Hossam Yahya
+ */
+public class StorageProperties {
+
+	/**
+	 * The prefix of all storage properties
+	 */
+	public static final String PREFIX = "recruitement.storage";
+
+	/**
+	 * The {@link StorageEngine} implementation
+	 */
+	private Engine engine = Engine.MEMORY;
+	/**
+	 * The way applications are kept in memory
+	 */
+	private Mode mode = Mode.HEAP;
+	/**
+	 * Where the resume texts are kept
+	 */
+	private ArenaType resumeArena = ArenaType.DIRECT;
+	/**
+	 * The directory of the resume arena file when it is {@link ArenaType#MAPPED}
+	 */
+	private File resumeArenaDir = new File(System.getProperty("java.io.tmpdir"));
+	/**
+	 * The directory of the mutations journal, journaling is disabled when not set
+	 */
+	private File journalDir;
+	/**
+	 * When the journaled mutations are forced to disk
+	 */
+	private Journal.Durability journalDurability = Journal.Durability.SYNC;
+	/**
+	 * The interval between forces of the journal in {@link Journal.Durability#BATCH} mode
+	 */
+	private long journalIntervalMillis = 10;
+	/**
+	 * The interval between snapshots written next to the journal, snapshots are disabled when not positive
+	 */
+	private long snapshotIntervalMillis;
+
+	public Engine getEngine() {
+		return engine;
+	}
+
+	public void setEngine(Engine engine) {
+		this.engine = engine;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	public ArenaType getResumeArena() {
+		return resumeArena;
+	}
+
+	public void setResumeArena(ArenaType resumeArena) {
+		this.resumeArena = resumeArena;
+	}
+
+	public File getResumeArenaDir() {
+		return resumeArenaDir;
+	}
+
+	public void setResumeArenaDir(File resumeArenaDir) {
+		this.resumeArenaDir = resumeArenaDir;
+	}
+
+	public File getJournalDir() {
+		return journalDir;
+	}
+
+	public void setJournalDir(File journalDir) {
+		this.journalDir = journalDir;
+	}
+
+	public Journal.Durability getJournalDurability() {
+		return journalDurability;
+	}
+
+	public void setJournalDurability(Journal.Durability journalDurability) {
+		this.journalDurability = journalDurability;
+	}
+
+	public long getJournalIntervalMillis() {
+		return journalIntervalMillis;
+	}
+
+	public void setJournalIntervalMillis(long journalIntervalMillis) {
+		this.journalIntervalMillis = journalIntervalMillis;
+	}
+
+	public long getSnapshotIntervalMillis() {
+		return snapshotIntervalMillis;
+	}
+
+	public void setSnapshotIntervalMillis(long snapshotIntervalMillis) {
+		this.snapshotIntervalMillis = snapshotIntervalMillis;
+	}
+
+	/**
+	 * Reads the storage properties from the system properties, using the defaults for missing ones
+	 * @return the storage properties
+	 */
+	public static StorageProperties fromSystemProperties() {
+		StorageProperties properties = new StorageProperties();
+		String mode = System.getProperty(PREFIX + ".mode");
+		if (mode != null) {
+			properties.setMode(Mode.valueOf(mode.trim().toUpperCase()));
+		}
+		String resumeArena = System.getProperty(PREFIX + ".resume-arena");
+		if (resumeArena != null) {
+			properties.setResumeArena(ArenaType.valueOf(resumeArena.trim().toUpperCase()));
+		}
+		String resumeArenaDir = System.getProperty(PREFIX + ".resume-arena-dir");
+		if (resumeArenaDir != null) {
+			properties.setResumeArenaDir(new File(resumeArenaDir));
+		}
+		String journalDir = System.getProperty(PREFIX + ".journal-dir");
+		if (journalDir != null) {
+			properties.setJournalDir(new File(journalDir));
+		}
+		String journalDurability = System.getProperty(PREFIX + ".journal-durability");
+		if (journalDurability != null) {
+			properties.setJournalDurability(Journal.Durability.valueOf(journalDurability.trim().toUpperCase()));
+		}
+		String journalIntervalMillis = System.getProperty(PREFIX + ".journal-interval-ms");
+		if (journalIntervalMillis != null) {
+			properties.setJournalIntervalMillis(Long.parseLong(journalIntervalMillis.trim()));
+		}
+		String snapshotIntervalMillis = System.getProperty(PREFIX + ".snapshot-interval-ms");
+		if (snapshotIntervalMillis != null) {
+			properties.setSnapshotIntervalMillis(Long.parseLong(snapshotIntervalMillis.trim()));
+		}
+		return properties;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("StorageProperties [engine=").append(engine).append(", mode=").append(mode).append(", resumeArena=").append(resumeArena)
+				.append(", resumeArenaDir=").append(resumeArenaDir).append(", journalDir=").append(journalDir)
+				.append(", journalDurability=").append(journalDurability).append(", journalIntervalMillis=")
+				.append(journalIntervalMillis).append(", snapshotIntervalMillis=").append(snapshotIntervalMillis).append("]");
+		return builder.toString();
+	}
+
+	public enum Engine {
+		/**
+		 * Offers and applications are kept in memory by the {@link DAO}
+		 */
+		MEMORY,
+		/**
+		 * Offers and applications are kept in a relational database by the {@link JdbcDAO}
+		 */
+		JDBC
+	}
+
+	public enum Mode {
+		/**
+		 * Applications are kept as heap objects
+		 */
+		HEAP,
+		/**
+		 * Applications are kept column-wise in primitive arrays and UTF-8 arenas
+		 */
+		COLUMNAR
+	}
+
+	public enum ArenaType {
+		/**
+		 * The arena is kept in heap byte arrays
+		 */
+		HEAP,
+		/**
+		 * The arena is kept in direct, off-heap, buffers
+		 */
+		DIRECT,
+		/**
+		 * The arena is kept in a memory mapped scratch file
+		 */
+		MAPPED
+	}
+}
@@ -0,0 +1,273 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The class <code>TitleTrie</code> is an in-memory radix trie of the offer job titles, for their autocompletion.
+ * <p>
+ * Titles are keyed lower cased, each node holding the characters of its edge and its children sorted by first
+ * character, so that a depth first walk visits the titles in alphabetical order. The titles differing only by
+ * case share a node.
+ * <p>
+ * A lookup finds the titles starting with a prefix within a number of edits, the inserted, deleted or
+ * substituted characters. It walks the trie computing one row of the Levenshtein distance matrix per character,
+ * leaving the branches no title of which can be close enough, and stops once the closest titles are found.
+ * Titles are added under the write lock and lookups run under the read lock.
+ *
+ * @author Hossam Yahya
+ */
+class TitleTrie {
+
+	/**
+	 * The largest number of edits of a lookup
+	 */
+	static final int MAX_EDITS = 2;
+
+	private static final Node[] NO_CHILDREN = new Node[0];
+	private static final String[] NO_TITLES = new String[0];
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Node root = new Node(new char[0]);
+	private int size;
+
+	/**
+	 * Adds a title
+	 * @param title the title, nothing is done when it was added already
+	 */
+	void add(String title) {
+		char[] key = title.toLowerCase(Locale.ROOT).toCharArray();
+
+		lock.writeLock().lock();
+		try {
+			Node node = root;
+			int i = 0;
+			while (i < key.length) {
+				int c = node.find(key[i]);
+				if (c < 0) {
+					Node leaf = new Node(Arrays.copyOfRange(key, i, key.length));
+					node.insert(-c - 1, leaf);
+					node = leaf;
+					break;
+				}
+				Node child = node.children[c];
+				int common = 1;
+				while (common < child.label.length && i + common < key.length && child.label[common] == key[i + common]) {
+					common++;
+				}
+				if (common < child.label.length) {
+					// The key leaves the edge midway, split it
+					Node split = new Node(Arrays.copyOf(child.label, common));
+					child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+					split.children = new Node[] { child };
+					node.children[c] = split;
+					child = split;
+				}
+				node = child;
+				i += common;
+			}
+			if (node.add(title)) {
+				size++;
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the titles starting with a prefix
+	 * @param prefix the prefix, matched ignoring case
+	 * @param maxEdits the largest number of edits between the prefix and the start of the titles, from 0 to {@link #MAX_EDITS}
+	 * @param limit the largest number of titles
+	 * @return the titles, the closest to the prefix first then in alphabetical order
+	 */
+	List<String> find(String prefix, int maxEdits, int limit) {
+		Lookup lookup = new Lookup(prefix.toLowerCase(Locale.ROOT).toCharArray(), maxEdits, limit);
+
+		lock.readLock().lock();
+		try {
+			lookup.walk(root, 0, lookup.query.length);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return lookup.titles();
+	}
+
+	/**
+	 * @return the number of titles
+	 */
+	int size() {
+		lock.readLock().lock();
+		try {
+			return size;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * A node of the trie, its children sorted by the first character of their edge
+	 */
+	private static class Node {
+		private char[] label;
+		private Node[] children = NO_CHILDREN;
+		private String[] titles = NO_TITLES;
+
+		Node(char[] label) {
+			this.label = label;
+		}
+
+		/**
+		 * @return the index of the child whose edge starts with the character, or (-(insertion point) - 1)
+		 */
+		int find(char c) {
+			int low = 0;
+			int high = children.length - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				char first = children[middle].label[0];
+				if (first < c) {
+					low = middle + 1;
+				} else if (first > c) {
+					high = middle - 1;
+				} else {
+					return middle;
+				}
+			}
+			return -low - 1;
+		}
+
+		void insert(int index, Node child) {
+			Node[] inserted = new Node[children.length + 1];
+			System.arraycopy(children, 0, inserted, 0, index);
+			inserted[index] = child;
+			System.arraycopy(children, index, inserted, index + 1, children.length - index);
+			children = inserted;
+		}
+
+		boolean add(String title) {
+			int index = Arrays.binarySearch(titles, title);
+			if (index >= 0) {
+				return false;
+			}
+			index = -index - 1;
+			String[] added = new String[titles.length + 1];
+			System.arraycopy(titles, 0, added, 0, index);
+			added[index] = title;
+			System.arraycopy(titles, index, added, index + 1, titles.length - index);
+			titles = added;
+			return true;
+		}
+	}
+
+	/**
+	 * The state of a lookup: the distance rows of the walked path and the titles found at each distance
+	 */
+	private static class Lookup {
+		private final char[] query;
+		private final int maxEdits;
+		private final int limit;
+		/**
+		 * The row of each depth, the distances between the prefixes of the query and the path of that length
+		 */
+		private int[][] rows;
+		private final List<List<String>> found;
+
+		Lookup(char[] query, int maxEdits, int limit) {
+			this.query = query;
+			this.maxEdits = maxEdits;
+			this.limit = limit;
+			rows = new int[16][];
+			rows[0] = new int[query.length + 1];
+			for (int j = 0; j <= query.length; j++) {
+				rows[0][j] = j;
+			}
+			found = new ArrayList<List<String>>(maxEdits + 1);
+			for (int d = 0; d <= maxEdits; d++) {
+				found.add(new ArrayList<String>());
+			}
+		}
+
+		/**
+		 * Walks the edge and the subtree of a node
+		 * @param node the node
+		 * @param depth the length of the path before the edge of the node
+		 * @param best the distance between the query and the closest prefix of that path
+		 */
+		void walk(Node node, int depth, int best) {
+			int closest = best;
+			for (int distance : rows[depth]) {
+				closest = Math.min(closest, distance);
+			}
+			for (char c : node.label) {
+				int[] previous = rows[depth];
+				int[] row = row(++depth);
+				row[0] = depth;
+				closest = row[0];
+				for (int j = 1; j < row.length; j++) {
+					int substitution = previous[j - 1] + (query[j - 1] == c ? 0 : 1);
+					row[j] = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+					closest = Math.min(closest, row[j]);
+				}
+				best = Math.min(best, row[query.length]);
+				closest = Math.min(closest, best);
+				if (closest > maxEdits) {
+					return;
+				}
+			}
+
+			// The titles below are at a distance between the closest a row allows and the best one already
+			if (best <= maxEdits) {
+				List<String> titles = found.get(best);
+				for (int t = 0; t < node.titles.length && titles.size() < limit; t++) {
+					titles.add(node.titles[t]);
+				}
+			}
+			for (Node child : node.children) {
+				if (full(closest, Math.min(best, maxEdits))) {
+					return;
+				}
+				walk(child, depth, best);
+			}
+		}
+
+		/**
+		 * @return whether as many titles as needed were found at every distance between two
+		 */
+		private boolean full(int from, int to) {
+			for (int d = from; d <= to; d++) {
+				if (found.get(d).size() < limit) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private int[] row(int depth) {
+			if (depth == rows.length) {
+				rows = Arrays.copyOf(rows, depth << 1);
+			}
+			if (rows[depth] == null) {
+				rows[depth] = new int[query.length + 1];
+			}
+			return rows[depth];
+		}
+
+		List<String> titles() {
+			List<String> titles = new ArrayList<String>(limit);
+			for (List<String> distance : found) {
+				for (String title : distance) {
+					if (titles.size() == limit) {
+						return titles;
+					}
+					titles.add(title);
+				}
+			}
+			return titles;
+		}
+	}
+}
@@ -0,0 +1,293 @@
+package de.heavenhr.recruitement.service.dao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * The class <code>Utf8Arena</code> is an append only arena of UTF-8 encoded strings.
+ * <p>
+ * Strings are encoded straight into fixed size chunks, each prefixed by its varint encoded byte length,
+ * and addressed by a long reference packing the chunk index and the offset within the chunk. Space is
+ * reserved by bumping an atomic position so concurrent appends do not lock unless a chunk is full, and
+ * strings larger than a chunk get a dedicated chunk.
+ * <p>
+ * Chunks are allocated by a pluggable allocator, so the arena can live on the heap, in direct (off-heap)
+ * memory or in a memory mapped file.
+ *
+ * @author Hossam Yahya
+ */
+class Utf8Arena {
+
+	/**
+	 * The reference of a null string
+	 */
+	static final long NULL_REF = -1;
+
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private final int chunkSize;
+	private final IntFunction<ByteBuffer> allocator;
+	private volatile ByteBuffer[] chunks = new ByteBuffer[16];
+	private volatile Chunk current;
+	private int chunkCount;
+
+	/**
+	 * Creates an arena on the heap
+	 */
+	Utf8Arena() {
+		this(DEFAULT_CHUNK_SIZE, ByteBuffer::allocate);
+	}
+
+	/**
+	 * Creates an arena
+	 * @param chunkSize the capacity in bytes of the chunks
+	 * @param allocator allocates the buffer of a chunk given its capacity
+	 */
+	Utf8Arena(int chunkSize, IntFunction<ByteBuffer> allocator) {
+		this.chunkSize = chunkSize;
+		this.allocator = allocator;
+		current = newChunk(chunkSize);
+	}
+
+	/**
+	 * Appends a string to the arena
+	 * @param value the string to append, may be null
+	 * @return the reference of the appended string
+	 */
+	long append(String value) {
+		if (value == null) {
+			return NULL_REF;
+		}
+
+		int length = encodedLength(value);
+		int size = varintSize(length) + length;
+		if (size > chunkSize) {
+			Chunk chunk;
+			synchronized (this) {
+				chunk = newChunk(size);
+			}
+			return write(chunk, 0, value, length);
+		}
+
+		while (true) {
+			Chunk chunk = current;
+			int offset = chunk.position.getAndAdd(size);
+			if (offset + size <= chunk.buffer.capacity()) {
+				return write(chunk, offset, value, length);
+			}
+			synchronized (this) {
+				if (current == chunk) {
+					current = newChunk(chunkSize);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decodes a string from the arena
+	 * @param ref the reference of the string
+	 * @return the decoded string
+	 */
+	String get(long ref) {
+		if (ref == NULL_REF) {
+			return null;
+		}
+
+		ByteBuffer buffer = chunks[(int) (ref >>> 32)];
+		int offset = (int) ref;
+		int length = readVarint(buffer, offset);
+		offset += varintSize(length);
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+		}
+
+		byte[] bytes = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Compares a string of the arena to a string without decoding it
+	 * @param ref the reference of the arena string
+	 * @param value the string to compare to
+	 * @return whether both strings are equal
+	 */
+	boolean equals(long ref, String value) {
+		if (ref == NULL_REF || value == null) {
+			return ref == NULL_REF && value == null;
+		}
+
+		ByteBuffer[] currentChunks = chunks;
+		int chunk = (int) (ref >>> 32);
+		if (chunk >= currentChunks.length || currentChunks[chunk] == null) {
+			return false;
+		}
+		ByteBuffer buffer = currentChunks[chunk];
+		int offset = (int) ref;
+		int length = readVarint(buffer, offset);
+		offset += varintSize(length);
+		if (length < value.length() || offset + length > buffer.capacity()) {
+			return false;
+		}
+
+		int end = offset + length;
+		int i = 0;
+		while (offset < end && i < value.length()) {
+			int b = buffer.get(offset) & 0xFF;
+			int size = b < 0x80 ? 1 : b < 0xE0 ? 2 : b < 0xF0 ? 3 : 4;
+			if (offset + size > end) {
+				return false;
+			}
+			int codePoint;
+			if (size == 1) {
+				codePoint = b;
+			} else if (size == 2) {
+				codePoint = ((b & 0x1F) << 6) | (buffer.get(offset + 1) & 0x3F);
+			} else if (size == 3) {
+				codePoint = ((b & 0x0F) << 12) | ((buffer.get(offset + 1) & 0x3F) << 6) | (buffer.get(offset + 2) & 0x3F);
+			} else {
+				codePoint = ((b & 0x07) << 18) | ((buffer.get(offset + 1) & 0x3F) << 12) | ((buffer.get(offset + 2) & 0x3F) << 6)
+						| (buffer.get(offset + 3) & 0x3F);
+			}
+			offset += size;
+
+			int expected = value.codePointAt(i);
+			if (codePoint == '?' && Character.isSurrogate(value.charAt(i)) && Character.charCount(expected) == 1) {
+				// An unpaired surrogate was replaced when encoding
+				i++;
+				continue;
+			}
+			if (expected != codePoint) {
+				return false;
+			}
+			i += Character.charCount(codePoint);
+		}
+		return offset == end && i == value.length();
+	}
+
+	/**
+	 * @return the number of bytes reserved by the arena
+	 */
+	long capacity() {
+		long capacity = 0;
+		for (ByteBuffer buffer : chunks) {
+			if (buffer != null) {
+				capacity += buffer.capacity();
+			}
+		}
+		return capacity;
+	}
+
+	private Chunk newChunk(int capacity) {
+		ByteBuffer buffer = allocator.apply(capacity);
+		int index = chunkCount++;
+		ByteBuffer[] currentChunks = chunks;
+		if (index >= currentChunks.length) {
+			currentChunks = Arrays.copyOf(currentChunks, currentChunks.length << 1);
+		}
+		currentChunks[index] = buffer;
+		chunks = currentChunks;
+		return new Chunk(index, buffer);
+	}
+
+	private static long write(Chunk chunk, int offset, String value, int length) {
+		ByteBuffer buffer = chunk.buffer;
+		int position = writeVarint(buffer, offset, length);
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buffer.put(position++, (byte) c);
+			} else if (c < 0x800) {
+				buffer.put(position++, (byte) (0xC0 | (c >> 6)));
+				buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+				buffer.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				buffer.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				buffer.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+			} else if (Character.isSurrogate(c)) {
+				// Unpaired surrogates are replaced like the JDK encoder does
+				buffer.put(position++, (byte) '?');
+			} else {
+				buffer.put(position++, (byte) (0xE0 | (c >> 12)));
+				buffer.put(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put(position++, (byte) (0x80 | (c & 0x3F)));
+			}
+		}
+		return ((long) chunk.index << 32) | offset;
+	}
+
+	/**
+	 * Computes the UTF-8 encoded length of a string without encoding it
+	 * @param value the string
+	 * @return the encoded length in bytes
+	 */
+	static int encodedLength(String value) {
+		int length = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				length += 1;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				length += 1;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private static int varintSize(int value) {
+		int size = 1;
+		while ((value >>>= 7) != 0) {
+			size++;
+		}
+		return size;
+	}
+
+	private static int writeVarint(ByteBuffer buffer, int offset, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put(offset++, (byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put(offset++, (byte) value);
+		return offset;
+	}
+
+	private static int readVarint(ByteBuffer buffer, int offset) {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = buffer.get(offset++);
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				break;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * A chunk of the arena along with its next free position
+	 */
+	private static class Chunk {
+		private final int index;
+		private final ByteBuffer buffer;
+		private final AtomicInteger position = new AtomicInteger();
+
+		Chunk(int index, ByteBuffer buffer) {
+			this.index = index;
+			this.buffer = buffer;
+		}
+	}
+}
@@ -0,0 +1,608 @@
+package de.heavenhr.recruitement.service.event;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.heavenhr.recruitement.service.ExecutionMode;
+
+/**
+ * The class <code>EventBus</code> dispatches events to the {@link EventHandler} registered for their
+ * {@link Event.Type} asynchronously, so that publishing an event does not wait for it to be handled. A handler
+ * can be registered for several types at once, and then receives all their events in one list per batch, in
+ * publication order.
+ * <p>
+ * Events go through a bounded ring buffer allocated once. Each slot has a sequence telling whether it is free
+ * for the next publication or holds a published event, so publishers and consumers claim positions with one
+ * compare-and-set each and never lock. Consumers take all the available events up to a batch size at once,
+ * and hand each handler the events of the batch it is registered for as one list. When the ring buffer is full the
+ * {@link EventBusProperties.Backpressure} policy decides whether the publisher waits, drops the event or
+ * spills it to an unbounded overflow queue, which is consumed when the ring buffer is drained and keeps
+ * taking the events until it is empty again, so that spilling does not reorder them.
+ * <p>
+ * A handler is either called directly by the consumer threads, which suits the fast ones, or registered as
+ * asynchronous and called on its own single thread executor, so that a slow handler never delays the others:
+ * its batches wait in its queue, bounded by {@link EventBusProperties#getHandlerQueueCapacity()}, beyond which
+ * they are dropped for that handler only. That thread is a virtual thread in {@link ExecutionMode#VIRTUAL} mode,
+ * so that a handler blocking on I/O does not hold a platform thread. The latency, queue depth and failures of each handler are tracked
+ * per {@link Event.Type}.
+ * <p>
+ * With a single consumer, the default, events are handled in publication order. Closing the bus stops the
+ * consumers once they handled the published events, and the executors once they drained their queues.
+ *
+ * @author Hossam Yahya
+ */
+public class EventBus implements Closeable {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * The longest a waiting consumer or publisher sleeps before checking the ring buffer again
+	 */
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final EventBusProperties.Backpressure backpressure;
+	private final int batchSize;
+	private final int capacity;
+	private final int mask;
+	private final Event<?>[] slots;
+	/**
+	 * The sequence of each slot: the position of the next event to publish in it while it is free, that
+	 * position plus one once the event is published
+	 */
+	private final AtomicLongArray sequences;
+	/**
+	 * The position of the next event to publish
+	 */
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * The position of the next event to consume
+	 */
+	private final AtomicLong head = new AtomicLong();
+	private final Queue<Event<?>> overflow = new ConcurrentLinkedQueue<Event<?>>();
+	private final int handlerQueueCapacity;
+	/**
+	 * The registered handlers, in registration order
+	 */
+	private final List<Registration> registrations = new CopyOnWriteArrayList<Registration>();
+	/**
+	 * The executor of each asynchronous handler, shared by the types it is registered for
+	 */
+	private final Map<EventHandler, ExecutorService> executors = new IdentityHashMap<EventHandler, ExecutorService>();
+	/**
+	 * The kind of threads of the asynchronous handlers
+	 */
+	private final ExecutionMode executionMode;
+	private final List<Thread> consumers = new ArrayList<Thread>();
+	private volatile boolean running = true;
+
+	private final LongAdder published = new LongAdder();
+	private final LongAdder consumed = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder spilled = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder batches = new LongAdder();
+	private final LatencyHistogram publishLatency = new LatencyHistogram();
+	private long lastConsumed;
+	private long lastMetricsNanos = System.nanoTime();
+
+	/**
+	 * Creates an event bus running its asynchronous handlers on platform threads and starts its consumers
+	 * @param properties the event bus settings
+	 */
+	public EventBus(EventBusProperties properties) {
+		this(properties, ExecutionMode.PLATFORM);
+	}
+
+	/**
+	 * Creates an event bus and starts its consumers
+	 * @param properties the event bus settings
+	 * @param executionMode the kind of threads of the asynchronous handlers, the consumers are platform threads
+	 */
+	public EventBus(EventBusProperties properties, ExecutionMode executionMode) {
+		if (properties.getCapacity() < 1 || properties.getCapacity() > 1 << 30 || properties.getConsumers() < 1 || properties.getBatchSize() < 1) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30, consumers and batch size must be positive");
+		}
+		this.backpressure = properties.getBackpressure();
+		this.executionMode = executionMode;
+		this.batchSize = properties.getBatchSize();
+		this.handlerQueueCapacity = properties.getHandlerQueueCapacity();
+		this.capacity = properties.getCapacity() == 1 ? 1 : Integer.highestOneBit(properties.getCapacity() - 1) << 1;
+		this.mask = capacity - 1;
+		this.slots = new Event<?>[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+
+		for (int i = 0; i < properties.getConsumers(); i++) {
+			Thread consumer = new Thread(this::consume, "event-consumer-" + i);
+			consumer.setDaemon(true);
+			consumers.add(consumer);
+			consumer.start();
+		}
+		logger.info("EventBus started: capacity {}, consumers {}, batch size {}, backpressure {}, handler threads {}"
+				, capacity, consumers.size(), batchSize, backpressure, executionMode);
+	}
+
+	/**
+	 * Registers a handler of the events of a type, called directly by the consumer threads
+	 * @param type the type of the events
+	 * @param handler the handler, called after the handlers registered before it
+	 */
+	public void register(Event.Type type, EventHandler handler) {
+		register(EnumSet.of(type), handler);
+	}
+
+	/**
+	 * Registers a handler of the events of several types, called directly by the consumer threads with the
+	 * events of all these types of each batch in publication order
+	 * @param types the types of the events
+	 * @param handler the handler, called after the handlers registered before it
+	 */
+	public void register(Set<Event.Type> types, EventHandler handler) {
+		registrations.add(new Registration(types, handler, null));
+	}
+
+	/**
+	 * Registers a handler of the events of a type, called on its own thread, the same for all the types it is
+	 * registered for, so that it handles the events without delaying the other handlers
+	 * @param type the type of the events
+	 * @param handler the handler
+	 */
+	public void registerAsync(Event.Type type, EventHandler handler) {
+		registerAsync(EnumSet.of(type), handler);
+	}
+
+	/**
+	 * Registers a handler of the events of several types, called on its own thread with the events of all
+	 * these types of each batch in publication order, so that it handles them in order without delaying the
+	 * other handlers
+	 * @param types the types of the events
+	 * @param handler the handler
+	 */
+	public void registerAsync(Set<Event.Type> types, EventHandler handler) {
+		ExecutorService executor;
+		synchronized (executors) {
+			executor = executors.computeIfAbsent(handler
+					, key -> Executors.newSingleThreadExecutor(executionMode.threadFactory("event-handler-" + name(handler))));
+		}
+		registrations.add(new Registration(types, handler, executor));
+	}
+
+	/**
+	 * Publishes an event, applying the backpressure policy when the ring buffer is full
+	 * @param event the event to be handled
+	 * @return whether the event was accepted, false when it was dropped
+	 */
+	public boolean publish(Event<?> event) {
+		long start = System.nanoTime();
+		published.increment();
+		boolean accepted = true;
+		if (!running) {
+			logger.warn("publish() dropped event, the bus is closed: {}", event);
+
+			dropped.increment();
+			accepted = false;
+		} else if (backpressure == EventBusProperties.Backpressure.SPILL) {
+			// Once spilling, events keep going to the overflow queue until it is drained, to keep them in order
+			if (!overflow.isEmpty() || !offer(event)) {
+				overflow.add(event);
+				spilled.increment();
+			}
+		} else if (!offer(event)) {
+			if (backpressure == EventBusProperties.Backpressure.DROP) {
+				dropped.increment();
+				accepted = false;
+			} else {
+				for (int attempt = 1; !offer(event); attempt++) {
+					if (!running) {
+						dropped.increment();
+						accepted = false;
+						break;
+					}
+					idle(attempt);
+				}
+			}
+		}
+		publishLatency.record(System.nanoTime() - start);
+		return accepted;
+	}
+
+	/**
+	 * Publishes events one after the other
+	 * @param events the events to be handled
+	 * @return the number of events accepted
+	 */
+	public int publishAll(List<? extends Event<?>> events) {
+		int accepted = 0;
+		for (Event<?> event : events) {
+			if (publish(event)) {
+				accepted++;
+			}
+		}
+		return accepted;
+	}
+
+	/**
+	 * @return a snapshot of the counters of the bus
+	 */
+	public EventBusMetrics getMetrics() {
+		long now = System.nanoTime();
+		long consumedNow = consumed.sum();
+		double consumedPerSecond;
+		synchronized (this) {
+			consumedPerSecond = (consumedNow - lastConsumed) * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, now - lastMetricsNanos);
+			lastConsumed = consumedNow;
+			lastMetricsNanos = now;
+		}
+		long backlog = Math.max(0, tail.get() - head.get()) + overflow.size();
+		List<EventHandlerMetrics> handlerMetrics = new ArrayList<EventHandlerMetrics>();
+		for (Registration registration : registrations) {
+			handlerMetrics.addAll(registration.getMetrics());
+		}
+		return new EventBusMetrics(published.sum(), consumedNow, dropped.sum(), spilled.sum(), failed.sum(), backlog, batches.sum()
+				, publishLatency.percentile(0.5), publishLatency.percentile(0.99), publishLatency.max(), consumedPerSecond, handlerMetrics);
+	}
+
+	/**
+	 * Stops the consumers once they handled the published events, then the executors of the asynchronous
+	 * handlers once they handled their queued events, the events published after are dropped
+	 */
+	@Override
+	public void close() {
+		running = false;
+		try {
+			for (Thread consumer : consumers) {
+				LockSupport.unpark(consumer);
+				consumer.join(TimeUnit.SECONDS.toMillis(10));
+			}
+			synchronized (executors) {
+				for (ExecutorService executor : executors.values()) {
+					executor.shutdown();
+				}
+				for (ExecutorService executor : executors.values()) {
+					executor.awaitTermination(10, TimeUnit.SECONDS);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		logger.info("EventBus closed: {}", getMetrics());
+	}
+
+	/**
+	 * Publishes an event in the ring buffer
+	 * @return whether there was a free slot
+	 */
+	private boolean offer(Event<?> event) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots[index] = event;
+					// The ordered write of the sequence publishes the event to the consumers
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				// The slot still holds the event published one lap before
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Takes the published events following the consumed ones
+	 * @param batch receives the events
+	 * @return the number of events taken, up to the length of the batch
+	 */
+	private int poll(Event<?>[] batch) {
+		long position = head.get();
+		while (true) {
+			int available = 0;
+			while (available < batch.length && sequences.get((int) (position + available) & mask) == position + available + 1) {
+				available++;
+			}
+			if (available == 0) {
+				return 0;
+			}
+			if (head.compareAndSet(position, position + available)) {
+				for (int i = 0; i < available; i++) {
+					int index = (int) (position + i) & mask;
+					batch[i] = slots[index];
+					slots[index] = null;
+					// Frees the slot for the event published one lap after
+					sequences.lazySet(index, position + i + capacity);
+				}
+				return available;
+			}
+			position = head.get();
+		}
+	}
+
+	/**
+	 * The loop of the consumer threads
+	 */
+	private void consume() {
+		Event<?>[] batch = new Event<?>[batchSize];
+		int idle = 0;
+		while (true) {
+			int size = poll(batch);
+			if (size == 0) {
+				for (Event<?> event; size < batch.length && (event = overflow.poll()) != null; ) {
+					batch[size++] = event;
+				}
+			}
+			if (size > 0) {
+				idle = 0;
+				dispatch(batch, size);
+				Arrays.fill(batch, 0, size, null);
+			} else if (!running) {
+				return;
+			} else {
+				idle(++idle);
+			}
+		}
+	}
+
+	/**
+	 * Hands each handler the events of a batch of the types it is registered for, in publication order
+	 */
+	private void dispatch(Event<?>[] batch, int size) {
+		batches.increment();
+		// The whole batch, shared by the handlers registered for the types of all its events
+		List<Event<?>> all = null;
+		for (Registration registration : registrations) {
+			int matching = 0;
+			for (int i = 0; i < size; i++) {
+				if (registration.types.contains(batch[i].getType())) {
+					matching++;
+				}
+			}
+			if (matching == 0) {
+				continue;
+			}
+			List<Event<?>> events;
+			if (matching == size) {
+				if (all == null) {
+					all = Arrays.asList(Arrays.copyOf(batch, size));
+				}
+				events = all;
+			} else {
+				events = new ArrayList<Event<?>>(matching);
+				for (int i = 0; i < size; i++) {
+					if (registration.types.contains(batch[i].getType())) {
+						events.add(batch[i]);
+					}
+				}
+			}
+			registration.dispatch(events);
+		}
+		consumed.add(size);
+	}
+
+	/**
+	 * @return the name of a handler, the simple name of its class or of the class declaring it for a lambda
+	 */
+	private static String name(EventHandler handler) {
+		String name = handler.getClass().getSimpleName();
+		int lambda = name.indexOf("$$Lambda");
+		return lambda < 0 ? name : name.substring(0, lambda);
+	}
+
+	/**
+	 * Waits for the ring buffer to change, yielding first then sleeping longer and longer
+	 * @param attempt the number of attempts since the ring buffer last changed
+	 */
+	private static void idle(int attempt) {
+		if (attempt < 16) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(attempt - 16, 20)));
+		}
+	}
+
+	/**
+	 * A handler registered for one or several types, with its executor if asynchronous and its counters per type
+	 */
+	private class Registration {
+		private final Set<Event.Type> types;
+		private final EventHandler handler;
+		private final String name;
+		private final ExecutorService executor;
+		private final Map<Event.Type, Counters> counters = new EnumMap<Event.Type, Counters>(Event.Type.class);
+		/**
+		 * The number of events handed to the executor and not handled yet
+		 */
+		private final AtomicLong queued = new AtomicLong();
+
+		Registration(Set<Event.Type> types, EventHandler handler, ExecutorService executor) {
+			if (types.isEmpty()) {
+				throw new IllegalArgumentException("A handler must be registered for at least one type");
+			}
+			this.types = EnumSet.copyOf(types);
+			this.handler = handler;
+			this.name = name(handler);
+			this.executor = executor;
+			for (Event.Type type : this.types) {
+				counters.put(type, new Counters());
+			}
+		}
+
+		/**
+		 * Hands a batch of events to the handler, directly or through its executor when its queue has room
+		 */
+		void dispatch(List<Event<?>> events) {
+			if (executor == null) {
+				handle(events);
+				return;
+			}
+			int size = events.size();
+			if (queued.addAndGet(size) > handlerQueueCapacity) {
+				queued.addAndGet(-size);
+				count(events, typeCounters -> typeCounters.dropped);
+				return;
+			}
+			try {
+				executor.execute(() -> {
+					try {
+						handle(events);
+					} finally {
+						queued.addAndGet(-size);
+					}
+				});
+			} catch (RejectedExecutionException e) {
+				queued.addAndGet(-size);
+				count(events, typeCounters -> typeCounters.dropped);
+			}
+		}
+
+		private void handle(List<Event<?>> events) {
+			long start = System.nanoTime();
+			boolean succeeded = false;
+			try {
+				handler.handleEvents(events);
+				succeeded = true;
+			} catch (RuntimeException e) {
+				logger.error("dispatch() handler failed: {}, types: {}, events#: {}", name, types, events.size(), e);
+
+				failed.add(events.size());
+			}
+			long latency = System.nanoTime() - start;
+			List<Counters> counted = count(events, succeeded ? typeCounters -> typeCounters.handled : typeCounters -> typeCounters.handlerFailed);
+			for (Counters typeCounters : counted) {
+				typeCounters.latency.record(latency);
+			}
+		}
+
+		/**
+		 * Adds the events of each type of a batch to a counter of the type
+		 * @return the counters of the types of the batch
+		 */
+		private List<Counters> count(List<Event<?>> events, Function<Counters, LongAdder> counter) {
+			int[] counts = new int[Event.Type.values().length];
+			for (Event<?> event : events) {
+				counts[event.getType().ordinal()]++;
+			}
+			List<Counters> counted = new ArrayList<Counters>(counters.size());
+			for (Map.Entry<Event.Type, Counters> entry : counters.entrySet()) {
+				int count = counts[entry.getKey().ordinal()];
+				if (count > 0) {
+					counter.apply(entry.getValue()).add(count);
+					counted.add(entry.getValue());
+				}
+			}
+			return counted;
+		}
+
+		/**
+		 * @return the metrics of the handler for each of its types, the queue being shared by all of them
+		 */
+		List<EventHandlerMetrics> getMetrics() {
+			List<EventHandlerMetrics> metrics = new ArrayList<EventHandlerMetrics>(counters.size());
+			for (Map.Entry<Event.Type, Counters> entry : counters.entrySet()) {
+				Counters typeCounters = entry.getValue();
+				metrics.add(new EventHandlerMetrics(entry.getKey(), name, executor != null, typeCounters.handled.sum()
+						, typeCounters.handlerFailed.sum(), typeCounters.dropped.sum(), queued.get(), typeCounters.latency.percentile(0.5)
+						, typeCounters.latency.percentile(0.99), typeCounters.latency.max()));
+			}
+			return metrics;
+		}
+	}
+
+	/**
+	 * The counters of a handler for one type of events
+	 */
+	private static class Counters {
+		private final LongAdder handled = new LongAdder();
+		private final LongAdder handlerFailed = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+		/**
+		 * The latency of the batches holding events of the type
+		 */
+		private final LatencyHistogram latency = new LatencyHistogram();
+	}
+
+	/**
+	 * A lock free histogram of latencies, with 8 buckets per power of two so that percentiles are within 12.5%
+	 */
+	private static class LatencyHistogram {
+		private static final int SUB_BUCKETS = 8;
+
+		private final LongAdder[] buckets = new LongAdder[64 * SUB_BUCKETS];
+		private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+		LatencyHistogram() {
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		void record(long nanos) {
+			if (nanos < SUB_BUCKETS) {
+				buckets[(int) Math.max(0, nanos)].increment();
+			} else {
+				int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+				int subBucket = (int) (nanos >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+				buckets[(exponent - 2) * SUB_BUCKETS + subBucket].increment();
+			}
+			max.accumulate(nanos);
+		}
+
+		/**
+		 * @return the upper bound of the bucket of the percentile
+		 */
+		long percentile(double percentile) {
+			long[] counts = new long[buckets.length];
+			long total = 0;
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = buckets[i].sum();
+				total += counts[i];
+			}
+			long rank = (long) Math.ceil(percentile * total);
+			long cumulative = 0;
+			for (int i = 0; i < counts.length; i++) {
+				cumulative += counts[i];
+				if (cumulative >= rank && cumulative > 0) {
+					if (i < SUB_BUCKETS) {
+						return i;
+					}
+					int exponent = i / SUB_BUCKETS + 2;
+					return ((long) (SUB_BUCKETS + i % SUB_BUCKETS + 1) << (exponent - 3)) - 1;
+				}
+			}
+			return 0;
+		}
+
+		long max() {
+			return max.get();
+		}
+	}
+}
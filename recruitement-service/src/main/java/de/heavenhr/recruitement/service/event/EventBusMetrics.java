@@ -0,0 +1,141 @@
+package de.heavenhr.recruitement.service.event;
+
+import java.util.List;
+
+/**
+ * The class <code>EventBusMetrics</code> is a snapshot of the counters of an {@link EventBus}. The counters
+ * are read one after the other while events flow, so they are only consistent with each other once the bus
+ * is idle.
+ *
+ * @author Hossam Yahya
+ */
+public class EventBusMetrics {
+
+	private final long published;
+	private final long consumed;
+	private final long dropped;
+	private final long spilled;
+	private final long failed;
+	private final long backlog;
+	private final long batches;
+	private final long publishLatencyP50Nanos;
+	private final long publishLatencyP99Nanos;
+	private final long publishLatencyMaxNanos;
+	private final double consumedPerSecond;
+	private final List<EventHandlerMetrics> handlers;
+
+	public EventBusMetrics(long published, long consumed, long dropped, long spilled, long failed, long backlog, long batches
+			, long publishLatencyP50Nanos, long publishLatencyP99Nanos, long publishLatencyMaxNanos, double consumedPerSecond
+			, List<EventHandlerMetrics> handlers) {
+		this.published = published;
+		this.consumed = consumed;
+		this.dropped = dropped;
+		this.spilled = spilled;
+		this.failed = failed;
+		this.backlog = backlog;
+		this.batches = batches;
+		this.publishLatencyP50Nanos = publishLatencyP50Nanos;
+		this.publishLatencyP99Nanos = publishLatencyP99Nanos;
+		this.publishLatencyMaxNanos = publishLatencyMaxNanos;
+		this.consumedPerSecond = consumedPerSecond;
+		this.handlers = handlers;
+	}
+
+	/**
+	 * @return the number of events published, including the dropped and spilled ones
+	 */
+	public long getPublished() {
+		return published;
+	}
+
+	/**
+	 * @return the number of events handed to the handlers
+	 */
+	public long getConsumed() {
+		return consumed;
+	}
+
+	/**
+	 * @return the number of events dropped because the ring buffer was full
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return the number of events queued in the overflow queue because the ring buffer was full
+	 */
+	public long getSpilled() {
+		return spilled;
+	}
+
+	/**
+	 * @return the number of events whose handler failed
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return the number of events waiting for a consumer
+	 */
+	public long getBacklog() {
+		return backlog;
+	}
+
+	/**
+	 * @return the number of batches taken by the consumers
+	 */
+	public long getBatches() {
+		return batches;
+	}
+
+	/**
+	 * @return the median time to publish an event, waiting for a free slot included
+	 */
+	public long getPublishLatencyP50Nanos() {
+		return publishLatencyP50Nanos;
+	}
+
+	/**
+	 * @return the 99th percentile of the time to publish an event, waiting for a free slot included
+	 */
+	public long getPublishLatencyP99Nanos() {
+		return publishLatencyP99Nanos;
+	}
+
+	/**
+	 * @return the longest time to publish an event
+	 */
+	public long getPublishLatencyMaxNanos() {
+		return publishLatencyMaxNanos;
+	}
+
+	/**
+	 * @return the number of events consumed per second since the previous snapshot, or since the bus started
+	 */
+	public double getConsumedPerSecond() {
+		return consumedPerSecond;
+	}
+
+	/**
+	 * @return the counters of each registered handler, by type then in registration order
+	 */
+	public List<EventHandlerMetrics> getHandlers() {
+		return handlers;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("EventBusMetrics [published=").append(published).append(", consumed=").append(consumed)
+				.append(", dropped=").append(dropped).append(", spilled=").append(spilled).append(", failed=").append(failed)
+				.append(", backlog=").append(backlog).append(", batches=").append(batches)
+				.append(", publishLatencyP50Nanos=").append(publishLatencyP50Nanos)
+				.append(", publishLatencyP99Nanos=").append(publishLatencyP99Nanos)
+				.append(", publishLatencyMaxNanos=").append(publishLatencyMaxNanos)
+				.append(", consumedPerSecond=").append(consumedPerSecond)
+				.append(", handlers=").append(handlers).append("]");
+		return builder.toString();
+	}
+}
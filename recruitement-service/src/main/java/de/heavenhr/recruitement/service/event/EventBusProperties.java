@@ -0,0 +1,95 @@
+package de.heavenhr.recruitement.service.event;
+
+/**
+ * The class <code>EventBusProperties</code> holds the settings of the {@link EventBus}, bound from the
+ * <code>recruitement.events.*</code> properties of the application.
+ *
+ * @author Hossam Yahya
+ */
+public class EventBusProperties {
+
+	/**
+	 * The prefix of all event bus properties
+	 */
+	public static final String PREFIX = "recruitement.events";
+
+	/**
+	 * The number of events the ring buffer holds, rounded up to a power of two
+	 */
+	private int capacity = 8192;
+	/**
+	 * The number of consumer threads, the events are handled in publication order only with one
+	 */
+	private int consumers = 1;
+	/**
+	 * The largest number of events a consumer takes from the ring buffer at once
+	 */
+	private int batchSize = 256;
+	/**
+	 * What publishing does when the ring buffer is full
+	 */
+	private Backpressure backpressure = Backpressure.BLOCK;
+	/**
+	 * The largest number of events waiting for a handler running on its own executor, the batches beyond are
+	 * dropped for that handler only
+	 */
+	private int handlerQueueCapacity = 65536;
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public int getConsumers() {
+		return consumers;
+	}
+
+	public void setConsumers(int consumers) {
+		this.consumers = consumers;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Backpressure getBackpressure() {
+		return backpressure;
+	}
+
+	public void setBackpressure(Backpressure backpressure) {
+		this.backpressure = backpressure;
+	}
+
+	public int getHandlerQueueCapacity() {
+		return handlerQueueCapacity;
+	}
+
+	public void setHandlerQueueCapacity(int handlerQueueCapacity) {
+		this.handlerQueueCapacity = handlerQueueCapacity;
+	}
+
+	/**
+	 * What publishing does when the ring buffer is full
+	 */
+	public enum Backpressure {
+		/**
+		 * The publisher waits until a consumer frees a slot
+		 */
+		BLOCK,
+		/**
+		 * The event is dropped and counted
+		 */
+		DROP,
+		/**
+		 * The event is queued in an unbounded overflow queue, consumed once the ring buffer is drained
+		 */
+		SPILL
+	}
+}
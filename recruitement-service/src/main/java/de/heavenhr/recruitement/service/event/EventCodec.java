@@ -0,0 +1,405 @@
+package de.heavenhr.recruitement.service.event;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>EventCodec</code> is a compact, versioned binary codec of the {@link Event}s,
+ * {@link StatusChangeEvent}s, {@link Application}s and {@link Offer}s, to log, replicate or ship them.
+ * <p>
+ * A message is a version byte, a tag byte for the kind of object and its fields in a fixed order. Integers
+ * are varints, 7 bits per byte, signed ones zigzag encoded first; enums are their ordinal plus one, 0 marking
+ * null, so constants may only be added at the end; strings are UTF-8 encoded behind a varint of their length
+ * plus one, 0 marking null. The target of an event is itself tagged, null, an offer or an application.
+ * <p>
+ * Objects are encoded into and decoded from buffers owned by the caller, which can be reused from one
+ * message to the next: encoding allocates nothing and decoding only the decoded objects themselves, the
+ * characters of the strings going through a scratch array kept by the codec. A codec is therefore not
+ * thread safe, each thread uses its own.
+ *
+ * @author Hossam Yahya
+ */
+public class EventCodec {
+
+	/**
+	 * The version of the encoding, written first in every message
+	 */
+	public static final byte VERSION = 1;
+
+	private static final byte NULL = 0;
+	private static final byte OFFER = 1;
+	private static final byte APPLICATION = 2;
+	private static final byte EVENT = 3;
+	private static final byte STATUS_CHANGE_EVENT = 4;
+
+	private static final Event.Type[] TYPES = Event.Type.values();
+	private static final Application.Status[] STATUSES = Application.Status.values();
+
+	private char[] scratch = new char[256];
+
+	// **************************************** Encoding ****************************************
+
+	/**
+	 * Encodes an event, its target being null, an {@link Offer} or an {@link Application}
+	 * @param event the event
+	 * @param out the buffer the event is written to, from its position
+	 * @throws DataException when the target of the event cannot be encoded
+	 * @throws BufferOverflowException when the buffer is too small, its position being undefined
+	 */
+	public void encode(Event<?> event, ByteBuffer out) {
+		out.put(VERSION);
+		writeEvent(event, out);
+	}
+
+	/**
+	 * Encodes an application
+	 * @param application the application
+	 * @param out the buffer the application is written to, from its position
+	 * @throws BufferOverflowException when the buffer is too small, its position being undefined
+	 */
+	public void encode(Application application, ByteBuffer out) {
+		out.put(VERSION);
+		out.put(APPLICATION);
+		writeApplication(application, out);
+	}
+
+	/**
+	 * Encodes an offer
+	 * @param offer the offer
+	 * @param out the buffer the offer is written to, from its position
+	 * @throws BufferOverflowException when the buffer is too small, its position being undefined
+	 */
+	public void encode(Offer offer, ByteBuffer out) {
+		out.put(VERSION);
+		out.put(OFFER);
+		writeOffer(offer, out);
+	}
+
+	private static void writeEvent(Event<?> event, ByteBuffer out) {
+		boolean statusChange = event instanceof StatusChangeEvent;
+		out.put(statusChange ? STATUS_CHANGE_EVENT : EVENT);
+		writeEnum(event.getType(), out);
+		writeVarlong(zigzag(event.getTimestamp()), out);
+		Object target = event.getTarget();
+		if (target == null) {
+			out.put(NULL);
+		} else if (target instanceof Application) {
+			out.put(APPLICATION);
+			writeApplication((Application) target, out);
+		} else if (target instanceof Offer) {
+			out.put(OFFER);
+			writeOffer((Offer) target, out);
+		} else {
+			throw new DataException("Unsupported event target: " + target.getClass().getName());
+		}
+		if (statusChange) {
+			writeEnum(((StatusChangeEvent<?>) event).getOldStatus(), out);
+			writeEnum(((StatusChangeEvent<?>) event).getNewStatus(), out);
+		}
+	}
+
+	private static void writeApplication(Application application, ByteBuffer out) {
+		writeString(application.getJobTitle(), out);
+		writeString(application.getCandidateEmail(), out);
+		writeString(application.getResumeText(), out);
+		writeEnum(application.getStatus(), out);
+	}
+
+	private static void writeOffer(Offer offer, ByteBuffer out) {
+		writeString(offer.getJobTitle(), out);
+		Date startDate = offer.getStartDate();
+		if (startDate == null) {
+			out.put(NULL);
+		} else {
+			out.put((byte) 1);
+			writeVarlong(zigzag(startDate.getTime()), out);
+		}
+		writeVarlong(offer.getNumberOfApplications(), out);
+	}
+
+	private static void writeEnum(Enum<?> value, ByteBuffer out) {
+		writeVarint(value == null ? 0 : value.ordinal() + 1, out);
+	}
+
+	/**
+	 * Writes a string behind its length, computed in a first pass over its characters so that it is never
+	 * copied into a temporary array
+	 */
+	private static void writeString(String value, ByteBuffer out) {
+		if (value == null) {
+			out.put(NULL);
+			return;
+		}
+		int length = value.length();
+		int utf8Length = length;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x80) {
+				if (c < 0x800) {
+					utf8Length++;
+				} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					utf8Length += 2;
+					i++;
+				} else {
+					// Lone surrogates are replaced by '?', as String.getBytes does
+					utf8Length += Character.isSurrogate(c) ? 0 : 2;
+				}
+			}
+		}
+		writeVarint(utf8Length + 1, out);
+		if (!out.hasArray()) {
+			for (int i = 0; i < length; i++) {
+				i = writeChar(value, i, out);
+			}
+			return;
+		}
+		// Heap buffers are written through their array, ASCII characters one store each
+		if (out.remaining() < utf8Length) {
+			throw new BufferOverflowException();
+		}
+		byte[] array = out.array();
+		int start = out.arrayOffset() + out.position();
+		int index = start;
+		int i = 0;
+		for (char c; i < length && (c = value.charAt(i)) < 0x80; i++) {
+			array[index++] = (byte) c;
+		}
+		out.position(out.position() + index - start);
+		for (; i < length; i++) {
+			i = writeChar(value, i, out);
+		}
+	}
+
+	/**
+	 * Writes the character of a string at an index, with the next one when they are a surrogate pair
+	 * @return the index of the last written character
+	 */
+	private static int writeChar(String value, int i, ByteBuffer out) {
+		char c = value.charAt(i);
+		if (c < 0x80) {
+			out.put((byte) c);
+		} else if (c < 0x800) {
+			out.put((byte) (0xC0 | c >> 6));
+			out.put((byte) (0x80 | c & 0x3F));
+		} else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+			int codePoint = Character.toCodePoint(c, value.charAt(++i));
+			out.put((byte) (0xF0 | codePoint >> 18));
+			out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+			out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+			out.put((byte) (0x80 | codePoint & 0x3F));
+		} else if (Character.isSurrogate(c)) {
+			out.put((byte) '?');
+		} else {
+			out.put((byte) (0xE0 | c >> 12));
+			out.put((byte) (0x80 | c >> 6 & 0x3F));
+			out.put((byte) (0x80 | c & 0x3F));
+		}
+		return i;
+	}
+
+	private static void writeVarint(int value, ByteBuffer out) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	private static void writeVarlong(long value, ByteBuffer out) {
+		while ((value & ~0x7FL) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	// **************************************** Decoding ****************************************
+
+	/**
+	 * Decodes an event, a {@link StatusChangeEvent} when it was encoded from one
+	 * @param in the buffer the event is read from, from its position, left after the event
+	 * @return the event
+	 * @throws DataException when the buffer does not hold an event of a known version
+	 */
+	public Event<?> decodeEvent(ByteBuffer in) {
+		try {
+			byte tag = readHeader(in);
+			if (tag != EVENT && tag != STATUS_CHANGE_EVENT) {
+				throw new DataException("Not an event: " + tag);
+			}
+			Event.Type type = readEnum(TYPES, in);
+			long timestamp = unzigzag(readVarlong(in));
+			Object target;
+			byte targetTag = in.get();
+			switch (targetTag) {
+			case NULL:
+				target = null;
+				break;
+			case APPLICATION:
+				target = readApplication(in);
+				break;
+			case OFFER:
+				target = readOffer(in);
+				break;
+			default:
+				throw new DataException("Unknown event target: " + targetTag);
+			}
+			if (tag == EVENT) {
+				return new Event<Object>(target, type, timestamp);
+			}
+			Application.Status oldStatus = readEnum(STATUSES, in);
+			StatusChangeEvent<Object> event = new StatusChangeEvent<Object>(target, timestamp, oldStatus, readEnum(STATUSES, in));
+			event.setType(type);
+			return event;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new DataException("Malformed event", e);
+		}
+	}
+
+	/**
+	 * Decodes an application
+	 * @param in the buffer the application is read from, from its position, left after the application
+	 * @return the application
+	 * @throws DataException when the buffer does not hold an application of a known version
+	 */
+	public Application decodeApplication(ByteBuffer in) {
+		try {
+			byte tag = readHeader(in);
+			if (tag != APPLICATION) {
+				throw new DataException("Not an application: " + tag);
+			}
+			return readApplication(in);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new DataException("Malformed application", e);
+		}
+	}
+
+	/**
+	 * Decodes an offer
+	 * @param in the buffer the offer is read from, from its position, left after the offer
+	 * @return the offer
+	 * @throws DataException when the buffer does not hold an offer of a known version
+	 */
+	public Offer decodeOffer(ByteBuffer in) {
+		try {
+			byte tag = readHeader(in);
+			if (tag != OFFER) {
+				throw new DataException("Not an offer: " + tag);
+			}
+			return readOffer(in);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new DataException("Malformed offer", e);
+		}
+	}
+
+	private static byte readHeader(ByteBuffer in) {
+		byte version = in.get();
+		if (version != VERSION) {
+			throw new DataException("Unsupported codec version: " + version);
+		}
+		return in.get();
+	}
+
+	private Application readApplication(ByteBuffer in) {
+		String jobTitle = readString(in);
+		String candidateEmail = readString(in);
+		String resumeText = readString(in);
+		return new Application(jobTitle, candidateEmail, resumeText, readEnum(STATUSES, in));
+	}
+
+	private Offer readOffer(ByteBuffer in) {
+		String jobTitle = readString(in);
+		Date startDate = in.get() == NULL ? null : new Date(unzigzag(readVarlong(in)));
+		return new Offer(jobTitle, startDate, readVarlong(in));
+	}
+
+	private static <E extends Enum<E>> E readEnum(E[] values, ByteBuffer in) {
+		int ordinal = readVarint(in) - 1;
+		return ordinal < 0 ? null : values[ordinal];
+	}
+
+	/**
+	 * Reads a string, decoding its UTF-8 bytes into the scratch characters, malformed sequences being
+	 * replaced by U+FFFD
+	 */
+	private String readString(ByteBuffer in) {
+		int length = readVarint(in) - 1;
+		if (length < 0) {
+			return null;
+		}
+		if (length > in.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		if (scratch.length < length) {
+			scratch = new char[Math.max(length, scratch.length << 1)];
+		}
+		int end = in.position() + length;
+		int count = 0;
+		if (in.hasArray()) {
+			// Heap buffers are read through their array up to the first multi-byte character
+			byte[] array = in.array();
+			int offset = in.arrayOffset() + in.position();
+			for (byte b; count < length && (b = array[offset + count]) >= 0; count++) {
+				scratch[count] = (char) b;
+			}
+			in.position(in.position() + count);
+		}
+		while (in.position() < end) {
+			int b = in.get();
+			if (b >= 0) {
+				scratch[count++] = (char) b;
+			} else if ((b & 0xE0) == 0xC0 && in.position() < end) {
+				scratch[count++] = (char) ((b & 0x1F) << 6 | in.get() & 0x3F);
+			} else if ((b & 0xF0) == 0xE0 && in.position() + 1 < end) {
+				scratch[count++] = (char) ((b & 0x0F) << 12 | (in.get() & 0x3F) << 6 | in.get() & 0x3F);
+			} else if ((b & 0xF8) == 0xF0 && in.position() + 2 < end) {
+				int codePoint = (b & 0x07) << 18 | (in.get() & 0x3F) << 12 | (in.get() & 0x3F) << 6 | in.get() & 0x3F;
+				if (Character.isSupplementaryCodePoint(codePoint)) {
+					scratch[count++] = Character.highSurrogate(codePoint);
+					scratch[count++] = Character.lowSurrogate(codePoint);
+				} else {
+					scratch[count++] = '\uFFFD';
+				}
+			} else {
+				scratch[count++] = '\uFFFD';
+			}
+		}
+		return new String(scratch, 0, count);
+	}
+
+	private static int readVarint(ByteBuffer in) {
+		int value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = in.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	private static long readVarlong(ByteBuffer in) {
+		long value = 0;
+		for (int shift = 0; ; shift += 7) {
+			byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+}
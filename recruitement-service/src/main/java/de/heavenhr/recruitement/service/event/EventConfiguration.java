@@ -0,0 +1,72 @@
+package de.heavenhr.recruitement.service.event;
+
+import java.util.EnumSet;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.heavenhr.recruitement.service.ExecutionMode;
+
+/**
+ * The class <code>EventConfiguration</code> creates the {@link EventBus} of the application events, configured
+ * by the <code>recruitement.events.*</code> properties, with the handlers of the {@link EventListener}
+ * registered, and the {@link EventLog} too when its directory is set, on its own thread so that forcing it to
+ * disk does not delay the other handlers.
+ *
+ * @author Hossam Yahya
+ */
+@Configuration
+public class EventConfiguration {
+
+	/**
+	 * @return the event bus settings bound from the <code>recruitement.events.*</code> properties
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = EventBusProperties.PREFIX)
+	public EventBusProperties eventBusProperties() {
+		return new EventBusProperties();
+	}
+
+	/**
+	 * @return the event log settings bound from the <code>recruitement.events.log.*</code> properties
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = EventLogProperties.PREFIX)
+	public EventLogProperties eventLogProperties() {
+		return new EventLogProperties();
+	}
+
+	/**
+	 * @param properties the event log settings
+	 * @param mapper the mapper of the events to JSON
+	 * @return the event log, only when its directory is set
+	 */
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(prefix = EventLogProperties.PREFIX, name = "dir")
+	public EventLog eventLog(EventLogProperties properties, ObjectMapper mapper) {
+		return EventLog.open(properties, mapper);
+	}
+
+	/**
+	 * @param properties the event bus settings
+	 * @param eventLog the event log, if enabled, closed after the event bus
+	 * @param executionMode the kind of threads the handlers running on their own thread are given
+	 * @return the event bus, closed once the published events are handled when the application stops
+	 */
+	@Bean(destroyMethod = "close")
+	public EventBus eventBus(EventBusProperties properties, ObjectProvider<EventLog> eventLog, ExecutionMode executionMode) {
+		EventBus bus = new EventBus(properties, executionMode);
+		new EventListener().register(bus);
+		EventLog log = eventLog.getIfAvailable();
+		if (log != null) {
+			// Registered once for all the types, so that the events are logged in publication order
+			bus.registerAsync(EnumSet.allOf(Event.Type.class), log);
+		}
+		return bus;
+	}
+}
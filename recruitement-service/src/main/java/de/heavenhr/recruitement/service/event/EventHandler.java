@@ -0,0 +1,19 @@
+package de.heavenhr.recruitement.service.event;
+
+import java.util.List;
+
+/**
+ * The interface <code>EventHandler</code> handles the events dispatched by the {@link EventBus}, in batches.
+ *
+ * @author Hossam Yahya
+ */
+@FunctionalInterface
+public interface EventHandler {
+
+	/**
+	 * Handles a batch of events of the {@link Event.Type}s the handler is registered for, in publication order.
+	 * Called from the consumer threads of the bus, never concurrently for the same batch.
+	 * @param events the events to be handled
+	 */
+	void handleEvents(List<? extends Event<?>> events);
+}
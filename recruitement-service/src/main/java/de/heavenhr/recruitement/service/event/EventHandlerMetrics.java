@@ -0,0 +1,116 @@
+package de.heavenhr.recruitement.service.event;
+
+/**
+ * The class <code>EventHandlerMetrics</code> is a snapshot of the counters of one {@link EventHandler}
+ * registered to an {@link EventBus} for an {@link Event.Type}, a handler registered for several types having
+ * one per type sharing the same queue.
+ *
+ * @author Hossam Yahya
+ */
+public class EventHandlerMetrics {
+
+	private final Event.Type type;
+	private final String handler;
+	private final boolean async;
+	private final long handled;
+	private final long failed;
+	private final long dropped;
+	private final long queued;
+	private final long latencyP50Nanos;
+	private final long latencyP99Nanos;
+	private final long latencyMaxNanos;
+
+	public EventHandlerMetrics(Event.Type type, String handler, boolean async, long handled, long failed, long dropped, long queued
+			, long latencyP50Nanos, long latencyP99Nanos, long latencyMaxNanos) {
+		this.type = type;
+		this.handler = handler;
+		this.async = async;
+		this.handled = handled;
+		this.failed = failed;
+		this.dropped = dropped;
+		this.queued = queued;
+		this.latencyP50Nanos = latencyP50Nanos;
+		this.latencyP99Nanos = latencyP99Nanos;
+		this.latencyMaxNanos = latencyMaxNanos;
+	}
+
+	/**
+	 * @return the type of the events the handler is registered for
+	 */
+	public Event.Type getType() {
+		return type;
+	}
+
+	/**
+	 * @return the name of the handler, the simple name of its class
+	 */
+	public String getHandler() {
+		return handler;
+	}
+
+	/**
+	 * @return whether the handler runs on its own executor rather than on the consumer threads
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+
+	/**
+	 * @return the number of events the handler handled
+	 */
+	public long getHandled() {
+		return handled;
+	}
+
+	/**
+	 * @return the number of events the handler failed to handle
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return the number of events dropped for the handler because its queue was full
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return the number of events waiting in the queue of the handler
+	 */
+	public long getQueued() {
+		return queued;
+	}
+
+	/**
+	 * @return the median time the handler took for a batch
+	 */
+	public long getLatencyP50Nanos() {
+		return latencyP50Nanos;
+	}
+
+	/**
+	 * @return the 99th percentile of the time the handler took for a batch
+	 */
+	public long getLatencyP99Nanos() {
+		return latencyP99Nanos;
+	}
+
+	/**
+	 * @return the longest time the handler took for a batch
+	 */
+	public long getLatencyMaxNanos() {
+		return latencyMaxNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("EventHandlerMetrics [type=").append(type).append(", handler=").append(handler).append(", async=").append(async)
+				.append(", handled=").append(handled).append(", failed=").append(failed).append(", dropped=").append(dropped)
+				.append(", queued=").append(queued).append(", latencyP50Nanos=").append(latencyP50Nanos)
+				.append(", latencyP99Nanos=").append(latencyP99Nanos).append(", latencyMaxNanos=").append(latencyMaxNanos).append("]");
+		return builder.toString();
+	}
+}
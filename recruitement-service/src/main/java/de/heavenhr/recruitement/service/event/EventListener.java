@@ -1,12 +1,16 @@
 package de.heavenhr.recruitement.service.event;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.heavenhr.recruitement.service.model.Application;
 
 /**
- * The class <code>EventListener</code> contains a basic implementation for event handling.
+ * The class <code>EventListener</code> contains a basic implementation for event handling, with one handler
+ * per {@link Event.Type} registered to the {@link EventBus}, which only hands each of them the events of its
+ * type.
  *
  * @author Hossam Yahya
  */
@@ -14,14 +18,24 @@ public class EventListener {
 	protected Logger logger = LoggerFactory.getLogger(getClass());
 
 	/**
-	 * Dispatches events to the correct method
-	 * @param event the {@link Event} to be handled
+	 * Registers the handlers of the listener, called directly by the consumers of the bus
+	 * @param bus the event bus
+	 */
+	public void register(EventBus bus) {
+		bus.register(Event.Type.STATUS_CHANGE, this::handleStatusChangeEvents);
+		bus.register(Event.Type.APPLICATION_CREATED, this::handleOtherEvents);
+		bus.register(Event.Type.APPLICATION_DELETED, this::handleOtherEvents);
+	}
+	
+	/**
+	 * Handles a batch of {@link StatusChangeEvent} events, in order
+	 * @param events the {@link StatusChangeEvent} events to be handled
 	 */
-	public void handleEvent(Event event){
-		if(event.getType().equals(Event.Type.STATUS_CHANGE) && event.getTarget() instanceof Application){
-			handleApplicationStatusChangeEvent((StatusChangeEvent<Application>)event);
-		}else{
-			handleOtherEvents(event);
+	@SuppressWarnings("unchecked")
+	public void handleStatusChangeEvents(List<? extends Event<?>> events){
+		logger.info("Status change events batch received <{} events>", events.size());
+		for (Event<?> event : events) {
+			handleApplicationStatusChangeEvent((StatusChangeEvent<Application>) event);
 		}
 	}
 	
@@ -30,16 +44,16 @@ public class EventListener {
 	 * @param event the {@link StatusChangeEvent} to be handled
 	 */
 	private void handleApplicationStatusChangeEvent(StatusChangeEvent<Application> event){
-		logger.info(String.format("Event received <%s>", event.toString()));
+		logger.info("Event received <{}>", event);
 		// Handle event.
-		logger.info(String.format("Event handled <%s>", event.toString()));
+		logger.info("Event handled <{}>", event);
 	}
 	
 	/**
-	 * Handles other kinds of {@link Event}
-	 * @param event the {@link Event} to be handled
+	 * Handles a batch of other kinds of {@link Event}
+	 * @param events the events to be handled
 	 */
-	private void handleOtherEvents(Event event){
+	public void handleOtherEvents(List<? extends Event<?>> events){
 		// Handle other events.
 	}
 }
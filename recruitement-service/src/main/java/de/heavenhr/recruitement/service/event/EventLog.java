@@ -0,0 +1,508 @@
+package de.heavenhr.recruitement.service.event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.heavenhr.recruitement.service.exception.DataException;
+
+/**
+ * The class <code>EventLog</code> is a durable, append only log of the events, read by downstream consumers
+ * at their own pace from the offset they stored.
+ * <p>
+ * Every event gets the next offset and is appended as one line of JSON, <code>{"offset":..,"event":{..}}</code>,
+ * so a range of the log is newline delimited JSON as is and is sent with {@link FileChannel#transferTo}, which
+ * does not copy it through the heap when the target is a file or a socket. The log is split in segment files
+ * named after the offset of their first event; a segment is rolled once it reaches its size and the oldest
+ * segments are deleted once their last event is too old or the log too large, the active segment never. The
+ * start of each event in a segment is kept in memory, rebuilt when the log is opened, so any offset is found
+ * without reading the segment. A torn last line, written when the process died, is cut off on open.
+ * <p>
+ * The log is registered to the {@link EventBus} as the handler of every {@link Event.Type} and appends each
+ * batch of events with one write and, unless disabled, one force. Consumers store their offset with
+ * {@link #commitOffset(String, long)}, kept next to the segments.
+ *
+ * @author Hossam Yahya
+ */
+public class EventLog implements EventHandler, Closeable {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	private static final String FILE_SUFFIX = ".log";
+	private static final String OFFSETS_FILE = "consumer-offsets.properties";
+	/**
+	 * The interval between two checks of the retention of the segments, besides the ones done on roll
+	 */
+	private static final long RETENTION_CHECK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	private final File directory;
+	private final EventLogProperties properties;
+	private final ObjectMapper mapper;
+	/**
+	 * The segments, oldest first, the last one being the active one
+	 */
+	private final List<Segment> segments;
+	private final Map<String, Long> consumerOffsets = new ConcurrentHashMap<String, Long>();
+
+	/**
+	 * Guards the appends, rolls, retention and closing, a lock rather than a monitor so that a handler on a
+	 * virtual thread releases its carrier thread while it waits for the lock
+	 */
+	private final ReentrantLock appendLock = new ReentrantLock();
+	/**
+	 * Guards the writes of the consumer offsets file
+	 */
+	private final ReentrantLock offsetsLock = new ReentrantLock();
+	private final Buffer buffer = new Buffer();
+	private long lastRetentionCheck;
+	private boolean closed;
+
+	private EventLog(EventLogProperties properties, ObjectMapper mapper, List<Segment> segments) {
+		this.directory = properties.getDir();
+		this.properties = properties;
+		this.mapper = mapper;
+		this.segments = new CopyOnWriteArrayList<Segment>(segments);
+	}
+
+	/**
+	 * Opens the log in its directory, creating it if needed
+	 * @param properties the event log settings
+	 * @param mapper the mapper of the events to JSON
+	 * @return the log, ready to append after its last complete event
+	 * @throws DataException when the log cannot be opened
+	 */
+	public static EventLog open(EventLogProperties properties, ObjectMapper mapper) {
+		File directory = properties.getDir();
+		if (properties.getSegmentBytes() < 1 || properties.getSegmentBytes() > Integer.MAX_VALUE) {
+			throw new DataException("Segment size must be between 1 and " + Integer.MAX_VALUE);
+		}
+		try {
+			Files.createDirectories(directory.toPath());
+			File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+			long[] baseOffsets = new long[files.length];
+			for (int i = 0; i < files.length; i++) {
+				baseOffsets[i] = Long.parseLong(files[i].getName().substring(0, files[i].getName().length() - FILE_SUFFIX.length()));
+			}
+			Arrays.sort(baseOffsets);
+
+			Segment[] segments = new Segment[Math.max(1, baseOffsets.length)];
+			for (int i = 0; i < baseOffsets.length; i++) {
+				segments[i] = Segment.open(segmentFile(directory, baseOffsets[i]), baseOffsets[i]);
+			}
+			if (baseOffsets.length == 0) {
+				segments[0] = Segment.open(segmentFile(directory, 0), 0);
+			}
+
+			EventLog log = new EventLog(properties, mapper, Arrays.asList(segments));
+			log.loadOffsets();
+			log.appendLock.lock();
+			try {
+				log.enforceRetention();
+			} finally {
+				log.appendLock.unlock();
+			}
+			log.logger.info("EventLog opened: {}, segments#: {}, offsets {} to {}"
+					, directory, log.segments.size(), log.getFirstOffset(), log.getNextOffset());
+			return log;
+		} catch (IOException e) {
+			throw new DataException("Cannot open event log in " + directory, e);
+		}
+	}
+
+	/**
+	 * Appends the events of a batch of the {@link EventBus}
+	 * @param events the events to be appended
+	 */
+	@Override
+	public void handleEvents(List<? extends Event<?>> events) {
+		appendAll(events);
+	}
+
+	/**
+	 * Appends events with one write, giving them consecutive offsets
+	 * @param events the events to be appended
+	 * @return the offset of the first event
+	 * @throws DataException when the events cannot be written
+	 */
+	public long appendAll(List<? extends Event<?>> events) {
+		appendLock.lock();
+		try {
+			if (closed) {
+				throw new DataException("Event log is closed");
+			}
+			Segment active = segments.get(segments.size() - 1);
+			long firstOffset = active.baseOffset + active.count;
+			if (events.isEmpty()) {
+				return firstOffset;
+			}
+			try {
+				int[] ends = new int[events.size()];
+				buffer.reset();
+				JsonGenerator generator = mapper.getFactory().createGenerator(buffer);
+				generator.setRootValueSeparator(null);
+				for (int i = 0; i < ends.length; i++) {
+					generator.writeStartObject();
+					generator.writeNumberField("offset", firstOffset + i);
+					generator.writeObjectField("event", events.get(i));
+					generator.writeEndObject();
+					generator.writeRaw('\n');
+					generator.flush();
+					ends[i] = buffer.size();
+				}
+				generator.close();
+
+				if (active.count > 0 && active.size() + buffer.size() > properties.getSegmentBytes()) {
+					active = roll(firstOffset);
+				}
+				long start = active.size();
+				ByteBuffer bytes = buffer.toByteBuffer();
+				while (bytes.hasRemaining()) {
+					active.channel.write(bytes, start + bytes.position());
+				}
+				if (properties.isForce()) {
+					active.channel.force(false);
+				}
+				for (int end : ends) {
+					active.add((int) (start + end));
+				}
+			} catch (IOException e) {
+				throw new DataException("Cannot append to event log in " + directory, e);
+			}
+
+			if (System.currentTimeMillis() - lastRetentionCheck > RETENTION_CHECK_MILLIS) {
+				enforceRetention();
+			}
+			return firstOffset;
+		} finally {
+			appendLock.unlock();
+		}
+	}
+
+	/**
+	 * Finds the events following an offset, up to the end of the segment holding it
+	 * @param from the offset of the first event, the first retained event is read from when it was deleted
+	 * @param limit the largest number of events to read
+	 * @return the events, to be transferred
+	 * @throws DataException when the offset is after the end of the log or the limit is not positive
+	 */
+	public Slice read(long from, int limit) {
+		if (limit < 1) {
+			throw new DataException("Limit must be positive");
+		}
+		Segment[] current = segments.toArray(new Segment[0]);
+		from = Math.max(from, current[0].baseOffset);
+		for (int i = current.length - 1; i >= 0; i--) {
+			Segment segment = current[i];
+			if (segment.baseOffset <= from) {
+				// The count is read before the positions, which always hold the positions of that many events
+				int count = segment.count;
+				int[] positions = segment.positions;
+				if (from - segment.baseOffset > count) {
+					throw new DataException("Offset " + from + " is after the end of the event log");
+				}
+				int index = (int) (from - segment.baseOffset);
+				int end = (int) Math.min(count, index + (long) limit);
+				return new Slice(from, segment.baseOffset + end, segment.channel, positions[index], positions[end] - positions[index]);
+			}
+		}
+		throw new IllegalStateException("No segment holds offset " + from);
+	}
+
+	/**
+	 * @return the offset of the oldest retained event
+	 */
+	public long getFirstOffset() {
+		return segments.get(0).baseOffset;
+	}
+
+	/**
+	 * @return the offset the next appended event gets
+	 */
+	public long getNextOffset() {
+		Segment active = segments.get(segments.size() - 1);
+		return active.baseOffset + active.count;
+	}
+
+	/**
+	 * Stores the offset a consumer reads from next, on disk
+	 * @param consumer the name of the consumer
+	 * @param offset the offset of the first event the consumer did not handle
+	 * @throws DataException when the offset is after the end of the log or cannot be stored
+	 */
+	public void commitOffset(String consumer, long offset) {
+		if (offset < 0 || offset > getNextOffset()) {
+			throw new DataException("Offset " + offset + " is not in the event log");
+		}
+		offsetsLock.lock();
+		try {
+			consumerOffsets.put(consumer, offset);
+			Properties stored = new Properties();
+			for (Map.Entry<String, Long> consumerOffset : consumerOffsets.entrySet()) {
+				stored.setProperty(consumerOffset.getKey(), String.valueOf(consumerOffset.getValue()));
+			}
+			File file = new File(directory, OFFSETS_FILE);
+			File temporary = new File(directory, OFFSETS_FILE + ".tmp");
+			try {
+				try (FileOutputStream out = new FileOutputStream(temporary)) {
+					stored.store(out, null);
+					out.getFD().sync();
+				}
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				throw new DataException("Cannot store consumer offsets in " + directory, e);
+			}
+		} finally {
+			offsetsLock.unlock();
+		}
+	}
+
+	/**
+	 * @param consumer the name of the consumer
+	 * @return the offset the consumer reads from next, 0 when it never stored one
+	 */
+	public long getCommittedOffset(String consumer) {
+		Long offset = consumerOffsets.get(consumer);
+		return offset == null ? 0 : offset;
+	}
+
+	@Override
+	public void close() {
+		appendLock.lock();
+		try {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			for (Segment segment : segments) {
+				segment.close();
+			}
+		} finally {
+			appendLock.unlock();
+		}
+		logger.info("EventLog closed: {}", directory);
+	}
+
+	private void loadOffsets() throws IOException {
+		File file = new File(directory, OFFSETS_FILE);
+		if (!file.exists()) {
+			return;
+		}
+		Properties stored = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			stored.load(in);
+		}
+		for (String consumer : stored.stringPropertyNames()) {
+			consumerOffsets.put(consumer, Long.parseLong(stored.getProperty(consumer)));
+		}
+	}
+
+	/**
+	 * Starts a new active segment, the caller holding the append lock
+	 */
+	private Segment roll(long baseOffset) throws IOException {
+		Segment active = Segment.open(segmentFile(directory, baseOffset), baseOffset);
+		segments.add(active);
+		logger.info("roll() event log segment started: {}", active.file);
+
+		enforceRetention();
+		return active;
+	}
+
+	/**
+	 * Deletes the oldest segments while their last event is too old or the log too large, the caller holding
+	 * the append lock
+	 */
+	private void enforceRetention() {
+		long now = System.currentTimeMillis();
+		lastRetentionCheck = now;
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		while (segments.size() > 1) {
+			Segment oldest = segments.get(0);
+			boolean expired = properties.getRetentionMillis() > 0 && oldest.file.lastModified() < now - properties.getRetentionMillis();
+			boolean oversized = properties.getRetentionBytes() > 0 && size > properties.getRetentionBytes();
+			if (!expired && !oversized) {
+				break;
+			}
+			segments.remove(0);
+			size -= oldest.size();
+			oldest.close();
+			if (!oldest.file.delete()) {
+				logger.warn("enforceRetention() cannot delete event log segment: {}", oldest.file);
+			}
+			logger.info("enforceRetention() event log segment deleted: {}{}", oldest.file, expired ? ", expired" : ", log too large");
+		}
+	}
+
+	private static File segmentFile(File directory, long baseOffset) {
+		return new File(directory, String.format("%020d", baseOffset) + FILE_SUFFIX);
+	}
+
+	/**
+	 * A range of events of a segment
+	 */
+	public static class Slice {
+		private final long firstOffset;
+		private final long nextOffset;
+		private final FileChannel channel;
+		private final long position;
+		private final long length;
+
+		Slice(long firstOffset, long nextOffset, FileChannel channel, long position, long length) {
+			this.firstOffset = firstOffset;
+			this.nextOffset = nextOffset;
+			this.channel = channel;
+			this.position = position;
+			this.length = length;
+		}
+
+		/**
+		 * @return the offset of the first event
+		 */
+		public long getFirstOffset() {
+			return firstOffset;
+		}
+
+		/**
+		 * @return the offset following the last event, to read the next events from
+		 */
+		public long getNextOffset() {
+			return nextOffset;
+		}
+
+		/**
+		 * @return the size in bytes of the events
+		 */
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * Transfers the events, as newline delimited JSON
+		 * @param target the channel to write the events to
+		 * @throws IOException when the events cannot be read or written, or the segment was deleted meanwhile
+		 */
+		public void transferTo(WritableByteChannel target) throws IOException {
+			for (long transferred = 0; transferred < length; ) {
+				transferred += channel.transferTo(position + transferred, length - transferred, target);
+			}
+		}
+
+		/**
+		 * Transfers the events, as newline delimited JSON
+		 * @param target the stream to write the events to
+		 * @throws IOException when the events cannot be read or written, or the segment was deleted meanwhile
+		 */
+		public void transferTo(OutputStream target) throws IOException {
+			transferTo(Channels.newChannel(target));
+		}
+	}
+
+	/**
+	 * A segment file and the positions of its events
+	 */
+	private static class Segment {
+		private final File file;
+		private final FileChannel channel;
+		private final long baseOffset;
+		/**
+		 * The start of each event, followed by the end of the last one
+		 */
+		private int[] positions = new int[1024];
+		/**
+		 * The number of events, written after their positions
+		 */
+		private volatile int count;
+
+		private Segment(File file, FileChannel channel, long baseOffset) {
+			this.file = file;
+			this.channel = channel;
+			this.baseOffset = baseOffset;
+		}
+
+		/**
+		 * Opens a segment, finding the events it holds and cutting off a torn last line
+		 */
+		static Segment open(File file, long baseOffset) throws IOException {
+			FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+			Segment segment = new Segment(file, channel, baseOffset);
+			ByteBuffer buffer = ByteBuffer.allocate(64 << 10);
+			long position = 0;
+			while (channel.read(buffer, position) > 0) {
+				buffer.flip();
+				for (int i = 0; i < buffer.limit(); i++) {
+					if (buffer.get(i) == '\n') {
+						segment.add((int) (position + i + 1));
+					}
+				}
+				position += buffer.limit();
+				buffer.clear();
+			}
+			if (channel.size() > segment.size()) {
+				LoggerFactory.getLogger(EventLog.class).warn("Event log truncated after a torn event: {} at {}", file, segment.size());
+				channel.truncate(segment.size());
+			}
+			return segment;
+		}
+
+		long size() {
+			return positions[count];
+		}
+
+		/**
+		 * Adds an event, the caller holding the append lock
+		 * @param end the end of the event
+		 */
+		void add(int end) {
+			if (count + 1 == positions.length) {
+				positions = Arrays.copyOf(positions, positions.length << 1);
+			}
+			positions[count + 1] = end;
+			count++;
+		}
+
+		void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				LoggerFactory.getLogger(EventLog.class).warn("Cannot close event log segment: {}", file, e);
+			}
+		}
+	}
+
+	/**
+	 * A byte array output stream whose content is wrapped rather than copied
+	 */
+	private static class Buffer extends ByteArrayOutputStream {
+		ByteBuffer toByteBuffer() {
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+	}
+}
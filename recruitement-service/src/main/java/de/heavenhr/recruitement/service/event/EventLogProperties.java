@@ -0,0 +1,79 @@
+package de.heavenhr.recruitement.service.event;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class <code>EventLogProperties</code> holds the settings of the {@link EventLog}, bound from the
+ * <code>recruitement.events.log.*</code> properties of the application.
+ *
+ * @author Hossam Yahya
+ */
+public class EventLogProperties {
+
+	/**
+	 * The prefix of all event log properties
+	 */
+	public static final String PREFIX = "recruitement.events.log";
+
+	/**
+	 * The directory of the log segments and consumer offsets, the log is disabled when not set
+	 */
+	private File dir;
+	/**
+	 * The size a segment is rolled at
+	 */
+	private long segmentBytes = 64L << 20;
+	/**
+	 * The age of the last event of a segment it is deleted at, never when not positive
+	 */
+	private long retentionMillis = TimeUnit.DAYS.toMillis(7);
+	/**
+	 * The size of the log the oldest segments are deleted at, never when not positive
+	 */
+	private long retentionBytes = 1L << 30;
+	/**
+	 * Whether the appended events are forced to disk before they are acknowledged
+	 */
+	private boolean force = true;
+
+	public File getDir() {
+		return dir;
+	}
+
+	public void setDir(File dir) {
+		this.dir = dir;
+	}
+
+	public long getSegmentBytes() {
+		return segmentBytes;
+	}
+
+	public void setSegmentBytes(long segmentBytes) {
+		this.segmentBytes = segmentBytes;
+	}
+
+	public long getRetentionMillis() {
+		return retentionMillis;
+	}
+
+	public void setRetentionMillis(long retentionMillis) {
+		this.retentionMillis = retentionMillis;
+	}
+
+	public long getRetentionBytes() {
+		return retentionBytes;
+	}
+
+	public void setRetentionBytes(long retentionBytes) {
+		this.retentionBytes = retentionBytes;
+	}
+
+	public boolean isForce() {
+		return force;
+	}
+
+	public void setForce(boolean force) {
+		this.force = force;
+	}
+}
@@ -0,0 +1,37 @@
+package de.heavenhr.recruitement.service.exception;
+
+/**
+ * The class <code>VersionMismatchException</code> is the {@link DataException} used when data is changed on the
+ * condition that it is still at a version, and it is not anymore.
+ *
+ * @author Hossam Yahya
+ */
+public class VersionMismatchException extends DataException {
+
+	/**
+	 * Unique ID for Serialized object
+	 */
+	private static final long serialVersionUID = -3620937417155322306L;
+
+	/**
+	 * The version the data is at
+	 */
+	private final long currentVersion;
+
+	/**
+	 * Creates an instance with message string
+	 * @param msg the error message
+	 * @param currentVersion the version the data is at
+	 */
+	public VersionMismatchException(String msg, long currentVersion) {
+		super(msg);
+		this.currentVersion = currentVersion;
+	}
+
+	/**
+	 * @return the version the data is at
+	 */
+	public long getCurrentVersion() {
+		return currentVersion;
+	}
+}
@@ -1,5 +1,7 @@
 package de.heavenhr.recruitement.service.model;
 
+import java.io.Serializable;
+
 import javax.xml.bind.annotation.XmlRootElement;
 /**
  * The class <code>Application</code> is the model class to represent an application.
@@ -7,7 +9,13 @@ import javax.xml.bind.annotation.XmlRootElement;
  * @author Hossam Yahya
  */
 @XmlRootElement
-public class Application {
+public class Application implements Serializable {
+
+	/**
+	 * Unique ID for Serialized object
+	 */
+	private static final long serialVersionUID = -4520174316813525861L;
+	
 	// TODO should be changed to referential key (the Offer primary key) when migrating to database persistence.
 	/**
 	 * Represents a referential key to the related offer
@@ -22,9 +30,15 @@ public class Application {
 	 */
 	private String resumeText;
 	/**
-	 * Is the application status, as one of {APPLIED, INVITED, REJECTED, HIRED}
+	 * Is the application status, as one of {APPLIED, INVITED, REJECTED, HIRED}. Volatile as status updates
+	 * are applied in place on the stored application while other request threads read it.
+	 */
+	private volatile Status status;
+	/**
+	 * Is the version of the application, set by the storage when the application is created and incremented
+	 * each time its status changes
 	 */
-	private Status status;
+	private volatile long version;
 	
 	public Application() {
 	}
@@ -68,12 +82,22 @@ public class Application {
 		this.status = status;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	/**
+	 * Describes the application for the logs, leaving out the resume, which can be kilobytes long
+	 */
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
 		builder.append("Application [jobTitle=").append(jobTitle)
 				.append(", candidateEmail=").append(candidateEmail)
-				.append(", resumeText=").append(resumeText)
 				.append(", status=").append(status).append("]");
 		return builder.toString();
 	}
@@ -1,6 +1,9 @@
 package de.heavenhr.recruitement.service.model;
 
+import java.io.Serializable;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.xml.bind.annotation.XmlRootElement;
 
@@ -10,7 +13,12 @@ import javax.xml.bind.annotation.XmlRootElement;
  * @author Hossam Yahya
  */
 @XmlRootElement
-public class Offer {
+public class Offer implements Serializable {
+
+	/**
+	 * Unique ID for Serialized object
+	 */
+	private static final long serialVersionUID = 2904513760231880442L;
 
 	/**
 	 * Represents the offer unique id
@@ -21,9 +29,15 @@ public class Offer {
 	 */
     private Date startDate;
     /**
-	 * represents the number of applications submitted for this offer
+	 * represents the number of applications submitted for this offer, kept in a {@link LongAdder}
+	 * so that concurrent application submissions do not contend on a single counter
+	 */
+    private final LongAdder numberOfApplications = new LongAdder();
+    /**
+	 * Is the version of the offer, set by the storage when the offer is created and incremented each time
+	 * its number of applications changes
 	 */
-    private long numberOfApplications;
+    private final AtomicLong version = new AtomicLong();
     
 	public Offer() {
 	}
@@ -32,7 +46,7 @@ public class Offer {
 		super();
 		this.jobTitle = jobTitle;
 		this.startDate = startDate;
-		this.numberOfApplications = numberOfApplications;
+		this.numberOfApplications.add(numberOfApplications);
 	}
 	
 	public String getJobTitle() {
@@ -52,18 +66,41 @@ public class Offer {
 	}
 	
 	public long getNumberOfApplications() {
-		return numberOfApplications;
+		return numberOfApplications.sum();
 	}
 	
 	public void setNumberOfApplications(long numberOfApplications) {
-		this.numberOfApplications = numberOfApplications;
+		this.numberOfApplications.reset();
+		this.numberOfApplications.add(numberOfApplications);
+	}
+	
+	/**
+	 * Atomically increments the number of applications submitted for this offer
+	 */
+	public void incrementNumberOfApplications() {
+		numberOfApplications.increment();
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+	
+	public void setVersion(long version) {
+		this.version.set(version);
+	}
+	
+	/**
+	 * Atomically increments the version of this offer
+	 */
+	public void incrementVersion() {
+		version.incrementAndGet();
 	}
 
 	@Override
 	public String toString() {
 		StringBuilder builder = new StringBuilder();
 		builder.append("Offer [jobTitle=").append(jobTitle).append(", startDate=").append(startDate)
-				.append(", numberOfApplications=").append(numberOfApplications).append("]");
+				.append(", numberOfApplications=").append(getNumberOfApplications()).append("]");
 		return builder.toString();
 	}
     
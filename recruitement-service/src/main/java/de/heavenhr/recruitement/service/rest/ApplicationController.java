@@ -1,22 +1,45 @@
 package de.heavenhr.recruitement.service.rest;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import de.heavenhr.recruitement.service.dao.DAO;
-import de.heavenhr.recruitement.service.event.EventListener;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import de.heavenhr.recruitement.service.dao.SearchHit;
+import de.heavenhr.recruitement.service.dao.StatusUpdate;
+import de.heavenhr.recruitement.service.dao.StorageEngine;
+import de.heavenhr.recruitement.service.event.Event;
+import de.heavenhr.recruitement.service.event.EventBus;
 import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.exception.NoDataFoundException;
 import de.heavenhr.recruitement.service.model.Application;
 
 /**
@@ -28,43 +51,156 @@ import de.heavenhr.recruitement.service.model.Application;
 @RequestMapping("/api/applications/")
 public class ApplicationController {
 	protected Logger logger = LoggerFactory.getLogger(getClass());
+	
+	/**
+	 * The media type of newline delimited JSON, one JSON document per line
+	 */
+	static final String NDJSON = "application/x-ndjson";
+	/**
+	 * The number of bulk applications created at once
+	 */
+	static final int BULK_CHUNK_SIZE = 1000;
+	
+	/**
+	 * The storage of offers and applications, selected by the <code>recruitement.storage.engine</code> property
+	 */
+	@Autowired
+	private StorageEngine storage;
+	
+	@Autowired
+	private ObjectMapper mapper;
+	
+	/**
+	 * Dispatches the application events asynchronously
+	 */
+	@Autowired
+	private EventBus eventBus;
+	
+	private ObjectReader applicationReader;
+	
+	@PostConstruct
+	void init() {
+		applicationReader = mapper.readerFor(Application.class);
+	}
 
 	/**
 	 * Finds candidate {@link Application} for a specified {@link Offer} 
 	 * @param jobTitle the offer unique key
 	 * @param candidateEmail the {@link Application} unique key per offer
-	 * @return  the {@link Application} found with the supplied jobTitle and candidateEmail
+	 * @param request the request, answered with 304 Not Modified when the client has the current version
+	 * @return  the {@link Application} found with the supplied jobTitle and candidateEmail, null when it is not modified
 	 * @throws Exception
 	 */
 	// TODO should be changed to /{id} when migrating to database persistence.
 	@RequestMapping(value = "/{jobTitle}/{candidateEmail:.+}", method = RequestMethod.GET, produces = "application/json")
-	public Application getApplication(@PathVariable String jobTitle, @PathVariable String candidateEmail) throws Exception {
-		logger.info("getApplication() called: " + jobTitle + ", " + candidateEmail);
-		return DAO.newInstance().getOfferApplication(jobTitle, candidateEmail);
+	public Application getApplication(@PathVariable String jobTitle, @PathVariable String candidateEmail, WebRequest request)
+			throws Exception {
+		logger.info("getApplication() called: {}, {}", jobTitle, candidateEmail);
+		
+		Application application = storage.getOfferApplication(jobTitle, candidateEmail);
+		if (request.checkNotModified(EntityTags.of(application.getVersion()))) {
+			return null;
+		}
+		return application;
 	}
 	
 	
 	/**
-	 * Updates the status of a candidate {@link Application}
+	 * Searches the candidate {@link Application} resumes by keywords, ranking them by relevance
+	 * @param q the keywords
+	 * @param jobTitle the offer unique key to search the applications of, all applications are searched if omitted
+	 * @param limit the largest number of applications to find
+	 * @return the applications whose resume has any of the keywords, the most relevant first
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/search", method = RequestMethod.GET, produces = "application/json")
+	public List<SearchHit> searchApplications(@RequestParam String q, @RequestParam(required = false) String jobTitle
+			, @RequestParam(defaultValue = "10") int limit) throws Exception {
+		logger.info("searchApplications() called: {}, {}, {}", q, jobTitle, limit);
+		
+		return storage.searchApplications(q, jobTitle, limit);
+	}
+	
+	/**
+	 * Updates the status of a candidate {@link Application}, reading its old status in the same lookup. With an
+	 * <code>If-Match</code> header holding the <code>ETag</code> of the application, it is only updated if it did
+	 * not change since, otherwise 412 Precondition Failed is answered.
 	 * @param application the {@link Application} to be updated
+	 * @param ifMatch the entity tag of the version of the application to update, optional
+	 * @return the response holding the entity tag of the updated application
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/", method = RequestMethod.PUT, produces = "application/json")
-	public void updateApplicationStatus(@RequestBody Application application) throws Exception {
-		logger.info("updateApplicationStatus() called: " + application);
+	public ResponseEntity<?> updateApplicationStatus(@RequestBody Application application
+			, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws Exception {
+		logger.info("updateApplicationStatus() called: {}, {}", application, ifMatch);
 		
-		Application.Status oldApplicationStatus = DAO.newInstance().getOfferApplication(application.getJobTitle(), application.getCandidateEmail()).getStatus();
-		DAO.newInstance().updateApplicationStatus(application);
+		long expectedVersion = ifMatch == null ? StorageEngine.ANY_VERSION : EntityTags.parseVersion(ifMatch);
+		StatusUpdate update = storage.compareAndSetApplicationStatus(application, expectedVersion);
 		
 		// Log the application status change event.
-		logger.info(String.format("***** Application Status Change Event <Job Title:%s, Candidate Email:%s, New Status:%s> *****"
-				, application.getJobTitle(), application.getCandidateEmail(), application.getStatus()));
+		logger.info("***** Application Status Change Event <Job Title:{}, Candidate Email:{}, New Status:{}> *****"
+				, application.getJobTitle(), application.getCandidateEmail(), application.getStatus());
 		
 		// Dispatch the application status change event.
-		EventListener listener = new EventListener();
 		StatusChangeEvent<Application> event = new StatusChangeEvent<Application>(application, System.currentTimeMillis()
-				, oldApplicationStatus,application.getStatus());
-		listener.handleEvent(event);
+				, update.getOldStatus(), update.getNewStatus());
+		eventBus.publish(event);
+		
+		return ResponseEntity.ok().eTag(EntityTags.of(application.getVersion())).build();
+	}
+	
+	/**
+	 * Updates the status of a list of candidate {@link Application} in one pass
+	 * @param applications the job title, candidate email and new status of each {@link Application} to be updated
+	 * @return for each application, in order, the applied {@link StatusUpdate}, or null when it does not exist
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/bulk", method = RequestMethod.PUT, consumes = "application/json", produces = "application/json")
+	public List<StatusUpdate> updateApplicationStatuses(@RequestBody List<Application> applications) throws Exception {
+		logger.info("updateApplicationStatuses() called: {}", applications.size());
+		
+		List<StatusUpdate> updates = storage.updateApplicationStatuses(applications);
+		handleStatusUpdates(updates);
+		
+		return updates;
+	}
+	
+	/**
+	 * Updates the status of all the {@link Application} of an offer having a status, in one pass
+	 * @param jobTitle the offer unique key
+	 * @param from only the applications having this status are updated, all of them if omitted
+	 * @param to the new status
+	 * @return the applied {@link StatusUpdate}s
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/bulk", method = RequestMethod.PUT, params = { "jobTitle", "to" }, produces = "application/json")
+	public List<StatusUpdate> updateOfferApplicationStatuses(@RequestParam String jobTitle
+			, @RequestParam(required = false) Application.Status from, @RequestParam Application.Status to) throws Exception {
+		logger.info("updateOfferApplicationStatuses() called: {}, {}, {}", jobTitle, from, to);
+		
+		List<StatusUpdate> updates = storage.updateOfferApplicationStatuses(jobTitle, from, to);
+		handleStatusUpdates(updates);
+		
+		return updates;
+	}
+	
+	/**
+	 * Publishes the status change events of a bulk status update
+	 */
+	private void handleStatusUpdates(List<StatusUpdate> updates) {
+		long timestamp = System.currentTimeMillis();
+		List<StatusChangeEvent<Application>> events = new ArrayList<StatusChangeEvent<Application>>(updates.size());
+		for (StatusUpdate update : updates) {
+			if (update != null) {
+				Application application = new Application(update.getJobTitle(), update.getCandidateEmail(), null, update.getNewStatus());
+				events.add(new StatusChangeEvent<Application>(application, timestamp, update.getOldStatus(), update.getNewStatus()));
+			}
+		}
+		
+		logger.info("***** Application Status Change Events <{} applications> *****", events.size());
+		
+		eventBus.publishAll(events);
 	}
 	
 	/**
@@ -74,9 +210,10 @@ public class ApplicationController {
 	 */
 	@RequestMapping(value = "/", method = RequestMethod.POST, produces = "application/json")
 	public ResponseEntity<?> createApplication(@RequestBody Application application) throws Exception {
-		logger.info("createApplication() called: " + application);
+		logger.info("createApplication() called: {}", application);
 			
-		DAO.newInstance().createApplication(application);
+		storage.createApplication(application);
+		eventBus.publish(new Event<Application>(application, Event.Type.APPLICATION_CREATED, System.currentTimeMillis()));
 		
 		// Create URI for the newly created  application
 		URI location = ServletUriComponentsBuilder.fromCurrentRequest()
@@ -86,6 +223,110 @@ public class ApplicationController {
 	}
 	
 	
+	/**
+	 * Creates candidate {@link Application}s in bulk from a newline delimited JSON stream, one application
+	 * per line. The stream is read and created in chunks of {@link #BULK_CHUNK_SIZE} applications, each chunk
+	 * with a single storage call, and the results are streamed back after each chunk in line order, as one JSON
+	 * object per line holding the line number, the status the line would get as a single request and the
+	 * error message if any. Blank lines are skipped.
+	 * @param request the request streaming the applications
+	 * @param response the response streaming the results
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/bulk", method = RequestMethod.POST, consumes = NDJSON, produces = NDJSON)
+	public void createApplications(HttpServletRequest request, HttpServletResponse response) throws Exception {
+		logger.info("createApplications() called");
+		
+		response.setContentType(NDJSON);
+		BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+		long created = 0;
+		int lineNumber = 0;
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream())) {
+			// The results are separated by new lines, not by the default root value separator
+			generator.setRootValueSeparator(null);
+			List<Integer> lines = new ArrayList<Integer>(BULK_CHUNK_SIZE);
+			List<Application> applications = new ArrayList<Application>(BULK_CHUNK_SIZE);
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				
+				// Malformed lines are kept as null applications, they never reach the storage
+				Application application;
+				try {
+					application = applicationReader.readValue(line);
+				} catch (IOException e) {
+					application = null;
+				}
+				lines.add(lineNumber);
+				applications.add(application);
+				
+				if (applications.size() == BULK_CHUNK_SIZE) {
+					created += createChunk(generator, lines, applications);
+				}
+			}
+			created += createChunk(generator, lines, applications);
+		}
+		
+		logger.info("createApplications() created applications#: {} of lines#: {}", created, lineNumber);
+	}
+	
+	/**
+	 * Creates a chunk of bulk applications and writes the results of its lines in order, then clears the chunk
+	 * @return the number of created applications
+	 */
+	private int createChunk(JsonGenerator generator, List<Integer> lines, List<Application> applications) throws IOException {
+		if (applications.isEmpty()) {
+			return 0;
+		}
+		
+		List<Application> valid = new ArrayList<Application>(applications.size());
+		for (Application application : applications) {
+			if (application != null) {
+				valid.add(application);
+			}
+		}
+		List<Exception> results = valid.isEmpty() ? new ArrayList<Exception>() : storage.createApplications(valid);
+		
+		int created = 0;
+		List<Event<Application>> events = new ArrayList<Event<Application>>(valid.size());
+		long timestamp = System.currentTimeMillis();
+		for (int i = 0, next = 0; i < applications.size(); i++) {
+			if (applications.get(i) == null) {
+				writeResult(generator, lines.get(i), HttpStatus.BAD_REQUEST, "Malformed application");
+				continue;
+			}
+			Exception result = results.get(next++);
+			if (result == null) {
+				writeResult(generator, lines.get(i), HttpStatus.CREATED, null);
+				events.add(new Event<Application>(applications.get(i), Event.Type.APPLICATION_CREATED, timestamp));
+				created++;
+			} else {
+				writeResult(generator, lines.get(i), result instanceof NoDataFoundException ? HttpStatus.NOT_FOUND : HttpStatus.CONFLICT
+						, result.getMessage());
+			}
+		}
+		generator.flush();
+		eventBus.publishAll(events);
+		
+		lines.clear();
+		applications.clear();
+		return created;
+	}
+	
+	private static void writeResult(JsonGenerator generator, int line, HttpStatus status, String error) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("line", line);
+		generator.writeNumberField("status", status.value());
+		if (error != null) {
+			generator.writeStringField("error", error);
+		}
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+	
 	/**
 	 * Calculates the total number of applications in the system
 	 * @return the total number of applications in the system
@@ -95,8 +336,20 @@ public class ApplicationController {
 	public long getApplicationCount() throws Exception {
 		logger.info("getApplicationCount() called");
 			
-		long count = DAO.newInstance().getApplicationCount();
+		long count = storage.getApplicationCount();
 		
 		return count;
 	}
+	
+	/**
+	 * Calculates the number of applications in the system for each status
+	 * @return the number of applications in the system by status
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/count-by-status", method = RequestMethod.GET, produces = "application/json")
+	public Map<Application.Status, Long> getApplicationCountByStatus() throws Exception {
+		logger.info("getApplicationCountByStatus() called");
+		
+		return storage.getApplicationCountByStatus();
+	}
 }
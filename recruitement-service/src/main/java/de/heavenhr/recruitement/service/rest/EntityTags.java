@@ -0,0 +1,60 @@
+package de.heavenhr.recruitement.service.rest;
+
+import de.heavenhr.recruitement.service.dao.StorageEngine;
+
+/**
+ * The class <code>EntityTags</code> builds the strong entity tags of the responses from the versions kept by
+ * the {@link StorageEngine}, for the conditional requests to be answered without serializing anything.
+ * <p>
+ * The versions are not kept across restarts, so each tag is prefixed by the time the application started
+ * and a tag received from an earlier run never matches.
+ * <p>
+ * The tags of an <code>If-Match</code> header are parsed back to the version a conditional update expects.
+ *
+ * @author Hossam Yahya
+ */
+final class EntityTags {
+
+	private static final String EPOCH = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+	/**
+	 * The version expected by a tag which does not match any version, as versions start at 1
+	 */
+	static final long NO_VERSION = 0;
+
+	private EntityTags() {
+	}
+
+	/**
+	 * Builds the entity tag of a version
+	 * @param version the version of an entity or of a collection
+	 * @return the quoted entity tag
+	 */
+	static String of(long version) {
+		return "\"" + EPOCH + "-" + version + "\"";
+	}
+
+	/**
+	 * Parses the version expected by the tags of an <code>If-Match</code> header
+	 * @param ifMatch the header value, a list of tags or <code>*</code>
+	 * @return {@link StorageEngine#ANY_VERSION} for <code>*</code>, the version of the first tag built by this run
+	 * otherwise, or {@link #NO_VERSION} when there is none, weak tags never matching
+	 */
+	static long parseVersion(String ifMatch) {
+		String prefix = "\"" + EPOCH + "-";
+		for (String tag : ifMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.equals("*")) {
+				return StorageEngine.ANY_VERSION;
+			}
+			if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+				try {
+					return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+				} catch (NumberFormatException e) {
+					// Not a tag of this run
+				}
+			}
+		}
+		return NO_VERSION;
+	}
+}
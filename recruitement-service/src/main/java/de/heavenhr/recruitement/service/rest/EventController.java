@@ -0,0 +1,144 @@
+package de.heavenhr.recruitement.service.rest;
+
+import java.nio.channels.Channels;
+import java.util.EnumSet;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.heavenhr.recruitement.service.event.Event;
+import de.heavenhr.recruitement.service.event.EventBus;
+import de.heavenhr.recruitement.service.event.EventBusMetrics;
+import de.heavenhr.recruitement.service.event.EventLog;
+import de.heavenhr.recruitement.service.exception.NoDataFoundException;
+
+/**
+ * The class <code>EventController</code> contains APIs to monitor the dispatch of the application events, to
+ * consume them from the {@link EventLog} and to be pushed them as Server-Sent Events.
+ *
+ * @author Hossam Yahya
+ */
+@RestController
+@RequestMapping("/api/events/")
+public class EventController {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * The default number of events read from the event log
+	 */
+	private static final int DEFAULT_LIMIT = 1000;
+
+	@Autowired
+	private EventBus eventBus;
+	@Autowired(required = false)
+	private EventLog eventLog;
+	@Autowired
+	private ObjectMapper mapper;
+
+	private SseBroadcaster broadcaster;
+
+	@PostConstruct
+	void init() {
+		broadcaster = new SseBroadcaster(mapper.getFactory());
+		eventBus.register(EnumSet.of(Event.Type.STATUS_CHANGE, Event.Type.APPLICATION_CREATED), broadcaster);
+	}
+
+	@PreDestroy
+	void destroy() {
+		broadcaster.close();
+	}
+
+	/**
+	 * Finds the counters of the {@link EventBus}: the published, consumed, dropped and spilled events, the
+	 * publish latency percentiles and the consumer throughput since the previous call
+	 * @return a snapshot of the counters of the event bus
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/metrics", method = RequestMethod.GET, produces = "application/json")
+	public EventBusMetrics getMetrics() throws Exception {
+		logger.info("getMetrics() called");
+		return eventBus.getMetrics();
+	}
+
+	/**
+	 * Streams the status changes and creations of applications as Server-Sent Events, named after the event
+	 * type, whose data is the job title, candidate email, status and timestamp of the application. A client too
+	 * slow to take the events gets only the latest event of each application, or is disconnected
+	 * @param jobTitle the offer whose application events are streamed, optional, all offers by default
+	 * @param request the request, kept open
+	 * @param response the response the events are pushed to
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/stream", method = RequestMethod.GET, produces = SseBroadcaster.EVENT_STREAM)
+	public void streamEvents(@RequestParam(required = false) String jobTitle, HttpServletRequest request
+			, HttpServletResponse response) throws Exception {
+		logger.info("streamEvents() called: {}", jobTitle);
+		broadcaster.subscribe(request, response, jobTitle);
+	}
+
+	/**
+	 * Reads the events of the {@link EventLog} as newline delimited JSON, each line holding the offset and the
+	 * event, with the offset to read the next events from in the <code>X-Next-Offset</code> header
+	 * @param from the offset of the first event, optional, the committed offset of the consumer by default
+	 * @param consumer the name of the consumer, optional
+	 * @param limit the largest number of events to read
+	 * @param response the response the events are transferred to
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/", method = RequestMethod.GET, produces = "application/x-ndjson")
+	public void readEvents(@RequestParam(required = false) Long from, @RequestParam(required = false) String consumer
+			, @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit, HttpServletResponse response) throws Exception {
+		logger.info("readEvents() called: {}, {}, {}", from, consumer, limit);
+
+		EventLog log = getEventLog();
+		EventLog.Slice slice = log.read(from != null ? from : consumer != null ? log.getCommittedOffset(consumer) : 0, limit);
+		response.setContentType("application/x-ndjson");
+		response.setHeader("X-Next-Offset", String.valueOf(slice.getNextOffset()));
+		response.setContentLengthLong(slice.getLength());
+		slice.transferTo(Channels.newChannel(response.getOutputStream()));
+	}
+
+	/**
+	 * Finds the offset a consumer reads the {@link EventLog} from next
+	 * @param consumer the name of the consumer
+	 * @return the committed offset, 0 when the consumer never committed one
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/offsets/{consumer}", method = RequestMethod.GET, produces = "application/json")
+	public long getCommittedOffset(@PathVariable String consumer) throws Exception {
+		logger.info("getCommittedOffset() called: {}", consumer);
+		return getEventLog().getCommittedOffset(consumer);
+	}
+
+	/**
+	 * Commits the offset a consumer reads the {@link EventLog} from next
+	 * @param consumer the name of the consumer
+	 * @param offset the offset of the first event the consumer did not handle
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/offsets/{consumer}", method = RequestMethod.PUT)
+	public void commitOffset(@PathVariable String consumer, @RequestParam long offset) throws Exception {
+		logger.info("commitOffset() called: {}, {}", consumer, offset);
+		getEventLog().commitOffset(consumer, offset);
+	}
+
+	private EventLog getEventLog() throws NoDataFoundException {
+		if (eventLog == null) {
+			throw new NoDataFoundException("Event log is disabled");
+		}
+		return eventLog;
+	}
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import de.heavenhr.recruitement.service.exception.DataException;
 import de.heavenhr.recruitement.service.exception.NoDataFoundException;
+import de.heavenhr.recruitement.service.exception.VersionMismatchException;
 
 /**
  * The class <code>GlobalExceptionContoller</code> contains basic exception handling.
@@ -29,6 +30,15 @@ class GlobalExceptionContoller {
     	logger.info("Throw DataException");
     }
     
+    /**
+     * Handles VersionMismatchException, the condition of a conditional request failing
+     */
+    @ResponseStatus(value = HttpStatus.PRECONDITION_FAILED, reason = "Data changed")	// 412
+	@ExceptionHandler(VersionMismatchException.class)
+    public void handleVersionMismatchException() {
+    	logger.info("Throw VersionMismatchException");
+    }
+    
     /**
      * Handles NoDataFoundException
      */
@@ -43,7 +53,7 @@ class GlobalExceptionContoller {
      */
 	@ExceptionHandler(Exception.class)
     public void handleUnhandledException(Exception exception) throws Exception {
-		logger.info("UnhandledException happened: " + exception.getMessage());
+		logger.info("UnhandledException happened: {}", exception.getMessage());
 		throw exception;
 	}
 }
\ No newline at end of file
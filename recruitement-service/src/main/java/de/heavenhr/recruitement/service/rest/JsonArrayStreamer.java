@@ -0,0 +1,143 @@
+package de.heavenhr.recruitement.service.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import de.heavenhr.recruitement.service.dao.Page;
+import de.heavenhr.recruitement.service.exception.NoDataFoundException;
+
+/**
+ * The class <code>JsonArrayStreamer</code> writes a whole collection of the storage to the response as a
+ * JSON array, element by element, without materializing the collection.
+ * <p>
+ * The collection is read page by page through the keyset pagination of the storage, and each page is
+ * written with a {@link JsonGenerator} straight to the response output stream and flushed before the next
+ * one is read, so the memory used by a request is bounded by one page whatever the size of the collection.
+ * The first page is read before anything is written, so a missing collection is still reported as an error
+ * status rather than as a truncated body.
+ * <p>
+ * A copy of the written bytes can be kept, up to a limit, for the body to be cached and written again
+ * without reading the collection.
+ *
+ * @author Hossam Yahya
+ */
+class JsonArrayStreamer {
+
+	/**
+	 * The number of items read from the storage at once
+	 */
+	static final int PAGE_SIZE = 500;
+
+	private final ObjectWriter writer;
+
+	/**
+	 * Creates a streamer
+	 * @param mapper the mapper configured for the application, whose settings are used for each element
+	 */
+	JsonArrayStreamer(ObjectMapper mapper) {
+		// The generator is flushed once per page, not after every element
+		this.writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * Streams a collection to the response
+	 * @param response the response
+	 * @param pages reads the pages of the collection
+	 * @throws NoDataFoundException when the collection does not exist, before anything is written
+	 * @throws IOException when the response cannot be written
+	 */
+	<T> void write(HttpServletResponse response, Pages<T> pages) throws NoDataFoundException, IOException {
+		write(response, pages, 0);
+	}
+
+	/**
+	 * Streams a collection to the response, keeping a copy of the written bytes
+	 * @param response the response
+	 * @param pages reads the pages of the collection
+	 * @param maxCopyBytes the largest number of bytes to copy
+	 * @return the written bytes, null when there are more than the largest number to copy
+	 * @throws NoDataFoundException when the collection does not exist, before anything is written
+	 * @throws IOException when the response cannot be written
+	 */
+	<T> byte[] write(HttpServletResponse response, Pages<T> pages, int maxCopyBytes) throws NoDataFoundException, IOException {
+		Page<T> page = pages.read(null, PAGE_SIZE);
+
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+		CopyingOutputStream out = new CopyingOutputStream(response.getOutputStream(), maxCopyBytes);
+		try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+			generator.writeStartArray();
+			while (true) {
+				for (T item : page.getItems()) {
+					writer.writeValue(generator, item);
+				}
+				generator.flush();
+				if (page.getNext() == null) {
+					break;
+				}
+				page = pages.read(page.getNext(), PAGE_SIZE);
+			}
+			generator.writeEndArray();
+		}
+		return out.copy == null ? null : out.copy.toByteArray();
+	}
+
+	/**
+	 * Writes to an output stream and to a copy, until the copy would grow over its limit
+	 */
+	private static class CopyingOutputStream extends OutputStream {
+		private final OutputStream out;
+		private final int maxCopyBytes;
+		private ByteArrayOutputStream copy;
+
+		CopyingOutputStream(OutputStream out, int maxCopyBytes) {
+			this.out = out;
+			this.maxCopyBytes = maxCopyBytes;
+			this.copy = maxCopyBytes > 0 ? new ByteArrayOutputStream(Math.min(maxCopyBytes, 8192)) : null;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			if (copy != null) {
+				if (copy.size() + len > maxCopyBytes) {
+					copy = null;
+				} else {
+					copy.write(b, off, len);
+				}
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the pages of a collection
+	 */
+	interface Pages<T> {
+		Page<T> read(String after, int limit) throws NoDataFoundException;
+	}
+}
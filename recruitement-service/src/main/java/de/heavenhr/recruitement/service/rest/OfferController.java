@@ -2,23 +2,49 @@ package de.heavenhr.recruitement.service.rest;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import de.heavenhr.recruitement.service.dao.DAO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.heavenhr.recruitement.service.dao.Page;
+import de.heavenhr.recruitement.service.dao.StorageEngine;
 import de.heavenhr.recruitement.service.model.Application;
 import de.heavenhr.recruitement.service.model.Offer;
 
 /**
  * The class <code>OfferController</code> contains APIs to manage offers.
+ * <p>
+ * The collection APIs are paginated when a <code>limit</code> or an <code>after</code> cursor is given: the
+ * response holds one page and, unless it is the last one, the cursor of the next page in the
+ * <code>X-Next-Cursor</code> header and its URL in the <code>Link</code> header. Without them the whole
+ * collection is streamed by a {@link JsonArrayStreamer}, in constant memory.
+ * <p>
+ * The offers and the collections carry an <code>ETag</code> built by {@link EntityTags} from their version, and
+ * a request whose <code>If-None-Match</code> header holds it is answered with 304 Not Modified before anything
+ * is serialized or, for the collections, read.
+ * <p>
+ * The encoded bodies of the offers and of the whole list of offers are kept in a {@link ResponseCache} at the
+ * version they were encoded from, so that they are only serialized again once the offers change.
  *
  * @author Hossam Yahya
  */
@@ -27,6 +53,40 @@ import de.heavenhr.recruitement.service.model.Offer;
 @RequestMapping("/api/offers/")
 public class OfferController {
 	protected Logger logger = LoggerFactory.getLogger(getClass());
+	
+	/**
+	 * The number of items of a page when only the cursor is given
+	 */
+	private static final int DEFAULT_LIMIT = 100;
+	/**
+	 * The cache key of the body of the whole list of offers, the keys of the offers are their job title after it
+	 */
+	private static final String OFFERS_KEY = "offers/";
+	
+	/**
+	 * The storage of offers and applications, selected by the <code>recruitement.storage.engine</code> property
+	 */
+	@Autowired
+	private StorageEngine storage;
+	
+	@Autowired
+	private ObjectMapper mapper;
+	
+	/**
+	 * The encoded bodies of the offers and of the list of offers
+	 */
+	@Autowired
+	private ResponseCache cache;
+	
+	private JsonArrayStreamer streamer;
+	
+	private ObjectWriter offerWriter;
+	
+	@PostConstruct
+	void init() {
+		streamer = new JsonArrayStreamer(mapper);
+		offerWriter = mapper.writerFor(Offer.class);
+	}
 
 	/**
 	 * Creates an {@link Offer}
@@ -35,9 +95,9 @@ public class OfferController {
 	 */
 	@RequestMapping(value = "/", method = RequestMethod.POST, produces = "application/json")
 	public ResponseEntity<?> createOffer(@RequestBody Offer offer) throws Exception {
-		logger.info("createOffer() called: " + offer);
+		logger.info("createOffer() called: {}", offer);
 		
-		DAO.newInstance().createOffer(offer);
+		storage.createOffer(offer);
 		
 		URI location = ServletUriComponentsBuilder.fromCurrentRequest()
 				.path("/{jobTitle}").buildAndExpand(offer.getJobTitle()).toUri();
@@ -48,36 +108,118 @@ public class OfferController {
 	/**
 	 * Finds an {@link Offer} by job title
 	 * @param jobTitle the unique key to identify the {@link Offer}
-	 * @return the found {@link Offer}
+	 * @param request the request, answered with 304 Not Modified when the client has the current version
+	 * @return the encoded {@link Offer} found, null when it is not modified
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/{jobTitle}", method = RequestMethod.GET, produces = "application/json")
-	public Offer findOfferByJobTitle(@PathVariable String jobTitle) throws Exception {
-		logger.info("findOfferByJobTitle() called: " + jobTitle);
-		return DAO.newInstance().findOfferByJobTitle(jobTitle);
+	public ResponseEntity<byte[]> findOfferByJobTitle(@PathVariable String jobTitle, WebRequest request) throws Exception {
+		logger.info("findOfferByJobTitle() called: {}", jobTitle);
+		
+		Offer offer = storage.findOfferByJobTitle(jobTitle);
+		long version = offer.getVersion();
+		if (request.checkNotModified(EntityTags.of(version))) {
+			return null;
+		}
+		byte[] json = cache.get(OFFERS_KEY + jobTitle, version);
+		if (json == null) {
+			json = offerWriter.writeValueAsBytes(offer);
+			cache.put(OFFERS_KEY + jobTitle, version, json);
+		}
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(json);
+	}
+	
+	/**
+	 * Finds the job titles starting with a prefix, for their autocompletion
+	 * @param q the prefix, matched ignoring case
+	 * @param maxEdits the largest number of typos tolerated in the prefix, from 0 to 2, by default 0 for prefixes
+	 * shorter than 3 characters, 1 up to 5 characters and 2 beyond
+	 * @param limit the largest number of job titles to find
+	 * @return the job titles, the ones closest to the prefix first, then in alphabetical order
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/suggest", method = RequestMethod.GET, produces = "application/json")
+	public List<String> suggestJobTitles(@RequestParam String q, @RequestParam(required = false) Integer maxEdits
+			, @RequestParam(defaultValue = "10") int limit) throws Exception {
+		logger.info("suggestJobTitles() called: {}, {}, {}", q, maxEdits, limit);
+		
+		if (maxEdits == null) {
+			maxEdits = q.length() < 3 ? 0 : q.length() < 6 ? 1 : 2;
+		}
+		return storage.suggestJobTitles(q, maxEdits, limit);
 	}
 	
 	/**
-	 * Finds the list of all offers in the system
-	 * @return list of all offers in the system
+	 * Finds the list of all offers in the system, or a page of it ordered by job title
+	 * @param limit the largest number of offers of the page, optional
+	 * @param after the cursor of the page, optional
+	 * @param request the request, answered with 304 Not Modified when the client has the current version
+	 * @param response the response the whole list is streamed to
+	 * @return the offers of the page or the cached whole list, null when the whole list was streamed or is not modified
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/", method = RequestMethod.GET, produces = "application/json")
-	public Collection<Offer> getAllOffers() throws Exception {
-		logger.info("getOffer() called");
-		return DAO.newInstance().getAllOffers();
+	public ResponseEntity<?> getAllOffers(@RequestParam(required = false) Integer limit
+			, @RequestParam(required = false) String after, WebRequest request, HttpServletResponse response) throws Exception {
+		logger.info("getOffer() called: {}, {}", limit, after);
+		
+		// The version is read before the offers, which are then at least as recent as their tag
+		long version = storage.getOffersVersion();
+		if (request.checkNotModified(EntityTags.of(version))) {
+			return null;
+		}
+		if (limit == null && after == null) {
+			byte[] json = cache.get(OFFERS_KEY, version);
+			if (json != null) {
+				return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(json);
+			}
+			json = streamer.write(response, storage::getOffers, cache.getMaxEntryBytes());
+			if (json != null) {
+				cache.put(OFFERS_KEY, version, json);
+			}
+			return null;
+		}
+		return toResponse(storage.getOffers(after, limit == null ? DEFAULT_LIMIT : limit));
 	}
 	
 	/**
-	 * Finds all {@link Application} for a specific {@link Offer}
+	 * Finds all {@link Application} for a specific {@link Offer}, or a page of them in creation order
 	 * @param jobTitle the unique key to identify the {@link Offer}
-	 * @return collection of all applications under a specific offer
+	 * @param limit the largest number of applications of the page, optional
+	 * @param after the cursor of the page, optional
+	 * @param request the request, answered with 304 Not Modified when the client has the current version
+	 * @param response the response the whole collection is streamed to
+	 * @return the applications of the page, null when the whole collection was streamed or is not modified
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/{jobTitle}/applications", method = RequestMethod.GET, produces = "application/json")
-	public Collection<Application> getOfferApplications(@PathVariable String jobTitle) throws Exception {
-		logger.info("getOfferApplications() called");
-		return DAO.newInstance().getOfferApplications(jobTitle);
+	public ResponseEntity<Collection<Application>> getOfferApplications(@PathVariable String jobTitle
+			, @RequestParam(required = false) Integer limit, @RequestParam(required = false) String after
+			, WebRequest request, HttpServletResponse response) throws Exception {
+		logger.info("getOfferApplications() called: {}, {}", limit, after);
+		
+		// The applications are counted first, matching the job title ignoring case like the listing does, so
+		// that an offer without applications is reported as not found whatever tag the client has
+		storage.getOfferApplicationsCount(jobTitle);
+		if (request.checkNotModified(EntityTags.of(storage.getVersion()))) {
+			return null;
+		}
+		if (limit == null && after == null) {
+			streamer.write(response, (pageAfter, pageLimit) -> storage.getOfferApplications(jobTitle, pageAfter, pageLimit));
+			return null;
+		}
+		return toResponse(storage.getOfferApplications(jobTitle, after, limit == null ? DEFAULT_LIMIT : limit));
+	}
+	
+	/**
+	 * Finds the counters of the cache of the offer responses: its hits, misses and evictions
+	 * @return a snapshot of the counters of the cache
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/cache-metrics", method = RequestMethod.GET, produces = "application/json")
+	public ResponseCacheMetrics getCacheMetrics() throws Exception {
+		logger.info("getCacheMetrics() called");
+		return cache.getMetrics();
 	}
 	
 	/**
@@ -89,6 +231,46 @@ public class OfferController {
 	@RequestMapping(value = "/{jobTitle}/applications-count", method = RequestMethod.GET, produces = "application/json")
 	public long getOfferApplicationsCount(@PathVariable String jobTitle) throws Exception {
 		logger.info("getOfferApplicationsCount() called");
-		return DAO.newInstance().getOfferApplicationsCount(jobTitle);
+		return storage.getOfferApplicationsCount(jobTitle);
+	}
+	
+	/**
+	 * Finds the count of the {@link Application} of an {@link Offer} by status
+	 * @param jobTitle the unique key to identify the {@link Offer}
+	 * @return the count of the applications of the offer for each status
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/{jobTitle}/funnel", method = RequestMethod.GET, produces = "application/json")
+	public Map<Application.Status, Long> getOfferFunnel(@PathVariable String jobTitle) throws Exception {
+		logger.info("getOfferFunnel() called: {}", jobTitle);
+		return storage.getOfferApplicationCountByStatus(jobTitle);
+	}
+	
+	/**
+	 * Finds the count of the {@link Application} of every {@link Offer} by status
+	 * @return for each offer job title, in alphabetical order, the count of its applications for each status
+	 * @throws Exception
+	 */
+	@RequestMapping(value = "/funnels", method = RequestMethod.GET, produces = "application/json")
+	public Map<String, Map<Application.Status, Long>> getOfferFunnels() throws Exception {
+		logger.info("getOfferFunnels() called");
+		return storage.getOfferApplicationCountsByStatus();
+	}
+	
+	/**
+	 * Builds the response of a page, linking to the next page if any
+	 */
+	private <T> ResponseEntity<Collection<T>> toResponse(Page<T> page) {
+		if (page.getNext() == null) {
+			return ResponseEntity.ok(page.getItems());
+		}
+		
+		URI next = ServletUriComponentsBuilder.fromCurrentRequest()
+				.replaceQueryParam("after", page.getNext()).replaceQueryParam("limit", page.getItems().size()).build().toUri();
+		
+		return ResponseEntity.ok()
+				.header("X-Next-Cursor", page.getNext())
+				.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+				.body(page.getItems());
 	}
 }
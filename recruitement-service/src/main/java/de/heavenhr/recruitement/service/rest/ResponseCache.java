@@ -0,0 +1,143 @@
+package de.heavenhr.recruitement.service.rest;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class <code>ResponseCache</code> keeps the encoded JSON bodies of responses, each with the version of
+ * the data it was encoded from, so that reading data which did not change is answered without serializing it.
+ * <p>
+ * A body is only returned for the version it was encoded at, so a change of the data invalidates it precisely
+ * and a stale body can never be served. Lookups are lock free. The cache is bounded by the total size of the
+ * bodies: once over it, bodies are evicted with the CLOCK policy, which approximates least recently used
+ * eviction by giving a second chance to the bodies read since the eviction hand last passed them. A single
+ * body larger than a quarter of the bound is never kept.
+ *
+ * @author Hossam Yahya
+ */
+class ResponseCache {
+
+	/**
+	 * The fraction of the bound a single body may take
+	 */
+	private static final int MAX_ENTRY_FRACTION = 4;
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+	private final long maxBytes;
+	private final AtomicLong bytes = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	/**
+	 * The eviction hand, guarded by the cache lock
+	 */
+	private Iterator<Map.Entry<String, Entry>> hand;
+
+	/**
+	 * Creates a cache
+	 * @param maxBytes the largest total size of the cached bodies, nothing is cached when not positive
+	 */
+	ResponseCache(long maxBytes) {
+		this.maxBytes = Math.max(0, maxBytes);
+	}
+
+	/**
+	 * Finds the body of a response
+	 * @param key the key of the response
+	 * @param version the current version of the data of the response
+	 * @return the body encoded at this version, null when there is none
+	 */
+	byte[] get(String key, long version) {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.version != version) {
+			misses.increment();
+			return null;
+		}
+		if (!entry.referenced) {
+			entry.referenced = true;
+		}
+		hits.increment();
+		return entry.json;
+	}
+
+	/**
+	 * Keeps the body of a response, unless a body encoded at a later version is kept already
+	 * @param key the key of the response
+	 * @param version the version of the data the body was encoded from, read before the data
+	 * @param json the encoded body
+	 */
+	void put(String key, long version, byte[] json) {
+		if (json.length > getMaxEntryBytes()) {
+			return;
+		}
+		Entry entry = new Entry(version, json);
+		entries.compute(key, (k, current) -> {
+			if (current != null && current.version > version) {
+				return current;
+			}
+			bytes.addAndGet(json.length - (current == null ? 0 : current.json.length));
+			return entry;
+		});
+		if (bytes.get() > maxBytes) {
+			evict();
+		}
+	}
+
+	/**
+	 * @return the size of the largest body the cache keeps
+	 */
+	int getMaxEntryBytes() {
+		return (int) Math.min(Integer.MAX_VALUE, maxBytes / MAX_ENTRY_FRACTION);
+	}
+
+	/**
+	 * @return a snapshot of the counters of the cache
+	 */
+	ResponseCacheMetrics getMetrics() {
+		return new ResponseCacheMetrics(hits.sum(), misses.sum(), evictions.sum(), entries.size(), bytes.get(), maxBytes);
+	}
+
+	/**
+	 * Evicts bodies until the cache is within its bound. Each body read since the hand last passed it is only
+	 * unmarked, so the hand goes at most twice around the cache.
+	 */
+	private synchronized void evict() {
+		for (int steps = 2 * entries.size() + 1; bytes.get() > maxBytes && steps > 0; steps--) {
+			if (hand == null || !hand.hasNext()) {
+				hand = entries.entrySet().iterator();
+				if (!hand.hasNext()) {
+					return;
+				}
+			}
+			Map.Entry<String, Entry> candidate = hand.next();
+			Entry entry = candidate.getValue();
+			if (entry.referenced) {
+				entry.referenced = false;
+			} else if (entries.remove(candidate.getKey(), entry)) {
+				bytes.addAndGet(-entry.json.length);
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * A cached body
+	 */
+	private static class Entry {
+		private final long version;
+		private final byte[] json;
+		/**
+		 * Whether the body was read since the eviction hand last passed it
+		 */
+		private volatile boolean referenced;
+
+		Entry(long version, byte[] json) {
+			this.version = version;
+			this.json = json;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package de.heavenhr.recruitement.service.rest;
+
+/**
+ * The class <code>ResponseCacheMetrics</code> is a snapshot of the counters of a {@link ResponseCache}.
+ *
+ * @author Hossam Yahya
+ */
+public class ResponseCacheMetrics {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final long entries;
+	private final long bytes;
+	private final long maxBytes;
+
+	public ResponseCacheMetrics(long hits, long misses, long evictions, long entries, long bytes, long maxBytes) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.entries = entries;
+		this.bytes = bytes;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return the number of responses answered with a cached body
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of responses whose body was not cached, or cached at an older version
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the share of the responses answered with a cached body, 0 before the first one
+	 */
+	public double getHitRatio() {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	/**
+	 * @return the number of bodies evicted to keep the cache within its bound
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of cached bodies
+	 */
+	public long getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return the total size of the cached bodies
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * @return the bound of the total size of the cached bodies
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("ResponseCacheMetrics [hits=").append(hits).append(", misses=").append(misses)
+				.append(", hitRatio=").append(getHitRatio()).append(", evictions=").append(evictions)
+				.append(", entries=").append(entries).append(", bytes=").append(bytes).append(", maxBytes=").append(maxBytes).append("]");
+		return builder.toString();
+	}
+}
@@ -0,0 +1,28 @@
+package de.heavenhr.recruitement.service.rest;
+
+/**
+ * The class <code>ResponseCacheProperties</code> holds the settings of the {@link ResponseCache} of the offer
+ * responses, bound from the <code>recruitement.cache.*</code> properties of the application.
+ *
+ * @author Hossam Yahya
+ */
+public class ResponseCacheProperties {
+
+	/**
+	 * The prefix of all response cache properties
+	 */
+	public static final String PREFIX = "recruitement.cache";
+
+	/**
+	 * The largest total size of the cached response bodies, the cache is disabled when not positive
+	 */
+	private long maxBytes = 16L << 20;
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		this.maxBytes = maxBytes;
+	}
+}
@@ -0,0 +1,33 @@
+package de.heavenhr.recruitement.service.rest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The class <code>RestConfiguration</code> creates the {@link ResponseCache} of the offer responses, configured
+ * by the <code>recruitement.cache.*</code> properties.
+ *
+ * @author Hossam Yahya
+ */
+@Configuration
+public class RestConfiguration {
+
+	/**
+	 * @return the response cache settings bound from the <code>recruitement.cache.*</code> properties
+	 */
+	@Bean
+	@ConfigurationProperties(prefix = ResponseCacheProperties.PREFIX)
+	public ResponseCacheProperties responseCacheProperties() {
+		return new ResponseCacheProperties();
+	}
+
+	/**
+	 * @param properties the response cache settings
+	 * @return the cache of the encoded offer responses
+	 */
+	@Bean
+	ResponseCache responseCache(ResponseCacheProperties properties) {
+		return new ResponseCache(properties.getMaxBytes());
+	}
+}
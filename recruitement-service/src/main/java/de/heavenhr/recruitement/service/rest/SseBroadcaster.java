@@ -0,0 +1,363 @@
+package de.heavenhr.recruitement.service.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import de.heavenhr.recruitement.service.event.Event;
+import de.heavenhr.recruitement.service.event.EventHandler;
+import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.model.Application;
+
+/**
+ * The class <code>SseBroadcaster</code> pushes the application events to the subscribers of a Server-Sent
+ * Events stream, optionally filtered by offer.
+ * <p>
+ * Each event is encoded once into a complete SSE frame, shared by all its subscribers, and only when it has
+ * any. The frames are written with the non-blocking output of the servlet container, so a slow client never
+ * holds the thread of the {@link de.heavenhr.recruitement.service.event.EventBus} nor a thread per connection:
+ * the frames a client cannot take yet wait in its own queue, where a newer event of an application replaces
+ * the one of the same type still waiting, and a client with more than {@link #MAX_PENDING_EVENTS} waiting
+ * frames is disconnected. Only events of the same type are coalesced, so that an older event never takes the
+ * place of a newer one, such as the creation of an application that of a later change of its status. A
+ * comment is sent to idle clients every {@link #HEARTBEAT_SECONDS} seconds, which keeps proxies from closing
+ * the connection and finds the clients that left.
+ *
+ * @author Hossam Yahya
+ */
+class SseBroadcaster implements EventHandler {
+	protected Logger logger = LoggerFactory.getLogger(getClass());
+
+	static final String EVENT_STREAM = "text/event-stream";
+	/**
+	 * The number of frames waiting for a client before it is disconnected
+	 */
+	static final int MAX_PENDING_EVENTS = 256;
+	/**
+	 * The interval between two heartbeats of an idle client
+	 */
+	static final long HEARTBEAT_SECONDS = 15;
+
+	private static final byte[] OPENING = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+	private final JsonFactory factory;
+	private final Set<Subscriber> allOffers = ConcurrentHashMap.newKeySet();
+	private final ConcurrentMap<String, Set<Subscriber>> byOffer = new ConcurrentHashMap<String, Set<Subscriber>>();
+	private final AtomicLong ids = new AtomicLong();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder disconnected = new LongAdder();
+	private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "sse-heartbeat");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Creates a broadcaster
+	 * @param factory the factory of the generators encoding the events
+	 */
+	SseBroadcaster(JsonFactory factory) {
+		this.factory = factory;
+		heartbeats.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Turns a request into a subscription, the events being written once the request returns
+	 * @param request the request, put in asynchronous mode
+	 * @param response the response the events are written to
+	 * @param jobTitle the offer whose application events are sent, all of them when null
+	 * @throws IOException when the response cannot be written
+	 */
+	void subscribe(HttpServletRequest request, HttpServletResponse response, String jobTitle) throws IOException {
+		response.setStatus(HttpServletResponse.SC_OK);
+		response.setContentType(EVENT_STREAM);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.setHeader("Cache-Control", "no-cache");
+		response.setHeader("X-Accel-Buffering", "no");
+
+		AsyncContext async = request.startAsync();
+		async.setTimeout(0);
+		Subscriber subscriber = new Subscriber(async, response.getOutputStream(), jobTitle);
+		async.addListener(subscriber);
+		subscriber.out.setWriteListener(subscriber);
+		(jobTitle == null ? allOffers : byOffer.computeIfAbsent(jobTitle, key -> ConcurrentHashMap.newKeySet())).add(subscriber);
+		subscriber.offer(null, OPENING);
+		if (subscriber.isClosed()) {
+			// The client left before it was added
+			unsubscribe(subscriber);
+		}
+		logger.info("subscribe() subscribed: {}", jobTitle == null ? "all offers" : jobTitle);
+	}
+
+	/**
+	 * Sends the events to the subscribers of their offer and of all offers
+	 * @param events the events to be sent
+	 */
+	@Override
+	public void handleEvents(List<? extends Event<?>> events) {
+		for (Event<?> event : events) {
+			if (!(event.getTarget() instanceof Application)) {
+				continue;
+			}
+			Application application = (Application) event.getTarget();
+			Set<Subscriber> offerSubscribers = byOffer.getOrDefault(application.getJobTitle(), Collections.<Subscriber>emptySet());
+			if (offerSubscribers.isEmpty() && allOffers.isEmpty()) {
+				continue;
+			}
+			byte[] frame;
+			try {
+				frame = encode(event, application);
+			} catch (IOException e) {
+				logger.warn("handleEvents() cannot encode event: {}", event, e);
+				continue;
+			}
+			String key = event.getType().name() + '\n' + application.getJobTitle() + '\n' + application.getCandidateEmail();
+			for (Subscriber subscriber : offerSubscribers) {
+				subscriber.offer(key, frame);
+			}
+			for (Subscriber subscriber : allOffers) {
+				subscriber.offer(key, frame);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of open subscriptions
+	 */
+	int getSubscriberCount() {
+		int count = allOffers.size();
+		for (Set<Subscriber> subscribers : byOffer.values()) {
+			count += subscribers.size();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of events replaced by a newer event of their application and type before they were sent
+	 */
+	long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * @return the number of clients disconnected for being too slow
+	 */
+	long getDisconnected() {
+		return disconnected.sum();
+	}
+
+	/**
+	 * Stops the heartbeats and ends all the subscriptions
+	 */
+	void close() {
+		heartbeats.shutdownNow();
+		for (Subscriber subscriber : allOffers) {
+			subscriber.close();
+		}
+		for (Set<Subscriber> subscribers : byOffer.values()) {
+			for (Subscriber subscriber : subscribers) {
+				subscriber.close();
+			}
+		}
+	}
+
+	/**
+	 * Encodes an event into an SSE frame: its id, its type as the event name and a JSON summary of the
+	 * application as the data, without the resume
+	 */
+	private byte[] encode(Event<?> event, Application application) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		out.write(("id: " + ids.incrementAndGet() + "\nevent: " + event.getType() + "\ndata: ").getBytes(StandardCharsets.UTF_8));
+		try (JsonGenerator generator = factory.createGenerator(out)) {
+			generator.writeStartObject();
+			generator.writeStringField("type", event.getType().name());
+			generator.writeStringField("jobTitle", application.getJobTitle());
+			generator.writeStringField("candidateEmail", application.getCandidateEmail());
+			if (event instanceof StatusChangeEvent) {
+				StatusChangeEvent<?> statusChange = (StatusChangeEvent<?>) event;
+				generator.writeStringField("oldStatus", String.valueOf(statusChange.getOldStatus()));
+				generator.writeStringField("status", String.valueOf(statusChange.getNewStatus()));
+			} else if (application.getStatus() != null) {
+				generator.writeStringField("status", application.getStatus().name());
+			}
+			generator.writeNumberField("timestamp", event.getTimestamp());
+			generator.writeEndObject();
+		}
+		out.write('\n');
+		out.write('\n');
+		return out.toByteArray();
+	}
+
+	private void heartbeat() {
+		for (Subscriber subscriber : allOffers) {
+			subscriber.heartbeat();
+		}
+		for (Set<Subscriber> subscribers : byOffer.values()) {
+			for (Subscriber subscriber : subscribers) {
+				subscriber.heartbeat();
+			}
+		}
+	}
+
+	private void unsubscribe(Subscriber subscriber) {
+		if (subscriber.jobTitle == null) {
+			allOffers.remove(subscriber);
+		} else {
+			byOffer.computeIfPresent(subscriber.jobTitle, (jobTitle, subscribers) -> {
+				subscribers.remove(subscriber);
+				return subscribers.isEmpty() ? null : subscribers;
+			});
+		}
+	}
+
+	/**
+	 * An open stream and the frames waiting for it, by application and event type
+	 */
+	private class Subscriber implements WriteListener, AsyncListener {
+		private final AsyncContext async;
+		private final ServletOutputStream out;
+		private final String jobTitle;
+		/**
+		 * The frames not written yet, oldest first, by application and event type: a replaced frame moves to the
+		 * end, so the frames stay in the order of the events they hold
+		 */
+		private final LinkedHashMap<String, byte[]> pending = new LinkedHashMap<String, byte[]>();
+		private boolean unflushed;
+		private boolean closed;
+
+		Subscriber(AsyncContext async, ServletOutputStream out, String jobTitle) {
+			this.async = async;
+			this.out = out;
+			this.jobTitle = jobTitle;
+		}
+
+		/**
+		 * Queues a frame and writes what the client can take
+		 * @param key the application and event type of the frame, a waiting frame of the same key is replaced
+		 * @param frame the frame
+		 */
+		synchronized void offer(String key, byte[] frame) {
+			if (closed) {
+				return;
+			}
+			byte[] previous = pending.remove(key);
+			pending.put(key, frame);
+			if (previous != null && key != null) {
+				coalesced.increment();
+			} else if (pending.size() > MAX_PENDING_EVENTS) {
+				logger.warn("offer() slow client disconnected: {}", jobTitle == null ? "all offers" : jobTitle);
+				disconnected.increment();
+				close();
+				return;
+			}
+			drain();
+		}
+
+		synchronized void heartbeat() {
+			if (!closed && pending.isEmpty()) {
+				offer(null, HEARTBEAT);
+			}
+		}
+
+		@Override
+		public synchronized void onWritePossible() {
+			if (!closed) {
+				drain();
+			}
+		}
+
+		/**
+		 * Writes the waiting frames while the container takes them without blocking, the container calling
+		 * back {@link #onWritePossible()} once it can take more
+		 */
+		private void drain() {
+			try {
+				while (out.isReady()) {
+					Iterator<byte[]> frames = pending.values().iterator();
+					if (frames.hasNext()) {
+						out.write(frames.next());
+						frames.remove();
+						unflushed = true;
+					} else if (unflushed) {
+						unflushed = false;
+						out.flush();
+					} else {
+						return;
+					}
+				}
+			} catch (IOException | IllegalStateException e) {
+				close();
+			}
+		}
+
+		synchronized boolean isClosed() {
+			return closed;
+		}
+
+		synchronized void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			pending.clear();
+			unsubscribe(this);
+			try {
+				async.complete();
+			} catch (IllegalStateException e) {
+				// Already completed by the container
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			close();
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			close();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			close();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			close();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// Nothing to do, the subscription starts once
+		}
+	}
+}
@@ -84,7 +84,78 @@ public class ApplicationControllerTest {
     }
     
     
-    // **************************************** PUT:/api/applications/ **************************************** 
+    /**
+ 	 * Run the GET:/api/applications/{jobTitle}/{candidateEmail:.+} test.
+ 	 *
+ 	 * @throws Exception
+ 	 *
+ 	 * Case 3: Not modified while the client has the current version, modified once the status changes
+ 	 */
+    @Test
+    public void testGETApplication_3() throws Exception {
+    	HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String jobTitle = String.valueOf(System.nanoTime());
+		this.restTemplate.postForEntity("/api/offers/", new HttpEntity<String>("{\"jobTitle\": \"" + jobTitle + "\"}", headers), String.class);
+		String candidateEmail = String.valueOf(System.nanoTime()) + "_test@gmail.com";
+		String applicationRequestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," +
+				"\"candidateEmail\": \"" + candidateEmail + "\"," +
+				"\"status\": \"APPLIED\"" + "}";
+		this.restTemplate.postForEntity("/api/applications/", new HttpEntity<String>(applicationRequestJson, headers), String.class);
+		
+		String etag = this.restTemplate.getForEntity("/api/applications/{jobTitle}/{candidateEmail:.+}"
+        		, String.class, jobTitle, candidateEmail).getHeaders().getETag();
+		assertThat(etag).isNotNull();
+		
+		HttpHeaders conditionalHeaders = new HttpHeaders();
+		conditionalHeaders.setIfNoneMatch(etag);
+		ResponseEntity<String> notModified = this.restTemplate.exchange("/api/applications/{jobTitle}/{candidateEmail:.+}"
+				, HttpMethod.GET, new HttpEntity<Void>(conditionalHeaders), String.class, jobTitle, candidateEmail);
+		assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+		
+		this.restTemplate.exchange("/api/applications/", HttpMethod.PUT
+				, new HttpEntity<String>(applicationRequestJson.replace("APPLIED", "INVITED"), headers), String.class);
+		ResponseEntity<String> modified = this.restTemplate.exchange("/api/applications/{jobTitle}/{candidateEmail:.+}"
+				, HttpMethod.GET, new HttpEntity<Void>(conditionalHeaders), String.class, jobTitle, candidateEmail);
+		assertEquals(HttpStatus.OK, modified.getStatusCode());
+		assertThat(modified.getBody()).contains("\"status\":\"INVITED\"", "\"version\":2");
+    }
+    
+    
+    // **************************************** GET:/api/applications/search **************************************** 
+	
+    /**
+ 	 * Run the GET:/api/applications/search test.
+ 	 *
+ 	 * @throws Exception
+ 	 *
+ 	 * Case 1: Matching application of an offer
+ 	 */
+    @Test
+    public void testSearchApplications_1() throws Exception {
+    	HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String jobTitle = String.valueOf(System.nanoTime());
+		String requestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," + "\"startDate\": 1493229767700,"
+				+ "\"numberOfApplications\": 0" + "}";
+
+		// Create offer and application
+		this.restTemplate.postForEntity("/api/offers/", new HttpEntity<String>(requestJson, headers), String.class);
+		String applicationRequestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," +
+				"\"candidateEmail\": \"test@gmail.com\"," +
+				"\"resumeText\": \"Ten years of Haskell\"," +
+				"\"status\": \"APPLIED\"" + "}";
+		this.restTemplate.postForEntity("/api/applications/", new HttpEntity<String>(applicationRequestJson, headers), String.class);
+
+		ResponseEntity<String> out = this.restTemplate.getForEntity("/api/applications/search?q=haskell&jobTitle={jobTitle}"
+				, String.class, jobTitle);
+		assertEquals(HttpStatus.OK, out.getStatusCode());
+		assertThat(out.getBody()).contains("test@gmail.com").contains("\"score\":");
+    }
+
+// **************************************** PUT:/api/applications/ **************************************** 
 	
     /**
  	 * Run the PUT:/api/applications/ test.
@@ -149,6 +220,86 @@ public class ApplicationControllerTest {
         assertEquals(HttpStatus.OK, out.getStatusCode());
     }
     
+    /**
+ 	 * Run the PUT:/api/applications/ test.
+ 	 *
+ 	 * @throws Exception
+ 	 *
+ 	 * Case 3: Conditional update, failing once the application was changed since its entity tag was read
+ 	 */
+    @Test
+    public void testUpdateApplication_3() throws Exception {
+    	HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String jobTitle = String.valueOf(System.nanoTime());
+		this.restTemplate.postForEntity("/api/offers/", new HttpEntity<String>("{\"jobTitle\": \"" + jobTitle + "\"}", headers), String.class);
+		String candidateEmail = String.valueOf(System.nanoTime()) + "_test@gmail.com";
+		String applicationRequestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," +
+				"\"candidateEmail\": \"" + candidateEmail + "\"," +
+				"\"status\": \"APPLIED\"" + "}";
+		this.restTemplate.postForEntity("/api/applications/", new HttpEntity<String>(applicationRequestJson, headers), String.class);
+		String etag = this.restTemplate.getForEntity("/api/applications/{jobTitle}/{candidateEmail:.+}"
+        		, String.class, jobTitle, candidateEmail).getHeaders().getETag();
+
+		// Two recruiters update the version they read, the second one fails
+		HttpHeaders conditionalHeaders = new HttpHeaders();
+		conditionalHeaders.setContentType(MediaType.APPLICATION_JSON);
+		conditionalHeaders.setIfMatch(etag);
+		ResponseEntity<String> invited = this.restTemplate.exchange("/api/applications/", HttpMethod.PUT
+				, new HttpEntity<String>(applicationRequestJson.replace("APPLIED", "INVITED"), conditionalHeaders), String.class);
+		assertEquals(HttpStatus.OK, invited.getStatusCode());
+		assertThat(invited.getHeaders().getETag()).isNotEqualTo(etag);
+		ResponseEntity<String> rejected = this.restTemplate.exchange("/api/applications/", HttpMethod.PUT
+				, new HttpEntity<String>(applicationRequestJson.replace("APPLIED", "REJECTED"), conditionalHeaders), String.class);
+		assertEquals(HttpStatus.PRECONDITION_FAILED, rejected.getStatusCode());
+
+		conditionalHeaders.setIfMatch(invited.getHeaders().getETag());
+		assertEquals(HttpStatus.OK, this.restTemplate.exchange("/api/applications/", HttpMethod.PUT
+				, new HttpEntity<String>(applicationRequestJson.replace("APPLIED", "HIRED"), conditionalHeaders), String.class).getStatusCode());
+		assertThat(this.restTemplate.getForEntity("/api/applications/{jobTitle}/{candidateEmail:.+}"
+        		, String.class, jobTitle, candidateEmail).getBody()).contains("\"status\":\"HIRED\"", "\"version\":3");
+    }
+    
+// **************************************** PUT:/api/applications/bulk **************************************** 
+	
+    /**
+ 	 * Run the PUT:/api/applications/bulk test.
+ 	 *
+ 	 * @throws Exception
+ 	 *
+ 	 * Case 1: All applications of an offer having a status, nonexistent offer
+ 	 */
+    @Test
+    public void testUpdateApplications_1() throws Exception {
+    	HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String jobTitle = String.valueOf(System.nanoTime());
+		String requestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," + "\"startDate\": 1493229767700,"
+				+ "\"numberOfApplications\": 0" + "}";
+
+		// Create offer and applications
+		this.restTemplate.postForEntity("/api/offers/", new HttpEntity<String>(requestJson, headers), String.class);
+		for (String candidateEmail : new String[] { "first@gmail.com", "second@gmail.com" }) {
+			String applicationRequestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," +
+					"\"candidateEmail\": \"" + candidateEmail + "\"," +
+					"\"resumeText\": \"This is my resume3\"," +
+					"\"status\": \"APPLIED\"" + "}";
+			this.restTemplate.postForEntity("/api/applications/", new HttpEntity<String>(applicationRequestJson, headers), String.class);
+		}
+
+		// Reject all applied
+		ResponseEntity<String> out = this.restTemplate.exchange("/api/applications/bulk?jobTitle={jobTitle}&from=APPLIED&to=REJECTED"
+				, HttpMethod.PUT, null, String.class, jobTitle);
+		assertEquals(HttpStatus.OK, out.getStatusCode());
+		assertThat(out.getBody()).contains("first@gmail.com").contains("second@gmail.com").contains("\"newStatus\":\"REJECTED\"");
+
+		out = this.restTemplate.exchange("/api/applications/bulk?jobTitle={jobTitle}&to=REJECTED"
+				, HttpMethod.PUT, null, String.class, String.valueOf(System.nanoTime()));
+		assertEquals(HttpStatus.NOT_FOUND, out.getStatusCode());
+    }
+
 // **************************************** POST:/api/applications/ **************************************** 
 	
     /**
@@ -276,6 +427,52 @@ public class ApplicationControllerTest {
         assertEquals(HttpStatus.CONFLICT, out.getStatusCode());
     }
     
+// **************************************** POST:/api/applications/bulk **************************************** 
+	
+    /**
+ 	 * Run the POST:/api/applications/bulk test.
+ 	 *
+ 	 * @throws Exception
+ 	 *
+ 	 * Case 1: Each line gets its own result, in order, blank lines are skipped
+ 	 */
+    @Test
+    public void testCreateApplications_1() throws Exception {
+    	HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String jobTitle = String.valueOf(System.nanoTime());
+		String requestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," + "\"startDate\": 1493229767700,"
+				+ "\"numberOfApplications\": 0" + "}";
+
+		// Create offer
+		HttpEntity<String> entity = new HttpEntity<String>(requestJson, headers);
+		this.restTemplate.postForEntity("/api/offers/", entity, String.class);
+
+		String applicationsNdjson = "{\"jobTitle\": \"" + jobTitle + "\", \"candidateEmail\": \"first@gmail.com\", \"status\": \"APPLIED\"}\n"
+				+ "{\"jobTitle\": \"" + jobTitle + "\", \"candidateEmail\": \"first@gmail.com\", \"status\": \"APPLIED\"}\n"
+				+ "\n"
+				+ "{\"jobTitle\": \"" + jobTitle + "\", \"candidateEmail\": \n"
+				+ "{\"jobTitle\": \"" + System.nanoTime() + "\", \"candidateEmail\": \"first@gmail.com\", \"status\": \"APPLIED\"}\n"
+				+ "{\"jobTitle\": \"" + jobTitle + "\", \"candidateEmail\": \"second@gmail.com\", \"status\": \"APPLIED\"}";
+
+		// Create applications
+		HttpHeaders ndjsonHeaders = new HttpHeaders();
+		ndjsonHeaders.setContentType(MediaType.valueOf("application/x-ndjson"));
+		ResponseEntity<String> out = this.restTemplate.postForEntity("/api/applications/bulk"
+				, new HttpEntity<String>(applicationsNdjson, ndjsonHeaders), String.class);
+
+		assertEquals(HttpStatus.OK, out.getStatusCode());
+		String[] results = out.getBody().split("\n");
+		assertEquals(5, results.length);
+		assertThat(results[0]).contains("\"line\":1").contains("\"status\":201");
+		assertThat(results[1]).contains("\"line\":2").contains("\"status\":409");
+		assertThat(results[2]).contains("\"line\":4").contains("\"status\":400");
+		assertThat(results[3]).contains("\"line\":5").contains("\"status\":404");
+		assertThat(results[4]).contains("\"line\":6").contains("\"status\":201");
+		assertEquals(Long.valueOf(2), this.restTemplate.getForObject("/api/offers/{jobTitle}/applications-count", Long.class, jobTitle));
+    }
+    
 // **************************************** GET:/api/applications/count **************************************** 
 	
     /**
@@ -0,0 +1,115 @@
+package de.heavenhr.recruitement.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import de.heavenhr.recruitement.service.event.EventCodec;
+import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+
+/**
+ * The class <code>CodecBenchmark</code> compares the size and the encode and decode times of a
+ * {@link StatusChangeEvent} of an {@link Application} with Java serialization, Jackson and the
+ * <code>{@link EventCodec}</code>.
+ * <p>
+ * Usage: <code>CodecBenchmark [iterations] [resume length]</code>.
+ *
+ * @author Hossam Yahya
+ */
+public class CodecBenchmark {
+
+	/**
+	 * Lets Jackson create the events through their constructor
+	 */
+	abstract static class StatusChangeEventMixIn<T> {
+		@JsonCreator
+		StatusChangeEventMixIn(@JsonProperty("target") T target, @JsonProperty("timestamp") long timestamp
+				, @JsonProperty("oldStatus") Status oldStatus, @JsonProperty("newStatus") Status newStatus) {
+		}
+	}
+
+	/**
+	 * A way to encode and decode an event
+	 */
+	interface Codec {
+		int roundTrip(StatusChangeEvent<Application> event) throws Exception;
+	}
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of iterations of each codec and the length of the resume
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int resumeLength = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		StringBuilder resume = new StringBuilder();
+		while (resume.length() < resumeLength) {
+			resume.append("Ten years of Java and Haskell, ");
+		}
+		StatusChangeEvent<Application> event = new StatusChangeEvent<Application>(new Application("Senior Java Developer"
+				, "candidate@gmail.com", resume.substring(0, resumeLength), Status.INVITED), System.currentTimeMillis()
+				, Status.APPLIED, Status.INVITED);
+
+		ObjectMapper mapper = new ObjectMapper().addMixIn(StatusChangeEvent.class, StatusChangeEventMixIn.class);
+		ObjectWriter writer = mapper.writer();
+		ObjectReader reader = mapper.readerFor(new TypeReference<StatusChangeEvent<Application>>() {
+		});
+		EventCodec codec = new EventCodec();
+		ByteBuffer buffer = ByteBuffer.allocate(64 << 10);
+
+		Codec serialization = value -> {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+			try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+				out.writeObject(value);
+			}
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+				in.readObject();
+			}
+			return bytes.size();
+		};
+		Codec jackson = value -> {
+			byte[] bytes = writer.writeValueAsBytes(value);
+			reader.readValue(bytes);
+			return bytes.length;
+		};
+		Codec binary = value -> {
+			buffer.clear();
+			codec.encode(value, buffer);
+			buffer.flip();
+			codec.decodeEvent(buffer);
+			return buffer.limit();
+		};
+
+		System.out.println("iterations: " + iterations + ", resume length: " + resumeLength);
+		for (int run = 0; run < 3; run++) {
+			measure("java serialization", serialization, event, iterations / 10);
+			measure("jackson", jackson, event, iterations);
+			measure("event codec", binary, event, iterations);
+		}
+	}
+
+	private static void measure(String name, Codec codec, StatusChangeEvent<Application> event, int iterations) throws Exception {
+		long size = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			size += codec.roundTrip(event);
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.println(String.format("%-20s %5d bytes, %,8d ns per round trip, %,10d round trips/s", name, size / iterations
+				, elapsed / iterations, iterations * TimeUnit.SECONDS.toNanos(1) / elapsed));
+	}
+}
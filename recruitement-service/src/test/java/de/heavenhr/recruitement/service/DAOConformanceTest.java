@@ -0,0 +1,34 @@
+package de.heavenhr.recruitement.service;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+import de.heavenhr.recruitement.service.dao.DAO;
+import de.heavenhr.recruitement.service.dao.StorageEngine;
+import de.heavenhr.recruitement.service.dao.StorageProperties;
+
+/**
+ * The class <code>DAOConformanceTest</code> runs the storage conformance tests against the in-memory
+ * <code>{@link DAO}</code>.
+ *
+ * @author Hossam Yahya
+ */
+public class DAOConformanceTest extends StorageEngineConformanceTest {
+
+	private static DAO engine;
+
+	@BeforeClass
+	public static void setUpClass() {
+		engine = new DAO(new StorageProperties());
+	}
+
+	@AfterClass
+	public static void tearDownClass() {
+		engine.close();
+	}
+
+	@Override
+	protected StorageEngine getEngine() {
+		return engine;
+	}
+}
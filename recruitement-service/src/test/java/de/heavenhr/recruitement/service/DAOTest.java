@@ -6,11 +6,33 @@ import de.heavenhr.recruitement.service.exception.NoDataFoundException;
 import de.heavenhr.recruitement.service.model.Application;
 import de.heavenhr.recruitement.service.model.Application.Status;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.junit.*;
 
 import de.heavenhr.recruitement.service.dao.DAO;
+import de.heavenhr.recruitement.service.dao.Journal;
+import de.heavenhr.recruitement.service.dao.StorageProperties;
 import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.exception.VersionMismatchException;
 import de.heavenhr.recruitement.service.model.Offer;
 import static org.junit.Assert.*;
 
@@ -114,7 +136,51 @@ public class DAOTest {
 		// Try to create the same application again
 		fixture.createApplication(application);
 	}
-	
+
+	/**
+	 * Run the void createApplication(Application) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 6: Concurrent submissions for the same offer
+	 */
+	@Test
+	public void testCreateApplication_6() throws Exception {
+		final DAO fixture = DAO.newInstance();
+		final String jobTitle = String.valueOf(System.nanoTime())+"_Senior Manager";
+
+		Offer offer = new Offer(jobTitle, new Date(), 0L);
+		fixture.createOffer(offer);
+
+		final int threads = 8;
+		final int applicationsPerThread = 500;
+		final AtomicInteger duplicates = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					// Every thread submits the same candidates, only one submission per candidate may succeed
+					for (int i = 0; i < applicationsPerThread; i++) {
+						try {
+							fixture.createApplication(new Application(jobTitle, i + "_test@gmail.com", "resume text", Status.APPLIED));
+						} catch (DataException e) {
+							duplicates.incrementAndGet();
+						} catch (NoDataFoundException e) {
+							fail(e.getMessage());
+						}
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+		assertEquals(applicationsPerThread, offer.getNumberOfApplications());
+		assertEquals(applicationsPerThread, fixture.getOfferApplicationsCount(jobTitle));
+		assertEquals(applicationsPerThread * (threads - 1), duplicates.get());
+	}
+
 	// **************************************** Test createOffer(Offer) **************************************** 
 
 	/**
@@ -198,6 +264,33 @@ public class DAOTest {
 		assertTrue(result > 0);
 	}
 
+	// **************************************** Test getApplicationCountByStatus() **************************************** 
+
+	/**
+	 * Run the Map<Status, Long> getApplicationCountByStatus() method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Success
+	 */
+	@Test
+	public void testGetApplicationCountByStatus_1() throws Exception {
+		DAO fixture = DAO.newInstance();
+
+		String jobTitle = String.valueOf(System.nanoTime())+"_Senior Manager";
+		fixture.createOffer(new Offer(jobTitle, new Date(), 0L));
+		
+		Map<Status, Long> before = fixture.getApplicationCountByStatus();
+		fixture.createApplication(new Application(jobTitle, "1_test@gmail.com", "resume text", Status.APPLIED));
+		fixture.createApplication(new Application(jobTitle, "2_test@gmail.com", "resume text", Status.APPLIED));
+		fixture.updateApplicationStatus(new Application(jobTitle, "2_test@gmail.com", null, Status.REJECTED));
+		Map<Status, Long> after = fixture.getApplicationCountByStatus();
+
+		assertEquals(before.get(Status.APPLIED) + 1, after.get(Status.APPLIED).longValue());
+		assertEquals(before.get(Status.REJECTED) + 1, after.get(Status.REJECTED).longValue());
+		assertEquals(before.get(Status.HIRED), after.get(Status.HIRED));
+	}
+
 	// **************************************** Test getAllOffers() **************************************** 
 
 	/**
@@ -266,6 +359,88 @@ public class DAOTest {
 		fixture.getOfferApplication(jobTitle, candidateEmail);
 	}
 
+	/**
+	 * Run the Application getOfferApplication(String,String) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: Job titles and emails containing the former key separator
+	 */
+	@Test
+	public void testGetOfferApplication_3() throws Exception {
+		DAO fixture = DAO.newInstance();
+		String prefix = String.valueOf(System.nanoTime());
+		
+		fixture.createOffer(new Offer(prefix + "_a", new Date(), 0L));
+		fixture.createOffer(new Offer(prefix, new Date(), 0L));
+		
+		// Both applications used to be stored under the same "<jobTitle>_<candidateEmail>" key
+		fixture.createApplication(new Application(prefix + "_a", "b@gmail.com", "resume text", Status.APPLIED));
+		fixture.createApplication(new Application(prefix, "a_b@gmail.com", "resume text", Status.HIRED));
+
+		assertEquals(Status.APPLIED, fixture.getOfferApplication(prefix + "_a", "b@gmail.com").getStatus());
+		assertEquals(Status.HIRED, fixture.getOfferApplication(prefix, "a_b@gmail.com").getStatus());
+	}
+
+	/**
+	 * Run the Application getOfferApplication(String,String) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 4: Resume text read back from the resume arena, small and larger than an arena chunk
+	 */
+	@Test
+	public void testGetOfferApplication_4() throws Exception {
+		DAO fixture = DAO.newInstance();
+		String jobTitle = String.valueOf(System.nanoTime())+"_Senior Manager";
+		fixture.createOffer(new Offer(jobTitle, new Date(), 0L));
+		
+		String resume = "Müller, Zürich \u2013 \uD83D\uDE00 engineer";
+		StringBuilder largeResume = new StringBuilder();
+		while (largeResume.length() < 2 << 20) {
+			largeResume.append(resume).append('\n');
+		}
+		fixture.createApplication(new Application(jobTitle, "1_test@gmail.com", resume, Status.APPLIED));
+		fixture.createApplication(new Application(jobTitle, "2_test@gmail.com", largeResume.toString(), Status.APPLIED));
+		fixture.createApplication(new Application(jobTitle, "3_test@gmail.com", null, Status.APPLIED));
+
+		assertEquals(resume, fixture.getOfferApplication(jobTitle, "1_test@gmail.com").getResumeText());
+		assertEquals(largeResume.toString(), fixture.getOfferApplication(jobTitle, "2_test@gmail.com").getResumeText());
+		assertNull(fixture.getOfferApplication(jobTitle, "3_test@gmail.com").getResumeText());
+	}
+
+	/**
+	 * Run the Application getOfferApplication(String,String) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 5: An application read from the resume arena is serialized as a plain application with its resume
+	 */
+	@Test
+	public void testGetOfferApplication_5() throws Exception {
+		DAO fixture = DAO.newInstance();
+		String jobTitle = String.valueOf(System.nanoTime())+"_Senior Manager";
+		fixture.createOffer(new Offer(jobTitle, new Date(), 0L));
+		fixture.createApplication(new Application(jobTitle, "1_test@gmail.com", "resume text", Status.APPLIED));
+		fixture.updateApplicationStatus(new Application(jobTitle, "1_test@gmail.com", null, Status.INVITED));
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(fixture.getOfferApplication(jobTitle, "1_test@gmail.com"));
+		}
+		Application application;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			application = (Application) in.readObject();
+		}
+		
+		assertEquals(Application.class, application.getClass());
+		assertEquals(jobTitle, application.getJobTitle());
+		assertEquals("1_test@gmail.com", application.getCandidateEmail());
+		assertEquals("resume text", application.getResumeText());
+		assertEquals(Status.INVITED, application.getStatus());
+		assertEquals(2, application.getVersion());
+	}
+
 	// **************************************** Test getOfferApplications(String) **************************************** 
 
 	/**
@@ -313,6 +488,35 @@ public class DAOTest {
 		assertNull(result);
 	}
 
+	/**
+	 * Run the ArrayList<Application> getOfferApplications(String) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: Job title matched ignoring case, status updates visible
+	 */
+	@Test
+	public void testGetOfferApplications_3() throws Exception {
+		DAO fixture = DAO.newInstance();
+		String jobTitle = String.valueOf(System.nanoTime())+"_Senior Manager";
+		String candidateEmail = String.valueOf(System.nanoTime())+"_test@gmail.com";
+		
+		Offer offer = new Offer(jobTitle, new Date(), 0L);
+		fixture.createOffer(offer);
+		
+		fixture.createApplication(new Application(jobTitle, candidateEmail, "resume text", Status.APPLIED));
+		fixture.createApplication(new Application(jobTitle, "other_" + candidateEmail, "resume text", Status.APPLIED));
+		fixture.updateApplicationStatus(new Application(jobTitle, candidateEmail, null, Status.INVITED));
+		
+		ArrayList<Application> result = fixture.getOfferApplications(jobTitle.toUpperCase());
+
+		assertEquals(2, result.size());
+		assertEquals(2, fixture.getOfferApplicationsCount(jobTitle.toLowerCase()));
+		for (Application application : result) {
+			assertEquals(candidateEmail.equals(application.getCandidateEmail()) ? Status.INVITED : Status.APPLIED, application.getStatus());
+		}
+	}
+
 	// **************************************** Test getOfferApplicationsCount(String) **************************************** 
 
 	/**
@@ -409,6 +613,330 @@ public class DAOTest {
 
 	}
 
+	/**
+	 * Run the void updateApplicationStatus(Application) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: In the columnar storage mode, the version keeps increasing past 2^24 changes instead of wrapping
+	 * around, so a compare-and-set at an old version fails
+	 */
+	@Test
+	public void testUpdateApplicationStatus_3() throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setMode(StorageProperties.Mode.COLUMNAR);
+		try (DAO fixture = new DAO(properties)) {
+			String jobTitle = String.valueOf(System.nanoTime());
+			fixture.createOffer(new Offer(jobTitle, new Date(), 0));
+			fixture.createApplication(new Application(jobTitle, "first@gmail.com", "resume", Status.APPLIED));
+			
+			// Change the status of the only row directly in the store, going through the DAO would take minutes
+			Field allApplications = DAO.class.getDeclaredField("allApplications");
+			allApplications.setAccessible(true);
+			Object store = allApplications.get(fixture);
+			Method setStatus = store.getClass().getMethod("setStatus", int.class, Status.class);
+			setStatus.setAccessible(true);
+			for (int i = 0; i < 1 << 24; i++) {
+				setStatus.invoke(store, 0, Status.INVITED);
+			}
+			
+			Application application = fixture.getOfferApplication(jobTitle, "first@gmail.com");
+			assertEquals((1L << 24) + 1, application.getVersion());
+			assertEquals(Status.INVITED, application.getStatus());
+			try {
+				fixture.compareAndSetApplicationStatus(new Application(jobTitle, "first@gmail.com", null, Status.HIRED), 1);
+				fail("A compare-and-set at the first version should fail");
+			} catch (VersionMismatchException e) {
+				assertEquals((1L << 24) + 1, e.getCurrentVersion());
+			}
+			assertEquals(Status.INVITED, fixture.getOfferApplication(jobTitle, "first@gmail.com").getStatus());
+		}
+	}
+
+	// **************************************** Test DAO(StorageProperties) journal replay **************************************** 
+	
+	/**
+	 * Run the DAO(StorageProperties) constructor test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Journaled offers, applications and status changes are replayed
+	 */
+	@Test
+	public void testJournalReplay_1() throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setJournalDir(Files.createTempDirectory("journal").toFile());
+		properties.setJournalDurability(Journal.Durability.ASYNC);
+		
+		String jobTitle = String.valueOf(System.nanoTime());
+		Date startDate = new Date();
+		try (DAO fixture = new DAO(properties)) {
+			fixture.createOffer(new Offer(jobTitle, startDate, 0));
+			fixture.createApplication(new Application(jobTitle, "first@gmail.com", "resume \u00e9", Status.APPLIED));
+			fixture.createApplication(new Application(jobTitle, "second@gmail.com", null, Status.APPLIED));
+			fixture.updateApplicationStatus(new Application(jobTitle, "second@gmail.com", null, Status.HIRED));
+		}
+		
+		try (DAO fixture = new DAO(properties)) {
+			Offer offer = fixture.findOfferByJobTitle(jobTitle);
+			assertEquals(startDate, offer.getStartDate());
+			assertEquals(2, offer.getNumberOfApplications());
+			assertEquals(2, fixture.getApplicationCount());
+			assertEquals("resume \u00e9", fixture.getOfferApplication(jobTitle, "first@gmail.com").getResumeText());
+			assertEquals(Status.HIRED, fixture.getOfferApplication(jobTitle, "second@gmail.com").getStatus());
+		}
+	}
+	
+	/**
+	 * Run the DAO(StorageProperties) constructor test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: A torn record at the end of the journal is dropped and appends continue after the last valid one
+	 */
+	@Test
+	public void testJournalReplay_2() throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setJournalDir(Files.createTempDirectory("journal").toFile());
+		
+		String jobTitle = String.valueOf(System.nanoTime());
+		try (DAO fixture = new DAO(properties)) {
+			fixture.createOffer(new Offer(jobTitle, new Date(), 0));
+			fixture.createApplication(new Application(jobTitle, "first@gmail.com", "resume text", Status.APPLIED));
+		}
+		
+		// Simulate a crash in the middle of writing a record
+		File file = properties.getJournalDir().listFiles()[0];
+		try (RandomAccessFile journal = new RandomAccessFile(file, "rw")) {
+			journal.setLength(journal.length() - 3);
+		}
+		
+		try (DAO fixture = new DAO(properties)) {
+			assertEquals(0, fixture.findOfferByJobTitle(jobTitle).getNumberOfApplications());
+			fixture.createApplication(new Application(jobTitle, "second@gmail.com", "resume text", Status.APPLIED));
+		}
+		
+		try (DAO fixture = new DAO(properties)) {
+			assertEquals(1, fixture.getApplicationCount());
+			assertEquals(Status.APPLIED, fixture.getOfferApplication(jobTitle, "second@gmail.com").getStatus());
+		}
+	}
+
+	/**
+	 * Run the DAO(StorageProperties) constructor test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: The latest snapshot is loaded and only the mutations journaled after it are replayed
+	 */
+	@Test
+	public void testJournalReplay_3() throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setJournalDir(Files.createTempDirectory("journal").toFile());
+		properties.setMode(StorageProperties.Mode.COLUMNAR);
+		
+		String jobTitle = String.valueOf(System.nanoTime());
+		try (DAO fixture = new DAO(properties)) {
+			fixture.createOffer(new Offer(jobTitle, new Date(), 5));
+			fixture.createApplication(new Application(jobTitle, "first@gmail.com", "first resume", Status.APPLIED));
+			fixture.createApplication(new Application(jobTitle, "second@gmail.com", "second resume", Status.APPLIED));
+			fixture.snapshot();
+			
+			fixture.updateApplicationStatus(new Application(jobTitle, "first@gmail.com", null, Status.INVITED));
+			fixture.createApplication(new Application(jobTitle, "third@gmail.com", "third resume", Status.APPLIED));
+			assertTrue(fixture.snapshot() > 0);
+			fixture.updateApplicationStatus(new Application(jobTitle, "third@gmail.com", null, Status.REJECTED));
+		}
+		
+		try (DAO fixture = new DAO(properties)) {
+			assertEquals(8, fixture.findOfferByJobTitle(jobTitle).getNumberOfApplications());
+			assertEquals(3, fixture.getApplicationCount());
+			assertEquals(3, fixture.getOfferApplicationsCount(jobTitle));
+			assertEquals(Status.INVITED, fixture.getOfferApplication(jobTitle, "first@gmail.com").getStatus());
+			assertEquals("second resume", fixture.getOfferApplication(jobTitle, "second@gmail.com").getResumeText());
+			assertEquals(Status.REJECTED, fixture.getOfferApplication(jobTitle, "third@gmail.com").getStatus());
+			
+			Map<Status, Long> funnel = fixture.getOfferApplicationCountByStatus(jobTitle);
+			assertEquals(Long.valueOf(1), funnel.get(Status.APPLIED));
+			assertEquals(Long.valueOf(1), funnel.get(Status.INVITED));
+			assertEquals(Long.valueOf(1), funnel.get(Status.REJECTED));
+			assertEquals(Long.valueOf(0), funnel.get(Status.HIRED));
+		}
+	}
+
+	/**
+	 * Run the DAO(StorageProperties) constructor test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 4: A corrupt record header whose length runs past the end of the journal is cut off like a torn record
+	 */
+	@Test
+	public void testJournalReplay_4() throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setJournalDir(Files.createTempDirectory("journal").toFile());
+		
+		String jobTitle = String.valueOf(System.nanoTime());
+		try (DAO fixture = new DAO(properties)) {
+			fixture.createOffer(new Offer(jobTitle, new Date(), 0));
+		}
+		
+		// Simulate a header corrupted into a huge payload length
+		File file = properties.getJournalDir().listFiles()[0];
+		long length = file.length();
+		try (RandomAccessFile journal = new RandomAccessFile(file, "rw")) {
+			journal.seek(length);
+			journal.writeInt(Integer.MAX_VALUE - 8);
+			journal.writeInt(0);
+			journal.write(new byte[32]);
+		}
+		
+		try (DAO fixture = new DAO(properties)) {
+			assertEquals(jobTitle, fixture.findOfferByJobTitle(jobTitle).getJobTitle());
+		}
+		assertEquals(length, file.length());
+	}
+	
+	// **************************************** Test Journal.append(byte[]) **************************************** 
+	
+	/**
+	 * Run the long append(byte[]) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Once the writer thread failed to write, appending throws instead of queueing records that are
+	 * never written
+	 */
+	@Test(timeout = 10000)
+	public void testJournalAppend_1() throws Exception {
+		File directory = Files.createTempDirectory("journal").toFile();
+		try (Journal journal = Journal.open(directory, Journal.Durability.ASYNC, 10, 0, null)) {
+			journal.append(Journal.encodeOfferCreated(new Offer("first", new Date(), 0)));
+			
+			// Fail the writes of the writer thread
+			Field channel = Journal.class.getDeclaredField("channel");
+			channel.setAccessible(true);
+			((FileChannel) channel.get(journal)).close();
+			
+			try {
+				while (true) {
+					journal.append(Journal.encodeOfferCreated(new Offer(String.valueOf(System.nanoTime()), new Date(), 0)));
+					Thread.sleep(1);
+				}
+			} catch (DataException e) {
+				assertEquals("Journal write failed", e.getMessage());
+			}
+		}
+	}
+
+	// **************************************** Test Journal.sync(long) **************************************** 
+	
+	/**
+	 * Run the void sync(long) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: In sync mode, waiting for a record forced to disk does not wait for a record appended after it
+	 */
+	@Test(timeout = 10000)
+	public void testJournalSync_1() throws Exception {
+		File directory = Files.createTempDirectory("journal").toFile();
+		try (Journal journal = Journal.open(directory, Journal.Durability.SYNC, 10, 0, null)) {
+			long first = journal.append(Journal.encodeOfferCreated(new Offer("first", new Date(), 0)));
+			journal.sync(first);
+			
+			// Keep the writer from telling that the next record is durable
+			Field writtenLock = Journal.class.getDeclaredField("writtenLock");
+			writtenLock.setAccessible(true);
+			ReentrantLock lock = (ReentrantLock) writtenLock.get(journal);
+			lock.lock();
+			try {
+				journal.append(Journal.encodeOfferCreated(new Offer("second", new Date(), 0)));
+				
+				ExecutorService executor = Executors.newSingleThreadExecutor();
+				try {
+					// Done from another thread, the lock held by this one would not block it
+					executor.submit(() -> journal.sync(first)).get(1, TimeUnit.SECONDS);
+				} finally {
+					executor.shutdownNow();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+	
+	// **************************************** Test createApplications(List) **************************************** 
+	
+	/**
+	 * Run the List<Exception> createApplications(List) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: When the journal fails in the middle of a batch, the applications inserted before are indexed and
+	 * counted, and the following ones are reported as not created
+	 */
+	@Test
+	public void testCreateApplications_1() throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setJournalDir(Files.createTempDirectory("journal").toFile());
+		properties.setJournalDurability(Journal.Durability.ASYNC);
+		try (DAO fixture = new DAO(properties)) {
+			String jobTitle = String.valueOf(System.nanoTime());
+			fixture.createOffer(new Offer(jobTitle, new Date(), 0));
+			
+			Field journalField = DAO.class.getDeclaredField("journal");
+			journalField.setAccessible(true);
+			Journal journal = (Journal) journalField.get(fixture);
+			Field failure = Journal.class.getDeclaredField("failure");
+			failure.setAccessible(true);
+			
+			// The fourth application fails the journal once it is inserted, when its resume is stored
+			List<Application> applications = new ArrayList<Application>();
+			for (int i = 0; i < 10; i++) {
+				applications.add(new Application(jobTitle, i + "@gmail.com", "engineer resume " + i, Status.APPLIED));
+			}
+			applications.set(3, new Application(jobTitle, "3@gmail.com", "engineer resume 3", Status.APPLIED) {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				public String getResumeText() {
+					for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+						if (frame.getMethodName().equals("putAllIfAbsent")) {
+							try {
+								failure.set(journal, new IOException("Disk failure"));
+							} catch (IllegalAccessException e) {
+								throw new IllegalStateException(e);
+							}
+						}
+					}
+					return super.getResumeText();
+				}
+			});
+			
+			List<Exception> results = fixture.createApplications(applications);
+			
+			for (int i = 0; i < 10; i++) {
+				if (i < 4) {
+					assertNull(results.get(i));
+					assertEquals(Status.APPLIED, fixture.getOfferApplication(jobTitle, i + "@gmail.com").getStatus());
+				} else {
+					assertEquals("Journal write failed", results.get(i).getMessage());
+					try {
+						fixture.getOfferApplication(jobTitle, i + "@gmail.com");
+						fail("An application after the journal failure should not be created");
+					} catch (NoDataFoundException e) {
+						// expected
+					}
+				}
+			}
+			assertEquals(4, fixture.getOfferApplicationsCount(jobTitle));
+			assertEquals(4, fixture.findOfferByJobTitle(jobTitle).getNumberOfApplications());
+			assertEquals(Long.valueOf(4), fixture.getOfferApplicationCountByStatus(jobTitle).get(Status.APPLIED));
+			assertEquals(4, fixture.searchApplications("engineer", jobTitle, 100).size());
+		}
+	}
+
 	/**
 	 * Perform pre-test initialization.
 	 *
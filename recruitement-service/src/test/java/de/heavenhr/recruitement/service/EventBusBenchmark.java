@@ -0,0 +1,73 @@
+package de.heavenhr.recruitement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import de.heavenhr.recruitement.service.event.Event;
+import de.heavenhr.recruitement.service.event.EventBus;
+import de.heavenhr.recruitement.service.event.EventBusMetrics;
+import de.heavenhr.recruitement.service.event.EventBusProperties;
+import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+
+/**
+ * The class <code>EventBusBenchmark</code> measures the publish latency and the consumer throughput of the
+ * <code>{@link EventBus}</code>, with publishers racing each other and a handler doing nothing.
+ * <p>
+ * Usage: <code>EventBusBenchmark [publishers] [events] [consumers] [backpressure]</code>.
+ *
+ * @author Hossam Yahya
+ */
+public class EventBusBenchmark {
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of publisher threads, of events, of consumer threads and the backpressure policy
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+		int publishers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		int events = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+		EventBusProperties properties = new EventBusProperties();
+		properties.setConsumers(args.length > 2 ? Integer.parseInt(args[2]) : 1);
+		properties.setBackpressure(args.length > 3 ? EventBusProperties.Backpressure.valueOf(args[3]) : EventBusProperties.Backpressure.BLOCK);
+		Event<Application> event = new StatusChangeEvent<Application>(new Application("Job", "candidate@gmail.com", null, Status.INVITED)
+				, System.currentTimeMillis(), Status.APPLIED, Status.INVITED);
+
+		System.out.println("publishers: " + publishers + ", events: " + events + ", consumers: " + properties.getConsumers()
+				+ ", backpressure: " + properties.getBackpressure());
+		for (int run = 0; run < 2; run++) {
+			EventBus bus = new EventBus(properties);
+			bus.register(Event.Type.STATUS_CHANGE, batch -> {
+				// Nothing to do, only the dispatch is measured
+			});
+			long start = System.nanoTime();
+			List<Thread> threads = new ArrayList<Thread>();
+			for (int p = 0; p < publishers; p++) {
+				Thread publisher = new Thread(() -> {
+					for (int i = 0; i < events / publishers; i++) {
+						bus.publish(event);
+					}
+				});
+				threads.add(publisher);
+				publisher.start();
+			}
+			for (Thread publisher : threads) {
+				publisher.join();
+			}
+			bus.close();
+			long elapsed = System.nanoTime() - start;
+			EventBusMetrics metrics = bus.getMetrics();
+			System.out.println(String.format("run %d: %,d events/s end to end, %s", run
+					, metrics.getConsumed() * TimeUnit.SECONDS.toNanos(1) / elapsed, metrics));
+		}
+	}
+}
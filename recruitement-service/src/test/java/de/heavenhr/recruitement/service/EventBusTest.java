@@ -0,0 +1,242 @@
+package de.heavenhr.recruitement.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.heavenhr.recruitement.service.event.Event;
+import de.heavenhr.recruitement.service.event.EventBus;
+import de.heavenhr.recruitement.service.event.EventBusMetrics;
+import de.heavenhr.recruitement.service.event.EventBusProperties;
+import de.heavenhr.recruitement.service.event.EventHandler;
+import de.heavenhr.recruitement.service.event.EventHandlerMetrics;
+import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+
+/**
+ * The class <code>EventBusTest</code> contains tests for the class <code>{@link EventBus}</code>.
+ *
+ * @author Hossam Yahya
+ */
+public class EventBusTest {
+
+	private static EventBusProperties properties(int capacity, EventBusProperties.Backpressure backpressure) {
+		EventBusProperties properties = new EventBusProperties();
+		properties.setCapacity(capacity);
+		properties.setBatchSize(16);
+		properties.setBackpressure(backpressure);
+		return properties;
+	}
+
+	private static Event<Application> event(int i) {
+		return new StatusChangeEvent<Application>(new Application("Job " + i, i + "@gmail.com", null, Status.INVITED), i
+				, Status.APPLIED, Status.INVITED);
+	}
+
+	/**
+	 * Collects the timestamps of the handled events, optionally waiting for a latch before the first batch
+	 */
+	private static class Collector implements EventHandler {
+		private final List<Long> timestamps = Collections.synchronizedList(new ArrayList<Long>());
+		private final CountDownLatch release;
+
+		Collector(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void handleEvents(List<? extends Event<?>> events) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			for (Event<?> event : events) {
+				timestamps.add(event.getTimestamp());
+			}
+		}
+
+		List<Long> expected(int count) {
+			List<Long> expected = new ArrayList<Long>();
+			for (long i = 0; i < count; i++) {
+				expected.add(i);
+			}
+			return expected;
+		}
+	}
+
+	// **************************************** Test publish(Event) ****************************************
+
+	/**
+	 * Run the boolean publish(Event) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Events are handled in order by the handlers of their type only, a failing handler is counted
+	 */
+	@Test
+	public void testPublish_1() throws Exception {
+		Collector statusChanges = new Collector(new CountDownLatch(0));
+		Collector created = new Collector(new CountDownLatch(0));
+		EventBus bus = new EventBus(properties(64, EventBusProperties.Backpressure.BLOCK));
+		bus.register(Event.Type.STATUS_CHANGE, statusChanges);
+		bus.register(Event.Type.STATUS_CHANGE, events -> {
+			throw new IllegalStateException("Handler failure");
+		});
+		bus.register(Event.Type.APPLICATION_CREATED, created);
+
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(bus.publish(event(i)));
+		}
+		bus.close();
+
+		assertEquals(statusChanges.expected(1000), statusChanges.timestamps);
+		assertTrue(created.timestamps.isEmpty());
+		EventBusMetrics metrics = bus.getMetrics();
+		assertEquals(1000, metrics.getPublished());
+		assertEquals(1000, metrics.getConsumed());
+		assertEquals(1000, metrics.getFailed());
+		assertEquals(0, metrics.getBacklog());
+		assertTrue(metrics.getBatches() >= 1000 / 16);
+		assertTrue(metrics.getPublishLatencyP99Nanos() <= metrics.getPublishLatencyMaxNanos() * 9 / 8);
+	}
+
+	/**
+	 * Run the boolean publish(Event) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: With the drop policy, the events published while the ring buffer is full are dropped
+	 */
+	@Test
+	public void testPublish_2() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Collector collector = new Collector(release);
+		EventBus bus = new EventBus(properties(4, EventBusProperties.Backpressure.DROP));
+		bus.register(Event.Type.STATUS_CHANGE, collector);
+
+		int accepted = 0;
+		for (int i = 0; i < 100; i++) {
+			if (bus.publish(event(i))) {
+				accepted++;
+			}
+		}
+		release.countDown();
+		bus.close();
+
+		EventBusMetrics metrics = bus.getMetrics();
+		assertTrue(metrics.getDropped() > 0);
+		assertEquals(100, metrics.getDropped() + metrics.getConsumed());
+		assertEquals(accepted, collector.timestamps.size());
+	}
+
+	/**
+	 * Run the boolean publish(Event) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: With the spill policy, the events published while the ring buffer is full are all handled, in order
+	 */
+	@Test
+	public void testPublish_3() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Collector collector = new Collector(release);
+		EventBus bus = new EventBus(properties(4, EventBusProperties.Backpressure.SPILL));
+		bus.register(Event.Type.STATUS_CHANGE, collector);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(bus.publish(event(i)));
+		}
+		assertTrue(bus.getMetrics().getSpilled() > 0);
+		release.countDown();
+		bus.close();
+
+		assertEquals(collector.expected(100), collector.timestamps);
+		assertEquals(0, bus.getMetrics().getDropped());
+	}
+
+	/**
+	 * Run the boolean publish(Event) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 4: With the block policy, publishers wait for a free slot while the ring buffer is full
+	 */
+	@Test
+	public void testPublish_4() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Collector collector = new Collector(release);
+		EventBus bus = new EventBus(properties(4, EventBusProperties.Backpressure.BLOCK));
+		bus.register(Event.Type.STATUS_CHANGE, collector);
+
+		CountDownLatch published = new CountDownLatch(1);
+		Thread publisher = new Thread(() -> {
+			for (int i = 0; i < 100; i++) {
+				bus.publish(event(i));
+			}
+			published.countDown();
+		});
+		publisher.start();
+		assertFalse(published.await(200, TimeUnit.MILLISECONDS));
+
+		release.countDown();
+		assertTrue(published.await(10, TimeUnit.SECONDS));
+		bus.close();
+
+		assertEquals(collector.expected(100), collector.timestamps);
+		assertEquals(0, bus.getMetrics().getDropped());
+	}
+
+	// **************************************** Test registerAsync(Type, EventHandler) ****************************************
+
+	/**
+	 * Run the void registerAsync(Type, EventHandler) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: A slow asynchronous handler does not delay the other handlers, its queue is bounded and tracked
+	 */
+	@Test
+	public void testRegisterAsync_1() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		Collector slow = new Collector(release);
+		Collector fast = new Collector(new CountDownLatch(0));
+		EventBusProperties properties = properties(64, EventBusProperties.Backpressure.BLOCK);
+		properties.setHandlerQueueCapacity(50);
+		EventBus bus = new EventBus(properties);
+		bus.registerAsync(Event.Type.STATUS_CHANGE, slow);
+		bus.register(Event.Type.STATUS_CHANGE, fast);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(bus.publish(event(i)));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (fast.timestamps.size() < 100 && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(fast.expected(100), fast.timestamps);
+		assertTrue(slow.timestamps.isEmpty());
+
+		EventHandlerMetrics slowMetrics = bus.getMetrics().getHandlers().get(0);
+		assertEquals(Event.Type.STATUS_CHANGE, slowMetrics.getType());
+		assertEquals("Collector", slowMetrics.getHandler());
+		assertTrue(slowMetrics.isAsync());
+		assertTrue(slowMetrics.getQueued() > 0 && slowMetrics.getQueued() <= 50);
+		assertEquals(100, slowMetrics.getQueued() + slowMetrics.getDropped());
+
+		release.countDown();
+		bus.close();
+		EventHandlerMetrics closedMetrics = bus.getMetrics().getHandlers().get(0);
+		assertEquals(0, closedMetrics.getQueued());
+		assertEquals(slow.timestamps.size(), closedMetrics.getHandled());
+		assertEquals(100, closedMetrics.getHandled() + closedMetrics.getDropped());
+		assertEquals(100, bus.getMetrics().getHandlers().get(1).getHandled());
+	}
+}
@@ -0,0 +1,140 @@
+package de.heavenhr.recruitement.service;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import org.junit.Test;
+
+import de.heavenhr.recruitement.service.event.Event;
+import de.heavenhr.recruitement.service.event.EventCodec;
+import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>EventCodecTest</code> contains tests for the class <code>{@link EventCodec}</code>.
+ *
+ * @author Hossam Yahya
+ */
+public class EventCodecTest {
+
+	private final EventCodec codec = new EventCodec();
+	private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+	private static void assertApplication(Application expected, Application actual) {
+		assertEquals(expected.getJobTitle(), actual.getJobTitle());
+		assertEquals(expected.getCandidateEmail(), actual.getCandidateEmail());
+		assertEquals(expected.getResumeText(), actual.getResumeText());
+		assertEquals(expected.getStatus(), actual.getStatus());
+	}
+
+	// **************************************** Test encode(Application, ByteBuffer) ****************************************
+
+	/**
+	 * Run the void encode(Application, ByteBuffer) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Applications are decoded as encoded, null fields and multi-byte characters included, from a reused buffer
+	 */
+	@Test
+	public void testEncodeApplication_1() throws Exception {
+		Application[] applications = {
+				new Application("Développeur Java", "jürgen@gmail.com", "Ten years of Haskell 𝄞 and 日本語", Status.HIRED),
+				new Application("Job", "candidate@gmail.com", null, null),
+				new Application("", "", "", Status.APPLIED) };
+		for (Application application : applications) {
+			buffer.clear();
+			codec.encode(application, buffer);
+			buffer.flip();
+			assertApplication(application, codec.decodeApplication(buffer));
+			assertFalse(buffer.hasRemaining());
+		}
+	}
+
+	// **************************************** Test encode(Offer, ByteBuffer) ****************************************
+
+	/**
+	 * Run the void encode(Offer, ByteBuffer) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Offers are decoded as encoded, with and without a start date
+	 */
+	@Test
+	public void testEncodeOffer_1() throws Exception {
+		for (Offer offer : new Offer[] { new Offer("Job", new Date(1493229767700L), 42), new Offer("Job", null, 0)
+				, new Offer("Job", new Date(-1000), Long.MAX_VALUE) }) {
+			buffer.clear();
+			codec.encode(offer, buffer);
+			buffer.flip();
+			Offer decoded = codec.decodeOffer(buffer);
+			assertEquals(offer.getJobTitle(), decoded.getJobTitle());
+			assertEquals(offer.getStartDate(), decoded.getStartDate());
+			assertEquals(offer.getNumberOfApplications(), decoded.getNumberOfApplications());
+		}
+	}
+
+	// **************************************** Test encode(Event, ByteBuffer) ****************************************
+
+	/**
+	 * Run the void encode(Event, ByteBuffer) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Status change events and plain events are decoded as encoded, back to back in one buffer
+	 */
+	@Test
+	public void testEncodeEvent_1() throws Exception {
+		Application application = new Application("Job", "candidate@gmail.com", "resume", Status.INVITED);
+		codec.encode(new StatusChangeEvent<Application>(application, 1493229767700L, Status.APPLIED, Status.INVITED), buffer);
+		codec.encode(new Event<Application>(application, Event.Type.APPLICATION_CREATED, 1493229767701L), buffer);
+		codec.encode(new Event<Offer>(null, Event.Type.APPLICATION_DELETED, 0), buffer);
+		buffer.flip();
+
+		StatusChangeEvent<?> statusChange = (StatusChangeEvent<?>) codec.decodeEvent(buffer);
+		assertEquals(Event.Type.STATUS_CHANGE, statusChange.getType());
+		assertEquals(1493229767700L, statusChange.getTimestamp());
+		assertEquals(Status.APPLIED, statusChange.getOldStatus());
+		assertEquals(Status.INVITED, statusChange.getNewStatus());
+		assertApplication(application, (Application) statusChange.getTarget());
+
+		Event<?> created = codec.decodeEvent(buffer);
+		assertFalse(created instanceof StatusChangeEvent);
+		assertEquals(Event.Type.APPLICATION_CREATED, created.getType());
+		assertApplication(application, (Application) created.getTarget());
+
+		Event<?> deleted = codec.decodeEvent(buffer);
+		assertEquals(Event.Type.APPLICATION_DELETED, deleted.getType());
+		assertNull(deleted.getTarget());
+		assertFalse(buffer.hasRemaining());
+	}
+
+	/**
+	 * Run the Event decodeEvent(ByteBuffer) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: Truncated messages, other kinds of messages and unknown versions are rejected
+	 */
+	@Test
+	public void testEncodeEvent_2() throws Exception {
+		codec.encode(new Event<Application>(new Application("Job", "candidate@gmail.com", "resume", Status.INVITED)
+				, Event.Type.APPLICATION_CREATED, 1), buffer);
+		buffer.flip();
+		ByteBuffer[] malformed = { (ByteBuffer) buffer.duplicate().limit(buffer.limit() - 3)
+				, ByteBuffer.wrap(new byte[] { 2, 3 }), ByteBuffer.wrap(new byte[] { EventCodec.VERSION, 2, 0, 0, 0, 0 }) };
+		for (ByteBuffer in : malformed) {
+			try {
+				codec.decodeEvent(in);
+				fail("Decoding a malformed event should fail");
+			} catch (DataException e) {
+				// expected
+			}
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package de.heavenhr.recruitement.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.embedded.LocalServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.heavenhr.recruitement.service.rest.EventController;
+
+/**
+ * The class <code>EventControllerTest</code> contains tests for the class <code>{@link EventController}</code>.
+ *
+ * @author Hossam Yahya
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment=WebEnvironment.RANDOM_PORT)
+public class EventControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    private void createOffer(String jobTitle) {
+    	HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		String requestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," + "\"startDate\": 1493229767700,"
+				+ "\"numberOfApplications\": 0" + "}";
+		this.restTemplate.postForEntity("/api/offers/", new HttpEntity<String>(requestJson, headers), String.class);
+    }
+
+    private HttpEntity<String> application(String jobTitle, String status) {
+    	HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		String applicationRequestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," +
+				"\"candidateEmail\": \"test@gmail.com\"," +
+				"\"resumeText\": \"This is my resume\"," +
+				"\"status\": \"" + status + "\"" + "}";
+		return new HttpEntity<String>(applicationRequestJson, headers);
+    }
+
+    /**
+     * Reads the next event of a stream, skipping comments and the retry hint
+     */
+    private static String nextEvent(BufferedReader reader) throws Exception {
+    	StringBuilder event = new StringBuilder();
+    	String line;
+    	while ((line = reader.readLine()) != null) {
+    		if (line.isEmpty()) {
+    			if (event.length() > 0) {
+    				return event.toString();
+    			}
+    		} else if (!line.startsWith(":") && !line.startsWith("retry:")) {
+    			event.append(line).append('\n');
+    		}
+    	}
+    	return event.toString();
+    }
+
+    // **************************************** GET:/api/events/stream **************************************** 
+
+    /**
+ 	 * Run the GET:/api/events/stream test.
+ 	 *
+ 	 * @throws Exception
+ 	 *
+ 	 * Case 1: The creations and status changes of the applications of the offer only are pushed
+ 	 */
+    @Test
+    public void testGETStream_1() throws Exception {
+		String jobTitle = String.valueOf(System.nanoTime());
+		String otherJobTitle = String.valueOf(System.nanoTime());
+		createOffer(jobTitle);
+		createOffer(otherJobTitle);
+
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/events/stream?jobTitle=" + jobTitle)
+				.openConnection();
+		connection.setReadTimeout(10000);
+		try {
+			assertEquals(200, connection.getResponseCode());
+			assertTrue(connection.getContentType().startsWith("text/event-stream"));
+			BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+
+			this.restTemplate.postForEntity("/api/applications/", application(otherJobTitle, "APPLIED"), String.class);
+			this.restTemplate.postForEntity("/api/applications/", application(jobTitle, "APPLIED"), String.class);
+			this.restTemplate.put("/api/applications/", application(jobTitle, "INVITED"));
+
+			String created = nextEvent(reader);
+			assertTrue(created, created.contains("event: APPLICATION_CREATED\n"));
+			assertTrue(created, created.contains("\"jobTitle\":\"" + jobTitle + "\""));
+			assertTrue(created, !created.contains("resume"));
+			String statusChange = nextEvent(reader);
+			assertTrue(statusChange, statusChange.contains("event: STATUS_CHANGE\n"));
+			assertTrue(statusChange, statusChange.contains("\"oldStatus\":\"APPLIED\",\"status\":\"INVITED\""));
+		} finally {
+			connection.disconnect();
+		}
+    }
+}
@@ -0,0 +1,235 @@
+package de.heavenhr.recruitement.service;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.heavenhr.recruitement.service.event.Event;
+import de.heavenhr.recruitement.service.event.EventBus;
+import de.heavenhr.recruitement.service.event.EventBusProperties;
+import de.heavenhr.recruitement.service.event.EventLog;
+import de.heavenhr.recruitement.service.event.EventLogProperties;
+import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+
+/**
+ * The class <code>EventLogTest</code> contains tests for the class <code>{@link EventLog}</code>.
+ *
+ * @author Hossam Yahya
+ */
+public class EventLogTest {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private EventLogProperties properties(long segmentBytes, long retentionBytes) throws Exception {
+		EventLogProperties properties = new EventLogProperties();
+		properties.setDir(folder.getRoot());
+		properties.setSegmentBytes(segmentBytes);
+		properties.setRetentionBytes(retentionBytes);
+		properties.setForce(false);
+		return properties;
+	}
+
+	private static List<Event<Application>> events(int from, int count) {
+		List<Event<Application>> events = new ArrayList<Event<Application>>();
+		for (int i = from; i < from + count; i++) {
+			events.add(new StatusChangeEvent<Application>(new Application("Job " + i, i + "@gmail.com", null, Status.INVITED), i
+					, Status.APPLIED, Status.INVITED));
+		}
+		return events;
+	}
+
+	/**
+	 * Reads all the events from an offset, returning the offsets of the lines, checked to match the timestamps
+	 */
+	private static List<Long> readAll(EventLog log, long from, int limit) throws Exception {
+		List<Long> offsets = new ArrayList<Long>();
+		while (from < log.getNextOffset()) {
+			EventLog.Slice slice = log.read(from, limit);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			slice.transferTo(out);
+			assertEquals(slice.getLength(), out.size());
+			String[] lines = out.toString("UTF-8").split("\n");
+			assertEquals(slice.getNextOffset() - slice.getFirstOffset(), lines.length);
+			for (String line : lines) {
+				JsonNode record = MAPPER.readTree(line);
+				assertEquals(record.get("offset").asLong(), record.get("event").get("timestamp").asLong());
+				offsets.add(record.get("offset").asLong());
+			}
+			from = slice.getNextOffset();
+		}
+		return offsets;
+	}
+
+	private static List<Long> range(long from, long to) {
+		List<Long> range = new ArrayList<Long>();
+		for (long i = from; i < to; i++) {
+			range.add(i);
+		}
+		return range;
+	}
+
+	// **************************************** Test appendAll(List) ****************************************
+
+	/**
+	 * Run the long appendAll(List) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Events get consecutive offsets and are read back in order across rolled segments
+	 */
+	@Test
+	public void testAppendAll_1() throws Exception {
+		EventLog log = EventLog.open(properties(4096, 0), MAPPER);
+		for (int i = 0; i < 500; i += 10) {
+			assertEquals(i, log.appendAll(events(i, 10)));
+		}
+		assertEquals(500, log.getNextOffset());
+		assertTrue(folder.getRoot().listFiles((dir, name) -> name.endsWith(".log")).length > 1);
+
+		assertEquals(range(0, 500), readAll(log, 0, 7));
+		assertEquals(range(123, 500), readAll(log, 123, 1000));
+		log.close();
+	}
+
+	/**
+	 * Run the long appendAll(List) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: A reopened log goes on after its last complete event, a torn last line is cut off
+	 */
+	@Test
+	public void testAppendAll_2() throws Exception {
+		EventLog log = EventLog.open(properties(1 << 20, 0), MAPPER);
+		log.appendAll(events(0, 20));
+		log.close();
+		File[] segments = folder.getRoot().listFiles((dir, name) -> name.endsWith(".log"));
+		try (FileOutputStream out = new FileOutputStream(segments[segments.length - 1], true)) {
+			out.write("{\"offset\":20,\"ev".getBytes("UTF-8"));
+		}
+
+		log = EventLog.open(properties(1 << 20, 0), MAPPER);
+		assertEquals(20, log.getNextOffset());
+		assertEquals(20, log.appendAll(events(20, 5)));
+		assertEquals(range(0, 25), readAll(log, 0, 100));
+		log.close();
+	}
+
+	/**
+	 * Run the long appendAll(List) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: The oldest segments are deleted once the log is too large, reads before them start at the first
+	 * retained event
+	 */
+	@Test
+	public void testAppendAll_3() throws Exception {
+		EventLog log = EventLog.open(properties(4096, 8192), MAPPER);
+		for (int i = 0; i < 1000; i += 10) {
+			log.appendAll(events(i, 10));
+		}
+		assertTrue(log.getFirstOffset() > 0);
+		assertEquals(range(log.getFirstOffset(), 1000), readAll(log, 0, 50));
+		log.close();
+	}
+
+	// **************************************** Test handleEvents(List) ****************************************
+
+	/**
+	 * Run the void handleEvents(List) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Registered on an event bus for all the types, events of different types are logged in publication
+	 * order, even within one batch
+	 */
+	@Test
+	public void testHandleEvents_1() throws Exception {
+		EventLog log = EventLog.open(properties(1 << 20, 0), MAPPER);
+		EventBus bus = new EventBus(new EventBusProperties());
+		bus.registerAsync(EnumSet.allOf(Event.Type.class), log);
+		for (int i = 0; i < 200; i += 2) {
+			Application application = new Application("Job " + i, i + "@gmail.com", null, Status.APPLIED);
+			bus.publish(new Event<Application>(application, Event.Type.APPLICATION_CREATED, i));
+			bus.publish(new StatusChangeEvent<Application>(application, i + 1, Status.APPLIED, Status.INVITED));
+		}
+		bus.close();
+
+		// The offsets read back are checked to match the timestamps, that is the publication order
+		assertEquals(range(0, 200), readAll(log, 0, 1000));
+		log.close();
+	}
+
+	// **************************************** Test read(long, int) ****************************************
+
+	/**
+	 * Run the Slice read(long, int) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Reading after the end of the log fails, reading at its end finds no events
+	 */
+	@Test
+	public void testRead_1() throws Exception {
+		EventLog log = EventLog.open(properties(4096, 0), MAPPER);
+		log.appendAll(events(0, 10));
+		assertEquals(0, log.read(10, 10).getLength());
+		assertEquals(10, log.read(10, 10).getNextOffset());
+		try {
+			log.read(11, 10);
+			fail("Reading after the end of the log should fail");
+		} catch (DataException e) {
+			// expected
+		}
+		log.close();
+	}
+
+	// **************************************** Test commitOffset(String, long) ****************************************
+
+	/**
+	 * Run the void commitOffset(String, long) method test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: The committed offsets of the consumers are kept when the log is reopened
+	 */
+	@Test
+	public void testCommitOffset_1() throws Exception {
+		EventLog log = EventLog.open(properties(4096, 0), MAPPER);
+		log.appendAll(events(0, 10));
+		log.commitOffset("mailer", 4);
+		log.commitOffset("reports", 10);
+		try {
+			log.commitOffset("mailer", 11);
+			fail("Committing an offset after the end of the log should fail");
+		} catch (DataException e) {
+			// expected
+		}
+		log.close();
+
+		log = EventLog.open(properties(4096, 0), MAPPER);
+		assertEquals(4, log.getCommittedOffset("mailer"));
+		assertEquals(10, log.getCommittedOffset("reports"));
+		assertEquals(0, log.getCommittedOffset("unknown"));
+		log.close();
+	}
+}
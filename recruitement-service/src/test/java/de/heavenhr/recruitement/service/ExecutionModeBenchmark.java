@@ -0,0 +1,234 @@
+package de.heavenhr.recruitement.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The class <code>ExecutionModeBenchmark</code> measures the throughput and latency of the service under a
+ * large number of concurrent clients, serving the requests on the Tomcat platform thread pool and then on
+ * virtual threads, see {@link ExecutionMode}.
+ * <p>
+ * Each client owns one application and, over one keep-alive connection, updates its status and reads it back
+ * in a loop, so every other request blocks on the storage: on the journal fsync of the memory engine when it
+ * has a journal, on the database otherwise. The clients run on virtual threads when the JVM has them, on
+ * platform threads with a small stack otherwise.
+ * <p>
+ * Usage: <code>ExecutionModeBenchmark [clients] [seconds] [spring arguments...]</code>, for example
+ * <code>ExecutionModeBenchmark 10000 30 --recruitement.storage.engine=jdbc</code>. The service is started on a
+ * random port in the same JVM once per mode. The virtual thread mode needs Java 21, run with
+ * <code>--add-opens java.base/java.lang=ALL-UNNAMED</code> for Spring to create its proxies, and is skipped
+ * on older JVMs. Both ends of the connections are in the same process, whose open file limit must be above
+ * twice the number of clients.
+ *
+ * @author Hossam Yahya
+ */
+public class ExecutionModeBenchmark {
+
+	private static final String RESUME = "Ten years of experience in building distributed systems, "
+			+ "leading teams and shipping products used by millions of people.";
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of concurrent clients, the measured seconds of each mode and the service arguments
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+		// Keeps one idle connection per client instead of closing all of them but 5
+		System.setProperty("http.maxConnections", Integer.toString(clients));
+
+		ExecutionMode clientMode = ExecutionMode.VIRTUAL.isAvailable() ? ExecutionMode.VIRTUAL : ExecutionMode.PLATFORM;
+		System.out.println("clients: " + clients + " on " + clientMode + " threads, seconds: " + seconds
+				+ ", java: " + System.getProperty("java.version"));
+		for (ExecutionMode mode : ExecutionMode.values()) {
+			if (!mode.isAvailable()) {
+				System.out.println(String.format("%-9s skipped, not available on Java %s", mode, System.getProperty("java.version")));
+				continue;
+			}
+			List<String> serviceArgs = new ArrayList<String>();
+			serviceArgs.add("--server.port=0");
+			serviceArgs.add("--logging.level.root=WARN");
+			serviceArgs.add("--server.tomcat.max-connections=" + (clients + 100));
+			serviceArgs.add("--server.tomcat.accept-count=" + clients);
+			serviceArgs.add("--" + ExecutionProperties.PREFIX + ".threads=" + mode);
+			for (int i = 2; i < args.length; i++) {
+				serviceArgs.add(args[i]);
+			}
+
+			ConfigurableApplicationContext context = SpringApplication.run(RecruitementServiceApplication.class, serviceArgs.toArray(new String[0]));
+			try {
+				String url = "http://localhost:" + ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+				String jobTitle = createApplications(url, clients);
+
+				// Warm up, opening the connections of the clients, before measuring
+				run(url, jobTitle, clients, Math.max(1, seconds / 5), clientMode);
+				Result result = run(url, jobTitle, clients, seconds, clientMode);
+				System.out.println(String.format("%-9s %,10d requests/s  p50 %,9d us  p99 %,9d us  max %,9d us  errors %,d"
+						, mode, result.requests * TimeUnit.SECONDS.toNanos(1) / result.elapsedNanos
+						, result.percentile(0.5), result.percentile(0.99), result.percentile(1), result.errors));
+			} finally {
+				context.close();
+			}
+		}
+	}
+
+	/**
+	 * Creates an offer and an application per client with one bulk request
+	 * @return the job title of the offer
+	 */
+	private static String createApplications(String url, int clients) throws IOException {
+		String jobTitle = "Benchmark " + System.nanoTime();
+		request("POST", url + "/api/offers/", "application/json", "{\"jobTitle\": \"" + jobTitle + "\"}");
+		StringBuilder ndjson = new StringBuilder();
+		for (int client = 0; client < clients; client++) {
+			ndjson.append("{\"jobTitle\": \"").append(jobTitle).append("\", \"candidateEmail\": \"").append(client)
+					.append("@gmail.com\", \"resumeText\": \"").append(RESUME).append("\", \"status\": \"APPLIED\"}\n");
+		}
+		request("POST", url + "/api/applications/bulk", "application/x-ndjson", ndjson.toString());
+		return jobTitle;
+	}
+
+	private static Result run(String url, String jobTitle, int clients, int seconds, ExecutionMode clientMode) throws Exception {
+		ThreadFactory factory = clientMode == ExecutionMode.VIRTUAL ? clientMode.threadFactory("client")
+				: runnable -> new Thread(null, runnable, "client", 256 << 10);
+		CountDownLatch ready = new CountDownLatch(clients);
+		CountDownLatch start = new CountDownLatch(1);
+		long[][] latencies = new long[clients][];
+		LongAdder errors = new LongAdder();
+		long[] deadline = new long[1];
+		List<Thread> threads = new ArrayList<Thread>(clients);
+		for (int c = 0; c < clients; c++) {
+			int client = c;
+			Thread thread = factory.newThread(() -> {
+				String application = url + "/api/applications/" + encode(jobTitle) + "/" + client + "@gmail.com";
+				long[] samples = new long[1024];
+				int count = 0;
+				ready.countDown();
+				try {
+					start.await();
+					for (int i = 0; System.nanoTime() < deadline[0]; i++) {
+						long begin = System.nanoTime();
+						try {
+							if ((i & 1) == 0) {
+								request("PUT", url + "/api/applications/", "application/json", "{\"jobTitle\": \"" + jobTitle
+										+ "\", \"candidateEmail\": \"" + client + "@gmail.com\", \"status\": \""
+										+ ((i & 2) == 0 ? "INVITED" : "REJECTED") + "\"}");
+							} else {
+								request("GET", application, null, null);
+							}
+						} catch (IOException e) {
+							errors.increment();
+							continue;
+						}
+						if (count == samples.length) {
+							samples = Arrays.copyOf(samples, count * 2);
+						}
+						samples[count++] = System.nanoTime() - begin;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				latencies[client] = Arrays.copyOf(samples, count);
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		ready.await();
+
+		long begin = System.nanoTime();
+		deadline[0] = begin + TimeUnit.SECONDS.toNanos(seconds);
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return new Result(latencies, errors.sum(), System.nanoTime() - begin);
+	}
+
+	/**
+	 * Sends a request and reads the whole response, keeping the connection alive for the next one
+	 * @throws IOException when the request fails or is not answered with a success status
+	 */
+	private static void request(String method, String url, String contentType, String body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestMethod(method);
+		if (body != null) {
+			connection.setDoOutput(true);
+			connection.setRequestProperty("Content-Type", contentType);
+			try (OutputStream out = connection.getOutputStream()) {
+				out.write(body.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		int status = connection.getResponseCode();
+		try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			if (in != null) {
+				ByteArrayOutputStream response = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				for (int read; (read = in.read(buffer)) > 0;) {
+					response.write(buffer, 0, read);
+				}
+			}
+		}
+		if (status >= 300) {
+			throw new IOException(method + " " + url + " answered " + status);
+		}
+	}
+
+	private static String encode(String pathSegment) {
+		return pathSegment.replace(" ", "%20");
+	}
+
+	/**
+	 * The latencies of all the requests of a run
+	 */
+	private static class Result {
+		final long[] sorted;
+		final long requests;
+		final long errors;
+		final long elapsedNanos;
+
+		Result(long[][] latencies, long errors, long elapsedNanos) {
+			int count = 0;
+			for (long[] samples : latencies) {
+				count += samples.length;
+			}
+			this.sorted = new long[count];
+			int offset = 0;
+			for (long[] samples : latencies) {
+				System.arraycopy(samples, 0, sorted, offset, samples.length);
+				offset += samples.length;
+			}
+			Arrays.sort(sorted);
+			this.requests = count;
+			this.errors = errors;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		/**
+		 * @return the latency in microseconds below which a ratio of the requests were answered
+		 */
+		long percentile(double ratio) {
+			if (sorted.length == 0) {
+				return 0;
+			}
+			return TimeUnit.NANOSECONDS.toMicros(sorted[Math.min(sorted.length - 1, (int) Math.ceil(ratio * sorted.length) - 1)]);
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package de.heavenhr.recruitement.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import de.heavenhr.recruitement.service.rest.ApplicationController;
+
+/**
+ * The class <code>IngestBenchmark</code> measures the application ingest throughput of the service, with one
+ * <code>POST /api/applications/</code> per application and with the newline delimited JSON bulk endpoint of the
+ * <code>{@link ApplicationController}</code>, then again one application per request while as many other
+ * clients search the resumes, to check that searches do not hold back the creations.
+ * <p>
+ * Usage: <code>IngestBenchmark [threads] [applications] [spring arguments...]</code>, for example
+ * <code>IngestBenchmark 8 20000 --recruitement.storage.engine=jdbc</code>. The service is started on a random
+ * port in the same JVM.
+ *
+ * @author Hossam Yahya
+ */
+public class IngestBenchmark {
+
+	private static final String RESUME = "Ten years of experience in building distributed systems, "
+			+ "leading teams and shipping products used by millions of people.";
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of client threads, the number of applications of each run and the service arguments
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int applications = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		List<String> serviceArgs = new ArrayList<String>();
+		serviceArgs.add("--server.port=0");
+		serviceArgs.add("--logging.level.root=WARN");
+		for (int i = 2; i < args.length; i++) {
+			serviceArgs.add(args[i]);
+		}
+
+		ConfigurableApplicationContext context = SpringApplication.run(RecruitementServiceApplication.class, serviceArgs.toArray(new String[0]));
+		try {
+			String url = "http://localhost:" + ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+			RestTemplate rest = new RestTemplate();
+
+			System.out.println("threads: " + threads + ", applications: " + applications);
+			// Warm up both paths before measuring
+			single(rest, url, threads, applications / 10, 0, null);
+			bulk(rest, url, applications / 10);
+
+			long elapsed = single(rest, url, threads, applications, 0, null);
+			System.out.println(String.format("%-8s %,10d applications/s", "single", applications * TimeUnit.SECONDS.toNanos(1) / elapsed));
+			elapsed = bulk(rest, url, applications);
+			System.out.println(String.format("%-8s %,10d applications/s", "bulk", applications * TimeUnit.SECONDS.toNanos(1) / elapsed));
+			LongAdder searches = new LongAdder();
+			elapsed = single(rest, url, threads, applications, threads, searches);
+			System.out.println(String.format("%-8s %,10d applications/s  %,10d searches/s", "searched"
+					, applications * TimeUnit.SECONDS.toNanos(1) / elapsed, searches.sum() * TimeUnit.SECONDS.toNanos(1) / elapsed));
+		} finally {
+			context.close();
+		}
+	}
+
+	private static String createOffer(RestTemplate rest, String url) {
+		String jobTitle = "Benchmark " + System.nanoTime();
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		rest.postForEntity(url + "/api/offers/", new HttpEntity<String>("{\"jobTitle\": \"" + jobTitle + "\"}", headers), String.class);
+		return jobTitle;
+	}
+
+	private static String applicationJson(String jobTitle, int candidate) {
+		return "{\"jobTitle\": \"" + jobTitle + "\", \"candidateEmail\": \"" + candidate + "@gmail.com\", \"resumeText\": \""
+				+ RESUME + "\", \"status\": \"APPLIED\"}";
+	}
+
+	/**
+	 * Creates applications one per request
+	 * @param searchers the number of clients searching the resumes meanwhile
+	 * @param searches counts the searches made, null without searchers
+	 * @return the time taken to create the applications
+	 */
+	private static long single(RestTemplate rest, String url, int threads, int applications, int searchers, LongAdder searches) throws Exception {
+		String jobTitle = createOffer(rest, url);
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads + searchers);
+		try {
+			AtomicInteger candidates = new AtomicInteger();
+			List<Future<?>> clients = new ArrayList<Future<?>>();
+			for (int s = 0; s < searchers; s++) {
+				executor.submit(() -> {
+					while (candidates.get() < applications) {
+						rest.getForObject(url + "/api/applications/search?q=distributed systems products&limit=10", String.class);
+						searches.increment();
+					}
+					return null;
+				});
+			}
+			long start = System.nanoTime();
+			for (int t = 0; t < threads; t++) {
+				clients.add(executor.submit(() -> {
+					int candidate;
+					while ((candidate = candidates.incrementAndGet()) <= applications) {
+						rest.postForEntity(url + "/api/applications/", new HttpEntity<String>(applicationJson(jobTitle, candidate), headers), String.class);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> client : clients) {
+				client.get();
+			}
+			return System.nanoTime() - start;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static long bulk(RestTemplate rest, String url, int applications) {
+		String jobTitle = createOffer(rest, url);
+		StringBuilder ndjson = new StringBuilder();
+		for (int candidate = 1; candidate <= applications; candidate++) {
+			ndjson.append(applicationJson(jobTitle, candidate)).append('\n');
+		}
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.valueOf("application/x-ndjson"));
+
+		long start = System.nanoTime();
+		String results = rest.postForObject(url + "/api/applications/bulk", new HttpEntity<String>(ndjson.toString(), headers), String.class);
+		long elapsed = System.nanoTime() - start;
+		if (results.contains("\"error\"")) {
+			throw new IllegalStateException("Bulk ingest failed: " + results.substring(0, Math.min(results.length(), 200)));
+		}
+		return elapsed;
+	}
+}
@@ -0,0 +1,29 @@
+package de.heavenhr.recruitement.service;
+
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import de.heavenhr.recruitement.service.dao.JdbcDAO;
+import de.heavenhr.recruitement.service.dao.StorageEngine;
+
+/**
+ * The class <code>JdbcDAOConformanceTest</code> runs the storage conformance tests against the
+ * <code>{@link JdbcDAO}</code> selected by the application configuration.
+ *
+ * @author Hossam Yahya
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = "recruitement.storage.engine=jdbc")
+public class JdbcDAOConformanceTest extends StorageEngineConformanceTest {
+
+	@Autowired
+	private StorageEngine engine;
+
+	@Override
+	protected StorageEngine getEngine() {
+		return engine;
+	}
+}
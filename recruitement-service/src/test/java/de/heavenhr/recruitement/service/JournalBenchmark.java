@@ -0,0 +1,90 @@
+package de.heavenhr.recruitement.service;
+
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.heavenhr.recruitement.service.dao.DAO;
+import de.heavenhr.recruitement.service.dao.Journal;
+import de.heavenhr.recruitement.service.dao.StorageProperties;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>JournalBenchmark</code> measures the write throughput of the <code>{@link DAO}</code> without a
+ * journal and with a <code>{@link Journal}</code> in each durability mode.
+ * <p>
+ * Usage: <code>JournalBenchmark [threads] [applications per thread]</code>, each run writes to a fresh
+ * temporary journal directory.
+ *
+ * @author Hossam Yahya
+ */
+public class JournalBenchmark {
+
+	private static final String RESUME = "Ten years of experience in building distributed systems, "
+			+ "leading teams and shipping products used by millions of people.";
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of writer threads and the number of applications each thread creates
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+		int applications = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+		System.out.println("threads: " + threads + ", applications per thread: " + applications);
+		// Warm up the write path before measuring
+		run(null, threads, applications / 10);
+
+		run(null, threads, applications);
+		for (Journal.Durability durability : Journal.Durability.values()) {
+			run(durability, threads, applications);
+		}
+	}
+
+	private static void run(Journal.Durability durability, int threads, int applications) throws Exception {
+		StorageProperties properties = new StorageProperties();
+		if (durability != null) {
+			properties.setJournalDir(Files.createTempDirectory("journal-benchmark").toFile());
+			properties.setJournalDurability(durability);
+		}
+
+		String jobTitle = "Benchmark " + System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try (DAO dao = new DAO(properties)) {
+			dao.createOffer(new Offer(jobTitle, new Date(), 0));
+
+			AtomicInteger candidates = new AtomicInteger();
+			List<Future<?>> writers = new ArrayList<Future<?>>();
+			long start = System.nanoTime();
+			for (int t = 0; t < threads; t++) {
+				writers.add(executor.submit(() -> {
+					for (int i = 0; i < applications; i++) {
+						dao.createApplication(new Application(jobTitle, candidates.incrementAndGet() + "@gmail.com", RESUME, Status.APPLIED));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> writer : writers) {
+				writer.get();
+			}
+			long elapsed = System.nanoTime() - start;
+
+			long writes = (long) threads * applications;
+			System.out.println(String.format("%-10s %,12d writes/s %,10d us/write"
+					, durability == null ? "NONE" : durability, writes * TimeUnit.SECONDS.toNanos(1) / elapsed
+					, TimeUnit.NANOSECONDS.toMicros(elapsed) * threads / writes));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
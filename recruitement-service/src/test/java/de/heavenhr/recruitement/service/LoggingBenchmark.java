@@ -0,0 +1,120 @@
+package de.heavenhr.recruitement.service;
+
+import java.lang.management.ManagementFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.helpers.NOPAppender;
+import de.heavenhr.recruitement.service.event.StatusChangeEvent;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+
+/**
+ * The class <code>LoggingBenchmark</code> measures the bytes allocated by the logging of a status update
+ * request, through the controller, the storage and the event listener, with messages built by concatenation
+ * and <code>String.format</code> as before and with parameterized messages, the info level being on or off and
+ * the debug level off.
+ * <p>
+ * Usage: <code>LoggingBenchmark [iterations] [resume length]</code>.
+ *
+ * @author Hossam Yahya
+ */
+public class LoggingBenchmark {
+
+	private static final Logger logger = LoggerFactory.getLogger(LoggingBenchmark.class);
+
+	/**
+	 * The resume was part of the description of the applications
+	 */
+	private static String describe(Application application) {
+		return "Application [jobTitle=" + application.getJobTitle() + ", candidateEmail=" + application.getCandidateEmail()
+				+ ", resumeText=" + application.getResumeText() + ", status=" + application.getStatus() + "]";
+	}
+
+	private static void concatenated(Application application, StatusChangeEvent<Application> event) {
+		logger.info("updateApplicationStatus() called: " + describe(application));
+		logger.debug("updateApplicationStatus() is called: " + describe(application));
+		logger.debug("updateApplicationStatus() application status changed: " + describe(application));
+		logger.info(String.format("***** Application Status Change Event <Job Title:%s, Candidate Email:%s, New Status:%s> *****"
+				, application.getJobTitle(), application.getCandidateEmail(), application.getStatus()));
+		String description = "StatusChangeEvent [target=" + describe(application) + ", oldStatus=" + event.getOldStatus() + "]";
+		logger.info(String.format("Event received <%s>", description));
+		logger.info(String.format("Event handled <%s>", description));
+	}
+
+	private static void parameterized(Application application, StatusChangeEvent<Application> event) {
+		logger.info("updateApplicationStatus() called: {}", application);
+		logger.debug("updateApplicationStatus() is called: {}", application);
+		logger.debug("updateApplicationStatus() application status changed: {}", application);
+		logger.info("***** Application Status Change Event <Job Title:{}, Candidate Email:{}, New Status:{}> *****"
+				, application.getJobTitle(), application.getCandidateEmail(), application.getStatus());
+		logger.info("Event received <{}>", event);
+		logger.info("Event handled <{}>", event);
+	}
+
+	interface Request {
+		void log(Application application, StatusChangeEvent<Application> event);
+	}
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of requests and the length of the resume
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int resumeLength = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+		StringBuilder resume = new StringBuilder();
+		while (resume.length() < resumeLength) {
+			resume.append("Ten years of Java and Haskell, ");
+		}
+		Application application = new Application("Senior Java Developer", "candidate@gmail.com", resume.substring(0, resumeLength)
+				, Status.INVITED);
+		StatusChangeEvent<Application> event = new StatusChangeEvent<Application>(application, System.currentTimeMillis()
+				, Status.APPLIED, Status.INVITED);
+
+		// The events go through a bounded asynchronous appender to an appender writing nothing
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+		root.detachAndStopAllAppenders();
+		NOPAppender<ILoggingEvent> nop = new NOPAppender<ILoggingEvent>();
+		nop.setContext(context);
+		nop.start();
+		AsyncAppender async = new AsyncAppender();
+		async.setContext(context);
+		async.setQueueSize(8192);
+		async.setNeverBlock(true);
+		async.addAppender(nop);
+		async.start();
+		root.addAppender(async);
+
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		System.out.println("iterations: " + iterations + ", resume length: " + resumeLength);
+		for (int run = 0; run < 3; run++) {
+			for (Level level : new Level[] { Level.WARN, Level.INFO }) {
+				root.setLevel(level);
+				for (Object[] variant : new Object[][] { { "concatenated", (Request) LoggingBenchmark::concatenated }
+						, { "parameterized", (Request) LoggingBenchmark::parameterized } }) {
+					Request request = (Request) variant[1];
+					long allocated = threads.getThreadAllocatedBytes(thread);
+					long start = System.nanoTime();
+					for (int i = 0; i < iterations; i++) {
+						request.log(application, event);
+					}
+					long elapsed = System.nanoTime() - start;
+					allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+					System.out.println(String.format("level %-5s %-14s %,8d bytes and %,6d ns per request", level, variant[0]
+							, allocated / iterations, elapsed / iterations));
+				}
+			}
+		}
+		async.stop();
+	}
+}
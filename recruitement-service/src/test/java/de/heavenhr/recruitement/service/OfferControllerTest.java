@@ -1,6 +1,14 @@
 package de.heavenhr.recruitement.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -10,12 +18,22 @@ import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.util.StringUtils;
 
-import de.heavenhr.recruitement.service.rest.OfferController;;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.heavenhr.recruitement.service.dao.StorageEngine;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+import de.heavenhr.recruitement.service.model.Offer;
+
+import de.heavenhr.recruitement.service.rest.OfferController;
+import de.heavenhr.recruitement.service.rest.ResponseCacheMetrics;
 
 /**
  * The class <code>OfferControllerTest</code> contains tests for the class <code>{@link OfferController}</code>.
@@ -29,6 +47,9 @@ public class OfferControllerTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private StorageEngine storage;
+
     // **************************************** GET:/api/offers/{jobTitle} **************************************** 
 	
     /**
@@ -73,6 +94,39 @@ public class OfferControllerTest {
         assertEquals(HttpStatus.OK, result);
     }
     
+    /**
+ 	 * Run the GET:/api/offers/{jobTitle} test.
+ 	 *
+ 	 * @throws Exception
+ 	 *
+ 	 * Case 3: Not modified while the client has the current version, modified once an application is created
+ 	 */
+    @Test
+    public void testGETOffer_3() throws Exception {
+    	String jobTitle = String.valueOf(System.nanoTime());
+    	storage.createOffer(new Offer(jobTitle, new Date(), 0));
+    	
+    	ResponseEntity<String> response = this.restTemplate.getForEntity("/api/offers/{jobTitle}", String.class, jobTitle);
+    	String etag = response.getHeaders().getETag();
+    	assertNotNull(etag);
+    	assertTrue(response.getBody().contains("\"version\":1"));
+    	
+    	HttpHeaders headers = new HttpHeaders();
+    	headers.setIfNoneMatch(etag);
+    	ResponseEntity<String> notModified = this.restTemplate.exchange("/api/offers/{jobTitle}", HttpMethod.GET
+    			, new HttpEntity<Void>(headers), String.class, jobTitle);
+    	assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+    	assertNull(notModified.getBody());
+    	assertEquals(etag, notModified.getHeaders().getETag());
+    	
+    	storage.createApplication(new Application(jobTitle, "first@gmail.com", "resume text", Status.APPLIED));
+    	ResponseEntity<String> modified = this.restTemplate.exchange("/api/offers/{jobTitle}", HttpMethod.GET
+    			, new HttpEntity<Void>(headers), String.class, jobTitle);
+    	assertEquals(HttpStatus.OK, modified.getStatusCode());
+    	assertTrue(modified.getBody().contains("\"version\":2"));
+    	assertTrue(!etag.equals(modified.getHeaders().getETag()));
+    }
+    
     // **************************************** Test POST:/api/offers/ **************************************** 
 	
   	/**
@@ -174,6 +228,128 @@ public class OfferControllerTest {
 		assertEquals(HttpStatus.OK, result);
 	}
 
+     /**
+  	 * Run the GET:/api/offers/ test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 2: Not modified, streamed or paginated, until an offer is created
+  	 */
+     @Test
+	public void testGETOffers_2() throws Exception {
+		storage.createOffer(new Offer(String.valueOf(System.nanoTime()), new Date(), 0));
+		String etag = this.restTemplate.getForEntity("/api/offers/", String.class).getHeaders().getETag();
+		assertNotNull(etag);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(etag);
+		assertEquals(HttpStatus.NOT_MODIFIED, this.restTemplate.exchange("/api/offers/", HttpMethod.GET
+				, new HttpEntity<Void>(headers), String.class).getStatusCode());
+		assertEquals(HttpStatus.NOT_MODIFIED, this.restTemplate.exchange("/api/offers/?limit=1", HttpMethod.GET
+				, new HttpEntity<Void>(headers), String.class).getStatusCode());
+
+		storage.createOffer(new Offer(String.valueOf(System.nanoTime()), new Date(), 0));
+		assertEquals(HttpStatus.OK, this.restTemplate.exchange("/api/offers/", HttpMethod.GET
+				, new HttpEntity<Void>(headers), String.class).getStatusCode());
+	}
+
+     // **************************************** GET:/api/offers/cache-metrics **************************************** 
+ 	
+     /**
+  	 * Run the GET:/api/offers/cache-metrics test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 1: Offers and the list of offers are read from the cache until an application or an offer is created
+  	 */
+     @Test
+	public void testGETCacheMetrics_1() throws Exception {
+		String jobTitle = String.valueOf(System.nanoTime());
+		storage.createOffer(new Offer(jobTitle, new Date(), 0));
+
+		String offer = this.restTemplate.getForEntity("/api/offers/{jobTitle}", String.class, jobTitle).getBody();
+		String offers = this.restTemplate.getForEntity("/api/offers/", String.class).getBody();
+		Map<String, Number> before = cacheMetrics();
+		assertEquals(offer, this.restTemplate.getForEntity("/api/offers/{jobTitle}", String.class, jobTitle).getBody());
+		assertEquals(offers, this.restTemplate.getForEntity("/api/offers/", String.class).getBody());
+		Map<String, Number> hits = cacheMetrics();
+		assertEquals(before.get("hits").longValue() + 2, hits.get("hits").longValue());
+		assertEquals(before.get("misses"), hits.get("misses"));
+		assertTrue(hits.get("hitRatio").doubleValue() > 0 && hits.get("bytes").longValue() <= hits.get("maxBytes").longValue());
+
+		storage.createApplication(new Application(jobTitle, "first@gmail.com", "resume text", Status.APPLIED));
+		assertTrue(this.restTemplate.getForEntity("/api/offers/{jobTitle}", String.class, jobTitle).getBody()
+				.contains("\"numberOfApplications\":1"));
+		assertTrue(this.restTemplate.getForEntity("/api/offers/", String.class).getBody()
+				.contains("\"jobTitle\":\"" + jobTitle + "\",\"startDate\""));
+		Map<String, Number> misses = cacheMetrics();
+		assertEquals(hits.get("misses").longValue() + 2, misses.get("misses").longValue());
+	}
+
+	/**
+	 * Finds the counters of the cache of the offer responses, as named by {@link ResponseCacheMetrics}
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Number> cacheMetrics() {
+		return this.restTemplate.getForEntity("/api/offers/cache-metrics", Map.class).getBody();
+	}
+
+     // **************************************** GET:/api/offers/suggest **************************************** 
+ 	
+     /**
+  	 * Run the GET:/api/offers/suggest test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 1: Success, tolerating a typo
+  	 */
+     @Test
+	public void testGETSuggest_1() throws Exception {
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String jobTitle = System.nanoTime() + " Backend Engineer";
+		String requestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," + "\"startDate\": 1493229767700,"
+				+ "\"numberOfApplications\": 0" + "}";
+
+		HttpEntity<String> entity = new HttpEntity<String>(requestJson, headers);
+		this.restTemplate.postForEntity("/api/offers/", entity, String.class);
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity("/api/offers/suggest?q={q}"
+				, String.class, jobTitle.substring(0, jobTitle.length() - 8) + "Enj");
+
+		assertEquals(HttpStatus.OK, result.getStatusCode());
+		assertEquals("[\"" + jobTitle + "\"]", result.getBody());
+	}
+
+     // **************************************** GET:/api/offers/{jobTitle}/funnel **************************************** 
+ 	
+     /**
+  	 * Run the GET:/api/offers/{jobTitle}/funnel test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 1: Success, listed in the funnels of all offers too
+  	 */
+     @Test
+	public void testGETOfferFunnel_1() throws Exception {
+		String jobTitle = String.valueOf(System.nanoTime());
+		storage.createOffer(new Offer(jobTitle, new Date(), 0));
+		storage.createApplication(new Application(jobTitle, "first@gmail.com", "resume text", Status.APPLIED));
+		storage.createApplication(new Application(jobTitle, "second@gmail.com", "resume text", Status.INVITED));
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity("/api/offers/{jobTitle}/funnel", String.class, jobTitle);
+
+		assertEquals(HttpStatus.OK, result.getStatusCode());
+		assertEquals("{\"APPLIED\":1,\"INVITED\":1,\"REJECTED\":0,\"HIRED\":0}", result.getBody());
+		
+		result = this.restTemplate.getForEntity("/api/offers/funnels", String.class);
+		
+		assertEquals(HttpStatus.OK, result.getStatusCode());
+		assertTrue(result.getBody().contains("\"" + jobTitle + "\":{\"APPLIED\":1,\"INVITED\":1,\"REJECTED\":0,\"HIRED\":0}"));
+	}
+
      // **************************************** GET:/api/offers/{jobTitle}/applications **************************************** 
  	
      /**
@@ -224,6 +400,122 @@ public class OfferControllerTest {
 		assertEquals(HttpStatus.OK, result);
 	}
     
+     /**
+  	 * Run the GET:/api/offers/{jobTitle}/applications test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 3: Paginated, the next page is linked until the last one
+  	 */
+     @Test
+	public void testGETOfferApplications_3() throws Exception {
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+
+		String jobTitle = String.valueOf(System.nanoTime());
+		String requestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," + "\"startDate\": 1493229767700,"
+				+ "\"numberOfApplications\": 0" + "}";
+
+		HttpEntity<String> entity = new HttpEntity<String>(requestJson, headers);
+		this.restTemplate.postForEntity("/api/offers/", entity, String.class);
+
+		for (int i = 0; i < 3; i++) {
+			String applicationRequestJson = "{" + "\"jobTitle\": \"" + jobTitle + "\"," +
+					"\"candidateEmail\": \"" + i + "_test@gmail.com\"," +
+					"\"resumeText\": \"This is my resume3\"," +
+					"\"status\": \"APPLIED\"" + "}";
+			this.restTemplate.postForEntity("/api/applications/", new HttpEntity<String>(applicationRequestJson, headers), String.class);
+		}
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity("/api/offers/{jobTitle}/applications?limit=2", String.class, jobTitle);
+		assertEquals(HttpStatus.OK, result.getStatusCode());
+		String next = result.getHeaders().getFirst("X-Next-Cursor");
+		assertNotNull(next);
+		assertNotNull(result.getHeaders().getFirst(HttpHeaders.LINK));
+
+		result = this.restTemplate.getForEntity("/api/offers/{jobTitle}/applications?limit=2&after={after}", String.class, jobTitle, next);
+		assertEquals(HttpStatus.OK, result.getStatusCode());
+		assertNull(result.getHeaders().getFirst("X-Next-Cursor"));
+	}
+    
+     /**
+  	 * Run the GET:/api/offers/{jobTitle}/applications test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 4: Streamed over several storage pages, all applications in creation order
+  	 */
+     @Test
+	public void testGETOfferApplications_4() throws Exception {
+		String jobTitle = String.valueOf(System.nanoTime());
+		storage.createOffer(new Offer(jobTitle, new Date(), 0));
+		List<Application> applications = new ArrayList<Application>();
+		for (int i = 0; i < 1234; i++) {
+			applications.add(new Application(jobTitle, i + "_test@gmail.com", "This is my resume " + i, Status.APPLIED));
+		}
+		storage.createApplications(applications);
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity("/api/offers/{jobTitle}/applications", String.class, jobTitle);
+		assertEquals(HttpStatus.OK, result.getStatusCode());
+		Application[] streamed = new ObjectMapper().readValue(result.getBody(), Application[].class);
+		assertEquals(applications.size(), streamed.length);
+		for (int i = 0; i < streamed.length; i++) {
+			assertEquals(i + "_test@gmail.com", streamed[i].getCandidateEmail());
+			assertEquals("This is my resume " + i, streamed[i].getResumeText());
+		}
+	}
+    
+     /**
+  	 * Run the GET:/api/offers/{jobTitle}/applications test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 5: Nonexistent offer with the current entity tag, not found rather than not modified
+  	 */
+     @Test
+	public void testGETOfferApplications_5() throws Exception {
+		String jobTitle = String.valueOf(System.nanoTime());
+		storage.createOffer(new Offer(jobTitle, new Date(), 0));
+		storage.createApplication(new Application(jobTitle, "test@gmail.com", "This is my resume", Status.APPLIED));
+		String etag = this.restTemplate.getForEntity("/api/offers/{jobTitle}/applications", String.class, jobTitle)
+				.getHeaders().getETag();
+		assertNotNull(etag);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(etag);
+		ResponseEntity<String> result = this.restTemplate.exchange("/api/offers/{jobTitle}/applications", HttpMethod.GET
+				, new HttpEntity<Void>(headers), String.class, jobTitle + "_missing");
+		assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+	}
+    
+     /**
+  	 * Run the GET:/api/offers/{jobTitle}/applications test.
+  	 *
+  	 * @throws Exception
+  	 *
+  	 * Case 6: Job title in another case, matched ignoring case with and without the current entity tag
+  	 */
+     @Test
+	public void testGETOfferApplications_6() throws Exception {
+		String jobTitle = "Developer " + System.nanoTime();
+		storage.createOffer(new Offer(jobTitle, new Date(), 0));
+		storage.createApplication(new Application(jobTitle, "test@gmail.com", "This is my resume", Status.APPLIED));
+
+		ResponseEntity<String> result = this.restTemplate.getForEntity("/api/offers/{jobTitle}/applications", String.class
+				, jobTitle.toLowerCase());
+		assertEquals(HttpStatus.OK, result.getStatusCode());
+		assertEquals(1, new ObjectMapper().readValue(result.getBody(), Application[].class).length);
+		String etag = result.getHeaders().getETag();
+		assertNotNull(etag);
+
+		HttpHeaders headers = new HttpHeaders();
+		headers.setIfNoneMatch(etag);
+		result = this.restTemplate.exchange("/api/offers/{jobTitle}/applications", HttpMethod.GET
+				, new HttpEntity<Void>(headers), String.class, jobTitle.toUpperCase());
+		assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+	}
+    
   // **************************************** GET:/api/offers/{jobTitle}/applications-count **************************************** 
   	
      /**
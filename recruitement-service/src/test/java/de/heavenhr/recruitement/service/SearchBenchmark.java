@@ -0,0 +1,129 @@
+package de.heavenhr.recruitement.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import de.heavenhr.recruitement.service.dao.DAO;
+import de.heavenhr.recruitement.service.dao.StorageProperties;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>SearchBenchmark</code> measures the resume indexing rate of the <code>{@link DAO}</code> and the
+ * latency of resume searches, global and scoped to an offer.
+ * <p>
+ * Usage: <code>SearchBenchmark [applications] [queries]</code>. Resumes are generated from a vocabulary with a
+ * Zipf like distribution, so that some terms are in most resumes and most terms are rare, like in real texts.
+ * Resumes are generated before the measures, and the indexing rate is derived from the creation time of the
+ * same applications with and without resumes.
+ *
+ * @author Hossam Yahya
+ */
+public class SearchBenchmark {
+
+	private static final int OFFERS = 100;
+	private static final int VOCABULARY = 20000;
+	private static final int RESUME_TERMS = 120;
+	private static final int CHUNK_SIZE = 1000;
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of applications and the number of queries of each kind
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+		int applications = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		String[] words = new String[VOCABULARY];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = "term" + i;
+		}
+
+		Random random = new Random(42);
+		String[] resumes = new String[applications];
+		for (int i = 0; i < applications; i++) {
+			resumes[i] = resume(words, random);
+		}
+
+		System.out.println("applications: " + applications + ", queries: " + queries);
+		// Warm up the creation path before measuring
+		load(resumes, applications / 10, false).close();
+		load(resumes, applications / 10, true).close();
+
+		long withoutResumes = System.nanoTime();
+		load(resumes, applications, false).close();
+		withoutResumes = System.nanoTime() - withoutResumes;
+		long withResumes = System.nanoTime();
+		try (DAO dao = load(resumes, applications, true)) {
+			withResumes = System.nanoTime() - withResumes;
+			System.out.println(String.format("creation without resumes: %,10d applications/s", applications * TimeUnit.SECONDS.toNanos(1) / withoutResumes));
+			System.out.println(String.format("creation with resumes   : %,10d applications/s", applications * TimeUnit.SECONDS.toNanos(1) / withResumes));
+			System.out.println(String.format("resume storing and indexing: %,d resumes/s"
+					, applications * TimeUnit.SECONDS.toNanos(1) / Math.max(1, withResumes - withoutResumes)));
+
+			random = new Random(7);
+			search(dao, words, random, queries, false);
+			search(dao, words, random, queries, false);
+			search(dao, words, random, queries, true);
+		}
+	}
+
+	private static DAO load(String[] resumes, int applications, boolean withResumes) {
+		DAO dao = new DAO(new StorageProperties());
+		for (int o = 0; o < OFFERS; o++) {
+			dao.createOffer(new Offer("Offer " + o, new Date(), 0));
+		}
+		List<Application> chunk = new ArrayList<Application>(CHUNK_SIZE);
+		for (int i = 0; i < applications; i++) {
+			chunk.add(new Application("Offer " + (i % OFFERS), i + "@gmail.com", withResumes ? resumes[i] : null, Status.APPLIED));
+			if (chunk.size() == CHUNK_SIZE || i == applications - 1) {
+				dao.createApplications(chunk);
+				chunk.clear();
+			}
+		}
+		return dao;
+	}
+
+	private static String resume(String[] words, Random random) {
+		StringBuilder resume = new StringBuilder();
+		for (int t = 0; t < RESUME_TERMS; t++) {
+			resume.append(words[zipf(random)]).append(t % 12 == 11 ? ". " : " ");
+		}
+		return resume.toString();
+	}
+
+	/**
+	 * Draws a vocabulary rank, the rank r being about 1/r likely
+	 */
+	private static int zipf(Random random) {
+		return (int) Math.min(VOCABULARY - 1, Math.exp(random.nextDouble() * Math.log(VOCABULARY)) - 1);
+	}
+
+	private static void search(DAO dao, String[] words, Random random, int queries, boolean scoped) throws Exception {
+		long[] latencies = new long[queries];
+		long hits = 0;
+		for (int q = 0; q < queries; q++) {
+			String query = words[zipf(random)] + " " + words[zipf(random)];
+			String jobTitle = scoped ? "Offer " + random.nextInt(OFFERS) : null;
+			long start = System.nanoTime();
+			hits += dao.searchApplications(query, jobTitle, 10).size();
+			latencies[q] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		System.out.println(String.format("%-6s search, top 10: p50 %,8d us, p99 %,8d us, max %,8d us, hits/query %.1f"
+				, scoped ? "offer" : "global", TimeUnit.NANOSECONDS.toMicros(latencies[queries / 2])
+				, TimeUnit.NANOSECONDS.toMicros(latencies[queries * 99 / 100]), TimeUnit.NANOSECONDS.toMicros(latencies[queries - 1])
+				, (double) hits / queries));
+	}
+}
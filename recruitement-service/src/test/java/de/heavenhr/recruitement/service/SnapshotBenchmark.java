@@ -0,0 +1,89 @@
+package de.heavenhr.recruitement.service;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import de.heavenhr.recruitement.service.dao.DAO;
+import de.heavenhr.recruitement.service.dao.Journal;
+import de.heavenhr.recruitement.service.dao.StorageProperties;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>SnapshotBenchmark</code> measures the startup time of the <code>{@link DAO}</code> against the
+ * data size, when replaying the whole journal and when loading a snapshot.
+ * <p>
+ * Usage: <code>SnapshotBenchmark [applications...]</code>, for example <code>SnapshotBenchmark 1000000 10000000</code>
+ * with a heap large enough for the largest size. Each size is written to a fresh temporary directory.
+ *
+ * @author Hossam Yahya
+ */
+public class SnapshotBenchmark {
+
+	private static final int OFFERS = 1000;
+	private static final String RESUME = "Ten years of experience in building distributed systems, "
+			+ "leading teams and shipping products used by millions of people.";
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the numbers of applications to measure the startup time with
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+		String[] sizes = args.length > 0 ? args : new String[] { "1000000" };
+		for (String size : sizes) {
+			run(Integer.parseInt(size));
+		}
+	}
+
+	private static void run(int applications) throws Exception {
+		StorageProperties properties = new StorageProperties();
+		properties.setJournalDir(Files.createTempDirectory("snapshot-benchmark").toFile());
+		properties.setJournalDurability(Journal.Durability.ASYNC);
+		properties.setMode(StorageProperties.Mode.COLUMNAR);
+
+		try (DAO dao = new DAO(properties)) {
+			for (int o = 0; o < OFFERS; o++) {
+				dao.createOffer(new Offer("Offer " + o, new Date(), 0));
+			}
+			for (int i = 0; i < applications; i++) {
+				dao.createApplication(new Application("Offer " + (i % OFFERS), i + "@gmail.com", RESUME, Status.APPLIED));
+			}
+		}
+		long journalSize = size(properties.getJournalDir());
+
+		long start = System.nanoTime();
+		try (DAO dao = new DAO(properties)) {
+			long replayed = System.nanoTime() - start;
+			dao.snapshot();
+			System.out.println(String.format("%,12d applications, journal replay  : %,8d ms, %,6d MB"
+					, applications, TimeUnit.NANOSECONDS.toMillis(replayed), journalSize >> 20));
+		}
+		long snapshotSize = size(properties.getJournalDir());
+
+		System.gc();
+		start = System.nanoTime();
+		try (DAO dao = new DAO(properties)) {
+			long loaded = System.nanoTime() - start;
+			System.out.println(String.format("%,12d applications, snapshot load   : %,8d ms, %,6d MB"
+					, dao.getApplicationCount(), TimeUnit.NANOSECONDS.toMillis(loaded), snapshotSize >> 20));
+		}
+	}
+
+	private static long size(File directory) {
+		long size = 0;
+		for (File file : directory.listFiles()) {
+			size += file.length();
+		}
+		return size;
+	}
+}
@@ -0,0 +1,720 @@
+package de.heavenhr.recruitement.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import de.heavenhr.recruitement.service.dao.Page;
+import de.heavenhr.recruitement.service.dao.SearchHit;
+import de.heavenhr.recruitement.service.dao.StatusUpdate;
+import de.heavenhr.recruitement.service.dao.StorageEngine;
+import de.heavenhr.recruitement.service.exception.DataException;
+import de.heavenhr.recruitement.service.exception.NoDataFoundException;
+import de.heavenhr.recruitement.service.exception.VersionMismatchException;
+import de.heavenhr.recruitement.service.model.Application;
+import de.heavenhr.recruitement.service.model.Application.Status;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>StorageEngineConformanceTest</code> contains the tests every <code>{@link StorageEngine}</code>
+ * implementation must pass, and reports its write throughput. Each engine is tested by a subclass providing it.
+ * The engine may be shared with other tests, so every case works on offers of its own.
+ *
+ * @author Hossam Yahya
+ */
+public abstract class StorageEngineConformanceTest {
+
+	private static final int THREADS = 8;
+	private static final int APPLICATIONS_PER_THREAD = 250;
+
+	/**
+	 * @return the storage engine under test
+	 */
+	protected abstract StorageEngine getEngine();
+
+	private static Map<Status, Long> funnel(long applied, long invited, long rejected, long hired) {
+		Map<Status, Long> funnel = new EnumMap<Status, Long>(Status.class);
+		funnel.put(Status.APPLIED, applied);
+		funnel.put(Status.INVITED, invited);
+		funnel.put(Status.REJECTED, rejected);
+		funnel.put(Status.HIRED, hired);
+		return funnel;
+	}
+
+	private Offer newOffer() {
+		Offer offer = new Offer(getClass().getSimpleName() + " " + System.nanoTime(), new Date(), 0);
+		getEngine().createOffer(offer);
+		return offer;
+	}
+
+	// **************************************** Test offers ****************************************
+
+	/**
+	 * Run the offer creation and lookup test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: A created offer is found by its job title and listed
+	 */
+	@Test
+	public void testOffer_1() throws Exception {
+		Offer offer = newOffer();
+
+		Offer found = getEngine().findOfferByJobTitle(offer.getJobTitle());
+		assertEquals(offer.getJobTitle(), found.getJobTitle());
+		assertEquals(offer.getStartDate(), found.getStartDate());
+		assertEquals(0, found.getNumberOfApplications());
+
+		Collection<Offer> offers = getEngine().getAllOffers();
+		assertTrue(offers.stream().anyMatch(o -> o.getJobTitle().equals(offer.getJobTitle())));
+	}
+
+	/**
+	 * Run the offer creation test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: Duplicate and empty job titles are rejected
+	 */
+	@Test
+	public void testOffer_2() throws Exception {
+		Offer offer = newOffer();
+
+		try {
+			getEngine().createOffer(new Offer(offer.getJobTitle(), new Date(), 0));
+			fail("Duplicate offer created");
+		} catch (DataException e) {
+			// expected
+		}
+		try {
+			getEngine().createOffer(new Offer("", new Date(), 0));
+			fail("Offer without job title created");
+		} catch (DataException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Run the offer lookup test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: Nonexistent offer
+	 */
+	@Test(expected = NoDataFoundException.class)
+	public void testOffer_3() throws Exception {
+		getEngine().findOfferByJobTitle(String.valueOf(System.nanoTime()));
+	}
+
+	// **************************************** Test applications ****************************************
+
+	/**
+	 * Run the application creation and lookup test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Created applications are found, listed in creation order case insensitively and counted
+	 */
+	@Test
+	public void testApplication_1() throws Exception {
+		Offer offer = newOffer();
+		long count = countApplications();
+
+		getEngine().createApplication(new Application(offer.getJobTitle(), "first@gmail.com", "first resume", Status.APPLIED));
+		getEngine().createApplication(new Application(offer.getJobTitle(), "second@gmail.com", null, Status.INVITED));
+
+		Application found = getEngine().getOfferApplication(offer.getJobTitle(), "first@gmail.com");
+		assertEquals("first resume", found.getResumeText());
+		assertEquals(Status.APPLIED, found.getStatus());
+		assertNull(getEngine().getOfferApplication(offer.getJobTitle(), "second@gmail.com").getResumeText());
+
+		List<Application> applications = getEngine().getOfferApplications(offer.getJobTitle().toUpperCase());
+		assertEquals(2, applications.size());
+		assertEquals("first@gmail.com", applications.get(0).getCandidateEmail());
+		assertEquals("second@gmail.com", applications.get(1).getCandidateEmail());
+		assertEquals(2, getEngine().getOfferApplicationsCount(offer.getJobTitle().toLowerCase()));
+		assertEquals(2, getEngine().findOfferByJobTitle(offer.getJobTitle()).getNumberOfApplications());
+		assertEquals(count + 2, getEngine().getApplicationCount());
+	}
+
+	/**
+	 * Run the application creation test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: Duplicate applications, missing fields and nonexistent offers are rejected
+	 */
+	@Test
+	public void testApplication_2() throws Exception {
+		Offer offer = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "test@gmail.com", "resume text", Status.APPLIED));
+
+		try {
+			getEngine().createApplication(new Application(offer.getJobTitle(), "test@gmail.com", "resume text", Status.APPLIED));
+			fail("Duplicate application created");
+		} catch (DataException e) {
+			// expected
+		}
+		try {
+			getEngine().createApplication(new Application(offer.getJobTitle(), null, "resume text", Status.APPLIED));
+			fail("Application without candidate email created");
+		} catch (DataException e) {
+			// expected
+		}
+		try {
+			getEngine().createApplication(new Application(String.valueOf(System.nanoTime()), "test@gmail.com", "resume text", Status.APPLIED));
+			fail("Application without offer created");
+		} catch (NoDataFoundException e) {
+			// expected
+		}
+		assertEquals(1, getEngine().findOfferByJobTitle(offer.getJobTitle()).getNumberOfApplications());
+	}
+
+	/**
+	 * Run the application status update test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: The status is changed in place and counted by status
+	 */
+	@Test
+	public void testApplication_3() throws Exception {
+		Offer offer = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "test@gmail.com", "resume text", Status.APPLIED));
+		Map<Status, Long> countByStatus = getEngine().getApplicationCountByStatus();
+
+		getEngine().updateApplicationStatus(new Application(offer.getJobTitle(), "test@gmail.com", null, Status.HIRED));
+
+		Application found = getEngine().getOfferApplication(offer.getJobTitle(), "test@gmail.com");
+		assertEquals(Status.HIRED, found.getStatus());
+		assertEquals("resume text", found.getResumeText());
+		Map<Status, Long> updatedCountByStatus = getEngine().getApplicationCountByStatus();
+		assertTrue(updatedCountByStatus.get(Status.HIRED) >= countByStatus.get(Status.HIRED) + 1);
+	}
+
+	/**
+	 * Run the application status update test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 4: Nonexistent application
+	 */
+	@Test(expected = NoDataFoundException.class)
+	public void testApplication_4() throws Exception {
+		Offer offer = newOffer();
+		getEngine().updateApplicationStatus(new Application(offer.getJobTitle(), "test@gmail.com", null, Status.HIRED));
+	}
+
+	/**
+	 * Run the batch application creation test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 5: Each application of a batch gets its own result
+	 */
+	@Test
+	public void testApplication_5() throws Exception {
+		Offer offer = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "existing@gmail.com", "resume text", Status.APPLIED));
+
+		List<Exception> results = getEngine().createApplications(Arrays.asList(
+				new Application(offer.getJobTitle(), "first@gmail.com", "resume text", Status.APPLIED),
+				new Application(offer.getJobTitle(), "existing@gmail.com", "resume text", Status.APPLIED),
+				new Application(String.valueOf(System.nanoTime()), "first@gmail.com", "resume text", Status.APPLIED),
+				new Application(offer.getJobTitle(), "", "resume text", Status.APPLIED),
+				new Application(offer.getJobTitle(), "second@gmail.com", "resume text", Status.APPLIED),
+				new Application(offer.getJobTitle(), "second@gmail.com", "resume text", Status.APPLIED)));
+
+		assertNull(results.get(0));
+		assertTrue(results.get(1) instanceof DataException);
+		assertTrue(results.get(2) instanceof NoDataFoundException);
+		assertTrue(results.get(3) instanceof DataException);
+		assertNull(results.get(4));
+		assertTrue(results.get(5) instanceof DataException);
+		assertEquals(3, getEngine().getOfferApplicationsCount(offer.getJobTitle()));
+		assertEquals(3, getEngine().findOfferByJobTitle(offer.getJobTitle()).getNumberOfApplications());
+	}
+
+	/**
+	 * Run the bulk application status update test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 6: Each existing application is updated and reports its old status, missing ones are null
+	 */
+	@Test
+	public void testApplication_6() throws Exception {
+		Offer offer = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "first@gmail.com", "resume text", Status.APPLIED));
+		getEngine().createApplication(new Application(offer.getJobTitle(), "second@gmail.com", "resume text", Status.INVITED));
+
+		List<StatusUpdate> updates = getEngine().updateApplicationStatuses(Arrays.asList(
+				new Application(offer.getJobTitle(), "first@gmail.com", null, Status.REJECTED),
+				new Application(offer.getJobTitle(), "missing@gmail.com", null, Status.REJECTED),
+				new Application(offer.getJobTitle(), "second@gmail.com", null, Status.HIRED)));
+
+		assertEquals(3, updates.size());
+		assertEquals(Status.APPLIED, updates.get(0).getOldStatus());
+		assertEquals(Status.REJECTED, updates.get(0).getNewStatus());
+		assertNull(updates.get(1));
+		assertEquals(Status.INVITED, updates.get(2).getOldStatus());
+		assertEquals(Status.REJECTED, getEngine().getOfferApplication(offer.getJobTitle(), "first@gmail.com").getStatus());
+		assertEquals(Status.HIRED, getEngine().getOfferApplication(offer.getJobTitle(), "second@gmail.com").getStatus());
+	}
+
+	/**
+	 * Run the offer bulk application status update test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 7: Only the applications of the offer having the old status are updated, nonexistent offer
+	 */
+	@Test
+	public void testApplication_7() throws Exception {
+		Offer offer = newOffer();
+		Offer other = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "first@gmail.com", "resume text", Status.APPLIED));
+		getEngine().createApplication(new Application(offer.getJobTitle(), "second@gmail.com", "resume text", Status.INVITED));
+		getEngine().createApplication(new Application(offer.getJobTitle(), "third@gmail.com", "resume text", Status.APPLIED));
+		getEngine().createApplication(new Application(other.getJobTitle(), "first@gmail.com", "resume text", Status.APPLIED));
+
+		List<StatusUpdate> updates = getEngine().updateOfferApplicationStatuses(offer.getJobTitle(), Status.APPLIED, Status.REJECTED);
+
+		assertEquals(2, updates.size());
+		assertEquals("first@gmail.com", updates.get(0).getCandidateEmail());
+		assertEquals("third@gmail.com", updates.get(1).getCandidateEmail());
+		assertEquals(Status.REJECTED, getEngine().getOfferApplication(offer.getJobTitle(), "third@gmail.com").getStatus());
+		assertEquals(Status.INVITED, getEngine().getOfferApplication(offer.getJobTitle(), "second@gmail.com").getStatus());
+		assertEquals(Status.APPLIED, getEngine().getOfferApplication(other.getJobTitle(), "first@gmail.com").getStatus());
+
+		assertEquals(3, getEngine().updateOfferApplicationStatuses(offer.getJobTitle(), null, Status.HIRED).size());
+		try {
+			getEngine().updateOfferApplicationStatuses(String.valueOf(System.nanoTime()), null, Status.HIRED);
+			fail("Nonexistent offer updated");
+		} catch (NoDataFoundException e) {
+			// expected
+		}
+	}
+
+	// **************************************** Test versions ****************************************
+
+	/**
+	 * Run the version test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Offers and applications are created at version 1 and incremented as they change, like the
+	 * version of the engine
+	 */
+	@Test
+	public void testVersion_1() throws Exception {
+		long version = getEngine().getVersion();
+		Offer offer = newOffer();
+		assertEquals(1, getEngine().findOfferByJobTitle(offer.getJobTitle()).getVersion());
+		assertTrue(getEngine().getVersion() > version);
+
+		version = getEngine().getVersion();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "first@gmail.com", "resume text", Status.APPLIED));
+		getEngine().createApplications(Arrays.asList(new Application(offer.getJobTitle(), "second@gmail.com", "resume text", Status.APPLIED)));
+		assertEquals(3, getEngine().findOfferByJobTitle(offer.getJobTitle()).getVersion());
+		assertEquals(1, getEngine().getOfferApplication(offer.getJobTitle(), "first@gmail.com").getVersion());
+		assertTrue(getEngine().getVersion() > version);
+
+		version = getEngine().getVersion();
+		getEngine().updateApplicationStatus(new Application(offer.getJobTitle(), "first@gmail.com", null, Status.INVITED));
+		getEngine().updateApplicationStatuses(Arrays.asList(new Application(offer.getJobTitle(), "first@gmail.com", null, Status.HIRED)));
+		getEngine().updateOfferApplicationStatuses(offer.getJobTitle(), Status.APPLIED, Status.REJECTED);
+		assertEquals(3, getEngine().getOfferApplication(offer.getJobTitle(), "first@gmail.com").getVersion());
+		assertEquals(2, getEngine().getOfferApplications(offer.getJobTitle()).get(1).getVersion());
+		assertEquals(3, getEngine().findOfferByJobTitle(offer.getJobTitle()).getVersion());
+		assertTrue(getEngine().getVersion() > version);
+	}
+
+	/**
+	 * Run the conditional status update test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: The status is only changed at the expected version, returning the old status, and only one of
+	 * concurrent updates of the same version succeeds
+	 */
+	@Test
+	public void testCompareAndSet_1() throws Exception {
+		Offer offer = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "test@gmail.com", "resume text", Status.APPLIED));
+
+		Application invited = new Application(offer.getJobTitle(), "test@gmail.com", null, Status.INVITED);
+		StatusUpdate update = getEngine().compareAndSetApplicationStatus(invited, 1);
+		assertEquals(Status.APPLIED, update.getOldStatus());
+		assertEquals(Status.INVITED, update.getNewStatus());
+		assertEquals(2, invited.getVersion());
+		try {
+			getEngine().compareAndSetApplicationStatus(new Application(offer.getJobTitle(), "test@gmail.com", null, Status.HIRED), 1);
+			fail("Stale version updated");
+		} catch (VersionMismatchException e) {
+			assertEquals(2, e.getCurrentVersion());
+		}
+		assertEquals(Status.INVITED, getEngine().getOfferApplication(offer.getJobTitle(), "test@gmail.com").getStatus());
+		assertEquals(Status.INVITED, getEngine().compareAndSetApplicationStatus(new Application(offer.getJobTitle(), "test@gmail.com", null
+				, Status.REJECTED), StorageEngine.ANY_VERSION).getOldStatus());
+		try {
+			getEngine().compareAndSetApplicationStatus(new Application(offer.getJobTitle(), "other@gmail.com", null, Status.HIRED), 1);
+			fail("Nonexistent application updated");
+		} catch (NoDataFoundException e) {
+			// expected
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Boolean>> updates = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < THREADS; t++) {
+				updates.add(executor.submit(() -> {
+					try {
+						getEngine().compareAndSetApplicationStatus(new Application(offer.getJobTitle(), "test@gmail.com", null, Status.HIRED), 3);
+						return true;
+					} catch (VersionMismatchException e) {
+						return false;
+					}
+				}));
+			}
+			int succeeded = 0;
+			for (Future<Boolean> result : updates) {
+				succeeded += result.get() ? 1 : 0;
+			}
+			assertEquals(1, succeeded);
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(funnel(0, 0, 0, 1), getEngine().getOfferApplicationCountByStatus(offer.getJobTitle()));
+	}
+
+	// **************************************** Test funnels ****************************************
+
+	/**
+	 * Run the offer funnel test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Created applications and every kind of status update move the counts of their offer only
+	 */
+	@Test
+	public void testFunnel_1() throws Exception {
+		Offer offer = newOffer();
+		Offer other = newOffer();
+		assertEquals(funnel(0, 0, 0, 0), getEngine().getOfferApplicationCountByStatus(offer.getJobTitle()));
+
+		getEngine().createApplication(new Application(offer.getJobTitle(), "first@gmail.com", "resume text", Status.APPLIED));
+		getEngine().createApplications(Arrays.asList(
+				new Application(offer.getJobTitle(), "second@gmail.com", "resume text", Status.APPLIED),
+				new Application(offer.getJobTitle(), "third@gmail.com", "resume text", Status.INVITED),
+				new Application(offer.getJobTitle(), "first@gmail.com", "resume text", Status.HIRED),
+				new Application(other.getJobTitle(), "first@gmail.com", "resume text", Status.APPLIED)));
+		assertEquals(funnel(2, 1, 0, 0), getEngine().getOfferApplicationCountByStatus(offer.getJobTitle()));
+
+		getEngine().updateApplicationStatus(new Application(offer.getJobTitle(), "first@gmail.com", null, Status.INVITED));
+		getEngine().updateApplicationStatus(new Application(offer.getJobTitle(), "first@gmail.com", null, Status.INVITED));
+		getEngine().updateApplicationStatuses(Arrays.asList(new Application(offer.getJobTitle(), "second@gmail.com", null, Status.REJECTED)));
+		getEngine().updateOfferApplicationStatuses(offer.getJobTitle(), Status.INVITED, Status.HIRED);
+		assertEquals(funnel(0, 0, 1, 2), getEngine().getOfferApplicationCountByStatus(offer.getJobTitle()));
+
+		Map<String, Map<Status, Long>> funnels = getEngine().getOfferApplicationCountsByStatus();
+		assertEquals(funnel(0, 0, 1, 2), funnels.get(offer.getJobTitle()));
+		assertEquals(funnel(1, 0, 0, 0), funnels.get(other.getJobTitle()));
+	}
+
+	/**
+	 * Run the offer funnel test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: Nonexistent offer
+	 */
+	@Test(expected = NoDataFoundException.class)
+	public void testFunnel_2() throws Exception {
+		getEngine().getOfferApplicationCountByStatus(String.valueOf(System.nanoTime()));
+	}
+
+	// **************************************** Test pages ****************************************
+
+	/**
+	 * Run the offer pagination test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Walking the pages lists every offer once, ordered by job title
+	 */
+	@Test
+	public void testPage_1() throws Exception {
+		Offer first = newOffer();
+		Offer second = newOffer();
+
+		List<String> jobTitles = new ArrayList<String>();
+		String after = null;
+		do {
+			Page<Offer> page = getEngine().getOffers(after, 2);
+			assertTrue(page.getItems().size() <= 2);
+			page.getItems().forEach(offer -> jobTitles.add(offer.getJobTitle()));
+			after = page.getNext();
+		} while (after != null);
+
+		List<String> sorted = new ArrayList<String>(jobTitles);
+		sorted.sort(null);
+		assertEquals(sorted, jobTitles);
+		assertEquals(jobTitles.size(), jobTitles.stream().distinct().count());
+		assertTrue(jobTitles.contains(first.getJobTitle()));
+		assertTrue(jobTitles.contains(second.getJobTitle()));
+	}
+
+	/**
+	 * Run the application pagination test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: Pages of applications are in creation order and stay stable while applications are created
+	 */
+	@Test
+	public void testPage_2() throws Exception {
+		Offer offer = newOffer();
+		for (int i = 0; i < 5; i++) {
+			getEngine().createApplication(new Application(offer.getJobTitle(), i + "@gmail.com", "resume text", Status.APPLIED));
+		}
+
+		Page<Application> page = getEngine().getOfferApplications(offer.getJobTitle().toUpperCase(), null, 2);
+		assertEquals(Arrays.asList("0@gmail.com", "1@gmail.com"), emails(page));
+		assertNotNull(page.getNext());
+
+		getEngine().createApplication(new Application(offer.getJobTitle(), "5@gmail.com", "resume text", Status.APPLIED));
+		page = getEngine().getOfferApplications(offer.getJobTitle(), page.getNext(), 3);
+		assertEquals(Arrays.asList("2@gmail.com", "3@gmail.com", "4@gmail.com"), emails(page));
+
+		page = getEngine().getOfferApplications(offer.getJobTitle(), page.getNext(), 3);
+		assertEquals(Arrays.asList("5@gmail.com"), emails(page));
+		assertNull(page.getNext());
+	}
+
+	/**
+	 * Run the pagination test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 3: Invalid limits and cursors are rejected
+	 */
+	@Test
+	public void testPage_3() throws Exception {
+		Offer offer = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "test@gmail.com", "resume text", Status.APPLIED));
+
+		for (int limit : new int[] { 0, -1, Page.MAX_LIMIT + 1 }) {
+			try {
+				getEngine().getOfferApplications(offer.getJobTitle(), null, limit);
+				fail("Invalid limit accepted: " + limit);
+			} catch (DataException e) {
+				// expected
+			}
+		}
+		try {
+			getEngine().getOfferApplications(offer.getJobTitle(), "not a cursor", 10);
+			fail("Invalid cursor accepted");
+		} catch (DataException e) {
+			// expected
+		}
+		try {
+			getEngine().getOffers("%%", 10);
+			fail("Invalid cursor accepted");
+		} catch (DataException e) {
+			// expected
+		}
+	}
+
+	// **************************************** Test search ****************************************
+
+	/**
+	 * Run the resume search test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Matching resumes are ranked by relevance, within an offer or globally
+	 */
+	@Test
+	public void testSearch_1() throws Exception {
+		// Terms of their own, the engine may be shared with other tests
+		String java = "java" + System.nanoTime();
+		String kafka = "kafka" + System.nanoTime();
+		Offer offer = newOffer();
+		Offer other = newOffer();
+		getEngine().createApplication(new Application(offer.getJobTitle(), "first@gmail.com"
+				, "Seasoned engineer writing " + java + " services, " + java.toUpperCase() + " and " + kafka + " every day", Status.APPLIED));
+		getEngine().createApplication(new Application(offer.getJobTitle(), "second@gmail.com"
+				, "Chef turned developer, I learned " + java + " in a bootcamp after years of cooking in restaurants", Status.APPLIED));
+		getEngine().createApplication(new Application(offer.getJobTitle(), "third@gmail.com", "Operations of " + kafka + " clusters", Status.APPLIED));
+		getEngine().createApplication(new Application(offer.getJobTitle(), "fourth@gmail.com", null, Status.APPLIED));
+		getEngine().createApplication(new Application(other.getJobTitle(), "first@gmail.com", "Some " + java, Status.APPLIED));
+
+		List<SearchHit> hits = getEngine().searchApplications(java, offer.getJobTitle(), 10);
+		assertEquals(Arrays.asList("first@gmail.com", "second@gmail.com"), emails(hits));
+		assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+		hits = getEngine().searchApplications("the " + kafka + ", " + java.toUpperCase(), offer.getJobTitle(), 10);
+		assertEquals(Arrays.asList("first@gmail.com", "third@gmail.com", "second@gmail.com"), emails(hits));
+		assertEquals(1, getEngine().searchApplications(java, offer.getJobTitle(), 1).size());
+
+		hits = getEngine().searchApplications(java, null, 10);
+		assertEquals(3, hits.size());
+		assertTrue(hits.stream().anyMatch(hit -> hit.getApplication().getJobTitle().equals(other.getJobTitle())));
+	}
+
+	/**
+	 * Run the resume search test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: Queries without keywords and nonexistent offers
+	 */
+	@Test
+	public void testSearch_2() throws Exception {
+		try {
+			getEngine().searchApplications("the, a & of", null, 10);
+			fail("Query without keyword accepted");
+		} catch (DataException e) {
+			// expected
+		}
+		try {
+			getEngine().searchApplications("java", String.valueOf(System.nanoTime()), 10);
+			fail("Nonexistent offer searched");
+		} catch (NoDataFoundException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Run the job title autocompletion test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Prefixes match ignoring case, the closest titles first, typos are tolerated within the edits
+	 */
+	@Test
+	public void testSuggest_1() throws Exception {
+		// A prefix of its own, the engine may be shared with other tests
+		String prefix = "suggest" + System.nanoTime();
+		String developer = prefix + " Java Developer";
+		String upperDeveloper = prefix + " JAVA Developer";
+		String architect = prefix.toUpperCase() + " java architect";
+		for (String jobTitle : Arrays.asList(developer, architect, upperDeveloper, prefix + " Kotlin Developer")) {
+			getEngine().createOffer(new Offer(jobTitle, new Date(), 0));
+		}
+
+		assertEquals(Arrays.asList(architect, upperDeveloper, developer), getEngine().suggestJobTitles(prefix + " java", 0, 10));
+		assertEquals(Arrays.asList(architect, upperDeveloper), getEngine().suggestJobTitles(prefix.toUpperCase() + " JAVA", 0, 2));
+		assertEquals(Arrays.asList(upperDeveloper, developer, architect), getEngine().suggestJobTitles(prefix + " java d", 2, 10));
+		assertTrue(getEngine().suggestJobTitles(prefix + " jeva", 0, 10).isEmpty());
+		assertEquals(Arrays.asList(architect, upperDeveloper, developer), getEngine().suggestJobTitles(prefix + " jeva", 1, 10));
+	}
+
+	/**
+	 * Run the job title autocompletion test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 2: Missing prefixes and invalid edits
+	 */
+	@Test
+	public void testSuggest_2() throws Exception {
+		try {
+			getEngine().suggestJobTitles(null, 0, 10);
+			fail("Missing prefix accepted");
+		} catch (DataException e) {
+			// expected
+		}
+		try {
+			getEngine().suggestJobTitles("java", 3, 10);
+			fail("Too many edits accepted");
+		} catch (DataException e) {
+			// expected
+		}
+	}
+
+	// **************************************** Test throughput ****************************************
+
+	/**
+	 * Run the concurrent application creation test.
+	 *
+	 * @throws Exception
+	 *
+	 * Case 1: Concurrent single and batch creations are all counted, the throughput is reported
+	 */
+	@Test
+	public void testThroughput_1() throws Exception {
+		Offer offer = newOffer();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			long start = System.nanoTime();
+			List<Future<?>> writers = new ArrayList<Future<?>>();
+			for (int t = 0; t < THREADS; t++) {
+				int thread = t;
+				writers.add(executor.submit(() -> {
+					for (int i = 0; i < APPLICATIONS_PER_THREAD; i++) {
+						getEngine().createApplication(new Application(offer.getJobTitle(), thread + "-" + i + "@gmail.com", "resume text", Status.APPLIED));
+					}
+					return null;
+				}));
+			}
+			for (Future<?> writer : writers) {
+				writer.get();
+			}
+			long single = System.nanoTime() - start;
+
+			List<Application> batch = new ArrayList<Application>();
+			for (int i = 0; i < THREADS * APPLICATIONS_PER_THREAD; i++) {
+				batch.add(new Application(offer.getJobTitle(), "batch-" + i + "@gmail.com", "resume text", Status.APPLIED));
+			}
+			start = System.nanoTime();
+			for (int i = 0; i < batch.size(); i += 100) {
+				getEngine().createApplications(batch.subList(i, i + 100));
+			}
+			long batched = System.nanoTime() - start;
+
+			int applications = THREADS * APPLICATIONS_PER_THREAD;
+			assertEquals(2 * applications, getEngine().getOfferApplicationsCount(offer.getJobTitle()));
+			assertEquals(2 * applications, getEngine().findOfferByJobTitle(offer.getJobTitle()).getNumberOfApplications());
+
+			System.out.println(String.format("%s: %,d single creations/s with %d threads, %,d batched creations/s"
+					, getClass().getSimpleName(), applications * TimeUnit.SECONDS.toNanos(1) / single, THREADS
+					, applications * TimeUnit.SECONDS.toNanos(1) / batched));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static List<String> emails(Page<Application> page) {
+		List<String> emails = new ArrayList<String>();
+		page.getItems().forEach(application -> emails.add(application.getCandidateEmail()));
+		return emails;
+	}
+
+	private static List<String> emails(List<SearchHit> hits) {
+		List<String> emails = new ArrayList<String>();
+		hits.forEach(hit -> emails.add(hit.getApplication().getCandidateEmail()));
+		return emails;
+	}
+
+	private long countApplications() {
+		try {
+			return getEngine().getApplicationCount();
+		} catch (NoDataFoundException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package de.heavenhr.recruitement.service;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import de.heavenhr.recruitement.service.dao.DAO;
+import de.heavenhr.recruitement.service.dao.StorageProperties;
+import de.heavenhr.recruitement.service.model.Offer;
+
+/**
+ * The class <code>SuggestBenchmark</code> measures the latency of the job title autocompletion of the
+ * <code>{@link DAO}</code>, with exact prefixes and with prefixes having a typo.
+ * <p>
+ * Usage: <code>SuggestBenchmark [offers] [queries]</code>. Job titles are combinations of seniorities,
+ * technologies, roles and cities, and queries are the first characters of random job titles, typed lower cased.
+ * The number of edits tolerated grows with the length of the prefix like the <code>/api/offers/suggest</code>
+ * default.
+ *
+ * @author Hossam Yahya
+ */
+public class SuggestBenchmark {
+
+	private static final String[] SENIORITIES = { "Junior", "Senior", "Lead", "Principal", "Staff", "Head of", "Intern" };
+	private static final String[] TECHNOLOGIES = { "Java", "Kotlin", "Python", "Go", "Rust", "Scala", "JavaScript"
+			, "TypeScript", "React", "Angular", "Data", "Cloud", "Security", "Mobile", "iOS", "Android", "Platform"
+			, "Backend", "Frontend", "Fullstack", "Machine Learning", "DevOps", "QA", "Embedded", "Database" };
+	private static final String[] ROLES = { "Developer", "Engineer", "Architect", "Consultant", "Analyst", "Manager"
+			, "Tester", "Administrator", "Scientist", "Specialist" };
+	private static final String[] CITIES = { "Berlin", "Hamburg", "Munich", "Cologne", "Frankfurt", "Stuttgart"
+			, "Leipzig", "Dresden", "Remote" };
+	private static final int LIMIT = 10;
+
+	/**
+	 * Launch the benchmark.
+	 *
+	 * @param args the number of offers and the number of queries of each kind
+	 *
+	 */
+	public static void main(String[] args) throws Exception {
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+		int offers = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		Random random = new Random(42);
+		String[] jobTitles = new String[offers];
+
+		try (DAO dao = new DAO(new StorageProperties())) {
+			long start = System.nanoTime();
+			for (int o = 0; o < offers; o++) {
+				jobTitles[o] = SENIORITIES[random.nextInt(SENIORITIES.length)] + " " + TECHNOLOGIES[random.nextInt(TECHNOLOGIES.length)]
+						+ " " + ROLES[random.nextInt(ROLES.length)] + " " + CITIES[random.nextInt(CITIES.length)] + " " + o;
+				dao.createOffer(new Offer(jobTitles[o], new Date(), 0));
+			}
+			long elapsed = System.nanoTime() - start;
+			System.out.println(String.format("offers: %,d, created %,d offers/s, queries: %,d", offers, offers * TimeUnit.SECONDS.toNanos(1) / elapsed, queries));
+
+			// Warm up before measuring
+			suggest(dao, jobTitles, random, queries, false, false);
+			suggest(dao, jobTitles, random, queries, true, false);
+			suggest(dao, jobTitles, random, queries, false, true);
+			suggest(dao, jobTitles, random, queries, true, true);
+		}
+	}
+
+	private static void suggest(DAO dao, String[] jobTitles, Random random, int queries, boolean typo, boolean report) {
+		long[] latencies = new long[queries];
+		long hits = 0;
+		for (int q = 0; q < queries; q++) {
+			char[] prefix = jobTitles[random.nextInt(jobTitles.length)].substring(0, 1 + random.nextInt(12)).toLowerCase().toCharArray();
+			if (typo && prefix.length > 3) {
+				prefix[1 + random.nextInt(prefix.length - 1)] = (char) ('a' + random.nextInt(26));
+			}
+			int maxEdits = prefix.length < 3 ? 0 : prefix.length < 6 ? 1 : 2;
+			long start = System.nanoTime();
+			hits += dao.suggestJobTitles(new String(prefix), maxEdits, LIMIT).size();
+			latencies[q] = System.nanoTime() - start;
+		}
+		if (!report) {
+			return;
+		}
+		Arrays.sort(latencies);
+		System.out.println(String.format("%-6s prefixes, top %d: p50 %,6d us, p99 %,6d us, max %,6d us, hits/query %.1f"
+				, typo ? "typo" : "exact", LIMIT, TimeUnit.NANOSECONDS.toMicros(latencies[queries / 2])
+				, TimeUnit.NANOSECONDS.toMicros(latencies[queries * 99 / 100]), TimeUnit.NANOSECONDS.toMicros(latencies[queries - 1])
+				, (double) hits / queries));
+	}
+}
@@ -14,6 +14,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 	DAOTest.class,ApplicationControllerTest.class, OfferControllerTest.class
+	, DAOConformanceTest.class, JdbcDAOConformanceTest.class
 })
 public class TestAll {
 